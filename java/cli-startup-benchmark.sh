@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+#
+# Compares the wall clock time of a CLI invocation launched with the plain
+# jar on the current JDK against the runtime image built by
+#
+#   mvn -B package -Pruntime-image
+#
+# with and without its AppCDS archive.
+#
+# usage: cli-startup-benchmark.sh [-n <runs, defaults to 10>] [<verb> (<arguments>)]
+#        the verb defaults to 'find credentialstore-startup-benchmark generic'
+#
+set -euo pipefail
+
+cd "$(dirname "$0")"
+CLI_TARGET=credentialstore-cli/target
+JAR="$CLI_TARGET/credentialstore-cli-1.0-SNAPSHOT.jar"
+IMAGE="$CLI_TARGET/runtime-image"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+RUNS=10
+if [ "${1:-}" = "-n" ]; then
+    RUNS="$2"
+    shift 2
+fi
+if [ $# -eq 0 ]; then
+    set -- find credentialstore-startup-benchmark generic
+fi
+
+if [ ! -f "$JAR" ] || [ ! -d "$CLI_TARGET/lib" ] || [ ! -x "$IMAGE/bin/credentialstore-cli" ]; then
+    echo "runtime image not found, build it with: mvn -B package -Pruntime-image" >&2
+    exit 1
+fi
+
+# runs "$@" RUNS times after one discarded run, printing min, median and mean in milliseconds
+measure() {
+    local label="$1"
+    shift
+    "$@" > /dev/null 2>&1 || true
+    local times=()
+    for ((i = 0; i < RUNS; i++)); do
+        local started
+        started=$(date +%s%N)
+        "$@" > /dev/null 2>&1 || true
+        times+=($(( ($(date +%s%N) - started) / 1000000 )))
+    done
+    printf '%s\n' "${times[@]}" | sort -n | awk -v label="$label" '
+        { values[NR] = $1; total += $1 }
+        END { printf "%-28s min %6d ms   median %6d ms   mean %8.1f ms\n", label, values[1], values[int((NR + 1) / 2)], total / NR }'
+}
+
+echo "$RUNS runs of: $*"
+measure "plain jar" "$JAVA" -jar "$JAR" "$@"
+CREDENTIALSTORE_CLI_OPTS="-XX:SharedArchiveFile=$(cd "$IMAGE" && pwd -P)/lib/server/classes.jsa" \
+    measure "runtime image" "$IMAGE/bin/credentialstore-cli" "$@"
+measure "runtime image with AppCDS" "$IMAGE/bin/credentialstore-cli" "$@"
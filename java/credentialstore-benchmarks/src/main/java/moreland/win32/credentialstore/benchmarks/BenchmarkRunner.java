@@ -0,0 +1,62 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count with the GC profiler
+ * enabled so allocation per operation ({@code gc.alloc.rate.norm}) is
+ * reported alongside throughput.
+ * <p>
+ * Thread counts are taken from the {@code benchmark.threads} system
+ * property (default {@code 1,2,4,8}), any arguments are passed to JMH as
+ * regular command line options, e.g. {@code -p storeSize=100000 Find}.
+ */
+public final class BenchmarkRunner {
+
+    private static final String THREADS_PROPERTY = "benchmark.threads";
+    private static final String DEFAULT_THREADS = "1,2,4,8";
+
+    private BenchmarkRunner() {
+    }
+
+    @SuppressWarnings({"java:S106"})
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var commandLineOptions = new CommandLineOptions(args);
+        var threadCounts = Arrays.stream(System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+        for (var threads : threadCounts) {
+            System.out.println(String.format("# running benchmarks with %d thread(s)", threads));
+            var options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(String.format("jmh-result-%dt.json", threads))
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
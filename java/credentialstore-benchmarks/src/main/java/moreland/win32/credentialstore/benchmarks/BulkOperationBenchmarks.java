@@ -0,0 +1,96 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import moreland.win32.credentialstore.BulkResult;
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialManager;
+
+/**
+ * writing {@code batchSize} credentials one call at a time compared to a
+ * single {@code addAll}, sequentially and fanned out over four threads
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BulkOperationBenchmarks {
+
+    @Param({"1000"})
+    private int batchSize;
+
+    @Param({"512"})
+    private int blobSize;
+
+    private CredentialManager credentialManager;
+    private List<Credential> credentials;
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        credentialManager = new EmulatedCredentialStore().credentialManager();
+        var secret = EmulatedCredentialStore.secretOfSize(blobSize);
+        credentials = IntStream.range(0, batchSize)
+            .mapToObj(i -> EmulatedCredentialStore.credentialFor(i, secret))
+            .collect(Collectors.toList());
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int addEach() {
+        var added = 0;
+        for (var credential : credentials) {
+            if (credentialManager.add(credential)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Benchmark
+    public BulkResult<Credential> addAll() {
+        return credentialManager.addAll(credentials);
+    }
+
+    @Benchmark
+    public BulkResult<Credential> addAllParallel() {
+        return credentialManager.addAll(credentials, executor);
+    }
+}
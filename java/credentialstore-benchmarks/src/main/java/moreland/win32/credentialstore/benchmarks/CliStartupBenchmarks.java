@@ -0,0 +1,98 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import moreland.win32.credentialstore.ServiceConfiguration;
+import moreland.win32.credentialstore.cli.Application;
+
+/**
+ * Time from launching {@code credentialstore-cli} in a new JVM until the
+ * first byte of its output, started through {@code CompositionRoot}
+ * ({@code composition}) or the Spring application context ({@code spring}).
+ * <p>
+ * The CLI runs against {@code EmulatedAdvapi32Library} so no Windows host
+ * is required; {@code find} looks up a missing credential by id and type
+ * so both verbs print a single line. The CLI is started with the class path
+ * of this JVM unless {@code benchmark.cli.classpath} is set, run with
+ * {@code -Dbenchmark.threads=1} so launches do not overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class CliStartupBenchmarks {
+
+    private static final String CLASSPATH_PROPERTY = "benchmark.cli.classpath";
+
+    @Param({"composition", "spring"})
+    public String bootstrap;
+
+    @Param({"list", "find"})
+    public String verb;
+
+    private List<String> command;
+
+    @Setup
+    public void setup() {
+        command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty(CLASSPATH_PROPERTY, System.getProperty("java.class.path")));
+        command.add("-D" + ServiceConfiguration.ADVAPI32_PROPERTY + "=" + ServiceConfiguration.ADVAPI32_EMULATED);
+        command.add("-D" + Application.SPRING_BOOTSTRAP_PROPERTY + "=" + "spring".equals(bootstrap));
+        command.add(Application.class.getName());
+        if ("find".equals(verb)) {
+            command.addAll(List.of("find", "missing", "generic"));
+        } else {
+            command.add("list");
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstOutput() throws IOException, InterruptedException {
+        var process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try (var output = process.getInputStream()) {
+            var first = output.read();
+            if (first < 0) {
+                throw new IllegalStateException("credentialstore-cli exited without output");
+            }
+            output.transferTo(OutputStream.nullOutputStream());
+            process.waitFor();
+            return first;
+        } finally {
+            process.destroy();
+        }
+    }
+}
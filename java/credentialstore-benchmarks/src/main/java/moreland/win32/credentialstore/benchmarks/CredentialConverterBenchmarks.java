@@ -0,0 +1,64 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.converters.Win32CredentialConverter;
+
+/**
+ * {@code Win32CredentialConverter} round trip: entity to native structure,
+ * through native memory and back to an entity
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CredentialConverterBenchmarks {
+
+    @Param({"16", "512", "2560"})
+    private int blobSize;
+
+    private Win32CredentialConverter credentialConverter;
+    private Credential credential;
+
+    @Setup
+    public void setup() {
+        credentialConverter = new Win32CredentialConverter();
+        credential = EmulatedCredentialStore.credentialFor(0, EmulatedCredentialStore.secretOfSize(blobSize));
+    }
+
+    @Benchmark
+    public Optional<Credential> roundTrip() {
+        var internal = credentialConverter.toInternalCredentialReference(credential).orElseThrow();
+        internal.write();
+        var decoded = new moreland.win32.credentialstore.structures.Credential(internal.getPointer());
+        return credentialConverter.fromInternalCredential(decoded);
+    }
+}
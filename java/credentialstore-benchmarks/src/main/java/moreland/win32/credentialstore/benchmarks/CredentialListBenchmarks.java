@@ -0,0 +1,97 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.internal.CredentialList;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.EnumerateFlag;
+
+/**
+ * {@code CredentialList} construction over a single enumeration buffer of
+ * {@code storeSize} credentials, the buffer is reused by every invocation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CredentialListBenchmarks {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int storeSize;
+
+    @Param({"16", "2560"})
+    private int blobSize;
+
+    private EmulatedAdvapi32Library advapi32;
+    private Pointer credentials;
+    private int count;
+
+    @Setup
+    public void setup() {
+        var store = new EmulatedCredentialStore().populate(storeSize, blobSize);
+        advapi32 = store.advapi32();
+
+        var countRef = new IntByReference();
+        var credentialsRef = new PointerByReference();
+        advapi32.CredEnumerateW(null, EnumerateFlag.NONE.getValue(), countRef, credentialsRef);
+        credentials = credentialsRef.getValue();
+        count = countRef.getValue();
+    }
+
+    @TearDown
+    public void tearDown() {
+        advapi32.CredFree(credentials);
+    }
+
+    /**
+     * builds the list and visits every element, the list is not closed
+     * as the buffer is shared between invocations
+     */
+    @Benchmark
+    public void constructAndIterate(Blackhole blackhole) {
+        var list = new CredentialList(credentials, count, advapi32);
+        for (var credential : list) {
+            blackhole.consume(credential);
+        }
+    }
+
+    /**
+     * builds the list and consumes only the first element
+     */
+    @Benchmark
+    public Object constructAndFindFirst() {
+        return new CredentialList(credentials, count, advapi32).stream().findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,120 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
+import moreland.win32.credentialstore.CredentialManager;
+import moreland.win32.credentialstore.CredentialType;
+
+/**
+ * {@code Win32CredentialManager} hot paths against a store of
+ * {@code storeSize} credentials with {@code blobSize} byte secrets
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CredentialManagerBenchmarks {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int storeSize;
+
+    @Param({"16", "512", "2560"})
+    private int blobSize;
+
+    private CredentialManager credentialManager;
+    private String secret;
+
+    @Setup
+    public void setup() {
+        var store = new EmulatedCredentialStore().populate(storeSize, blobSize);
+        credentialManager = store.credentialManager();
+        secret = EmulatedCredentialStore.secretOfSize(blobSize);
+    }
+
+    @Benchmark
+    public Optional<Credential> find() {
+        var index = ThreadLocalRandom.current().nextInt(storeSize);
+        return credentialManager.find(EmulatedCredentialStore.targetFor(index), CredentialType.GENERIC);
+    }
+
+    @Benchmark
+    public List<Credential> getAll() {
+        return credentialManager.getAll();
+    }
+
+    /**
+     * streams every credential through {@code publishAll}, consuming each
+     * one as it is delivered rather than holding the full list
+     */
+    @Benchmark
+    public void publishAll(Blackhole blackhole) {
+        credentialManager.publishAll().subscribe(new Flow.Subscriber<Credential>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Credential item) {
+                blackhole.consume(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                // ... nothing to do, every credential has been consumed ...
+            }
+        });
+    }
+
+    @Benchmark
+    public List<CredentialDescriptor> getAllDescriptors() {
+        return credentialManager.getAllDescriptors();
+    }
+
+    /**
+     * overwrites an existing credential, the write path shared by add and update
+     */
+    @Benchmark
+    public boolean add() {
+        var index = ThreadLocalRandom.current().nextInt(storeSize);
+        return credentialManager.add(EmulatedCredentialStore.credentialFor(index, secret));
+    }
+}
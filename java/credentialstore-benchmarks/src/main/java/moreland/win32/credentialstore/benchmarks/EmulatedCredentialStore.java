@@ -0,0 +1,98 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.helpers.NOPLogger;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialFlag;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.Win32CredentialManager;
+import moreland.win32.credentialstore.converters.Win32CredentialConverter;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.Win32CriticalCredentialHandleFactory;
+import moreland.win32.credentialstore.internal.Win32ErrorToStringService;
+import moreland.win32.credentialstore.internal.Win32NativeInteropBridge;
+
+/**
+ * Credential service wired against {@code EmulatedAdvapi32Library} so the
+ * benchmarks run on any host
+ */
+final class EmulatedCredentialStore {
+
+    private static final String TARGET_PREFIX = "benchmark/target-";
+
+    private final EmulatedAdvapi32Library advapi32;
+    private final Win32NativeInteropBridge nativeInteropBridge;
+    private final Win32CredentialConverter credentialConverter;
+    private final Win32CredentialManager credentialManager;
+
+    EmulatedCredentialStore() {
+        var logger = NOPLogger.NOP_LOGGER;
+        var errorToStringService = new Win32ErrorToStringService();
+
+        advapi32 = new EmulatedAdvapi32Library();
+        nativeInteropBridge = new Win32NativeInteropBridge(advapi32,
+            new Win32CriticalCredentialHandleFactory(advapi32, errorToStringService, logger));
+        credentialConverter = new Win32CredentialConverter();
+        credentialManager = new Win32CredentialManager(nativeInteropBridge, credentialConverter, errorToStringService, logger);
+    }
+
+    /**
+     * adds {@code size} generic credentials each with a blob of {@code blobSize} bytes
+     */
+    EmulatedCredentialStore populate(int size, int blobSize) {
+        var secret = secretOfSize(blobSize);
+        for (int i = 0; i < size; i++) {
+            if (!credentialManager.add(credentialFor(i, secret))) {
+                throw new IllegalStateException("unable to populate credential " + i);
+            }
+        }
+        return this;
+    }
+
+    EmulatedAdvapi32Library advapi32() {
+        return advapi32;
+    }
+
+    Win32NativeInteropBridge nativeInteropBridge() {
+        return nativeInteropBridge;
+    }
+
+    Win32CredentialConverter credentialConverter() {
+        return credentialConverter;
+    }
+
+    Win32CredentialManager credentialManager() {
+        return credentialManager;
+    }
+
+    static String targetFor(int index) {
+        return TARGET_PREFIX + index;
+    }
+
+    static Credential credentialFor(int index, String secret) {
+        return new Credential(targetFor(index), "user-" + index, secret, CredentialFlag.NONE,
+            CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+    }
+
+    /**
+     * secret which encodes to {@code blobSize} bytes of UTF-16LE
+     */
+    static String secretOfSize(int blobSize) {
+        return "s".repeat(Math.max(0, blobSize / 2));
+    }
+}
@@ -0,0 +1,86 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialManager;
+
+/**
+ * Filtered lookups with the filter passed to CredEnumerateW compared to
+ * {@code fullScan}, which enumerates and converts every credential before
+ * filtering in Java as {@code find(filter, false)} previously did
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilterPushdownBenchmarks {
+
+    @Param({"50000"})
+    private int storeSize;
+
+    @Param({"512"})
+    private int blobSize;
+
+    private CredentialManager credentialManager;
+
+    @Setup
+    public void setup() {
+        credentialManager = new EmulatedCredentialStore().populate(storeSize, blobSize).credentialManager();
+    }
+
+    @Benchmark
+    public List<Credential> fullScan() {
+        var target = randomTarget();
+        return credentialManager.findMatching("*")
+            .stream()
+            .filter(c -> c.getId().equalsIgnoreCase(target))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Credential> exactMatch() {
+        return credentialManager.find(randomTarget(), false);
+    }
+
+    /**
+     * prefix matching at most eleven credentials, e.g. target-4999 and target-49990..49999
+     */
+    @Benchmark
+    public List<Credential> prefixMatch() {
+        return credentialManager.findMatching(randomTarget() + "*");
+    }
+
+    private String randomTarget() {
+        return EmulatedCredentialStore.targetFor(ThreadLocalRandom.current().nextInt(storeSize / 10, storeSize));
+    }
+}
@@ -0,0 +1,168 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialFlag;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.SecretBuffer;
+import moreland.win32.credentialstore.converters.Win32CredentialConverter;
+import moreland.win32.credentialstore.internal.Advapi32Library;
+import moreland.win32.credentialstore.internal.PreserveType;
+import moreland.win32.credentialstore.internal.Win32CriticalCredentialHandleFactory;
+import moreland.win32.credentialstore.internal.Win32ErrorToStringService;
+import moreland.win32.credentialstore.internal.Win32NativeInteropBridge;
+
+/**
+ * Java side cost of a bridge call against an {@code Advapi32Library} which
+ * does no work, run with {@code -prof gc} to compare
+ * {@code gc.alloc.rate.norm} of the {@code NativeArena} paths with
+ * {@code writeStructure}, which converts to a {@code Credential} structure
+ * as writes did previously
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NativeArenaBenchmarks {
+
+    private static final String TARGET = "benchmark/target-42";
+
+    private Win32NativeInteropBridge bridge;
+    private Win32CredentialConverter converter;
+    private Credential credential;
+    private Credential bufferedCredential;
+    private SecretBuffer secret;
+
+    @Setup
+    public void setup() {
+        var advapi32 = new NoOpAdvapi32Library();
+        bridge = new Win32NativeInteropBridge(advapi32,
+            new Win32CriticalCredentialHandleFactory(advapi32, new Win32ErrorToStringService(), NOPLogger.NOP_LOGGER));
+        converter = new Win32CredentialConverter();
+        credential = new Credential(TARGET, "user-42", EmulatedCredentialStore.secretOfSize(512), CredentialFlag.NONE,
+            CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+        secret = SecretBuffer.of(EmulatedCredentialStore.secretOfSize(512));
+        bufferedCredential = new Credential(TARGET, "user-42", secret, CredentialFlag.NONE,
+            CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+    }
+
+    @TearDown
+    public void tearDown() {
+        secret.close();
+    }
+
+    @Benchmark
+    public boolean writeStructure() {
+        return bridge.credWrite(converter.toInternalCredentialReference(credential).orElseThrow(), PreserveType.NONE);
+    }
+
+    @Benchmark
+    public boolean write() {
+        return bridge.credWrite(credential, PreserveType.NONE);
+    }
+
+    @Benchmark
+    public boolean writeSecretBuffer() {
+        return bridge.credWrite(bufferedCredential, PreserveType.NONE);
+    }
+
+    @Benchmark
+    public boolean delete() {
+        return bridge.credDelete(TARGET, CredentialType.GENERIC.getValue(), 0);
+    }
+
+    @Benchmark
+    public boolean read() throws Exception {
+        try (var handle = bridge.credRead(TARGET, CredentialType.GENERIC, 0)) {
+            return handle.isPresent();
+        }
+    }
+
+    /**
+     * reports success without touching its arguments, so only the cost of
+     * preparing them is measured
+     */
+    private static final class NoOpAdvapi32Library implements Advapi32Library {
+
+        @Override
+        public boolean CredReadW(WString target, int type, int reservedFlag, PointerByReference credential) throws LastErrorException {
+            return false;
+        }
+
+        @Override
+        public boolean CredWriteW(moreland.win32.credentialstore.structures.Credential.ByReference userCredential, int flags) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredFree(Pointer cred) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredDeleteW(WString target, int type, int flags) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredEnumerateW(WString filter, int flag, IntByReference count, PointerByReference credentialsPtr) throws LastErrorException {
+            return false;
+        }
+
+        @Override
+        public boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException {
+            return false;
+        }
+
+        @Override
+        public boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException {
+            return false;
+        }
+    }
+}
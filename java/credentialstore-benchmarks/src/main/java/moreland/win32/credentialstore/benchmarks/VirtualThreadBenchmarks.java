@@ -0,0 +1,231 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.internal.Advapi32Library;
+import moreland.win32.credentialstore.internal.NativeCallGate;
+import moreland.win32.credentialstore.internal.Win32CriticalCredentialHandleFactory;
+import moreland.win32.credentialstore.internal.Win32ErrorToStringService;
+import moreland.win32.credentialstore.internal.Win32NativeInteropBridge;
+import moreland.win32.credentialstore.structures.Credential.ByReference;
+
+/**
+ * Fan out of {@code tasks} concurrent reads, each spending
+ * {@code nativeLatencyMicros} blocked in a simulated native call, alongside
+ * the same number of short CPU bound tasks which need a carrier to make
+ * progress.
+ * <p>
+ * <ul>
+ * <li>{@code PLATFORM} - a fixed pool of platform threads, one per task</li>
+ * <li>{@code VIRTUAL} - a virtual thread per task with every caller
+ *     admitted, blocked callers pin all carriers</li>
+ * <li>{@code VIRTUAL_GATED} - a virtual thread per task with native calls
+ *     bounded to one fewer than the number of carriers, waiting callers
+ *     park without pinning</li>
+ * </ul>
+ * Virtual threads require JDK 21, the executor is looked up reflectively
+ * so the module builds on JDK 17 and the virtual modes fail during setup
+ * when run on an earlier runtime.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadBenchmarks {
+
+    public enum ExecutionMode { PLATFORM, VIRTUAL, VIRTUAL_GATED }
+
+    @Param({"PLATFORM", "VIRTUAL", "VIRTUAL_GATED"})
+    private ExecutionMode mode;
+
+    @Param({"256"})
+    private int tasks;
+
+    @Param({"1000"})
+    private int storeSize;
+
+    @Param({"500"})
+    private int nativeLatencyMicros;
+
+    private Win32NativeInteropBridge bridge;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var store = new EmulatedCredentialStore().populate(storeSize, 64);
+        var advapi32 = new PinningAdvapi32Library(store.advapi32(), TimeUnit.MICROSECONDS.toNanos(nativeLatencyMicros));
+        var gate = mode == ExecutionMode.VIRTUAL_GATED
+            ? NativeCallGate.bounded(Math.max(1, Runtime.getRuntime().availableProcessors() - 1))
+            : NativeCallGate.unbounded();
+
+        bridge = Win32NativeInteropBridge
+            .builder(advapi32, new Win32CriticalCredentialHandleFactory(advapi32, new Win32ErrorToStringService(), NOPLogger.NOP_LOGGER))
+            .gate(gate)
+            .build();
+        executor = mode == ExecutionMode.PLATFORM
+            ? Executors.newFixedThreadPool(tasks)
+            : newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long fanOut() throws Exception {
+        var futures = new ArrayList<Future<Long>>(tasks * 2);
+        for (int i = 0; i < tasks; i++) {
+            var target = EmulatedCredentialStore.targetFor(ThreadLocalRandom.current().nextInt(storeSize));
+            futures.add(executor.submit(() -> read(target)));
+            futures.add(executor.submit(VirtualThreadBenchmarks::compute));
+        }
+
+        long total = 0;
+        for (var future : futures) {
+            total += future.get();
+        }
+        return total;
+    }
+
+    private long read(String target) throws Exception {
+        try (var handle = bridge.credRead(target, CredentialType.GENERIC, 0)) {
+            return handle.isPresent() ? 1 : 0;
+        }
+    }
+
+    private static long compute() {
+        long hash = 0;
+        for (int i = 0; i < 10_000; i++) {
+            hash = 31 * hash + i;
+        }
+        return hash;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("virtual threads require JDK 21 or later, running " + Runtime.version(), e);
+        }
+    }
+
+    /**
+     * Simulates a blocking native call; the latency is spent inside a
+     * monitor which, like a JNA downcall, keeps a virtual thread mounted
+     * on its carrier until the call returns
+     */
+    private static final class PinningAdvapi32Library implements Advapi32Library {
+
+        private final Advapi32Library delegate;
+        private final long latencyNanos;
+
+        PinningAdvapi32Library(Advapi32Library delegate, long latencyNanos) {
+            this.delegate = delegate;
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public boolean CredReadW(WString target, int type, int reservedFlag, PointerByReference credential) throws LastErrorException {
+            pin();
+            return delegate.CredReadW(target, type, reservedFlag, credential);
+        }
+
+        @Override
+        public boolean CredWriteW(ByReference userCredential, int flags) throws LastErrorException {
+            pin();
+            return delegate.CredWriteW(userCredential, flags);
+        }
+
+        @Override
+        public boolean CredFree(Pointer cred) throws LastErrorException {
+            return delegate.CredFree(cred);
+        }
+
+        @Override
+        public boolean CredDeleteW(WString target, int type, int flags) throws LastErrorException {
+            pin();
+            return delegate.CredDeleteW(target, type, flags);
+        }
+
+        @Override
+        public boolean CredEnumerateW(WString filter, int flag, IntByReference count, PointerByReference credentialsPtr) throws LastErrorException {
+            pin();
+            return delegate.CredEnumerateW(filter, flag, count, credentialsPtr);
+        }
+
+        @Override
+        public boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException {
+            pin();
+            return delegate.CredReadW(target, type, reservedFlag, credential);
+        }
+
+        @Override
+        public boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException {
+            pin();
+            return delegate.CredWriteW(userCredential, flags);
+        }
+
+        @Override
+        public boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException {
+            pin();
+            return delegate.CredDeleteW(target, type, flags);
+        }
+
+        @Override
+        public boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException {
+            pin();
+            return delegate.CredEnumerateW(filter, flag, count, credentialsPtr);
+        }
+
+        @SuppressWarnings({"java:S2445"})
+        private void pin() {
+            var monitor = new Object();
+            synchronized (monitor) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+        }
+    }
+}
@@ -13,16 +13,40 @@
 
 package moreland.win32.credentialstore.cli;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import moreland.win32.credentialstore.cli.internal.ConsolePasswordReaderFacade;
 import moreland.win32.credentialstore.cli.internal.CredentialExecutor;
+import moreland.win32.credentialstore.cli.internal.CredentialStoreDaemon;
+import moreland.win32.credentialstore.cli.internal.DaemonClient;
 
 public class Application {
 
+    /**
+     * system property selecting the Spring application context in place of
+     * {@code CompositionRoot}, false (default) or true
+     */
+    public static final String SPRING_BOOTSTRAP_PROPERTY = "moreland.win32.credentialstore.cli.spring";
+
+    /**
+     * verb starting a {@code CredentialStoreDaemon} which serves requests until idle
+     */
+    public static final String DAEMON = "daemon";
+
+    /**
+     * verb forwarding the remaining arguments to a running daemon
+     */
+    public static final String CLIENT = "client";
+
     @SuppressWarnings({"java:S106"})
     public static void main(String[] args) {
         if (args.length < 1) {
@@ -32,21 +56,74 @@ public class Application {
 
         var logger = LoggerFactory.getLogger(Application.class);
 
-        try (var context = new AnnotationConfigApplicationContext(ApplicationConfiguration.class)) {
-            var executor = context.getBean("credentialExecutor", CredentialExecutor.class);
-            var operation = executor.getOperation(args[0]).orElse(arguments -> false);
-
-            var operationArgs = IntStream
-                .range(1, args.length)
-                .mapToObj(i -> args[i])
-                .collect(Collectors.toList());
+        if (DAEMON.equalsIgnoreCase(args[0])) {
+            runDaemon(logger);
+            return;
+        }
+        if (CLIENT.equalsIgnoreCase(args[0])) {
+            runClient(Arrays.asList(args).subList(1, args.length), logger);
+            return;
+        }
 
-            if (!operation.process(operationArgs)) {
-                logger.warn(String.format("Operation '%s' failed", args[0]));
+        if (!Boolean.getBoolean(SPRING_BOOTSTRAP_PROPERTY)) {
+            try {
+                run(CompositionRoot.createCredentialExecutor(System.out), args, logger);
+            } catch (Exception ex) {
+                logger.error(String.format("Error occurred running the operation: %s", ex.getMessage()), ex);
             }
+            return;
+        }
+
+        try (var context = new AnnotationConfigApplicationContext(ApplicationConfiguration.class)) {
+            run(context.getBean("credentialExecutor", CredentialExecutor.class), args, logger);
         } catch (Exception ex) {
             logger.error(String.format("Error occurred building the application context: %s", ex.getMessage()), ex);
         }
 
-    }    
+    }
+
+    private static void runDaemon(Logger logger) {
+        try (var daemon = CompositionRoot.createDaemon(CredentialStoreDaemon.socketPathFromProperties(),
+                CredentialStoreDaemon.idleTimeoutFromProperties())) {
+            daemon.start();
+            daemon.awaitTermination();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            logger.error(String.format("Error occurred running the daemon: %s", ex.getMessage()), ex);
+        }
+    }
+
+    @SuppressWarnings({"java:S106"})
+    private static void runClient(List<String> args, Logger logger) {
+        if (args.isEmpty()) {
+            System.out.println("usage: credentialstore.cli client <verb> (optional arguments)");
+            return;
+        }
+
+        var socketPath = CredentialStoreDaemon.socketPathFromProperties();
+        var secret = DaemonClient.requiresSecret(args)
+            ? Optional.of(new ConsolePasswordReaderFacade().readPassword())
+            : Optional.<String>empty();
+        try {
+            if (!new DaemonClient(socketPath).run(args, secret, System.out)) {
+                logger.warn(String.format("Operation '%s' failed", args.get(0)));
+            }
+        } catch (IOException ex) {
+            logger.error(String.format("Unable to reach the daemon at %s: %s", socketPath, ex.getMessage()));
+        }
+    }
+
+    private static void run(CredentialExecutor executor, String[] args, Logger logger) {
+        var operation = executor.getOperation(args[0]).orElse(arguments -> false);
+
+        var operationArgs = IntStream
+            .range(1, args.length)
+            .mapToObj(i -> args[i])
+            .collect(Collectors.toList());
+
+        if (!operation.process(operationArgs)) {
+            logger.warn(String.format("Operation '%s' failed", args[0]));
+        }
+    }
 }
@@ -0,0 +1,74 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.slf4j.LoggerFactory;
+
+import moreland.win32.credentialstore.CredentialManager;
+import moreland.win32.credentialstore.Guard;
+import moreland.win32.credentialstore.ServiceComposition;
+import moreland.win32.credentialstore.cli.internal.ConsolePasswordReaderFacade;
+import moreland.win32.credentialstore.cli.internal.CredentialExecutor;
+import moreland.win32.credentialstore.cli.internal.CredentialStoreDaemon;
+import moreland.win32.credentialstore.cli.internal.PasswordReaderFacade;
+import moreland.win32.credentialstore.cli.internal.Win32CredentialExecutor;
+
+/**
+ * Composition root used by {@code Application} in place of
+ * {@code ApplicationConfiguration}, wires the executor and the credential
+ * service directly so no Spring context or component scan is needed
+ */
+public final class CompositionRoot {
+
+    private CompositionRoot() {
+    }
+
+    /**
+     * Returns a new {@code Win32CredentialExecutor} writing to {@code outputStream}
+     * backed by a credential manager configured from the system properties
+     * @param outputStream stream receiving the output of each operation
+     * @return new credential executor
+     * @exception IllegalArgumentException if {@code outputStream} is null
+     */
+    public static CredentialExecutor createCredentialExecutor(PrintStream outputStream) {
+        Guard.againstNull(outputStream, "outputStream");
+        return createCredentialExecutor(ServiceComposition.createCredentialManager(), outputStream,
+            new ConsolePasswordReaderFacade());
+    }
+
+    /**
+     * Returns a new {@code CredentialStoreDaemon} listening on {@code socketPath}
+     * whose requests share a single credential manager configured from the
+     * system properties
+     * @param socketPath path of the socket to listen on
+     * @param idleTimeout time without requests after which the daemon stops
+     * @return new daemon, not yet started
+     * @exception IllegalArgumentException if any parameter is null
+     */
+    public static CredentialStoreDaemon createDaemon(Path socketPath, Duration idleTimeout) {
+        var credentialManager = ServiceComposition.createCredentialManager();
+        return new CredentialStoreDaemon(socketPath, idleTimeout,
+            (outputStream, passwordReaderFacade) -> createCredentialExecutor(credentialManager, outputStream, passwordReaderFacade),
+            LoggerFactory.getLogger(CredentialStoreDaemon.class));
+    }
+
+    private static CredentialExecutor createCredentialExecutor(CredentialManager credentialManager, PrintStream outputStream,
+            PasswordReaderFacade passwordReaderFacade) {
+        return new Win32CredentialExecutor(credentialManager, outputStream, passwordReaderFacade,
+            LoggerFactory.getLogger(Win32CredentialExecutor.class));
+    }
+}
@@ -0,0 +1,97 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * single operation read by {@code BatchProcessor}, in the argument form
+ * accepted by {@code CredentialExecutor}
+ */
+final class BatchOperation {
+
+    private final int lineNumber;
+    private final String verb;
+    private final List<String> args;
+    private final Optional<String> secret;
+    private final Optional<String> error;
+
+    private BatchOperation(int lineNumber, String verb, List<String> args, Optional<String> secret, Optional<String> error) {
+        this.lineNumber = lineNumber;
+        this.verb = verb;
+        this.args = args;
+        this.secret = secret;
+        this.error = error;
+    }
+
+    static BatchOperation of(int lineNumber, String verb, List<String> args, Optional<String> secret) {
+        return new BatchOperation(lineNumber, verb.toLowerCase(), List.copyOf(args), secret, Optional.empty());
+    }
+
+    static BatchOperation invalid(int lineNumber, String error) {
+        return new BatchOperation(lineNumber, "", List.of(), Optional.empty(), Optional.of(error));
+    }
+
+    /**
+     * one based line of the input the operation was read from
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * verb in lower case, empty when the line could not be parsed
+     */
+    String getVerb() {
+        return verb;
+    }
+
+    /**
+     * arguments following the verb
+     */
+    List<String> getArgs() {
+        return args;
+    }
+
+    /**
+     * secret of an {@code add} operation
+     */
+    Optional<String> getSecret() {
+        return secret;
+    }
+
+    /**
+     * reason the line could not be parsed
+     */
+    Optional<String> getError() {
+        return error;
+    }
+
+    /**
+     * target of the operation for result lines, empty when it has none;
+     * output options of {@code list} and {@code find} are not targets
+     */
+    String getTarget() {
+        if ("add".equals(verb) && args.size() > 1) {
+            return args.get(1);
+        }
+        List<String> targets;
+        try {
+            targets = OutputOptions.parse(args).getArguments();
+        } catch (IllegalArgumentException e) {
+            targets = args;
+        }
+        return targets.isEmpty() ? "" : targets.get(0);
+    }
+}
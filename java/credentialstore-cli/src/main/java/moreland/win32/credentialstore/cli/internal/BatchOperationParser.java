@@ -0,0 +1,241 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Parses a line of {@code BatchProcessor} input into a {@code BatchOperation}.
+ * <p>
+ * A line is either the command line arguments of a single operation
+ * separated by whitespace, with the secret of {@code add} following the
+ * user name, or a JSON object with an {@code op} member and the
+ * {@code type}, {@code target}, {@code username}, {@code secret} and
+ * {@code filter} members used by that operation:
+ * <pre>
+ * add generic example.com user secret
+ * {"op":"add","type":"generic","target":"example.com","username":"user","secret":"secret"}
+ * {"op":"remove","target":"example.com","type":"generic"}
+ * </pre>
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+final class BatchOperationParser {
+
+    private static final String ADD = "add";
+
+    private BatchOperationParser() {
+    }
+
+    /**
+     * Returns the operation held by {@code line}
+     * @param lineNumber one based line number of {@code line}
+     * @param line line to parse
+     * @return parsed operation, an invalid operation describing the error
+     *         when {@code line} is malformed, or empty when it holds no operation
+     */
+    static Optional<BatchOperation> parse(int lineNumber, String line) {
+        var trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(trimmed.charAt(0) == '{'
+                ? fromJson(lineNumber, trimmed)
+                : fromArguments(lineNumber, trimmed));
+        } catch (IllegalArgumentException e) {
+            return Optional.of(BatchOperation.invalid(lineNumber, e.getMessage()));
+        }
+    }
+
+    private static BatchOperation fromArguments(int lineNumber, String line) {
+        var tokens = Arrays.asList(line.split("\\s+"));
+        var verb = tokens.get(0);
+        var args = tokens.subList(1, tokens.size());
+        if (ADD.equalsIgnoreCase(verb) && !isHelp(args)) {
+            if (args.size() != 4) {
+                throw new IllegalArgumentException("add requires <type> <target> <username> <secret>");
+            }
+            return BatchOperation.of(lineNumber, verb, args.subList(0, 3), Optional.of(args.get(3)));
+        }
+        return BatchOperation.of(lineNumber, verb, args, Optional.empty());
+    }
+
+    private static BatchOperation fromJson(int lineNumber, String line) {
+        var members = new JsonObjectReader(line).read();
+        var verb = required(members, "op");
+        var args = new ArrayList<String>();
+        switch (verb.toLowerCase()) {
+            case ADD:
+                args.add(required(members, "type"));
+                args.add(required(members, "target"));
+                args.add(required(members, "username"));
+                return BatchOperation.of(lineNumber, verb, args, Optional.of(required(members, "secret")));
+            case "remove":
+                args.add(required(members, "target"));
+                optional(members, "type").ifPresent(args::add);
+                break;
+            case "find":
+                args.add(required(members, "filter"));
+                optional(members, "type").ifPresent(args::add);
+                break;
+            default:
+                break;
+        }
+        return BatchOperation.of(lineNumber, verb, args, Optional.empty());
+    }
+
+    private static boolean isHelp(List<String> args) {
+        return !args.isEmpty() && "help".equalsIgnoreCase(args.get(0));
+    }
+
+    private static String required(Map<String, String> members, String name) {
+        return optional(members, name)
+            .orElseThrow(() -> new IllegalArgumentException(String.format("missing '%s'", name)));
+    }
+
+    private static Optional<String> optional(Map<String, String> members, String name) {
+        return Optional.ofNullable(members.get(name));
+    }
+
+    /**
+     * reader for a single JSON object whose members are strings, numbers,
+     * booleans or null; numbers and booleans are returned as their text
+     */
+    private static final class JsonObjectReader {
+        private final String text;
+        private int position;
+
+        JsonObjectReader(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> read() {
+            var members = new HashMap<String, String>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+            } else {
+                do {
+                    skipWhitespace();
+                    var name = readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    members.put(name, readValue());
+                    skipWhitespace();
+                } while (tryConsume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("unexpected content after JSON object");
+            }
+            return members;
+        }
+
+        private String readValue() {
+            var c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException("nested JSON values are not supported");
+            }
+            var start = position;
+            while (position < text.length() && ",} \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            var literal = text.substring(start, position);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException(String.format("expected a value at %d", start));
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+
+        private String readString() {
+            expect('"');
+            var value = new StringBuilder();
+            while (true) {
+                var c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                var escaped = next();
+                switch (escaped) {
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("invalid unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                        break;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private boolean tryConsume(char expected) {
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!tryConsume(expected)) {
+                throw new IllegalArgumentException(String.format("expected '%c' at %d", expected, position));
+            }
+        }
+
+        private char peek() {
+            if (position >= text.length()) {
+                throw new IllegalArgumentException("unexpected end of JSON object");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            var c = peek();
+            position++;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.BulkItemResult;
+import moreland.win32.credentialstore.BulkResult;
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialFlag;
+import moreland.win32.credentialstore.CredentialKey;
+import moreland.win32.credentialstore.CredentialManager;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.Guard;
+
+/**
+ * Runs a stream of operations, one per line, in a single JVM.
+ * <p>
+ * Lines are read and parsed on a separate thread into a bounded queue so
+ * reading overlaps with the native calls of earlier lines. Consecutive
+ * {@code add} lines, and consecutive {@code remove} lines naming a type,
+ * are gathered from whatever has already been queued into batches of up
+ * to {@code batchSize} and run through {@code CredentialManager.addAll}
+ * and {@code deleteAll}; every other line is run through the
+ * {@code CredentialExecutor}.
+ * <p>
+ * A result line is written for each operation in input order:
+ * {@code <line>\t<OK|FAILED>\t<verb>\t<target>} followed by a tab and the
+ * reason when it failed. Output of {@code find} and {@code list} precedes
+ * their result line.
+ */
+public final class BatchProcessor {
+
+    /**
+     * default maximum number of operations passed to a single bulk call
+     */
+    public static final int DEFAULT_BATCH_SIZE = 128;
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final String ADD = "add";
+    private static final String REMOVE = "remove";
+    private static final String BATCH = "batch";
+    static final BatchOperation END_OF_INPUT = BatchOperation.invalid(-1, "end of input");
+
+    private final CredentialManager credentialManager;
+    private final CredentialExecutor credentialExecutor;
+    private final Logger logger;
+    private final int batchSize;
+
+    /**
+     * Instantiates a new instance of the BatchProcessor class using {@code DEFAULT_BATCH_SIZE}
+     * @param credentialManager manager receiving batched operations
+     * @param credentialExecutor executor running every other operation
+     * @param logger logger
+     * @exception IllegalArgumentException if any parameter is null
+     */
+    public BatchProcessor(CredentialManager credentialManager, CredentialExecutor credentialExecutor, Logger logger) {
+        this(credentialManager, credentialExecutor, logger, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Instantiates a new instance of the BatchProcessor class
+     * @param credentialManager manager receiving batched operations
+     * @param credentialExecutor executor running every other operation
+     * @param logger logger
+     * @param batchSize maximum number of operations passed to a single bulk call
+     * @exception IllegalArgumentException if any parameter is null or
+     *            {@code batchSize} is less than 1
+     */
+    public BatchProcessor(CredentialManager credentialManager, CredentialExecutor credentialExecutor, Logger logger, int batchSize) {
+        Guard.againstNull(credentialManager, "credentialManager");
+        Guard.againstNull(credentialExecutor, "credentialExecutor");
+        Guard.againstNull(logger, "logger");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than zero");
+        }
+
+        this.credentialManager = credentialManager;
+        this.credentialExecutor = credentialExecutor;
+        this.logger = logger;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs every operation read from {@code input}, writing a result line
+     * for each to {@code output}
+     * @param input operations, one per line
+     * @param output receives the result of each operation
+     * @return true if every operation succeeded
+     * @exception IllegalArgumentException if either parameter is null
+     */
+    public boolean process(Reader input, PrintStream output) {
+        Guard.againstNull(input, "input");
+        Guard.againstNull(output, "output");
+
+        var queue = new ArrayBlockingQueue<BatchOperation>(QUEUE_CAPACITY);
+        var reader = new Thread(() -> read(input, queue), "credentialstore-batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            return drain(queue, output);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            reader.interrupt();
+            output.flush();
+        }
+    }
+
+    /**
+     * runs operations taken from {@code queue} until {@code END_OF_INPUT} is taken
+     */
+    boolean drain(BlockingQueue<BatchOperation> queue, PrintStream output) throws InterruptedException {
+        var allSucceeded = true;
+        var pending = new ArrayList<BatchOperation>(batchSize);
+        var next = queue.take();
+        while (next != END_OF_INPUT) {
+            if (!isBatchable(next)) {
+                allSucceeded &= runSingle(next, output);
+                next = queue.take();
+                continue;
+            }
+
+            pending.clear();
+            pending.add(next);
+            next = null;
+            while (pending.size() < batchSize) {
+                var candidate = queue.poll();
+                if (candidate == null) {
+                    break;
+                }
+                if (candidate == END_OF_INPUT || !isBatchable(candidate) || !candidate.getVerb().equals(pending.get(0).getVerb())) {
+                    next = candidate;
+                    break;
+                }
+                pending.add(candidate);
+            }
+            allSucceeded &= runBatch(pending, output);
+            if (next == null) {
+                next = queue.take();
+            }
+        }
+        return allSucceeded;
+    }
+
+    private boolean runSingle(BatchOperation operation, PrintStream output) {
+        if (operation.getError().isPresent()) {
+            writeResult(output, operation, false, operation.getError().get());
+            return false;
+        }
+
+        var succeeded = false;
+        var reason = "";
+        try {
+            var executorOperation = BATCH.equals(operation.getVerb())
+                ? Optional.<CredentialStoreOperation>empty()
+                : credentialExecutor.getOperation(operation.getVerb());
+            if (executorOperation.isPresent()) {
+                succeeded = executorOperation.get().process(operation.getArgs());
+            } else {
+                reason = "unknown operation";
+            }
+        } catch (RuntimeException e) {
+            logger.error(String.format("Line %d failed: %s", operation.getLineNumber(), e.getMessage()), e);
+            reason = e.getMessage();
+        }
+        writeResult(output, operation, succeeded, reason);
+        output.flush();
+        return succeeded;
+    }
+
+    private boolean runBatch(List<BatchOperation> operations, PrintStream output) {
+        List<? extends BulkItemResult<?>> items;
+        try {
+            items = ADD.equals(operations.get(0).getVerb())
+                ? addAll(operations).getItems()
+                : deleteAll(operations).getItems();
+        } catch (RuntimeException e) {
+            logger.error(String.format("Batch starting at line %d failed: %s", operations.get(0).getLineNumber(), e.getMessage()), e);
+            for (var operation : operations) {
+                writeResult(output, operation, false, e.getMessage());
+            }
+            output.flush();
+            return false;
+        }
+
+        var allSucceeded = true;
+        for (int i = 0; i < operations.size(); i++) {
+            var item = items.get(i);
+            writeResult(output, operations.get(i), item.isSucceeded(),
+                item.isSucceeded() ? "" : item.getOutcome().name() + " (" + item.getErrorCode() + ")");
+            allSucceeded &= item.isSucceeded();
+        }
+        output.flush();
+        return allSucceeded;
+    }
+
+    private BulkResult<Credential> addAll(List<BatchOperation> operations) {
+        var credentials = new ArrayList<Credential>(operations.size());
+        for (var operation : operations) {
+            var args = operation.getArgs();
+            credentials.add(new Credential(args.get(1), args.get(2), operation.getSecret().orElse(""), CredentialFlag.NONE,
+                CredentialType.fromString(args.get(0)).orElseThrow(), CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()));
+        }
+        return credentialManager.addAll(credentials);
+    }
+
+    private BulkResult<CredentialKey> deleteAll(List<BatchOperation> operations) {
+        var keys = new ArrayList<CredentialKey>(operations.size());
+        for (var operation : operations) {
+            var args = operation.getArgs();
+            keys.add(CredentialKey.of(args.get(0), CredentialType.fromString(args.get(1)).orElseThrow()));
+        }
+        return credentialManager.deleteAll(keys);
+    }
+
+    /**
+     * true for {@code add} lines with a secret and {@code remove} lines
+     * naming a type, both with a recognised type
+     */
+    private static boolean isBatchable(BatchOperation operation) {
+        if (operation == END_OF_INPUT || operation.getError().isPresent()) {
+            return false;
+        }
+        var args = operation.getArgs();
+        switch (operation.getVerb()) {
+            case ADD:
+                return args.size() == 3 && operation.getSecret().isPresent() && CredentialType.fromString(args.get(0)).isPresent();
+            case REMOVE:
+                return args.size() == 2 && CredentialType.fromString(args.get(1)).isPresent();
+            default:
+                return false;
+        }
+    }
+
+    private void read(Reader input, BlockingQueue<BatchOperation> queue) {
+        var lineNumber = 0;
+        try {
+            var reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                Optional<BatchOperation> operation = BatchOperationParser.parse(lineNumber, line);
+                if (operation.isPresent()) {
+                    queue.put(operation.get());
+                }
+            }
+        } catch (IOException e) {
+            logger.error(String.format("Unable to read line %d: %s", lineNumber + 1, e.getMessage()), e);
+            putQuietly(queue, BatchOperation.invalid(lineNumber + 1, "unable to read input: " + e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        putQuietly(queue, END_OF_INPUT);
+    }
+
+    private static void putQuietly(BlockingQueue<BatchOperation> queue, BatchOperation operation) {
+        try {
+            queue.put(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeResult(PrintStream output, BatchOperation operation, boolean succeeded, String reason) {
+        var line = new StringBuilder()
+            .append(operation.getLineNumber()).append('\t')
+            .append(succeeded ? "OK" : "FAILED").append('\t')
+            .append(operation.getVerb()).append('\t')
+            .append(operation.getTarget());
+        if (!succeeded && reason != null && !reason.isEmpty()) {
+            line.append('\t').append(reason);
+        }
+        output.println(line);
+    }
+}
@@ -60,6 +60,14 @@ public interface CredentialExecutor {
      * @return true
      */
     boolean list(final List<String> args);
+
+    /**
+     * runs the operations read from a file or standard input, one per line
+     * @param args optional path of the file to read, standard input is
+     *             read when omitted or {@code -}
+     * @return true if every operation succeeded or help was requested
+     */
+    boolean batch(final List<String> args);
    
 
 }
@@ -0,0 +1,290 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.Guard;
+
+/**
+ * Long running host for {@code CredentialExecutor} operations received
+ * from {@code DaemonClient} over a Unix domain socket, keeping the JVM,
+ * JNA and the credential service warm between command line invocations.
+ * <p>
+ * Each connection carries a single request and is served on its own
+ * thread with a new executor writing to that connection, so requests run
+ * concurrently against the shared credential service. The daemon stops
+ * once no request has been received for {@code idleTimeout}.
+ * <p>
+ * The socket is created in a directory only its owner can access and the
+ * socket itself is limited to its owner, using POSIX permissions or an
+ * access control list as the file system supports; the daemon refuses to
+ * start on a file system supporting neither, and an existing directory
+ * accessible to other users is rejected rather than changed.
+ */
+public final class CredentialStoreDaemon implements AutoCloseable {
+
+    /**
+     * system property holding the path of the socket, defaults to
+     * {@code .credentialstore/cli.sock} in the user's home directory
+     */
+    public static final String SOCKET_PROPERTY = "moreland.win32.credentialstore.cli.socket";
+
+    /**
+     * system property holding the idle timeout of the daemon in seconds, defaults to 900
+     */
+    public static final String IDLE_TIMEOUT_PROPERTY = "moreland.win32.credentialstore.cli.daemonIdleTimeout";
+
+    private static final String BATCH = "batch";
+    private static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 900;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Path socketPath;
+    private final long idleTimeoutNanos;
+    private final BiFunction<PrintStream, PasswordReaderFacade, CredentialExecutor> executorFactory;
+    private final Logger logger;
+    private final ExecutorService connections = Executors.newCachedThreadPool(CredentialStoreDaemon::newThread);
+    private final ScheduledExecutorService idleMonitor = Executors.newSingleThreadScheduledExecutor(CredentialStoreDaemon::newThread);
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile long lastActivity;
+    private ServerSocketChannel server;
+
+    /**
+     * Instantiates a new instance of the CredentialStoreDaemon class
+     * @param socketPath path of the Unix domain socket to listen on
+     * @param idleTimeout time without requests after which the daemon stops
+     * @param executorFactory creates the executor for a request from its
+     *                        output stream and the secret sent by the client
+     * @param logger logger
+     * @exception IllegalArgumentException if any parameter is null or
+     *            {@code idleTimeout} is not positive
+     */
+    public CredentialStoreDaemon(Path socketPath, Duration idleTimeout,
+            BiFunction<PrintStream, PasswordReaderFacade, CredentialExecutor> executorFactory, Logger logger) {
+        Guard.againstNull(socketPath, "socketPath");
+        Guard.againstNull(idleTimeout, "idleTimeout");
+        Guard.againstNull(executorFactory, "executorFactory");
+        Guard.againstNull(logger, "logger");
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be positive");
+        }
+
+        this.socketPath = socketPath.toAbsolutePath();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.executorFactory = executorFactory;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the socket path given by {@code SOCKET_PROPERTY} or its default
+     * @return path of the daemon socket
+     */
+    public static Path socketPathFromProperties() {
+        var configured = System.getProperty(SOCKET_PROPERTY);
+        return configured != null
+            ? Path.of(configured)
+            : Path.of(System.getProperty("user.home"), ".credentialstore", "cli.sock");
+    }
+
+    /**
+     * Returns the idle timeout given by {@code IDLE_TIMEOUT_PROPERTY} or its default
+     * @return idle timeout of the daemon
+     */
+    public static Duration idleTimeoutFromProperties() {
+        return Duration.ofSeconds(Long.getLong(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Binds the socket and starts accepting requests
+     * @exception IOException if the socket cannot be created or limited to its owner
+     * @exception IllegalStateException if another daemon is listening on the socket
+     */
+    public void start() throws IOException {
+        var access = OwnerOnlyAccess.of(socketPath.getFileSystem());
+        access.createDirectory(socketPath.getParent());
+        removeStaleSocket();
+
+        var address = UnixDomainSocketAddress.of(socketPath);
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(address);
+        try {
+            access.restrictFile(socketPath);
+        } catch (IOException e) {
+            server.close();
+            server = null;
+            Files.deleteIfExists(socketPath);
+            throw e;
+        }
+
+        lastActivity = System.nanoTime();
+        var period = Math.max(10L, Math.min(TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 4, 1_000L));
+        idleMonitor.scheduleAtFixedRate(this::closeIfIdle, period, period, TimeUnit.MILLISECONDS);
+        newThread(this::acceptLoop).start();
+        logger.info(String.format("Credential store daemon listening on %s", socketPath));
+    }
+
+    /**
+     * Blocks until the daemon has stopped
+     * @exception InterruptedException if interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Returns true until the daemon has stopped
+     * @return true if the daemon is accepting requests
+     */
+    public boolean isRunning() {
+        return server != null && !closed.get();
+    }
+
+    /**
+     * path of the socket the daemon listens on
+     */
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for requests in progress and
+     * removes the socket
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            idleMonitor.shutdownNow();
+            if (server != null) {
+                server.close();
+            }
+            connections.shutdown();
+            if (!connections.awaitTermination(5, TimeUnit.SECONDS)) {
+                connections.shutdownNow();
+            }
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            logger.warn(String.format("Unable to remove %s: %s", socketPath, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!closed.get()) {
+            try {
+                var channel = server.accept();
+                activeRequests.incrementAndGet();
+                connections.execute(() -> serve(channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn(String.format("Unable to accept connection: %s", e.getMessage()));
+            }
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel;
+             var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+
+            var request = DaemonProtocol.readRequest(input);
+            var args = request.getArgs();
+            var printStream = new PrintStream(new DaemonProtocol.FrameOutputStream(output), false);
+            var executor = executorFactory.apply(printStream, () -> request.getSecret().orElse(""));
+
+            boolean succeeded;
+            try {
+                // batch reads the daemon's own standard input, callers run it in process instead
+                succeeded = !BATCH.equalsIgnoreCase(args.get(0)) && executor.getOperation(args.get(0))
+                    .orElse(arguments -> false)
+                    .process(args.subList(1, args.size()));
+            } catch (RuntimeException e) {
+                logger.error(String.format("Operation '%s' failed: %s", args.get(0), e.getMessage()), e);
+                succeeded = false;
+            }
+            printStream.flush();
+            DaemonProtocol.writeResult(output, succeeded);
+        } catch (IOException e) {
+            logger.warn(String.format("Request failed: %s", e.getMessage()));
+        } finally {
+            lastActivity = System.nanoTime();
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    private void closeIfIdle() {
+        if (activeRequests.get() == 0 && System.nanoTime() - lastActivity >= idleTimeoutNanos) {
+            logger.info("Credential store daemon idle, shutting down");
+            // close waits for the idle monitor, which is this thread
+            newThread(this::close).start();
+        }
+    }
+
+    /**
+     * deletes a socket left behind by a daemon which did not shut down
+     * cleanly; anything at the path other than a socket is left in place
+     */
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        if (!Files.readAttributes(socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+            throw new IOException(String.format("%s exists and is not a socket", socketPath));
+        }
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            throw new IllegalStateException(String.format("A daemon is already listening on %s", socketPath));
+        } catch (IOException e) {
+            Files.delete(socketPath);
+        }
+    }
+
+    private static Thread newThread(Runnable runnable) {
+        var thread = new Thread(runnable, "credentialstore-daemon-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
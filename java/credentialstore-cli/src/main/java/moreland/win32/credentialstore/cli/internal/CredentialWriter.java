@@ -0,0 +1,266 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.Guard;
+
+/**
+ * Writes credentials to a {@code Writer} one at a time in an
+ * {@code OutputFormat}, nothing is held beyond the current credential so
+ * output can be streamed as credentials are enumerated.
+ * <p>
+ * The writer is not flushed or closed, callers pass a buffered writer and
+ * flush it once done.
+ */
+final class CredentialWriter {
+
+    private static final int TYPE_WIDTH = 24;
+    private static final int ID_WIDTH = 40;
+    private static final int USERNAME_WIDTH = 24;
+
+    private final Writer writer;
+    private final OutputFormat format;
+    private final boolean includeSecrets;
+
+    /**
+     * Instantiates a new instance of the CredentialWriter class
+     * @param writer destination of the formatted credentials
+     * @param format format to write
+     * @param includeSecrets if false secrets are left out
+     * @exception IllegalArgumentException if {@code writer} or {@code format} is null
+     */
+    CredentialWriter(Writer writer, OutputFormat format, boolean includeSecrets) {
+        Guard.againstNull(writer, "writer");
+        Guard.againstNull(format, "format");
+
+        this.writer = writer;
+        this.format = format;
+        this.includeSecrets = includeSecrets;
+    }
+
+    /**
+     * writes the header row of formats which have one
+     * @exception IOException if the write fails
+     */
+    void writeHeader() throws IOException {
+        switch (format) {
+            case CSV:
+                writer.write(includeSecrets
+                    ? "type,id,username,persistence,lastWritten,secret"
+                    : "type,id,username,persistence,lastWritten");
+                writer.write(System.lineSeparator());
+                break;
+            case TABLE:
+                pad("TYPE", TYPE_WIDTH);
+                pad("ID", ID_WIDTH);
+                if (includeSecrets) {
+                    pad("USERNAME", USERNAME_WIDTH);
+                    writer.write("SECRET");
+                } else {
+                    writer.write("USERNAME");
+                }
+                writer.write(System.lineSeparator());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * true if the format leads with a count of the credentials
+     */
+    boolean writesCount() {
+        return format == OutputFormat.TEXT;
+    }
+
+    /**
+     * writes the leading count of formats which have one, {@code count} is
+     * the total number of credentials enumerated rather than the number in
+     * the requested page
+     * @exception IOException if the write fails
+     */
+    void writeCount(int count) throws IOException {
+        if (writesCount()) {
+            writer.write(String.format("Found %d credentials:%n", count));
+        }
+    }
+
+    /**
+     * writes {@code credential}
+     * @exception IOException if the write fails
+     */
+    void write(Credential credential) throws IOException {
+        write(credential.getType(), credential.getId(), credential.getUsername(), credential.getPersistenceType(),
+            credential.getLastWritten(), includeSecrets ? credential.getSecret() : null);
+    }
+
+    /**
+     * writes {@code descriptor}, which has no secret to write
+     * @exception IOException if the write fails
+     */
+    void write(CredentialDescriptor descriptor) throws IOException {
+        write(descriptor.getType(), descriptor.getId(), descriptor.getUsername(), descriptor.getPersistenceType(),
+            descriptor.getLastWritten(), null);
+    }
+
+    private void write(CredentialType type, String id, String username, CredentialPersistence persistence,
+            Instant lastWritten, String secret) throws IOException {
+        switch (format) {
+            case JSONL:
+                writer.write("{\"type\":");
+                json(name(type));
+                writer.write(",\"id\":");
+                json(id);
+                writer.write(",\"username\":");
+                json(username);
+                writer.write(",\"persistence\":");
+                json(name(persistence));
+                writer.write(",\"lastWritten\":");
+                json(lastWritten == null ? null : lastWritten.toString());
+                if (includeSecrets) {
+                    writer.write(",\"secret\":");
+                    json(secret);
+                }
+                writer.write('}');
+                break;
+            case CSV:
+                csv(name(type));
+                writer.write(',');
+                csv(id);
+                writer.write(',');
+                csv(username);
+                writer.write(',');
+                csv(name(persistence));
+                writer.write(',');
+                csv(lastWritten == null ? null : lastWritten.toString());
+                if (includeSecrets) {
+                    writer.write(',');
+                    csv(secret);
+                }
+                break;
+            case TABLE:
+                pad(name(type), TYPE_WIDTH);
+                pad(id, ID_WIDTH);
+                if (includeSecrets) {
+                    pad(username, USERNAME_WIDTH);
+                    text(secret);
+                } else {
+                    text(username);
+                }
+                break;
+            default:
+                writer.write('(');
+                text(name(type));
+                writer.write(") ");
+                text(id);
+                writer.write(" - ");
+                text(username);
+                if (includeSecrets) {
+                    writer.write(':');
+                    text(secret);
+                }
+                break;
+        }
+        writer.write(System.lineSeparator());
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+
+    private void text(String value) throws IOException {
+        writer.write(value == null ? "null" : value);
+    }
+
+    /**
+     * writes {@code value} followed by at least one space, padding to {@code width}
+     */
+    private void pad(String value, int width) throws IOException {
+        var written = value == null ? "" : value;
+        writer.write(written);
+        for (int i = written.length(); i < width - 1; i++) {
+            writer.write(' ');
+        }
+        writer.write(' ');
+    }
+
+    private void csv(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        var quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            var c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private void json(String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write("\\u00");
+                        writer.write(Character.forDigit(c >> 4, 16));
+                        writer.write(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+}
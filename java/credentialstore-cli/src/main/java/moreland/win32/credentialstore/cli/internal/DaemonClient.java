@@ -0,0 +1,87 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import moreland.win32.credentialstore.Guard;
+
+/**
+ * Thin client forwarding command line arguments to a running
+ * {@code CredentialStoreDaemon} and streaming back its output
+ */
+public final class DaemonClient {
+
+    private final Path socketPath;
+
+    /**
+     * Instantiates a new instance of the DaemonClient class
+     * @param socketPath path of the daemon socket
+     * @exception IllegalArgumentException if {@code socketPath} is null
+     */
+    public DaemonClient(Path socketPath) {
+        Guard.againstNull(socketPath, "socketPath");
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Returns true if the daemon will prompt for a secret when running
+     * {@code args}, matching the arguments {@code CredentialExecutor.add} accepts
+     * @param args command line arguments, the first being the verb
+     * @return true if a secret must be read and sent with the request
+     */
+    public static boolean requiresSecret(List<String> args) {
+        return args.size() >= 4
+            && "add".equalsIgnoreCase(args.get(0))
+            && !"help".equalsIgnoreCase(args.get(1));
+    }
+
+    /**
+     * Runs {@code args} on the daemon, copying its output to {@code output}
+     * as it is produced
+     * @param args command line arguments, the first being the verb
+     * @param secret secret to answer a password prompt with
+     * @param output receives the output of the operation
+     * @return true if the operation succeeded
+     * @exception IOException if the daemon cannot be reached or the
+     *            connection fails before the operation completes
+     * @exception IllegalArgumentException if any parameter is null or
+     *            {@code args} is empty
+     */
+    public boolean run(List<String> args, Optional<String> secret, OutputStream output) throws IOException {
+        Guard.againstNull(args, "args");
+        Guard.againstNull(secret, "secret");
+        Guard.againstNull(output, "output");
+        if (args.isEmpty()) {
+            throw new IllegalArgumentException("args must contain a verb");
+        }
+
+        try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+             var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+             var request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            DaemonProtocol.writeRequest(request, args, secret);
+            return DaemonProtocol.readResponse(input, output);
+        }
+    }
+}
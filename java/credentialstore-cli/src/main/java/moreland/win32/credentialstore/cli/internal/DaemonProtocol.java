@@ -0,0 +1,175 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wire format between {@code DaemonClient} and {@code CredentialStoreDaemon}.
+ * <p>
+ * A request is the argument count, each argument and an optional secret
+ * read by the client, all written with {@code DataOutputStream}. The
+ * response is a sequence of frames: {@code OUTPUT} frames carry a length
+ * prefixed chunk of the operation's output and a single {@code RESULT}
+ * frame carries whether the operation succeeded and ends the response.
+ */
+final class DaemonProtocol {
+
+    static final int VERSION = 1;
+    static final byte OUTPUT = 0;
+    static final byte RESULT = 1;
+    static final int MAXIMUM_ARGUMENTS = 256;
+
+    private DaemonProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream output, List<String> args, Optional<String> secret) throws IOException {
+        output.writeInt(VERSION);
+        output.writeInt(args.size());
+        for (var arg : args) {
+            output.writeUTF(arg);
+        }
+        output.writeBoolean(secret.isPresent());
+        if (secret.isPresent()) {
+            output.writeUTF(secret.get());
+        }
+        output.flush();
+    }
+
+    static Request readRequest(DataInputStream input) throws IOException {
+        var version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported protocol version %d", version));
+        }
+        var count = input.readInt();
+        if (count < 1 || count > MAXIMUM_ARGUMENTS) {
+            throw new IOException(String.format("Invalid argument count %d", count));
+        }
+        var args = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            args.add(input.readUTF());
+        }
+        var secret = input.readBoolean()
+            ? Optional.of(input.readUTF())
+            : Optional.<String>empty();
+        return new Request(args, secret);
+    }
+
+    static void writeResult(DataOutputStream output, boolean succeeded) throws IOException {
+        output.writeByte(RESULT);
+        output.writeBoolean(succeeded);
+        output.flush();
+    }
+
+    /**
+     * Copies the response frames to {@code output}
+     * @return the result carried by the final frame
+     * @exception IOException if the connection closes before the result frame
+     */
+    static boolean readResponse(DataInputStream input, OutputStream output) throws IOException {
+        var buffer = new byte[8192];
+        while (true) {
+            var type = input.readByte();
+            if (type == RESULT) {
+                return input.readBoolean();
+            }
+            if (type != OUTPUT) {
+                throw new IOException(String.format("Unexpected frame type %d", type));
+            }
+            var remaining = input.readInt();
+            while (remaining > 0) {
+                var read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Connection closed inside an output frame");
+                }
+                output.write(buffer, 0, read);
+                remaining -= read;
+            }
+            output.flush();
+        }
+    }
+
+    /**
+     * arguments of a request, the first being the verb
+     */
+    static final class Request {
+        private final List<String> args;
+        private final Optional<String> secret;
+
+        Request(List<String> args, Optional<String> secret) {
+            this.args = args;
+            this.secret = secret;
+        }
+
+        List<String> getArgs() {
+            return args;
+        }
+
+        Optional<String> getSecret() {
+            return secret;
+        }
+    }
+
+    /**
+     * writes everything written to it as {@code OUTPUT} frames, one per flush
+     * or full buffer
+     */
+    static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final byte[] buffer = new byte[8192];
+        private int count;
+
+        FrameOutputStream(DataOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flush();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flush();
+                }
+                var chunk = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, chunk);
+                count += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                output.writeByte(OUTPUT);
+                output.writeInt(count);
+                output.write(buffer, 0, count);
+                count = 0;
+            }
+            output.flush();
+        }
+    }
+}
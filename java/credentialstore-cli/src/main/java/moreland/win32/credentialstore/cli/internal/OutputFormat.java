@@ -0,0 +1,54 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.util.Optional;
+
+/**
+ * Output formats supported by {@code list} and {@code find}
+ */
+enum OutputFormat {
+    /**
+     * {@code (TYPE) id - username:secret}, the format used before the
+     * other formats were added
+     */
+    TEXT,
+    /**
+     * one JSON object per line
+     */
+    JSONL,
+    /**
+     * comma separated values with a header row
+     */
+    CSV,
+    /**
+     * space padded columns with a header row
+     */
+    TABLE;
+
+    private static final OutputFormat[] VALUES = values();
+
+    /**
+     * Returns the format whose name matches {@code value} ignoring case
+     * @param value name of the format
+     * @return matching format if found; otherwise, empty
+     */
+    static Optional<OutputFormat> fromString(String value) {
+        for (var format : VALUES) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
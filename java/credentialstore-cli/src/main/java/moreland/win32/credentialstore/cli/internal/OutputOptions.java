@@ -0,0 +1,151 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output options of {@code list} and {@code find}, parsed from and
+ * removed from their arguments:
+ * <pre>
+ * --format text|jsonl|csv|table   defaults to text
+ * --limit &lt;n&gt;                     maximum number of credentials written
+ * --offset &lt;n&gt;                    number of credentials skipped first
+ * --no-secrets                    omit secrets, they are never decoded by list
+ * </pre>
+ * Values may also be given as {@code --format=csv}.
+ */
+final class OutputOptions {
+
+    private static final String FORMAT = "--format";
+    private static final String LIMIT = "--limit";
+    private static final String OFFSET = "--offset";
+    private static final String NO_SECRETS = "--no-secrets";
+
+    private final OutputFormat format;
+    private final long limit;
+    private final long offset;
+    private final boolean includeSecrets;
+    private final List<String> arguments;
+
+    private OutputOptions(OutputFormat format, long limit, long offset, boolean includeSecrets, List<String> arguments) {
+        this.format = format;
+        this.limit = limit;
+        this.offset = offset;
+        this.includeSecrets = includeSecrets;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Separates the output options in {@code args} from the remaining arguments
+     * @param args arguments of {@code list} or {@code find}
+     * @return parsed options
+     * @exception IllegalArgumentException if an option is unrecognised or
+     *            its value is missing or invalid
+     */
+    static OutputOptions parse(List<String> args) {
+        var format = OutputFormat.TEXT;
+        var limit = Long.MAX_VALUE;
+        var offset = 0L;
+        var includeSecrets = true;
+        var arguments = new ArrayList<String>(args.size());
+
+        for (int i = 0; i < args.size(); i++) {
+            var arg = args.get(i);
+            if (!arg.startsWith("--")) {
+                arguments.add(arg);
+                continue;
+            }
+
+            var separator = arg.indexOf('=');
+            var name = separator < 0 ? arg : arg.substring(0, separator);
+            if (NO_SECRETS.equals(name) && separator < 0) {
+                includeSecrets = false;
+                continue;
+            }
+
+            String value;
+            if (separator >= 0) {
+                value = arg.substring(separator + 1);
+            } else if (i + 1 < args.size()) {
+                value = args.get(++i);
+            } else {
+                throw new IllegalArgumentException(String.format("%s requires a value", name));
+            }
+
+            switch (name) {
+                case FORMAT:
+                    format = OutputFormat.fromString(value)
+                        .orElseThrow(() -> new IllegalArgumentException(String.format("Unrecognized format '%s'", value)));
+                    break;
+                case LIMIT:
+                    limit = nonNegative(name, value);
+                    break;
+                case OFFSET:
+                    offset = nonNegative(name, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unrecognized option '%s'", name));
+            }
+        }
+        return new OutputOptions(format, limit, offset, includeSecrets, List.copyOf(arguments));
+    }
+
+    /**
+     * format credentials are written in
+     */
+    OutputFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * maximum number of credentials written, {@code Long.MAX_VALUE} when not limited
+     */
+    long getLimit() {
+        return limit;
+    }
+
+    /**
+     * number of credentials skipped before the first is written
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * true unless secrets are to be left out of the output
+     */
+    boolean isIncludeSecrets() {
+        return includeSecrets;
+    }
+
+    /**
+     * arguments which are not output options, in their original order
+     */
+    List<String> getArguments() {
+        return arguments;
+    }
+
+    private static long nonNegative(String name, String value) {
+        try {
+            var parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // ... reported below ...
+        }
+        throw new IllegalArgumentException(String.format("%s requires a non-negative number, '%s' given", name, value));
+    }
+}
@@ -0,0 +1,168 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryFlag;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Limits the daemon directory and socket to their owner, with POSIX
+ * permissions where the file system supports them and an access control
+ * list granting only the owner otherwise, as on NTFS. A file system
+ * supporting neither is refused rather than left open to other users.
+ * <p>
+ * An existing directory accessible to other users is rejected rather
+ * than changed.
+ */
+enum OwnerOnlyAccess {
+
+    POSIX {
+        @Override
+        void createDirectory(Path directory) throws IOException {
+            if (!Files.exists(directory)) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+                return;
+            }
+            var permissions = Files.getPosixFilePermissions(directory);
+            if (!OWNER_ONLY_DIRECTORY.containsAll(permissions)) {
+                throw new IOException(String.format("%s must only be accessible by its owner, found %s",
+                    directory, PosixFilePermissions.toString(permissions)));
+            }
+        }
+
+        @Override
+        void restrictFile(Path file) throws IOException {
+            Files.setPosixFilePermissions(file, OWNER_ONLY_FILE);
+        }
+    },
+
+    ACL {
+        @Override
+        void createDirectory(Path directory) throws IOException {
+            if (!Files.exists(directory)) {
+                Files.createDirectories(directory);
+                restrict(aclView(directory), true);
+                return;
+            }
+            verify(directory, aclView(directory));
+        }
+
+        @Override
+        void restrictFile(Path file) throws IOException {
+            restrict(aclView(file), false);
+        }
+    },
+
+    UNSUPPORTED {
+        @Override
+        void createDirectory(Path directory) throws IOException {
+            throw unsupported(directory);
+        }
+
+        @Override
+        void restrictFile(Path file) throws IOException {
+            throw unsupported(file);
+        }
+    };
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    /**
+     * Creates {@code directory} accessible only by its owner, or verifies
+     * that an existing directory is only accessible by its owner
+     * @exception IOException if the directory cannot be created or
+     *            restricted, or an existing directory is accessible by others
+     */
+    abstract void createDirectory(Path directory) throws IOException;
+
+    /**
+     * Limits the existing {@code file} to its owner
+     * @exception IOException if the file cannot be restricted
+     */
+    abstract void restrictFile(Path file) throws IOException;
+
+    /**
+     * Returns the protection supported by {@code fileSystem}
+     * @param fileSystem file system holding the daemon socket
+     * @return POSIX permissions when supported, otherwise an ACL when supported
+     */
+    static OwnerOnlyAccess of(FileSystem fileSystem) {
+        return of(fileSystem.supportedFileAttributeViews());
+    }
+
+    /**
+     * Returns the protection supported by a file system with the attribute views {@code supportedViews}
+     */
+    static OwnerOnlyAccess of(Set<String> supportedViews) {
+        if (supportedViews.contains("posix")) {
+            return POSIX;
+        }
+        return supportedViews.contains("acl") ? ACL : UNSUPPORTED;
+    }
+
+    /**
+     * Replaces the access control list of {@code view} with a single entry
+     * granting its owner full access, inherited by the children of a
+     * directory when {@code inherit} is true
+     */
+    static void restrict(AclFileAttributeView view, boolean inherit) throws IOException {
+        var entry = AclEntry.newBuilder()
+            .setType(AclEntryType.ALLOW)
+            .setPrincipal(view.getOwner())
+            .setPermissions(EnumSet.allOf(AclEntryPermission.class));
+        if (inherit) {
+            entry.setFlags(AclEntryFlag.FILE_INHERIT, AclEntryFlag.DIRECTORY_INHERIT);
+        }
+        view.setAcl(List.of(entry.build()));
+    }
+
+    /**
+     * Throws if the access control list of {@code view} allows access to
+     * anyone other than its owner
+     */
+    static void verify(Path path, AclFileAttributeView view) throws IOException {
+        var owner = view.getOwner();
+        for (var entry : view.getAcl()) {
+            if (entry.type() == AclEntryType.ALLOW && !entry.principal().equals(owner)) {
+                throw new IOException(String.format("%s must only be accessible by its owner, found access for %s",
+                    path, entry.principal().getName()));
+            }
+        }
+    }
+
+    private static AclFileAttributeView aclView(Path path) throws IOException {
+        var view = Files.getFileAttributeView(path, AclFileAttributeView.class);
+        if (view == null) {
+            throw unsupported(path);
+        }
+        return view;
+    }
+
+    private static IOException unsupported(Path path) {
+        return new IOException(String.format(
+            "%s does not support owner-only permissions, the daemon socket cannot be protected", path));
+    }
+}
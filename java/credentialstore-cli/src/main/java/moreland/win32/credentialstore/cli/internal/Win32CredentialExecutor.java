@@ -14,11 +14,23 @@ package moreland.win32.credentialstore.cli.internal;
 
 import moreland.win32.credentialstore.Guard;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -26,10 +38,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
 import moreland.win32.credentialstore.CredentialFlag;
 import moreland.win32.credentialstore.CredentialManager;
 import moreland.win32.credentialstore.CredentialPersistence;
 import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.EnumerationSubscription;
 
 @Service("credentialExecutor")
 public final class Win32CredentialExecutor implements CredentialExecutor {
@@ -43,13 +57,18 @@ public final class Win32CredentialExecutor implements CredentialExecutor {
     private static final String REMOVE = "remove";
     private static final String FIND = "find";
     private static final String LIST = "list";
+    private static final String BATCH = "batch";
+    private static final String OUTPUT_OPTIONS = "(--format text|jsonl|csv|table) (--limit <n>) (--offset <n>) (--no-secrets)";
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int PAGE_SIZE = 256;
 
     private static Map<String, String> usage;
     static {
         usage = Map.of(ADD, "Usage: credentialStore.Cli add <type> <target> <username>", REMOVE,
                 "Usage: credentialStore.Cli remove <target> (<type>)", FIND,
-                "Usage: CredentialStore.Cli find <filter> (<search all, defaults true>)", LIST,
-                "Usage: CredentialStore.Cli list");
+                "Usage: CredentialStore.Cli find <filter> (<type>) " + OUTPUT_OPTIONS, LIST,
+                "Usage: CredentialStore.Cli list " + OUTPUT_OPTIONS, BATCH,
+                "Usage: CredentialStore.Cli batch (<file>, defaults to stdin)");
     }
 
     @Autowired
@@ -97,6 +116,8 @@ public final class Win32CredentialExecutor implements CredentialExecutor {
                 return Optional.of(args -> find(args));
             case LIST:
                 return Optional.of(args -> list(args));
+            case BATCH:
+                return Optional.of(args -> batch(args));
             default:
                 return Optional.empty();
         }
@@ -172,27 +193,72 @@ public final class Win32CredentialExecutor implements CredentialExecutor {
             return true;
         }
 
-        final var id = args.get(0);
-        if (args.size() > 1) {
-            var type = CredentialType.fromString(args.get(1));
+        var options = parseOutputOptions(args);
+        if (!options.isPresent() || options.get().getArguments().isEmpty()) {
+            options.ifPresent(o -> outputStream.println(usage.get(FIND)));
+            return false;
+        }
+        var arguments = options.get().getArguments();
+
+        final var id = arguments.get(0);
+        Optional<CredentialType> type = Optional.empty();
+        if (arguments.size() > 1) {
+            type = CredentialType.fromString(arguments.get(1));
             if (!type.isPresent()) {
-                logger.error(String.format("Unrecognized type: '%s'", args.get(1)));
+                logger.error(String.format("Unrecognized type: '%s'", arguments.get(1)));
                 return false;
             }
+        }
 
-            var credential = credentialManager.find(id, type.get());
-            outputStream.println(credential
-                .map(Win32CredentialExecutor::formatOutput)
-                .orElse(String.format("%s not found.", id)));
-            return credential.isPresent();
-
-        } else {
-            var credentials = credentialManager.find(id, true);
-            credentials
-                .stream()
-                .forEach(c -> outputStream.println(formatOutput(c)));
-            return credentials.size() > 0;
+        boolean found;
+        try {
+            var writer = newWriter();
+            var credentialWriter = writeHeader(writer, options.get());
+            if (options.get().isIncludeSecrets()) {
+                var credentials = type.isPresent()
+                    ? credentialManager.find(id, type.get()).map(List::of).orElse(List.<Credential>of())
+                    : credentialManager.find(id, true);
+                found = !credentials.isEmpty();
+                var page = credentials.stream()
+                    .skip(options.get().getOffset())
+                    .limit(options.get().getLimit())
+                    .iterator();
+                while (page.hasNext()) {
+                    credentialWriter.write(page.next());
+                }
+            } else {
+                var descriptors = findDescriptors(id, type);
+                found = !descriptors.isEmpty();
+                var page = descriptors.stream()
+                    .skip(options.get().getOffset())
+                    .limit(options.get().getLimit())
+                    .iterator();
+                while (page.hasNext()) {
+                    credentialWriter.write(page.next());
+                }
+            }
+            if (!found && options.get().getFormat() == OutputFormat.TEXT) {
+                writer.write(String.format("%s not found.%n", id));
+            }
+            writer.flush();
+        } catch (IOException e) {
+            logger.error(String.format("Unable to write credentials: %s", e.getMessage()), e);
+            return false;
         }
+        return found;
+    }
+
+    /**
+     * descriptors with id {@code id} ignoring case, and of {@code type} when
+     * present, matching {@code CredentialManager.find} without decoding any
+     * secret blob
+     */
+    private List<CredentialDescriptor> findDescriptors(String id, Optional<CredentialType> type) {
+        return credentialManager.getAllDescriptors()
+            .stream()
+            .filter(d -> d.getId().equalsIgnoreCase(id))
+            .filter(d -> type.map(t -> t == d.getType()).orElse(true))
+            .collect(Collectors.toList());
     }
 
     /**
@@ -206,17 +272,213 @@ public final class Win32CredentialExecutor implements CredentialExecutor {
             return true;
         }
 
-        var credentials = credentialManager
-            .getAll()
-            .stream()
-            .map(Win32CredentialExecutor::formatOutput)
-            .collect(Collectors.toList());
-
-        outputStream.println(String.format("Found %d credentials:", credentials.size()));
-        credentials
-            .forEach(outputStream::println);
+        var options = parseOutputOptions(args);
+        if (!options.isPresent()) {
+            return false;
+        }
 
+        try {
+            var writer = newWriter();
+            var credentialWriter = writeHeader(writer, options.get());
+            if (options.get().isIncludeSecrets()) {
+                writeAll(credentialManager.publishAll(), credentialWriter, options.get());
+            } else {
+                // descriptors are read in place, the secret blobs are never decoded
+                var descriptors = credentialManager.getAllDescriptors();
+                credentialWriter.writeCount(descriptors.size());
+                var page = descriptors.stream()
+                    .skip(options.get().getOffset())
+                    .limit(options.get().getLimit())
+                    .iterator();
+                while (page.hasNext()) {
+                    credentialWriter.write(page.next());
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            logger.error(String.format("Unable to write credentials: %s", e.getMessage()), e);
+            return false;
+        }
         return true;
     }
-    
+
+    private Optional<OutputOptions> parseOutputOptions(List<String> args) {
+        try {
+            return Optional.of(OutputOptions.parse(args));
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * buffered writer over {@code outputStream}, flushed rather than closed
+     * as the stream isn't ours to close
+     */
+    private Writer newWriter() {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, Charset.defaultCharset()), OUTPUT_BUFFER_SIZE);
+    }
+
+    private static CredentialWriter writeHeader(Writer writer, OutputOptions options) throws IOException {
+        var credentialWriter = new CredentialWriter(writer, options.getFormat(), options.isIncludeSecrets());
+        credentialWriter.writeHeader();
+        return credentialWriter;
+    }
+
+    /**
+     * writes the requested page of {@code publisher}, requesting
+     * {@code PAGE_SIZE} credentials at a time and cancelling once the page
+     * is written so the remaining credentials are never converted. The count
+     * is taken from the same enumeration, only a publisher whose subscription
+     * isn't an {@code EnumerationSubscription}, or a limit of zero, counts
+     * through {@code getAllDescriptors}
+     */
+    private void writeAll(Flow.Publisher<Credential> publisher, CredentialWriter writer, OutputOptions options) throws IOException {
+        if (options.getLimit() == 0) {
+            if (writer.writesCount()) {
+                writer.writeCount(credentialManager.getAllDescriptors().size());
+            }
+            return;
+        }
+        var subscriber = new PageSubscriber(writer, options.getOffset(), options.getLimit(),
+            () -> credentialManager.getAllDescriptors().size());
+        publisher.subscribe(subscriber);
+        subscriber.await();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean batch(final List<String> args) {
+        if (!args.isEmpty() && "help".equalsIgnoreCase(args.get(0))) {
+            outputStream.println(usage.get(BATCH));
+            return true;
+        }
+
+        var processor = new BatchProcessor(credentialManager, this, logger);
+        if (args.isEmpty() || "-".equals(args.get(0))) {
+            // System.in is left open, it isn't ours to close
+            return processor.process(new BufferedReader(new InputStreamReader(System.in)), outputStream);
+        }
+
+        try (var reader = Files.newBufferedReader(Path.of(args.get(0)))) {
+            return processor.process(reader, outputStream);
+        } catch (IOException e) {
+            logger.error(String.format("Unable to read '%s': %s", args.get(0), e.getMessage()), e);
+            return false;
+        }
+    }
+
+    private static final class PageSubscriber implements Flow.Subscriber<Credential> {
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final CredentialWriter writer;
+        private final IntSupplier fallbackCount;
+        private long toSkip;
+        private long remaining;
+        private int requested;
+        private boolean counted;
+        private Flow.Subscription subscription;
+        private Throwable error;
+
+        PageSubscriber(CredentialWriter writer, long offset, long limit, IntSupplier fallbackCount) {
+            this.writer = writer;
+            this.fallbackCount = fallbackCount;
+            this.toSkip = offset;
+            this.remaining = limit;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            requested = PAGE_SIZE;
+            subscription.request(PAGE_SIZE);
+        }
+
+        @Override
+        public void onNext(Credential credential) {
+            if (remaining == 0) {
+                return;
+            }
+            try {
+                writeCount();
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    writer.write(credential);
+                    if (--remaining == 0) {
+                        finish(null);
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                finish(e);
+                return;
+            }
+            if (--requested == 0) {
+                requested = PAGE_SIZE;
+                subscription.request(PAGE_SIZE);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                writeCount();
+            } catch (IOException e) {
+                error = e;
+            }
+            finished.countDown();
+        }
+
+        /**
+         * writes the count once, before the first credential or on
+         * completion of an empty enumeration
+         */
+        private void writeCount() throws IOException {
+            if (counted || !writer.writesCount()) {
+                return;
+            }
+            counted = true;
+            var count = subscription instanceof EnumerationSubscription enumeration
+                ? enumeration.getEnumeratedCount()
+                : -1;
+            writer.writeCount(count >= 0 ? count : fallbackCount.getAsInt());
+        }
+
+        private void finish(Throwable throwable) {
+            remaining = 0;
+            error = throwable;
+            subscription.cancel();
+            finished.countDown();
+        }
+
+        void await() throws IOException {
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                subscription.cancel();
+                throw new IOException("interrupted while writing credentials", e);
+            }
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            if (error != null) {
+                throw new IOException(error);
+            }
+        }
+    }
 }
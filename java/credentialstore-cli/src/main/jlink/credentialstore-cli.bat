@@ -0,0 +1,10 @@
+@echo off
+rem Launches the credential store CLI from the runtime image built by the
+rem runtime-image profile, using the AppCDS archive produced by its training
+rem run when present. CREDENTIALSTORE_CLI_OPTS is passed to the JVM as is.
+setlocal
+for %%I in ("%~dp0..") do set "IMAGE_HOME=%%~fI"
+set "SHARED_ARCHIVE="
+if exist "%IMAGE_HOME%\lib\credentialstore-cli.jsa" set SHARED_ARCHIVE="-XX:SharedArchiveFile=%IMAGE_HOME%\lib\credentialstore-cli.jsa"
+
+"%IMAGE_HOME%\bin\java" -Xshare:auto %SHARED_ARCHIVE% -XX:+UseSerialGC %CREDENTIALSTORE_CLI_OPTS% -cp "%IMAGE_HOME%\app\*" moreland.win32.credentialstore.cli.Application %*
@@ -0,0 +1,77 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BatchOperationParserTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "   ", "# comment", "  # indented comment" })
+    void parse_returnsEmpty_whenLineHoldsNoOperation(String line) {
+        assertTrue(BatchOperationParser.parse(1, line).isEmpty());
+    }
+
+    @Test
+    void parse_separatesSecret_whenAddIsGivenAsArguments() {
+        var operation = BatchOperationParser.parse(3, "ADD generic example.com user p@ss").orElseThrow();
+
+        assertEquals(3, operation.getLineNumber());
+        assertEquals("add", operation.getVerb());
+        assertEquals(List.of("generic", "example.com", "user"), operation.getArgs());
+        assertEquals(Optional.of("p@ss"), operation.getSecret());
+        assertEquals("example.com", operation.getTarget());
+    }
+
+    @Test
+    void parse_returnsInvalidOperation_whenAddIsMissingSecret() {
+        var operation = BatchOperationParser.parse(1, "add generic example.com user").orElseThrow();
+
+        assertTrue(operation.getError().isPresent());
+    }
+
+    @Test
+    void parse_returnsArguments_whenLineIsJson() {
+        var operation = BatchOperationParser.parse(1,
+            "{\"op\":\"add\", \"type\":\"generic\", \"target\":\"example.com\", \"username\":\"user\", \"secret\":\"a \\\"quoted\\\" \\u0041\"}")
+            .orElseThrow();
+
+        assertEquals(List.of("generic", "example.com", "user"), operation.getArgs());
+        assertEquals(Optional.of("a \"quoted\" A"), operation.getSecret());
+    }
+
+    @Test
+    void parse_returnsTargetThenType_whenJsonRemoveHasType() {
+        var operation = BatchOperationParser.parse(1, "{\"type\":\"generic\",\"op\":\"remove\",\"target\":\"example.com\"}").orElseThrow();
+
+        assertEquals("remove", operation.getVerb());
+        assertEquals(List.of("example.com", "generic"), operation.getArgs());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "{\"op\":\"add\"}", "{\"op\":\"find\"", "{\"op\":{\"nested\":1}}", "{\"target\":\"x\"}", "{\"op\":\"list\"} trailing" })
+    void parse_returnsInvalidOperation_whenJsonIsMalformedOrIncomplete(String line) {
+        var operation = BatchOperationParser.parse(7, line).orElseThrow();
+
+        assertEquals(7, operation.getLineNumber());
+        assertTrue(operation.getError().isPresent());
+    }
+}
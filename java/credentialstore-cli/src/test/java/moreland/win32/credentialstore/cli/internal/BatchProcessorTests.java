@@ -0,0 +1,145 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.BulkItemResult;
+import moreland.win32.credentialstore.BulkResult;
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialManager;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.ServiceComposition;
+import moreland.win32.credentialstore.ServiceConfiguration;
+
+@ExtendWith(MockitoExtension.class)
+class BatchProcessorTests {
+
+    @Mock
+    private CredentialManager credentialManager;
+
+    @Mock
+    private CredentialExecutor credentialExecutor;
+
+    @Mock
+    private Logger logger;
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenBatchSizeIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchProcessor(credentialManager, credentialExecutor, logger, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void process_addsConsecutiveAddLinesInSingleBulkCall() throws Exception {
+        ArgumentCaptor<Collection<Credential>> captor = ArgumentCaptor.forClass(Collection.class);
+        when(credentialManager.addAll(captor.capture())).thenAnswer(invocation -> {
+            var items = new ArrayList<BulkItemResult<Credential>>();
+            for (var credential : (Collection<Credential>) invocation.getArgument(0)) {
+                items.add(BulkItemResult.succeeded(credential));
+            }
+            return new BulkResult<>(items);
+        });
+        var queue = new LinkedBlockingQueue<BatchOperation>();
+        for (var line : List.of("add generic first user one", "add generic second user two", "add domain_password third user three")) {
+            queue.add(BatchOperationParser.parse(queue.size() + 1, line).orElseThrow());
+        }
+        queue.add(BatchProcessor.END_OF_INPUT);
+        var output = new ByteArrayOutputStream();
+
+        var succeeded = new BatchProcessor(credentialManager, credentialExecutor, logger).drain(queue, new PrintStream(output, true));
+
+        assertTrue(succeeded);
+        verify(credentialManager, times(1)).addAll(anyCollection());
+        var credentials = List.copyOf(captor.getValue());
+        assertEquals(3, credentials.size());
+        assertEquals(CredentialType.DOMAIN_PASSWORD, credentials.get(2).getType());
+        assertEquals("three", credentials.get(2).getSecret());
+        assertEquals(List.of("1\tOK\tadd\tfirst", "2\tOK\tadd\tsecond", "3\tOK\tadd\tthird"), lines(output));
+    }
+
+    @Test
+    void process_reportsEachLineInOrder_usingEmulatedStore() {
+        var manager = ServiceComposition.createCredentialManager(emulatedProperties());
+        var output = new ByteArrayOutputStream();
+        var printStream = new PrintStream(output, true);
+        var executor = new Win32CredentialExecutor(manager, printStream, () -> "", logger);
+        var input = new StringReader(String.join("\n",
+            "# seed the store",
+            "add generic first user one",
+            "{\"op\":\"add\",\"type\":\"generic\",\"target\":\"second\",\"username\":\"user\",\"secret\":\"two\"}",
+            "find first generic",
+            "remove second generic",
+            "remove second generic",
+            "unknown verb",
+            "add generic missing-secret user"));
+
+        var succeeded = new BatchProcessor(manager, executor, logger).process(input, printStream);
+
+        assertFalse(succeeded);
+        assertEquals(List.of(
+            "2\tOK\tadd\tfirst",
+            "3\tOK\tadd\tsecond",
+            "(GENERIC) first - user:one",
+            "4\tOK\tfind\tfirst",
+            "5\tOK\tremove\tsecond",
+            "6\tFAILED\tremove\tsecond\tNOT_FOUND (1168)",
+            "7\tFAILED\tunknown\tverb\tunknown operation",
+            "8\tFAILED\t\t\tadd requires <type> <target> <username> <secret>"), lines(output));
+        assertTrue(manager.find("first", CredentialType.GENERIC).isPresent());
+        assertTrue(manager.find("second", CredentialType.GENERIC).isEmpty());
+    }
+
+    @Test
+    void process_returnsFalse_whenBatchVerbIsNested() {
+        var output = new ByteArrayOutputStream();
+
+        assertFalse(new BatchProcessor(credentialManager, credentialExecutor, logger)
+            .process(new StringReader("batch -"), new PrintStream(output, true)));
+        assertEquals(List.of("1\tFAILED\tbatch\t-\tunknown operation"), lines(output));
+    }
+
+    private static List<String> lines(ByteArrayOutputStream output) {
+        return output.toString().lines().collect(Collectors.toList());
+    }
+
+    private static Properties emulatedProperties() {
+        var properties = new Properties();
+        properties.setProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_EMULATED);
+        return properties;
+    }
+}
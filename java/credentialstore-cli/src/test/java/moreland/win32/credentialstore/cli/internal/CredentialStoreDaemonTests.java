@@ -0,0 +1,186 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.CredentialManager;
+import moreland.win32.credentialstore.ServiceComposition;
+import moreland.win32.credentialstore.ServiceConfiguration;
+
+/**
+ * {@code CredentialStoreDaemon} and {@code DaemonClient} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class CredentialStoreDaemonTests {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private Logger logger;
+
+    private final CredentialManager credentialManager = ServiceComposition.createCredentialManager(emulatedProperties());
+    private CredentialStoreDaemon daemon;
+
+    @AfterEach
+    void afterEach() {
+        if (daemon != null) {
+            daemon.close();
+        }
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenIdleTimeoutIsZero() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CredentialStoreDaemon(directory.resolve("cli.sock"), Duration.ZERO, (output, passwords) -> null, logger));
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenExecutorFactoryIsNull() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CredentialStoreDaemon(directory.resolve("cli.sock"), Duration.ofMinutes(1), null, logger));
+    }
+
+    @Test
+    void run_streamsOutputOfOperation_usingSecretSentByClient() throws Exception {
+        var client = start(Duration.ofMinutes(1));
+
+        assertTrue(client.run(List.of("add", "generic", "first", "user"), Optional.of("password"), new ByteArrayOutputStream()));
+        var output = new ByteArrayOutputStream();
+        var found = client.run(List.of("find", "first", "generic"), Optional.empty(), output);
+
+        assertTrue(found);
+        assertEquals("(GENERIC) first - user:password", output.toString().trim());
+    }
+
+    @Test
+    void run_returnsFalse_whenVerbIsUnknown() throws Exception {
+        var client = start(Duration.ofMinutes(1));
+
+        assertFalse(client.run(List.of("unknown"), Optional.empty(), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void run_servesConcurrentRequests() throws Exception {
+        var client = start(Duration.ofMinutes(1));
+        client.run(List.of("add", "generic", "first", "user"), Optional.of("password"), new ByteArrayOutputStream());
+
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit((Callable<Boolean>) () ->
+                    client.run(List.of("find", "first", "generic"), Optional.empty(), new ByteArrayOutputStream())));
+            }
+            for (var result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void start_restrictsSocketToOwner() throws Exception {
+        start(Duration.ofMinutes(1));
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(daemon.getSocketPath())));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(daemon.getSocketPath().getParent())));
+    }
+
+    @Test
+    void start_throwsIOException_whenDirectoryIsAccessibleToOthers() throws Exception {
+        var shared = Files.createDirectory(directory.resolve("shared"),
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwxr-xr-x")));
+        daemon = new CredentialStoreDaemon(shared.resolve("cli.sock"), Duration.ofMinutes(1), this::executor, logger);
+
+        assertThrows(IOException.class, daemon::start);
+    }
+
+    @Test
+    void start_throwsIOExceptionAndKeepsFile_whenSocketPathIsRegularFile() throws Exception {
+        var owned = Files.createDirectory(directory.resolve("daemon"),
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        var file = Files.writeString(owned.resolve("cli.sock"), "not a socket");
+        daemon = new CredentialStoreDaemon(file, Duration.ofMinutes(1), this::executor, logger);
+
+        assertThrows(IOException.class, daemon::start);
+        assertEquals("not a socket", Files.readString(file));
+    }
+
+    @Test
+    void start_throwsIllegalStateException_whenDaemonIsAlreadyListening() throws Exception {
+        start(Duration.ofMinutes(1));
+        var second = new CredentialStoreDaemon(daemon.getSocketPath(), Duration.ofMinutes(1), this::executor, logger);
+
+        assertThrows(IllegalStateException.class, second::start);
+    }
+
+    @Test
+    void close_removesSocket_afterIdleTimeout() throws Exception {
+        start(Duration.ofMillis(200));
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (daemon.isRunning() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+
+        assertFalse(daemon.isRunning());
+        daemon.awaitTermination();
+        assertFalse(Files.exists(daemon.getSocketPath()));
+    }
+
+    private DaemonClient start(Duration idleTimeout) throws Exception {
+        daemon = new CredentialStoreDaemon(directory.resolve("daemon").resolve("cli.sock"), idleTimeout, this::executor, logger);
+        daemon.start();
+        return new DaemonClient(daemon.getSocketPath());
+    }
+
+    private CredentialExecutor executor(PrintStream output, PasswordReaderFacade passwords) {
+        return new Win32CredentialExecutor(credentialManager, output, passwords, logger);
+    }
+
+    private static Properties emulatedProperties() {
+        var properties = new Properties();
+        properties.setProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_EMULATED);
+        return properties;
+    }
+}
@@ -0,0 +1,83 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialFlag;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+
+class CredentialWriterTests {
+
+    private static final LocalDateTime LAST_UPDATED = LocalDateTime.of(2020, 1, 2, 3, 4, 5);
+    private static final Instant LAST_WRITTEN = LAST_UPDATED.atZone(ZoneOffset.systemDefault()).toInstant();
+
+    private final Credential credential = new Credential("example.com", "user", "a \"quoted\", secret\n",
+        CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LAST_UPDATED);
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenFormatIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialWriter(new StringWriter(), null, true));
+    }
+
+    @Test
+    void write_matchesFormatOutput_whenFormatIsText() throws IOException {
+        var plain = new Credential("example.com", "user", "secret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LAST_UPDATED);
+
+        assertEquals(List.of(Win32CredentialExecutor.formatOutput(plain)), write(OutputFormat.TEXT, true, plain));
+    }
+
+    @Test
+    void write_escapesJsonStrings_whenFormatIsJsonl() throws IOException {
+        assertEquals(List.of("{\"type\":\"GENERIC\",\"id\":\"example.com\",\"username\":\"user\",\"persistence\":\"LOCAL_MACHINE\","
+                + "\"lastWritten\":\"" + LAST_WRITTEN + "\",\"secret\":\"a \\\"quoted\\\", secret\\n\"}"),
+            write(OutputFormat.JSONL, true, credential));
+    }
+
+    @Test
+    void write_quotesCsvFields_whenFieldHoldsSeparatorOrQuote() throws IOException {
+        var output = String.join("\n", write(OutputFormat.CSV, true, credential));
+
+        assertEquals("type,id,username,persistence,lastWritten,secret\n"
+            + "GENERIC,example.com,user,LOCAL_MACHINE," + LAST_WRITTEN + ",\"a \"\"quoted\"\", secret\n\"", output);
+    }
+
+    @Test
+    void write_omitsSecret_whenSecretsAreExcluded() throws IOException {
+        assertEquals(List.of("TYPE                    ID                                      USERNAME",
+                "GENERIC                 example.com                             user"),
+            write(OutputFormat.TABLE, false, credential));
+    }
+
+    private static List<String> write(OutputFormat format, boolean includeSecrets, Credential credential) throws IOException {
+        var output = new StringWriter();
+        var writer = new CredentialWriter(output, format, includeSecrets);
+        writer.writeHeader();
+        writer.write(credential);
+        return output.toString().lines().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,55 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class OutputOptionsTests {
+
+    @Test
+    void parse_returnsDefaults_whenNoOptionsGiven() {
+        var options = OutputOptions.parse(List.of("filter", "generic"));
+
+        assertEquals(OutputFormat.TEXT, options.getFormat());
+        assertEquals(Long.MAX_VALUE, options.getLimit());
+        assertEquals(0L, options.getOffset());
+        assertEquals(List.of("filter", "generic"), options.getArguments());
+    }
+
+    @Test
+    void parse_separatesOptionsFromArguments() {
+        var options = OutputOptions.parse(List.of("--format", "JSONL", "filter", "--limit=10", "--no-secrets", "--offset", "20", "generic"));
+
+        assertEquals(OutputFormat.JSONL, options.getFormat());
+        assertEquals(10L, options.getLimit());
+        assertEquals(20L, options.getOffset());
+        assertFalse(options.isIncludeSecrets());
+        assertEquals(List.of("filter", "generic"), options.getArguments());
+    }
+
+    @Test
+    void parse_throwsIllegalArgumentException_whenValueIsMissing() {
+        assertThrows(IllegalArgumentException.class, () -> OutputOptions.parse(List.of("--format")));
+    }
+
+    @Test
+    void parse_throwsIllegalArgumentException_whenLimitIsNotANumber() {
+        assertThrows(IllegalArgumentException.class, () -> OutputOptions.parse(List.of("--limit", "ten")));
+    }
+}
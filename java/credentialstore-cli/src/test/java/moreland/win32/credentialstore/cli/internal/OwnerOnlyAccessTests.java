@@ -0,0 +1,159 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.cli.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryFlag;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OwnerOnlyAccessTests {
+
+    private static final UserPrincipal OWNER = () -> "owner";
+    private static final UserPrincipal OTHER = () -> "other";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void of_returnsPosix_whenPosixIsSupported() {
+        assertEquals(OwnerOnlyAccess.POSIX, OwnerOnlyAccess.of(Set.of("basic", "owner", "posix", "acl")));
+    }
+
+    @Test
+    void of_returnsAcl_whenOnlyAclIsSupported() {
+        assertEquals(OwnerOnlyAccess.ACL, OwnerOnlyAccess.of(Set.of("basic", "owner", "dos", "acl", "user")));
+    }
+
+    @Test
+    void of_returnsUnsupported_whenNeitherIsSupported() {
+        assertEquals(OwnerOnlyAccess.UNSUPPORTED, OwnerOnlyAccess.of(Set.of("basic", "owner")));
+    }
+
+    @Test
+    void createDirectory_throwsIOException_whenUnsupported() {
+        var socketDirectory = directory.resolve("daemon");
+
+        assertThrows(IOException.class, () -> OwnerOnlyAccess.UNSUPPORTED.createDirectory(socketDirectory));
+        assertFalse(Files.exists(socketDirectory));
+    }
+
+    @Test
+    void restrictFile_throwsIOException_whenUnsupported() {
+        assertThrows(IOException.class, () -> OwnerOnlyAccess.UNSUPPORTED.restrictFile(directory));
+    }
+
+    @Test
+    void restrict_replacesAclWithSingleOwnerEntry() throws IOException {
+        var view = new InMemoryAclView(OWNER, List.of(allow(OWNER), allow(OTHER)));
+
+        OwnerOnlyAccess.restrict(view, false);
+
+        assertEquals(1, view.getAcl().size());
+        var entry = view.getAcl().get(0);
+        assertEquals(AclEntryType.ALLOW, entry.type());
+        assertEquals(OWNER, entry.principal());
+        assertEquals(EnumSet.allOf(AclEntryPermission.class), entry.permissions());
+        assertTrue(entry.flags().isEmpty());
+    }
+
+    @Test
+    void restrict_inheritsOwnerEntry_whenInheritIsTrue() throws IOException {
+        var view = new InMemoryAclView(OWNER, List.of());
+
+        OwnerOnlyAccess.restrict(view, true);
+
+        assertEquals(Set.of(AclEntryFlag.FILE_INHERIT, AclEntryFlag.DIRECTORY_INHERIT), view.getAcl().get(0).flags());
+    }
+
+    @Test
+    void verify_throwsIOException_whenOtherPrincipalIsAllowed() {
+        var view = new InMemoryAclView(OWNER, List.of(allow(OWNER), allow(OTHER)));
+
+        var exception = assertThrows(IOException.class, () -> OwnerOnlyAccess.verify(directory, view));
+        assertTrue(exception.getMessage().contains(OTHER.getName()));
+    }
+
+    @Test
+    void verify_doesNotThrow_whenOnlyOwnerIsAllowed() throws IOException {
+        var deny = AclEntry.newBuilder()
+            .setType(AclEntryType.DENY)
+            .setPrincipal(OTHER)
+            .setPermissions(AclEntryPermission.READ_DATA)
+            .build();
+        var view = new InMemoryAclView(OWNER, List.of(allow(OWNER), deny));
+
+        OwnerOnlyAccess.verify(directory, view);
+    }
+
+    private static AclEntry allow(UserPrincipal principal) {
+        return AclEntry.newBuilder()
+            .setType(AclEntryType.ALLOW)
+            .setPrincipal(principal)
+            .setPermissions(AclEntryPermission.READ_DATA)
+            .build();
+    }
+
+    private static final class InMemoryAclView implements AclFileAttributeView {
+
+        private final UserPrincipal owner;
+        private List<AclEntry> acl;
+
+        InMemoryAclView(UserPrincipal owner, List<AclEntry> acl) {
+            this.owner = owner;
+            this.acl = new ArrayList<>(acl);
+        }
+
+        @Override
+        public String name() {
+            return "acl";
+        }
+
+        @Override
+        public UserPrincipal getOwner() {
+            return owner;
+        }
+
+        @Override
+        public void setOwner(UserPrincipal owner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<AclEntry> getAcl() {
+            return acl;
+        }
+
+        @Override
+        public void setAcl(List<AclEntry> acl) {
+            this.acl = new ArrayList<>(acl);
+        }
+    }
+}
@@ -21,10 +21,14 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,10 +40,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 
 import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
 import moreland.win32.credentialstore.CredentialFlag;
 import moreland.win32.credentialstore.CredentialManager;
 import moreland.win32.credentialstore.CredentialPersistence;
 import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.EnumerationSubscription;
 
 @ExtendWith(MockitoExtension.class)
 class Win32CredentialExecutorTests {
@@ -244,10 +250,11 @@ class Win32CredentialExecutorTests {
         var credential = new Credential("id1", "username1", "secret1", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
         var arguments = List.of("id1", "generic");
         when(credentialManager.find("id1", CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+        var output = new ByteArrayOutputStream();
 
-        credentialExecutor.find(arguments);
+        executorWritingTo(output).find(arguments);
 
-        verify(outputStream, times(1)).println(Win32CredentialExecutor.formatOutput(credential));
+        assertEquals(List.of(Win32CredentialExecutor.formatOutput(credential)), lines(output));
     }
 
     @Test
@@ -259,10 +266,11 @@ class Win32CredentialExecutorTests {
         );
         var arguments = List.of("id1");
         when(credentialManager.find("id1", true)).thenReturn(credentials);
+        var output = new ByteArrayOutputStream();
 
-        credentialExecutor.find(arguments);
+        executorWritingTo(output).find(arguments);
 
-        verify(outputStream, times(1)).println(Win32CredentialExecutor.formatOutput(credentials.get(0)));
+        assertEquals(Win32CredentialExecutor.formatOutput(credentials.get(0)), lines(output).get(0));
     }
 
     @ParameterizedTest
@@ -288,14 +296,38 @@ class Win32CredentialExecutorTests {
             new Credential("id2", "username2", "secret2", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()),
             new Credential("id3", "username3", "secret3", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now())
         );
-        when(credentialManager.getAll()).thenReturn(credentials);
+        when(credentialManager.publishAll()).thenReturn(publisherOf(credentials));
+        var output = new ByteArrayOutputStream();
 
-        credentialExecutor.list(List.of());
+        executorWritingTo(output).list(List.of());
 
-        verify(outputStream, times(1))
-            .println(String.format("Found %d credentials:", credentials.size()));
+        assertEquals(String.format("Found %d credentials:", credentials.size()), lines(output).get(0));
+        verify(credentialManager, times(0)).getAllDescriptors();
+    }
+
+    @Test
+    void list_countsThroughDescriptors_whenSubscriptionHasNoCount() {
+        var credentials = List.of(
+            new Credential("id1", "username1", "secret1", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()),
+            new Credential("id2", "username2", "secret2", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now())
+        );
+        when(credentialManager.getAllDescriptors()).thenReturn(descriptorsOf(credentials));
+        when(credentialManager.publishAll()).thenReturn(publisherOf(credentials, false));
+        var output = new ByteArrayOutputStream();
+
+        executorWritingTo(output).list(List.of());
+
+        assertEquals("Found 2 credentials:", lines(output).get(0));
+    }
+
+    @Test
+    void list_printsZeroCount_whenNoCredentialsExist() {
+        when(credentialManager.publishAll()).thenReturn(publisherOf(List.of()));
+        var output = new ByteArrayOutputStream();
 
+        executorWritingTo(output).list(List.of());
 
+        assertEquals(List.of("Found 0 credentials:"), lines(output));
     }
 
     @Test
@@ -305,20 +337,159 @@ class Win32CredentialExecutorTests {
             new Credential("id2", "username2", "secret2", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()),
             new Credential("id3", "username3", "secret3", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now())
         );
-        when(credentialManager.getAll()).thenReturn(credentials);
+        when(credentialManager.publishAll()).thenReturn(publisherOf(credentials));
         var expectedOutput = credentials
             .stream()
-            .map(Win32CredentialExecutor::formatOutput);
+            .map(Win32CredentialExecutor::formatOutput)
+            .collect(Collectors.toList());
+        var output = new ByteArrayOutputStream();
 
-        credentialExecutor.list(List.of());
+        executorWritingTo(output).list(List.of());
 
-        expectedOutput
-            .forEach(s -> verify(outputStream, times(1)).println(s));
+        assertEquals(expectedOutput, lines(output).subList(1, credentials.size() + 1));
     }
 
     @Test
     void list_returnsTrue_whenArgumentsAreEmpty() {
-        when(credentialManager.getAll()).thenReturn(List.of());
+        when(credentialManager.publishAll()).thenReturn(publisherOf(List.of()));
         assertTrue(credentialExecutor.list(List.of()));
     }
+
+    @Test
+    void list_writesRequestedPage_whenLimitAndOffsetGiven() {
+        var credentials = List.of(
+            new Credential("id1", "username1", "secret1", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()),
+            new Credential("id2", "username2", "secret2", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()),
+            new Credential("id3", "username3", "secret3", CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now())
+        );
+        when(credentialManager.publishAll()).thenReturn(publisherOf(credentials));
+        var output = new ByteArrayOutputStream();
+
+        executorWritingTo(output).list(List.of("--offset", "1", "--limit=1"));
+
+        assertEquals(List.of("Found 3 credentials:", Win32CredentialExecutor.formatOutput(credentials.get(1))), lines(output));
+    }
+
+    @Test
+    void list_writesDescriptorsWithoutReadingSecrets_whenNoSecretsGiven() {
+        var descriptor = new CredentialDescriptor("id1", "username1", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, Instant.parse("2020-01-02T03:04:05Z"));
+        when(credentialManager.getAllDescriptors()).thenReturn(List.of(descriptor));
+        var output = new ByteArrayOutputStream();
+
+        executorWritingTo(output).list(List.of("--no-secrets", "--format", "csv"));
+
+        assertEquals(List.of("type,id,username,persistence,lastWritten", "GENERIC,id1,username1,LOCAL_MACHINE,2020-01-02T03:04:05Z"), lines(output));
+        verify(credentialManager, times(0)).publishAll();
+    }
+
+    @Test
+    void list_writesHeaderBeforeDescriptors_whenNoSecretsGivenForText() {
+        var descriptor = new CredentialDescriptor("id1", "username1", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, Instant.parse("2020-01-02T03:04:05Z"));
+        when(credentialManager.getAllDescriptors()).thenReturn(List.of(descriptor));
+        var output = new ByteArrayOutputStream();
+
+        executorWritingTo(output).list(List.of("--no-secrets"));
+
+        assertEquals(List.of("Found 1 credentials:", "(GENERIC) id1 - username1"), lines(output));
+        verify(credentialManager, times(0)).publishAll();
+    }
+
+    @Test
+    void find_writesMatchingDescriptorsWithoutReadingSecrets_whenNoSecretsGiven() {
+        var lastWritten = Instant.parse("2020-01-02T03:04:05Z");
+        when(credentialManager.getAllDescriptors()).thenReturn(List.of(
+            new CredentialDescriptor("id1", "username1", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, lastWritten),
+            new CredentialDescriptor("ID1", "username2", CredentialType.DOMAIN_PASSWORD, CredentialPersistence.LOCAL_MACHINE, lastWritten),
+            new CredentialDescriptor("id2", "username3", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, lastWritten)));
+        var output = new ByteArrayOutputStream();
+
+        var found = executorWritingTo(output).find(List.of("id1", "generic", "--no-secrets", "--format", "csv"));
+
+        assertTrue(found);
+        assertEquals(List.of("type,id,username,persistence,lastWritten", "GENERIC,id1,username1,LOCAL_MACHINE,2020-01-02T03:04:05Z"), lines(output));
+        verify(credentialManager, times(0)).find("id1", CredentialType.GENERIC);
+    }
+
+    @Test
+    void find_matchesDescriptorsOfEveryType_whenNoSecretsGivenWithoutType() {
+        var lastWritten = Instant.parse("2020-01-02T03:04:05Z");
+        when(credentialManager.getAllDescriptors()).thenReturn(List.of(
+            new CredentialDescriptor("id1", "username1", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, lastWritten),
+            new CredentialDescriptor("ID1", "username2", CredentialType.DOMAIN_PASSWORD, CredentialPersistence.LOCAL_MACHINE, lastWritten),
+            new CredentialDescriptor("id2", "username3", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, lastWritten)));
+        var output = new ByteArrayOutputStream();
+
+        executorWritingTo(output).find(List.of("id1", "--no-secrets"));
+
+        assertEquals(2, lines(output).size());
+        verify(credentialManager, times(0)).find("id1", true);
+    }
+
+    @Test
+    void find_returnsFalse_whenNoDescriptorMatchesAndNoSecretsGiven() {
+        when(credentialManager.getAllDescriptors()).thenReturn(List.of());
+        var output = new ByteArrayOutputStream();
+
+        assertFalse(executorWritingTo(output).find(List.of("id1", "--no-secrets")));
+        assertEquals(List.of("id1 not found."), lines(output));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"--format=xml", "--limit", "--offset=-1", "--unknown"})
+    void list_returnsFalse_whenOutputOptionIsInvalid(String argument) {
+        assertFalse(credentialExecutor.list(List.of(argument)));
+    }
+
+    private Win32CredentialExecutor executorWritingTo(ByteArrayOutputStream output) {
+        return new Win32CredentialExecutor(credentialManager, new PrintStream(output, true), passwordReaderFacade, logger);
+    }
+
+    private static List<String> lines(ByteArrayOutputStream output) {
+        return output.toString().lines().collect(Collectors.toList());
+    }
+
+    private static List<CredentialDescriptor> descriptorsOf(List<Credential> credentials) {
+        return credentials.stream()
+            .map(c -> new CredentialDescriptor(c.getId(), c.getUsername(), c.getType(), c.getPersistenceType(), Instant.EPOCH))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * publisher delivering {@code credentials} on the requesting thread, as {@code publishAll} does
+     */
+    private static Flow.Publisher<Credential> publisherOf(List<Credential> credentials) {
+        return publisherOf(credentials, true);
+    }
+
+    /**
+     * publisher delivering {@code credentials} on the requesting thread, reporting an unknown
+     * enumerated count unless {@code hasCount}
+     */
+    private static Flow.Publisher<Credential> publisherOf(List<Credential> credentials, boolean hasCount) {
+        return subscriber -> subscriber.onSubscribe(new EnumerationSubscription() {
+            private int index;
+            private boolean cancelled;
+
+            @Override
+            public int getEnumeratedCount() {
+                return hasCount ? credentials.size() : -1;
+            }
+
+            @Override
+            public void request(long n) {
+                for (long i = 0; i < n && !cancelled && index < credentials.size(); i++) {
+                    subscriber.onNext(credentials.get(index++));
+                }
+                if (!cancelled && index == credentials.size()) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+            }
+        });
+    }
 }
@@ -12,6 +12,8 @@
 //
 module moreland.win32.credentialstore {
     requires java.base;
+    requires java.management;
+    requires jdk.jfr;
     requires transitive com.sun.jna;
     requires transitive com.sun.jna.platform;
     
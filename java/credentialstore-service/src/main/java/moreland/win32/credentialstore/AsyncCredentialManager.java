@@ -0,0 +1,130 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@code CredentialManager}, every operation
+ * returns immediately and the native call is made on another thread.
+ * <p>
+ * Unlike {@code CredentialManager} failures are not collapsed to
+ * {@code false} or empty results, the returned future completes
+ * exceptionally with a {@code Win32Exception} carrying the Win32 error
+ * code. Reads that match nothing complete normally with an empty result.
+ * Futures may complete on the executor thread, callers which must not run
+ * continuations there should use the {@code *Async} composition methods.
+ */
+public interface AsyncCredentialManager {
+
+    /**
+     * Returns all Credentials from the Users credential set
+     * @return future completing with all credentials
+     */
+    CompletableFuture<List<Credential>> getAll();
+
+    /**
+     * Returns the metadata of all Credentials from the Users credential set
+     * @return future completing with the metadata of all credentials
+     */
+    CompletableFuture<List<CredentialDescriptor>> getAllDescriptors();
+
+    /**
+     * adds provided credential to Win32 credential manager
+     * @param credential credential to add
+     * @return future completing once the credential is written
+     * @exception IllegalArgumentException if {@code credential} is null
+     */
+    CompletableFuture<Void> add(Credential credential);
+
+    /**
+     * Updates existing credential with {@code credential}
+     * @param credential credential to update
+     * @return future completing once the credential is written
+     * @exception IllegalArgumentException if {@code credential} is null
+     */
+    CompletableFuture<Void> update(Credential credential);
+
+    /**
+     * deletes a credential from the user's credential set
+     * @param credential credential to be removed
+     * @return future completing once the credential is deleted, a missing
+     *         credential fails with {@code ExpectedErrorCode.NOT_FOUND}
+     * @exception IllegalArgumentException if {@code credential} is null
+     */
+    CompletableFuture<Void> delete(Credential credential);
+
+    /**
+     * deletes a credential from the user's credential set
+     * @param id id of item to be deleted
+     * @param type type of the item to be deleted
+     * @return future completing once the credential is deleted, a missing
+     *         credential fails with {@code ExpectedErrorCode.NOT_FOUND}
+     * @exception IllegalArgumentException if {@code id} or {@code type} is null
+     */
+    CompletableFuture<Void> delete(String id, CredentialType type);
+
+    /**
+     * Finds a credential with the given id value and {@code type}
+     * @param id id of the credential to be found
+     * @param type type of the matching credential
+     * @return future completing with the credential, empty if not found
+     * @exception IllegalArgumentException if {@code id} or {@code type} is null
+     */
+    CompletableFuture<Optional<Credential>> find(String id, CredentialType type);
+
+    /**
+     * @see CredentialManager#find(String, boolean)
+     */
+    CompletableFuture<List<Credential>> find(String filter, boolean searchAll);
+
+    /**
+     * @see CredentialManager#findMatching(String)
+     */
+    CompletableFuture<List<Credential>> findMatching(String pattern);
+
+    /**
+     * @see CredentialManager#findModifiedSince(Instant)
+     */
+    CompletableFuture<List<Credential>> findModifiedSince(Instant since);
+
+    /**
+     * @see CredentialManager#findByAttribute(CredentialAttribute)
+     */
+    CompletableFuture<List<Credential>> findByAttribute(CredentialAttribute attribute);
+
+    /**
+     * @see CredentialManager#addAll(Collection)
+     */
+    CompletableFuture<BulkResult<Credential>> addAll(Collection<Credential> credentials);
+
+    /**
+     * @see CredentialManager#updateAll(Collection)
+     */
+    CompletableFuture<BulkResult<Credential>> updateAll(Collection<Credential> credentials);
+
+    /**
+     * @see CredentialManager#deleteAll(Collection)
+     */
+    CompletableFuture<BulkResult<CredentialKey>> deleteAll(Collection<CredentialKey> keys);
+
+    /**
+     * @see CredentialManager#findAll(Collection)
+     */
+    CompletableFuture<Map<CredentialKey, Credential>> findAll(Collection<CredentialKey> keys);
+}
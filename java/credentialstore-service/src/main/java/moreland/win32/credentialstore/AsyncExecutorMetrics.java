@@ -0,0 +1,114 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Duration;
+
+/**
+ * Point in time copy of the counters maintained by {@code Win32AsyncCredentialManager}
+ */
+public final class AsyncExecutorMetrics {
+
+    private final int queueDepth;
+    private final int activeCount;
+    private final long completedCount;
+    private final long failedCount;
+    private final long rejectedCount;
+    private final long totalQueueWaitNanos;
+    private final long totalExecutionNanos;
+    private final long maximumExecutionNanos;
+
+    public AsyncExecutorMetrics(int queueDepth, int activeCount, long completedCount, long failedCount, long rejectedCount,
+            long totalQueueWaitNanos, long totalExecutionNanos, long maximumExecutionNanos) {
+        this.queueDepth = queueDepth;
+        this.activeCount = activeCount;
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+        this.rejectedCount = rejectedCount;
+        this.totalQueueWaitNanos = totalQueueWaitNanos;
+        this.totalExecutionNanos = totalExecutionNanos;
+        this.maximumExecutionNanos = maximumExecutionNanos;
+    }
+
+    /**
+     * number of operations waiting for a thread
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * number of operations currently running
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * number of operations which completed normally
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * number of operations which completed exceptionally after running
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * number of operations refused because the queue was full or the
+     * executor was shut down
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * mean time operations spent queued before running
+     */
+    public Duration getAverageQueueWait() {
+        return average(totalQueueWaitNanos);
+    }
+
+    /**
+     * mean time operations spent running
+     */
+    public Duration getAverageExecutionTime() {
+        return average(totalExecutionNanos);
+    }
+
+    /**
+     * longest time an operation spent running
+     */
+    public Duration getMaximumExecutionTime() {
+        return Duration.ofNanos(maximumExecutionNanos);
+    }
+
+    private Duration average(long totalNanos) {
+        var count = completedCount + failedCount;
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos / count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "AsyncExecutorMetrics{QueueDepth=" + queueDepth + ", Active=" + activeCount
+            + ", Completed=" + completedCount + ", Failed=" + failedCount + ", Rejected=" + rejectedCount
+            + ", AverageQueueWait=" + getAverageQueueWait() + ", AverageExecutionTime=" + getAverageExecutionTime() + "}";
+    }
+}
@@ -0,0 +1,119 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Optional;
+
+/**
+ * Result of a single item of a bulk operation
+ * @param <T> type of the item, a {@code Credential} or {@code CredentialKey}
+ */
+public final class BulkItemResult<T> {
+
+    /**
+     * error code of a failure whose Win32 error code is not known, as
+     * reported by native calls returning false without a last error
+     */
+    public static final int UNKNOWN_ERROR_CODE = -1;
+
+    private final T item;
+    private final BulkOutcome outcome;
+    private final int errorCode;
+
+    private BulkItemResult(T item, BulkOutcome outcome, int errorCode) {
+        this.item = item;
+        this.outcome = outcome;
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Returns a successful result for {@code item}
+     * @param item the item
+     * @return successful result
+     */
+    public static <T> BulkItemResult<T> succeeded(T item) {
+        return new BulkItemResult<>(item, BulkOutcome.SUCCEEDED, 0);
+    }
+
+    /**
+     * Returns the result of {@code item} for Win32 error {@code errorCode}
+     * @param item the item
+     * @param errorCode Win32 error code, 0 for success
+     * @return result whose outcome is derived from {@code errorCode}
+     */
+    public static <T> BulkItemResult<T> of(T item, int errorCode) {
+        if (errorCode == ExpectedErrorCode.NONE.getValue()) {
+            return succeeded(item);
+        }
+        var outcome = errorCode == ExpectedErrorCode.NOT_FOUND.getValue()
+            ? BulkOutcome.NOT_FOUND
+            : BulkOutcome.FAILED;
+        return new BulkItemResult<>(item, outcome, errorCode);
+    }
+
+    /**
+     * Returns a failed result for {@code item} whose Win32 error code is
+     * not known, as reported by operations returning only {@code false}
+     * @param item the item
+     * @return failed result with error code {@link #UNKNOWN_ERROR_CODE}
+     */
+    static <T> BulkItemResult<T> failed(T item) {
+        return new BulkItemResult<>(item, BulkOutcome.FAILED, UNKNOWN_ERROR_CODE);
+    }
+
+    /**
+     * the item the result applies to
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * @see BulkOutcome
+     */
+    public BulkOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Win32 error code of the failure, 0 when the operation succeeded or
+     * {@link #UNKNOWN_ERROR_CODE} when the failure carried no error code
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Returns the expected error matching {@code getErrorCode()} if known
+     * @return optional containing the matching error if known
+     */
+    public Optional<ExpectedErrorCode> getExpectedErrorCode() {
+        return ExpectedErrorCode.fromInteger(errorCode);
+    }
+
+    /**
+     * Returns true if the operation succeeded for the item
+     * @return true if the operation succeeded
+     */
+    public boolean isSucceeded() {
+        return outcome == BulkOutcome.SUCCEEDED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "BulkItemResult{Item=" + item + ", Outcome=" + outcome + ", ErrorCode=" + errorCode + "}";
+    }
+}
@@ -0,0 +1,97 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item report of a bulk operation, items are in the order they were provided
+ * @param <T> type of the item, a {@code Credential} or {@code CredentialKey}
+ */
+public final class BulkResult<T> {
+
+    private final List<BulkItemResult<T>> items;
+
+    /**
+     * Instantiates a new instance of the BulkResult class
+     * @param items result of each item
+     * @exception IllegalArgumentException if {@code items} is null
+     */
+    public BulkResult(List<BulkItemResult<T>> items) {
+        Guard.againstNull(items, "items");
+        this.items = List.copyOf(items);
+    }
+
+    /**
+     * result of each item in the order provided
+     */
+    public List<BulkItemResult<T>> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the number of items
+     * @return the number of items
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns the number of items which succeeded
+     * @return the number of items which succeeded
+     */
+    public long getSucceededCount() {
+        return items.stream().filter(BulkItemResult::isSucceeded).count();
+    }
+
+    /**
+     * Returns true if every item succeeded
+     * @return true if every item succeeded
+     */
+    public boolean isAllSucceeded() {
+        return items.stream().allMatch(BulkItemResult::isSucceeded);
+    }
+
+    /**
+     * Returns the items which succeeded
+     * @return the items which succeeded
+     */
+    public List<T> getSucceeded() {
+        return items
+            .stream()
+            .filter(BulkItemResult::isSucceeded)
+            .map(BulkItemResult::getItem)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the results of items which did not succeed
+     * @return the results of items which did not succeed
+     */
+    public List<BulkItemResult<T>> getFailures() {
+        return items
+            .stream()
+            .filter(item -> !item.isSucceeded())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "BulkResult{Size=" + size() + ", Succeeded=" + getSucceededCount() + "}";
+    }
+}
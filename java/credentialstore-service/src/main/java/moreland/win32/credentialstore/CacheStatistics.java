@@ -0,0 +1,77 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+/**
+ * Point in time copy of the counters maintained by {@code CachingCredentialManager}
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * number of lookups which were absent or expired, including those
+     * which joined a load already in progress
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * number of entries removed to respect the size bound
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * number of entries held when the statistics were taken
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * ratio of hits to lookups, 1.0 when no lookups have been made
+     */
+    public double getHitRate() {
+        var requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CacheStatistics{Hits=" + hitCount + ", Misses=" + missCount
+            + ", Evictions=" + evictionCount + ", Size=" + size + "}";
+    }
+}
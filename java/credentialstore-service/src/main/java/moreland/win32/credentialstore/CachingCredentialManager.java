@@ -0,0 +1,416 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache in front of {@code find(String, CredentialType)} of
+ * another {@code CredentialManager}.
+ * <p>
+ * Entries expire after a fixed time to live and the cache holds at most
+ * {@code maximumSize} entries. When a segment is full its least recently used entry is
+ * only replaced if the candidate has been requested more often recently,
+ * as estimated by a frequency sketch, so one-off lookups cannot flush
+ * popular credentials. Absent credentials are cached as well.
+ * <p>
+ * {@code add}, {@code update} and {@code delete} invalidate the affected
+ * key; changes made outside of this instance are only seen once the entry
+ * expires. Concurrent misses on the same key share a single load.
+ * <p>
+ * The cache owns the credentials it holds: a credential whose secret is
+ * held in a {@code SecretBuffer} is copied into a buffer of the cache's
+ * own when stored, and every caller of {@code find} receives its own copy,
+ * so a caller may close the buffer it was given without affecting the
+ * cache or other callers. Buffers held by the cache are never closed by
+ * it, they are released once evicted entries are no longer reachable.
+ * <p>
+ * Keys are spread over segments, each with its own lock, entries and
+ * frequency sketch, so lookups of unrelated keys do not contend; a cache
+ * smaller than {@code 2 * MINIMUM_SEGMENT_SIZE} has a single segment.
+ */
+public final class CachingCredentialManager extends DelegatingCredentialManager {
+
+    /**
+     * smallest number of entries held by each segment
+     */
+    static final int MINIMUM_SEGMENT_SIZE = 32;
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private final long timeToLiveNanos;
+    private final LongSupplier ticker;
+
+    private final Segment[] segments;
+    private final ConcurrentHashMap<CredentialKey, CompletableFuture<Optional<Credential>>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Instantiates a new instance of the CachingCredentialManager class
+     * @param delegate manager used to load credentials not present in the cache
+     * @param maximumSize maximum number of cached entries
+     * @param timeToLive time an entry remains valid after it is loaded
+     * @exception IllegalArgumentException if {@code delegate} or {@code timeToLive}
+     *            is null, {@code maximumSize} is less than 1 or {@code timeToLive}
+     *            is not positive
+     */
+    public CachingCredentialManager(CredentialManager delegate, int maximumSize, Duration timeToLive) {
+        this(delegate, maximumSize, timeToLive, System::nanoTime);
+    }
+
+    CachingCredentialManager(CredentialManager delegate, int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        super(delegate);
+        Guard.againstNull(timeToLive, "timeToLive");
+        Guard.againstNull(ticker, "ticker");
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be greater than zero");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("timeToLive must be positive");
+        }
+
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.ticker = ticker;
+
+        var segmentCount = Math.min(MAXIMUM_SEGMENTS, Integer.highestOneBit(Math.max(1, maximumSize / MINIMUM_SEGMENT_SIZE)));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean add(Credential credential) {
+        try {
+            return super.add(credential);
+        } finally {
+            invalidate(credential);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean update(Credential credential) {
+        try {
+            return super.update(credential);
+        } finally {
+            invalidate(credential);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(Credential credential) {
+        try {
+            return super.delete(credential);
+        } finally {
+            invalidate(credential);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(String id, CredentialType type) {
+        try {
+            return super.delete(id, type);
+        } finally {
+            invalidate(id, type);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        try {
+            return super.addAll(credentials, executor);
+        } finally {
+            invalidateCredentials(credentials);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        try {
+            return super.updateAll(credentials, executor);
+        } finally {
+            invalidateCredentials(credentials);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        try {
+            return super.deleteAll(keys, executor);
+        } finally {
+            if (keys != null) {
+                for (var key : keys) {
+                    if (key != null) {
+                        invalidate(key.getId(), key.getType());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Credential> find(String id, CredentialType type) {
+        if (id == null || type == null) {
+            return super.find(id, type);
+        }
+
+        var key = CredentialKey.of(id, type);
+        var segment = segmentFor(key);
+        Optional<Credential> cached = null;
+        segment.lock.lock();
+        try {
+            segment.sketch.increment(key.hashCode());
+            var entry = segment.entries.get(key);
+            if (entry != null) {
+                if (entry.isLive(ticker.getAsLong())) {
+                    cached = entry.value;
+                } else {
+                    segment.entries.remove(key);
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (cached != null) {
+            hitCount.increment();
+            // copied outside of the lock, the cached buffer is never closed so it remains valid
+            return copyOf(cached);
+        }
+        missCount.increment();
+        return load(key, segment, id, type);
+    }
+
+    /**
+     * Removes the cached entry for {@code id} and {@code type} if present
+     * @param id target name of the credential
+     * @param type type of the credential
+     */
+    public void invalidate(String id, CredentialType type) {
+        if (id == null || type == null) {
+            return;
+        }
+        var key = CredentialKey.of(id, type);
+        var segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(key);
+            // a load still in flight may have read the old value, forgetting it prevents that result being cached
+            loads.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every cached entry
+     */
+    public void invalidateAll() {
+        for (var segment : segments) {
+            segment.lock.lock();
+        }
+        try {
+            for (var segment : segments) {
+                segment.entries.clear();
+            }
+            loads.clear();
+        } finally {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of cached entries, including any which have
+     * expired but not yet been removed
+     * @return number of cached entries
+     */
+    public int size() {
+        var size = 0;
+        for (var segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the cache counters
+     * @return current statistics
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size());
+    }
+
+    private void invalidate(Credential credential) {
+        if (credential != null) {
+            invalidate(credential.getId(), credential.getType());
+        }
+    }
+
+    private void invalidateCredentials(Collection<Credential> credentials) {
+        if (credentials != null) {
+            credentials.forEach(this::invalidate);
+        }
+    }
+
+    private Segment segmentFor(CredentialKey key) {
+        var hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private Optional<Credential> load(CredentialKey key, Segment segment, String id, CredentialType type) {
+        var future = new CompletableFuture<Optional<Credential>>();
+        var existing = loads.putIfAbsent(key, future);
+        if (existing != null) {
+            // the loading caller keeps the delegate's instance, everyone else gets a copy
+            return copyOf(await(existing));
+        }
+
+        Optional<Credential> value;
+        try {
+            value = super.find(id, type);
+        } catch (RuntimeException e) {
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        // the copies are taken before the caller can close the delegate's buffer
+        var owned = copyOf(value);
+        var shared = copyOf(value);
+        segment.lock.lock();
+        try {
+            if (loads.remove(key, future)) {
+                store(segment, key, owned);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        future.complete(shared);
+        return value;
+    }
+
+    private void store(Segment segment, CredentialKey key, Optional<Credential> value) {
+        var now = ticker.getAsLong();
+        var entries = segment.entries;
+        if (!entries.containsKey(key) && entries.size() >= segment.maximumSize) {
+            var eldest = entries.entrySet().iterator();
+            var victim = eldest.next();
+            if (victim.getValue().isLive(now) &&
+                segment.sketch.frequency(key.hashCode()) <= segment.sketch.frequency(victim.getKey().hashCode())) {
+                return;
+            }
+            eldest.remove();
+            evictionCount.increment();
+        }
+        entries.put(key, new CacheEntry(value, now + timeToLiveNanos));
+    }
+
+    /**
+     * copy of {@code value} with its own {@code SecretBuffer}, credentials
+     * holding a {@code String} secret are immutable and returned as they are
+     */
+    private static Optional<Credential> copyOf(Optional<Credential> value) {
+        if (value.isEmpty() || value.get().getSecretBuffer().isEmpty()) {
+            return value;
+        }
+        var credential = value.get();
+        var secret = credential.getSecretBuffer().get();
+        return Optional.of(new Credential(credential.getId(), credential.getUsername(),
+                SecretBuffer.copyOf(secret.getPointer(), secret.size()), credential.getCharacteristics(),
+                credential.getType(), credential.getPersistenceType(), credential.getLastWritten())
+            .withAttributes(credential.getAttributes()));
+    }
+
+    private static Optional<Credential> await(CompletableFuture<Optional<Credential>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * independently locked share of the cache
+     */
+    private static final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int maximumSize;
+        private final LinkedHashMap<CredentialKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true); // guarded by lock
+        private final FrequencySketch sketch; // guarded by lock
+
+        Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.sketch = new FrequencySketch(maximumSize);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Optional<Credential> value;
+        private final long expiresAt;
+
+        CacheEntry(Optional<Credential> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isLive(long now) {
+            return now - expiresAt < 0;
+        }
+    }
+}
@@ -13,8 +13,13 @@
 
 package moreland.win32.credentialstore;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Credential Entity as populated by Win32 api
@@ -24,10 +29,12 @@ public class Credential {
     private final String id;
     private final String username;
     private final String secret;
+    private final SecretBuffer secretBuffer;
     private final CredentialFlag characteristics;
     private final CredentialType type;
     private final CredentialPersistence persistenceType;
-    private final LocalDateTime lastUpdated;
+    private final Instant lastWritten;
+    private final List<CredentialAttribute> attributes;
 
     /**
      * Instantiates a new instance of the @see Credential class populated with the provided values
@@ -44,13 +51,87 @@ public class Credential {
                       CredentialFlag characteristics, CredentialType type,
                       CredentialPersistence persistenceType,
                       LocalDateTime lastUpdated) {
+        this(id, username, secret, null, characteristics, type, persistenceType, toInstant(lastUpdated));
+    }
+
+    /**
+     * Instantiates a new instance of the @see Credential class populated with the provided values
+     * @param id unique id, maps to Target Name within Native Api
+     * @param username username
+     * @param secret secret to be stored securely by Native API
+     * @param characteristics typically @see CredentialFlag.None, see Win32 CREDENTIAL type for more detail
+     * @param type @see CredentialType
+     * @param persistenceType @see CredentialPersistence
+     * @param lastWritten time the credential was last written, not used for newly saved values
+     * @throws IllegalArgumentException if id is null or empty, or either type or persistenceType are UNKNOWN
+     */
+    public Credential(String id, String username, String secret,
+                      CredentialFlag characteristics, CredentialType type,
+                      CredentialPersistence persistenceType,
+                      Instant lastWritten) {
+        this(id, username, secret, null, characteristics, type, persistenceType, lastWritten);
+    }
+
+    /**
+     * Instantiates a new instance of the @see Credential class whose secret
+     * is held off-heap, the buffer is shared rather than copied and closing
+     * it wipes the secret of this credential
+     * @param id unique id, maps to Target Name within Native Api
+     * @param username username
+     * @param secret secret to be stored securely by Native API
+     * @param characteristics typically @see CredentialFlag.None, see Win32 CREDENTIAL type for more detail
+     * @param type @see CredentialType
+     * @param persistenceType @see CredentialPersistence
+     * @param lastUpdated last updated value, not used for newly saved values
+     * @throws IllegalArgumentException if id is null or empty, secret is null, or either type or persistenceType are UNKNOWN
+     */
+    public Credential(String id, String username, SecretBuffer secret,
+                      CredentialFlag characteristics, CredentialType type,
+                      CredentialPersistence persistenceType,
+                      LocalDateTime lastUpdated) {
+        this(id, username, null, requireSecret(secret), characteristics, type, persistenceType, toInstant(lastUpdated));
+    }
+
+    /**
+     * Instantiates a new instance of the @see Credential class whose secret
+     * is held off-heap, the buffer is shared rather than copied and closing
+     * it wipes the secret of this credential
+     * @param id unique id, maps to Target Name within Native Api
+     * @param username username
+     * @param secret secret to be stored securely by Native API
+     * @param characteristics typically @see CredentialFlag.None, see Win32 CREDENTIAL type for more detail
+     * @param type @see CredentialType
+     * @param persistenceType @see CredentialPersistence
+     * @param lastWritten time the credential was last written, not used for newly saved values
+     * @throws IllegalArgumentException if id is null or empty, secret is null, or either type or persistenceType are UNKNOWN
+     */
+    public Credential(String id, String username, SecretBuffer secret,
+                      CredentialFlag characteristics, CredentialType type,
+                      CredentialPersistence persistenceType,
+                      Instant lastWritten) {
+        this(id, username, null, requireSecret(secret), characteristics, type, persistenceType, lastWritten);
+    }
+
+    private Credential(String id, String username, String secret, SecretBuffer secretBuffer,
+                       CredentialFlag characteristics, CredentialType type,
+                       CredentialPersistence persistenceType,
+                       Instant lastWritten) {
+        this(id, username, secret, secretBuffer, characteristics, type, persistenceType, lastWritten, List.of());
+    }
+
+    private Credential(String id, String username, String secret, SecretBuffer secretBuffer,
+                       CredentialFlag characteristics, CredentialType type,
+                       CredentialPersistence persistenceType,
+                       Instant lastWritten, List<CredentialAttribute> attributes) {
         this.id = id;
         this.username = username;
         this.secret = secret;
+        this.secretBuffer = secretBuffer;
         this.characteristics = characteristics;
         this.type = type;
         this.persistenceType = persistenceType;
-        this.lastUpdated = lastUpdated;
+        this.lastWritten = lastWritten;
+        this.attributes = attributes;
 
         var invalidArgumentName = getInvalidArgumentNameOrEmpty();
         if (!isNullOrEmpty(invalidArgumentName)) {
@@ -73,10 +154,28 @@ public class Credential {
     }
 
     /**
-     * Secret (password)
+     * Secret (password), decoded on each call when held in a
+     * {@code SecretBuffer}
+     * @exception IllegalStateException if the secret buffer has been closed
      */
     public String getSecret() {
-        return secret;
+        if (secretBuffer == null) {
+            return secret;
+        }
+        var chars = secretBuffer.toCharArray();
+        try {
+            return new String(chars);
+        } finally {
+            Arrays.fill(chars, '\0');
+        }
+    }
+
+    /**
+     * Secret (password) held off-heap, empty when the credential was created
+     * from a {@code String} secret
+     */
+    public Optional<SecretBuffer> getSecretBuffer() {
+        return Optional.ofNullable(secretBuffer);
     }
 
     /**
@@ -101,12 +200,67 @@ public class Credential {
     }
 
     /**
-     * Last Updated time, only valid for reads
+     * Last Updated time in the system default time zone, only valid for reads
+     * @see #getLastWritten()
      */
     public LocalDateTime getLastUpdated() {
-        return lastUpdated;
+        return lastWritten != null
+            ? LocalDateTime.ofInstant(lastWritten, ZoneId.systemDefault())
+            : null;
+    }
+
+    /**
+     * Time the credential was last written as recorded by the Native API,
+     * only valid for reads
+     */
+    public Instant getLastWritten() {
+        return lastWritten;
+    }
+
+
+    /**
+     * Application-defined attributes, read along with the credential
+     * metadata and written with the credential
+     */
+    public List<CredentialAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns a copy of this credential with {@code attributes} in place of
+     * its current attributes, a secret held in a {@code SecretBuffer} is
+     * shared with the copy
+     * @param attributes attributes of the copy
+     * @return copy of this credential with the provided attributes
+     * @throws IllegalArgumentException if {@code attributes} is null, contains
+     *         null or holds more than {@code CredentialAttribute.MAXIMUM_COUNT} elements
+     */
+    public Credential withAttributes(List<CredentialAttribute> attributes) {
+        Guard.againstNull(attributes, "attributes");
+        if (attributes.size() > CredentialAttribute.MAXIMUM_COUNT) {
+            throw new IllegalArgumentException("attributes");
+        }
+        final List<CredentialAttribute> copy;
+        try {
+            copy = List.copyOf(attributes);
+        } catch (NullPointerException e) {
+            throw new IllegalArgumentException("attributes", e);
+        }
+        return new Credential(id, username, secret, secretBuffer, characteristics, type, persistenceType, lastWritten, copy);
     }
 
+    private static Instant toInstant(LocalDateTime lastUpdated) {
+        return lastUpdated != null
+            ? lastUpdated.atZone(ZoneId.systemDefault()).toInstant()
+            : null;
+    }
+
+    private static SecretBuffer requireSecret(SecretBuffer secret) {
+        if (secret == null) {
+            throw new IllegalArgumentException("secret");
+        }
+        return secret;
+    }
 
     private static boolean isNullOrEmpty(String string) {
         return string == null || string.trim().isEmpty();
@@ -0,0 +1,164 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.sun.jna.Pointer;
+
+/**
+ * Application-defined keyword-value pair stored alongside a credential,
+ * attributes are returned with the credential metadata so they can be
+ * read without reading the secret
+ */
+public final class CredentialAttribute {
+
+    /**
+     * maximum length of a keyword in characters, CRED_MAX_STRING_LENGTH
+     */
+    public static final int MAXIMUM_KEYWORD_LENGTH = 256;
+
+    /**
+     * maximum size of a value in bytes, CRED_MAX_VALUE_SIZE
+     */
+    public static final int MAXIMUM_VALUE_SIZE = 256;
+
+    /**
+     * maximum number of attributes of a credential, CRED_MAX_ATTRIBUTES
+     */
+    public static final int MAXIMUM_COUNT = 64;
+
+    private final String keyword;
+    private final byte[] value;
+
+    private CredentialAttribute(String keyword, byte[] value) {
+        this.keyword = keyword;
+        this.value = value;
+    }
+
+    /**
+     * Returns an attribute holding a copy of {@code value}
+     * @param keyword name of the attribute, by convention of the form
+     *                {@code <CompanyName>_<Name>}
+     * @param value data of the attribute
+     * @return attribute with the provided keyword and value
+     * @exception IllegalArgumentException if {@code keyword} is null, empty
+     *            or longer than {@code MAXIMUM_KEYWORD_LENGTH}, or
+     *            {@code value} is null or larger than {@code MAXIMUM_VALUE_SIZE}
+     */
+    public static CredentialAttribute of(String keyword, byte[] value) {
+        Guard.againstNull(value, "value");
+        return create(keyword, value.clone());
+    }
+
+    /**
+     * Returns an attribute whose value is {@code value} encoded as UTF-16LE
+     * without a terminator, the convention for text attributes
+     * @see #of(String, byte[])
+     */
+    public static CredentialAttribute of(String keyword, String value) {
+        Guard.againstNull(value, "value");
+        return create(keyword, value.getBytes(StandardCharsets.UTF_16LE));
+    }
+
+    private static CredentialAttribute create(String keyword, byte[] value) {
+        if (keyword == null || keyword.isEmpty() || keyword.length() > MAXIMUM_KEYWORD_LENGTH) {
+            throw new IllegalArgumentException("keyword");
+        }
+        if (value.length > MAXIMUM_VALUE_SIZE) {
+            throw new IllegalArgumentException("value");
+        }
+        return new CredentialAttribute(keyword, value);
+    }
+
+    /**
+     * name of the attribute
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns a copy of the value
+     * @return data of the attribute
+     */
+    public byte[] getValue() {
+        return value.clone();
+    }
+
+    /**
+     * size of the value in bytes
+     */
+    public int getValueSize() {
+        return value.length;
+    }
+
+    /**
+     * Copies the value to native memory without an intermediate array
+     * @param destination memory receiving the value
+     * @param offset offset within {@code destination}
+     */
+    public void copyValueTo(Pointer destination, long offset) {
+        Guard.againstNull(destination, "destination");
+        destination.write(offset, value, 0, value.length);
+    }
+
+    /**
+     * Returns the value decoded as UTF-16LE
+     * @return value as text
+     */
+    public String getValueAsString() {
+        return new String(value, StandardCharsets.UTF_16LE);
+    }
+
+    /**
+     * Returns true if the value is equal to {@code other}
+     * @param other bytes to compare
+     * @return true if the value is equal to {@code other}
+     */
+    public boolean valueEquals(byte[] other) {
+        return Arrays.equals(value, other);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        var that = (CredentialAttribute) o;
+        return keyword.equals(that.keyword) && Arrays.equals(value, that.value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(keyword) + Arrays.hashCode(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CredentialAttribute{Keyword=" + keyword + ", ValueSize=" + value.length + "}";
+    }
+}
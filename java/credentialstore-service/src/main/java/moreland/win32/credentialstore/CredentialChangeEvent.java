@@ -0,0 +1,91 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Objects;
+
+/**
+ * Change to a single credential observed by a watch
+ */
+public final class CredentialChangeEvent {
+
+    private final CredentialChangeType changeType;
+    private final CredentialDescriptor descriptor;
+
+    /**
+     * Instantiates a new instance of the CredentialChangeEvent class
+     * @param changeType kind of change
+     * @param descriptor metadata of the credential after the change, or
+     *                   before it when the credential was removed
+     * @exception IllegalArgumentException if either argument is null
+     */
+    public CredentialChangeEvent(CredentialChangeType changeType, CredentialDescriptor descriptor) {
+        Guard.againstNull(changeType, "changeType");
+        Guard.againstNull(descriptor, "descriptor");
+
+        this.changeType = changeType;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * @see CredentialChangeType
+     */
+    public CredentialChangeType getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * metadata of the credential after the change, or the last metadata
+     * seen for a removed credential
+     */
+    public CredentialDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * identity of the changed credential
+     */
+    public CredentialKey getKey() {
+        return CredentialKey.of(descriptor.getId(), descriptor.getType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        var that = (CredentialChangeEvent) o;
+        return changeType == that.changeType && descriptor.equals(that.descriptor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(changeType, descriptor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CredentialChangeEvent{ChangeType=" + changeType + ", Descriptor=" + descriptor + "}";
+    }
+}
@@ -0,0 +1,177 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Metadata of a credential without its secret, read directly from the
+ * native CREDENTIAL structure so the credential blob is never copied
+ */
+public final class CredentialDescriptor {
+
+    private final String id;
+    private final String username;
+    private final CredentialType type;
+    private final CredentialPersistence persistenceType;
+    private final Instant lastWritten;
+    private final List<CredentialAttribute> attributes;
+
+    /**
+     * Instantiates a new instance of the CredentialDescriptor class
+     * @param id unique id, maps to Target Name within Native Api
+     * @param username username, empty if not set
+     * @param type @see CredentialType
+     * @param persistenceType @see CredentialPersistence
+     * @param lastWritten time the credential was last written
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public CredentialDescriptor(String id, String username, CredentialType type,
+                                CredentialPersistence persistenceType, Instant lastWritten) {
+        this(id, username, type, persistenceType, lastWritten, List.of());
+    }
+
+    /**
+     * Instantiates a new instance of the CredentialDescriptor class
+     * @param id unique id, maps to Target Name within Native Api
+     * @param username username, empty if not set
+     * @param type @see CredentialType
+     * @param persistenceType @see CredentialPersistence
+     * @param lastWritten time the credential was last written
+     * @param attributes application-defined attributes of the credential
+     * @throws IllegalArgumentException if any argument is null
+     */
+    public CredentialDescriptor(String id, String username, CredentialType type,
+                                CredentialPersistence persistenceType, Instant lastWritten,
+                                List<CredentialAttribute> attributes) {
+        Guard.againstNull(id, "id");
+        Guard.againstNull(username, "username");
+        Guard.againstNull(type, "type");
+        Guard.againstNull(persistenceType, "persistenceType");
+        Guard.againstNull(lastWritten, "lastWritten");
+        Guard.againstNull(attributes, "attributes");
+
+        this.id = id;
+        this.username = username;
+        this.type = type;
+        this.persistenceType = persistenceType;
+        this.lastWritten = lastWritten;
+        this.attributes = List.copyOf(attributes);
+    }
+
+    /**
+     * Returns the descriptor of {@code credential}, a missing username is
+     * reported as empty and a missing last written time as the epoch
+     * @param credential credential to describe
+     * @return descriptor of {@code credential}
+     */
+    static CredentialDescriptor of(Credential credential) {
+        return new CredentialDescriptor(
+            credential.getId(),
+            Objects.requireNonNullElse(credential.getUsername(), ""),
+            credential.getType(),
+            credential.getPersistenceType(),
+            Objects.requireNonNullElse(credential.getLastWritten(), Instant.EPOCH),
+            credential.getAttributes());
+    }
+
+    /**
+     * Unique Identifier, this represents the target name of the credential
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The user name of the account used to connect to @see getId
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @see CredentialType
+     */
+    public CredentialType getType() {
+        return type;
+    }
+
+    /**
+     * @see CredentialPersistence
+     */
+    public CredentialPersistence getPersistenceType() {
+        return persistenceType;
+    }
+
+    /**
+     * Time the credential was last written
+     */
+    public Instant getLastWritten() {
+        return lastWritten;
+    }
+
+    /**
+     * Application-defined attributes of the credential
+     */
+    public List<CredentialAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Returns the key identifying the described credential
+     * @return key of the credential
+     */
+    public CredentialKey toKey() {
+        return CredentialKey.of(id, type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        var that = (CredentialDescriptor) o;
+
+        return
+            id.equals(that.id) &&
+            username.equals(that.username) &&
+            type == that.type &&
+            persistenceType == that.persistenceType &&
+            lastWritten.equals(that.lastWritten) &&
+            attributes.equals(that.attributes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, username, type, persistenceType, lastWritten, attributes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CredentialDescriptor{Id=" + id + ", Username=" + username + ", Type=" + type
+            + ", PersistenceType=" + persistenceType + ", LastWritten=" + lastWritten + "}";
+    }
+}
@@ -13,7 +13,6 @@
 
 package moreland.win32.credentialstore;
 
-import java.util.Arrays;
 
 /**
  * https://docs.microsoft.com/en-us/windows/win32/api/wincred/ns-wincred-credentiala
@@ -58,11 +57,20 @@ public enum CredentialFlag {
 
 
     public static CredentialFlag fromInteger(int value) {
-        return Arrays.stream(CredentialFlag.class.getEnumConstants())
-            .filter(e -> e.value == value)
-            .findFirst()
-            .orElse(CredentialFlag.NONE);
+        if (value < 0 || value >= BY_VALUE.length) {
+            return NONE;
+        }
+        var flag = BY_VALUE[value];
+        return flag != null ? flag : NONE;
     }
+
+    private static final CredentialFlag[] BY_VALUE = new CredentialFlag[USERNAME_TARGET.value + 1];
+    static {
+        for (var flag : values()) {
+            BY_VALUE[flag.value] = flag;
+        }
+    }
+
     /**
      * returns the underlying integer value
      * @return underlying integer value
@@ -0,0 +1,245 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory indexes over a snapshot of credential metadata, hash indexes
+ * answer username, type and persistence queries and a sorted index over
+ * the normalized target name answers prefix queries. Secrets are never
+ * held, only {@code CredentialDescriptor} values.
+ * <p>
+ * Instances are thread safe, queries share a read lock while updates take
+ * a write lock.
+ */
+public final class CredentialIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CredentialKey, CredentialDescriptor> byKey = new HashMap<>();
+    private final Map<String, Set<CredentialKey>> byUsername = new HashMap<>();
+    private final Map<CredentialType, Set<CredentialKey>> byType = new EnumMap<>(CredentialType.class);
+    private final Map<CredentialPersistence, Set<CredentialKey>> byPersistence = new EnumMap<>(CredentialPersistence.class);
+    private final TreeMap<String, Set<CredentialKey>> byTarget = new TreeMap<>();
+
+    /**
+     * Replaces the content of the index with {@code descriptors}
+     * @param descriptors snapshot of the credential set
+     * @exception IllegalArgumentException if {@code descriptors} is null
+     */
+    public void rebuild(Collection<CredentialDescriptor> descriptors) {
+        Guard.againstNull(descriptors, "descriptors");
+        lock.writeLock().lock();
+        try {
+            byKey.clear();
+            byUsername.clear();
+            byType.clear();
+            byPersistence.clear();
+            byTarget.clear();
+            for (var descriptor : descriptors) {
+                putUnderLock(descriptor);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds {@code descriptor} or replaces the entry with the same key
+     * @param descriptor credential metadata to index
+     * @exception IllegalArgumentException if {@code descriptor} is null
+     */
+    public void put(CredentialDescriptor descriptor) {
+        Guard.againstNull(descriptor, "descriptor");
+        lock.writeLock().lock();
+        try {
+            putUnderLock(descriptor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key} if present
+     * @param key key of the credential to remove
+     * @return true if an entry was removed
+     * @exception IllegalArgumentException if {@code key} is null
+     */
+    public boolean remove(CredentialKey key) {
+        Guard.againstNull(key, "key");
+        lock.writeLock().lock();
+        try {
+            return removeUnderLock(key) != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entry for {@code key}
+     * @param key key of the credential
+     * @return optional containing the descriptor if indexed
+     */
+    public Optional<CredentialDescriptor> get(CredentialKey key) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byKey.get(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed credentials
+     * @return the number of indexed credentials
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all credentials for {@code username} compared ignoring case
+     * @param username user name to match
+     * @return matching descriptors, empty if {@code username} is null
+     */
+    public List<CredentialDescriptor> findByUsername(String username) {
+        if (username == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return resolve(byUsername.get(normalize(username)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all credentials of {@code type}
+     * @param type credential type to match
+     * @return matching descriptors, empty if {@code type} is null
+     */
+    public List<CredentialDescriptor> findByType(CredentialType type) {
+        if (type == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return resolve(byType.get(type));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all credentials with {@code persistenceType}
+     * @param persistenceType persistence to match
+     * @return matching descriptors, empty if {@code persistenceType} is null
+     */
+    public List<CredentialDescriptor> findByPersistence(CredentialPersistence persistenceType) {
+        if (persistenceType == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return resolve(byPersistence.get(persistenceType));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all credentials whose id starts with {@code prefix} ignoring
+     * case, ordered by id
+     * @param prefix start of the id to match
+     * @return matching descriptors, empty if {@code prefix} is null
+     */
+    public List<CredentialDescriptor> findByPrefix(String prefix) {
+        if (prefix == null) {
+            return List.of();
+        }
+        var from = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            var matches = new ArrayList<CredentialDescriptor>();
+            for (var keys : byTarget.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+                for (var key : keys) {
+                    matches.add(byKey.get(key));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putUnderLock(CredentialDescriptor descriptor) {
+        var key = descriptor.toKey();
+        removeUnderLock(key);
+
+        byKey.put(key, descriptor);
+        byUsername.computeIfAbsent(normalize(descriptor.getUsername()), k -> new LinkedHashSet<>()).add(key);
+        byType.computeIfAbsent(descriptor.getType(), k -> new LinkedHashSet<>()).add(key);
+        byPersistence.computeIfAbsent(descriptor.getPersistenceType(), k -> new LinkedHashSet<>()).add(key);
+        byTarget.computeIfAbsent(normalize(descriptor.getId()), k -> new LinkedHashSet<>()).add(key);
+    }
+
+    private CredentialDescriptor removeUnderLock(CredentialKey key) {
+        var existing = byKey.remove(key);
+        if (existing != null) {
+            removeFrom(byUsername, normalize(existing.getUsername()), key);
+            removeFrom(byType, existing.getType(), key);
+            removeFrom(byPersistence, existing.getPersistenceType(), key);
+            removeFrom(byTarget, normalize(existing.getId()), key);
+        }
+        return existing;
+    }
+
+    private List<CredentialDescriptor> resolve(Set<CredentialKey> keys) {
+        if (keys == null) {
+            return List.of();
+        }
+        var matches = new ArrayList<CredentialDescriptor>(keys.size());
+        for (var key : keys) {
+            matches.add(byKey.get(key));
+        }
+        return matches;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<CredentialKey>> index, K indexKey, CredentialKey key) {
+        var keys = index.get(indexKey);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(indexKey);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,100 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Identity of a credential within the user's credential set, the target
+ * name is compared ignoring case as it is by the Win32 credential manager
+ */
+public final class CredentialKey {
+
+    private final String id;
+    private final CredentialType type;
+    private final String normalizedId;
+
+    private CredentialKey(String id, CredentialType type) {
+        this.id = id;
+        this.type = type;
+        this.normalizedId = id.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a key for {@code id} and {@code type}
+     * @param id target name of the credential
+     * @param type type of the credential
+     * @return key identifying the credential
+     * @exception IllegalArgumentException if {@code id} or {@code type} is null
+     */
+    public static CredentialKey of(String id, CredentialType type) {
+        Guard.againstNull(id, "id");
+        Guard.againstNull(type, "type");
+        return new CredentialKey(id, type);
+    }
+
+    /**
+     * Returns the key of {@code credential}
+     * @param credential credential to identify
+     * @return key identifying the credential
+     * @exception IllegalArgumentException if {@code credential} is null
+     */
+    public static CredentialKey of(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return of(credential.getId(), credential.getType());
+    }
+
+    /**
+     * target name as originally provided
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @see CredentialType
+     */
+    public CredentialType getType() {
+        return type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        var that = (CredentialKey) o;
+        return type == that.type && normalizedId.equals(that.normalizedId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(normalizedId, type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CredentialKey{Id=" + id + ", Type=" + type + "}";
+    }
+}
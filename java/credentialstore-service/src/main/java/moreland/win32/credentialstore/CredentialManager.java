@@ -12,12 +12,29 @@
 //
 package moreland.win32.credentialstore;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.slf4j.LoggerFactory;
 
 /**
  * Win32 Credential Manager (Credential Repository) providing CRUD 
  * operations for Windows Credential Manager 
+ * <p>
+ * Only the basic CRUD operations are abstract, every other operation has a
+ * default built on {@code getAll}, {@code find}, {@code add},
+ * {@code update} and {@code delete} which implementations replace with
+ * more efficient native equivalents.
  */
 public interface CredentialManager {
 
@@ -26,6 +43,33 @@ public interface CredentialManager {
      */
     List<Credential> getAll();
 
+    /**
+     * Returns the metadata of all Credentials from the Users credential set,
+     * secrets are never read
+     * <p>
+     * The default implementation derives the metadata from {@code getAll()},
+     * so secrets are read and discarded.
+     */
+    default List<CredentialDescriptor> getAllDescriptors() {
+        return getAll()
+            .stream()
+            .map(CredentialDescriptor::of)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a publisher of all Credentials from the Users credential set,
+     * each subscription enumerates the set and converts credentials only as
+     * they are requested, releasing the native buffer on completion or
+     * cancellation
+     * <p>
+     * The default implementation calls {@code getAll()} on the first request
+     * of each subscription.
+     */
+    default Flow.Publisher<Credential> publishAll() {
+        return new ListPublisher<>(this::getAll);
+    }
+
     /**
      * adds provided credential to Win32 credential manager
      * @param credential credential to add
@@ -77,5 +121,224 @@ public interface CredentialManager {
      * @return list of credentials matching filter
      */
     List<Credential> find(String filter, boolean searchAll);
-   
+
+    /**
+     * Returns all credentials whose id matches {@code pattern} ignoring case
+     * where {@code '*'} matches any sequence of characters, a pattern of the
+     * form {@code prefix*} is resolved entirely by the native filter
+     * <p>
+     * The default implementation filters {@code getAll()}.
+     * @param pattern id pattern using {@code '*'} wildcards
+     * @return list of credentials matching pattern
+     * @exception IllegalArgumentException if {@code pattern} is null
+     */
+    default List<Credential> findMatching(String pattern) {
+        Guard.againstNull(pattern, "pattern");
+
+        var matcher = WildcardPattern.compile(pattern);
+        return filter(credential -> matcher.matcher(credential.getId()).matches());
+    }
+
+    /**
+     * Returns all credentials written at or after {@code since}, the last
+     * written time of each credential is compared in place so unchanged
+     * credentials are neither decoded nor converted
+     * <p>
+     * The default implementation filters {@code getAll()}.
+     * @param since earliest last written time to include
+     * @return list of credentials written at or after {@code since}
+     * @exception IllegalArgumentException if {@code since} is null
+     */
+    default List<Credential> findModifiedSince(Instant since) {
+        Guard.againstNull(since, "since");
+
+        return filter(credential -> credential.getLastWritten() != null && !credential.getLastWritten().isBefore(since));
+    }
+
+    /**
+     * Returns all credentials with an attribute equal to {@code attribute},
+     * only the attributes of each credential are examined during
+     * enumeration, the remaining credentials are neither decoded nor
+     * converted
+     * <p>
+     * The default implementation filters {@code getAll()}.
+     * @param attribute keyword and value to match
+     * @return list of credentials holding a matching attribute
+     * @exception IllegalArgumentException if {@code attribute} is null
+     */
+    default List<Credential> findByAttribute(CredentialAttribute attribute) {
+        Guard.againstNull(attribute, "attribute");
+
+        return filter(credential -> credential.getAttributes().contains(attribute));
+    }
+
+    /**
+     * Registers {@code listener} to be told when credentials are added,
+     * updated or removed, using {@link WatchOptions#defaults()}
+     * @see #watch(CredentialChangeListener, WatchOptions)
+     */
+    default WatchSubscription watch(CredentialChangeListener listener) {
+        return watch(listener, WatchOptions.defaults());
+    }
+
+    /**
+     * Registers {@code listener} to be told when credentials are added,
+     * updated or removed. Changes are found by periodically comparing the
+     * credential metadata, any number of listeners share one scan, so
+     * changes made by other processes are seen as well
+     * <p>
+     * The default implementation scans {@code getAllDescriptors()} on a
+     * scanner thread of its own for each subscription.
+     * @param listener receives the changes on the scanner thread
+     * @param options polling settings
+     * @return subscription which stops delivery when closed
+     * @exception IllegalArgumentException if either argument is null
+     */
+    default WatchSubscription watch(CredentialChangeListener listener, WatchOptions options) {
+        return new CredentialWatcher(this::getAllDescriptors, LoggerFactory.getLogger(CredentialManager.class))
+            .subscribe(listener, options);
+    }
+
+    /**
+     * adds each credential in {@code credentials}
+     * @param credentials credentials to add
+     * @return outcome of each credential in iteration order
+     * @exception IllegalArgumentException if {@code credentials} is or contains null
+     */
+    default BulkResult<Credential> addAll(Collection<Credential> credentials) {
+        return addAll(credentials, Runnable::run);
+    }
+
+    /**
+     * adds each credential in {@code credentials}, batches are run on {@code executor}
+     * <p>
+     * The default implementation calls {@code add} for each credential on
+     * the calling thread, {@code executor} is not used.
+     * @param credentials credentials to add
+     * @param executor executor used to run batches, possibly in parallel
+     * @return outcome of each credential in iteration order
+     * @exception IllegalArgumentException if {@code credentials} is or contains null,
+     *            or {@code executor} is null
+     */
+    default BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        return new BulkResult<>(applyEach(credentials, "credentials", executor,
+            credential -> add(credential) ? BulkItemResult.succeeded(credential) : BulkItemResult.failed(credential)));
+    }
+
+    /**
+     * updates each credential in {@code credentials}
+     * @param credentials credentials to update
+     * @return outcome of each credential in iteration order
+     * @exception IllegalArgumentException if {@code credentials} is or contains null
+     */
+    default BulkResult<Credential> updateAll(Collection<Credential> credentials) {
+        return updateAll(credentials, Runnable::run);
+    }
+
+    /**
+     * updates each credential in {@code credentials}, batches are run on {@code executor}
+     * <p>
+     * The default implementation calls {@code update} for each credential on
+     * the calling thread, {@code executor} is not used.
+     * @param credentials credentials to update
+     * @param executor executor used to run batches, possibly in parallel
+     * @return outcome of each credential in iteration order
+     * @exception IllegalArgumentException if {@code credentials} is or contains null,
+     *            or {@code executor} is null
+     */
+    default BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        return new BulkResult<>(applyEach(credentials, "credentials", executor,
+            credential -> update(credential) ? BulkItemResult.succeeded(credential) : BulkItemResult.failed(credential)));
+    }
+
+    /**
+     * deletes each credential in {@code keys}
+     * @param keys credentials to delete
+     * @return outcome of each key in iteration order
+     * @exception IllegalArgumentException if {@code keys} is or contains null
+     */
+    default BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys) {
+        return deleteAll(keys, Runnable::run);
+    }
+
+    /**
+     * deletes each credential in {@code keys}, batches are run on {@code executor}
+     * <p>
+     * The default implementation calls {@code delete} for each key on the
+     * calling thread, {@code executor} is not used. A key whose delete fails
+     * is looked up with {@code find} so a missing credential is reported as
+     * {@code NOT_FOUND}, as the Win32 implementation does.
+     * @param keys credentials to delete
+     * @param executor executor used to run batches, possibly in parallel
+     * @return outcome of each key in iteration order
+     * @exception IllegalArgumentException if {@code keys} is or contains null,
+     *            or {@code executor} is null
+     */
+    default BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        return new BulkResult<>(applyEach(keys, "keys", executor, this::deleteOne));
+    }
+
+    /**
+     * Finds each credential in {@code keys}
+     * @param keys credentials to find
+     * @return credentials which were found, keyed and ordered as {@code keys}
+     * @exception IllegalArgumentException if {@code keys} is or contains null
+     */
+    default Map<CredentialKey, Credential> findAll(Collection<CredentialKey> keys) {
+        return findAll(keys, Runnable::run);
+    }
+
+    /**
+     * Finds each credential in {@code keys}, batches are run on {@code executor}
+     * <p>
+     * The default implementation calls {@code find} for each key on the
+     * calling thread, {@code executor} is not used.
+     * @param keys credentials to find
+     * @param executor executor used to run batches, possibly in parallel
+     * @return credentials which were found, keyed and ordered as {@code keys}
+     * @exception IllegalArgumentException if {@code keys} is or contains null,
+     *            or {@code executor} is null
+     */
+    default Map<CredentialKey, Credential> findAll(Collection<CredentialKey> keys, Executor executor) {
+        var found = new LinkedHashMap<CredentialKey, Credential>();
+        for (var result : applyEach(keys, "keys", executor, key -> Pair.of(key, find(key.getId(), key.getType())))) {
+            result.item2.ifPresent(credential -> found.put(result.item1, credential));
+        }
+        return found;
+    }
+
+    private List<Credential> filter(Predicate<Credential> predicate) {
+        return getAll()
+            .stream()
+            .filter(predicate)
+            .collect(Collectors.toList());
+    }
+
+    private BulkItemResult<CredentialKey> deleteOne(CredentialKey key) {
+        if (delete(key.getId(), key.getType())) {
+            return BulkItemResult.succeeded(key);
+        }
+        var existing = find(key.getId(), key.getType());
+        if (existing.isEmpty()) {
+            return BulkItemResult.of(key, ExpectedErrorCode.NOT_FOUND.getValue());
+        }
+        existing.get().getSecretBuffer().ifPresent(SecretBuffer::close);
+        return BulkItemResult.failed(key);
+    }
+
+    private static <T, R> List<R> applyEach(Collection<T> items, String name, Executor executor, Function<T, R> operation) {
+        Guard.againstNull(items, name);
+        Guard.againstNull(executor, "executor");
+        for (var item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException(name + " contains null");
+            }
+        }
+
+        var results = new ArrayList<R>(items.size());
+        for (var item : items) {
+            results.add(operation.apply(item));
+        }
+        return results;
+    }
 }
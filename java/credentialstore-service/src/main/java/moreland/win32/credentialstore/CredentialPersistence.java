@@ -13,7 +13,6 @@
 
 package moreland.win32.credentialstore;
 
-import java.util.Arrays;
 
 public enum CredentialPersistence {
     /**
@@ -58,12 +57,14 @@ public enum CredentialPersistence {
     ENTERPRISE(3);
 
     public static CredentialPersistence fromInteger(int value) {
-        return Arrays.stream(CredentialPersistence.class.getEnumConstants())
-            .filter(e -> e.value == value)
-            .findFirst()
-            .orElse(CredentialPersistence.UNKNOWN);
+        return value >= 0 && value < BY_VALUE.length
+            ? BY_VALUE[value]
+            : UNKNOWN;
     }
 
+    // values are dense from 0 so the constants are indexed by value
+    private static final CredentialPersistence[] BY_VALUE = values();
+
     /**
      * returns the underlying integer value
      * @return underlying integer value
@@ -0,0 +1,98 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+import com.sun.jna.LastErrorException;
+
+import moreland.win32.credentialstore.converters.CredentialConverter;
+import moreland.win32.credentialstore.internal.CredentialList;
+import moreland.win32.credentialstore.internal.EnumerateFlag;
+import moreland.win32.credentialstore.internal.NativeInteropBridge;
+
+/**
+ * Cold publisher of every credential, each subscription performs its own
+ * enumeration on first request and converts entries only as they are
+ * requested. The native buffer is freed once the last entry is delivered,
+ * the subscription is cancelled or a subscriber throws.
+ * <p>
+ * Subscriptions are {@code EnumerationSubscription}s reporting the number
+ * of enumerated credentials, signalling as described by
+ * {@code DrainingSubscription}.
+ */
+final class CredentialPublisher implements Flow.Publisher<Credential> {
+
+    private final NativeInteropBridge nativeInteropBridge;
+    private final CredentialConverter credentialConverter;
+
+    CredentialPublisher(NativeInteropBridge nativeInteropBridge, CredentialConverter credentialConverter) {
+        Guard.againstNull(nativeInteropBridge, "nativeInteropBridge");
+        Guard.againstNull(credentialConverter, "credentialConverter");
+
+        this.nativeInteropBridge = nativeInteropBridge;
+        this.credentialConverter = credentialConverter;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @exception NullPointerException if {@code subscriber} is null, as
+     *            required by the {@code Flow.Publisher} contract
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Credential> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        var subscription = new CredentialSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class CredentialSubscription extends DrainingSubscription<Credential> {
+
+        private CredentialList credentials;
+
+        CredentialSubscription(Flow.Subscriber<? super Credential> subscriber) {
+            super(subscriber);
+        }
+
+        @Override
+        int open() throws Win32Exception {
+            try {
+                credentials = nativeInteropBridge.credEnumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS);
+            } catch (LastErrorException e) {
+                var notFound = ExpectedErrorCode.fromInteger(e.getErrorCode()).filter(ExpectedErrorCode.NOT_FOUND::equals).isPresent();
+                if (!notFound) {
+                    throw new Win32Exception(e.getErrorCode(), String.format("API Error(%d) occurred.", e.getErrorCode()), e);
+                }
+                credentials = CredentialList.empty();
+            }
+            return credentials.size();
+        }
+
+        @Override
+        Optional<Credential> convert(int index) {
+            return credentialConverter.fromInternalCredential(credentials.get(index));
+        }
+
+        /**
+         * frees the native buffer
+         */
+        @Override
+        void closeEnumeration() throws Exception {
+            var toClose = credentials;
+            credentials = null;
+            toClose.close();
+        }
+    }
+}
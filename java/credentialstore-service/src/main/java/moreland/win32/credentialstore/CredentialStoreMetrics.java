@@ -0,0 +1,186 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import moreland.win32.credentialstore.internal.LatencyHistogram;
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
+
+/**
+ * Latency, size and error measurements of the credential store exposed
+ * as the {@code moreland.win32.credentialstore:type=CredentialStoreMetrics}
+ * MXBean.
+ * <p>
+ * Native call measurements are taken by {@code Win32NativeInteropBridge}
+ * and operation latencies by {@code InstrumentedCredentialManager}; both
+ * record into lock-free histograms so the metrics can stay enabled in
+ * production.
+ */
+public final class CredentialStoreMetrics implements CredentialStoreMetricsMXBean {
+
+    public static final String OBJECT_NAME = "moreland.win32.credentialstore:type=CredentialStoreMetrics";
+
+    private final NativeCallMetrics nativeCallMetrics;
+    private final ConcurrentHashMap<String, LatencyHistogram> operationLatency = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new instance of the CredentialStoreMetrics class
+     * @param nativeCallMetrics measurements recorded by the native interop bridge
+     * @exception IllegalArgumentException if {@code nativeCallMetrics} is null
+     */
+    public CredentialStoreMetrics(NativeCallMetrics nativeCallMetrics) {
+        Guard.againstNull(nativeCallMetrics, "nativeCallMetrics");
+        this.nativeCallMetrics = nativeCallMetrics;
+    }
+
+    /**
+     * Records the duration of a {@code CredentialManager} operation
+     * @param operation name of the operation
+     * @param nanos duration of the operation in nanoseconds
+     */
+    public void recordOperation(String operation, long nanos) {
+        var histogram = operationLatency.get(operation);
+        if (histogram == null) {
+            histogram = operationLatency.computeIfAbsent(operation, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Registers this instance with {@code server} under {@code OBJECT_NAME},
+     * replacing any instance registered previously
+     * @param server server to register with
+     * @return name the instance was registered under
+     * @exception IllegalArgumentException if {@code server} is null
+     * @exception IllegalStateException if registration fails
+     */
+    public ObjectName register(MBeanServer server) {
+        Guard.againstNull(server, "server");
+        var name = objectName();
+        try {
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("unable to register " + OBJECT_NAME, e);
+        }
+        return name;
+    }
+
+    /**
+     * Removes the instance registered with {@code server} under {@code OBJECT_NAME} if any
+     * @param server server to remove the registration from
+     * @exception IllegalArgumentException if {@code server} is null
+     */
+    public void unregister(MBeanServer server) {
+        Guard.againstNull(server, "server");
+        try {
+            server.unregisterMBean(objectName());
+        } catch (InstanceNotFoundException e) {
+            // already removed
+        } catch (JMException e) {
+            throw new IllegalStateException("unable to unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, HistogramSnapshot> getNativeCallLatency() {
+        return snapshotsOf(nativeCallMetrics.getLatency());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, HistogramSnapshot> getOperationLatency() {
+        return snapshotsOf(operationLatency);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HistogramSnapshot getLockWait() {
+        return snapshotOf(nativeCallMetrics.getLockWait());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HistogramSnapshot getEnumerationSize() {
+        return snapshotOf(nativeCallMetrics.getEnumerationSize());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public HistogramSnapshot getBlobSize() {
+        return snapshotOf(nativeCallMetrics.getBlobSize());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return nativeCallMetrics.getErrorCounts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        nativeCallMetrics.reset();
+        operationLatency.values().forEach(LatencyHistogram::reset);
+    }
+
+    private static Map<String, HistogramSnapshot> snapshotsOf(Map<String, LatencyHistogram> histograms) {
+        var snapshots = new TreeMap<String, HistogramSnapshot>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, snapshotOf(histogram)));
+        return snapshots;
+    }
+
+    private static HistogramSnapshot snapshotOf(LatencyHistogram histogram) {
+        return new HistogramSnapshot(histogram.getCount(), histogram.getMean(),
+            histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(90.0),
+            histogram.getValueAtPercentile(99.0), histogram.getValueAtPercentile(99.9),
+            histogram.getMaximum());
+    }
+
+    private static ObjectName objectName() {
+        try {
+            return new ObjectName(OBJECT_NAME);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
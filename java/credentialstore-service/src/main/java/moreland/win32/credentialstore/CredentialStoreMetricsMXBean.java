@@ -0,0 +1,59 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@code CredentialStoreMetrics}, latencies are
+ * reported in nanoseconds
+ */
+public interface CredentialStoreMetricsMXBean {
+
+    /**
+     * latency of each advapi32 function keyed by function name
+     */
+    Map<String, HistogramSnapshot> getNativeCallLatency();
+
+    /**
+     * latency of each {@code CredentialManager} operation keyed by method
+     * name, only recorded for managers wrapped in an {@code InstrumentedCredentialManager}
+     */
+    Map<String, HistogramSnapshot> getOperationLatency();
+
+    /**
+     * time spent acquiring the lock stripes of each native call
+     */
+    HistogramSnapshot getLockWait();
+
+    /**
+     * number of credentials returned by each enumeration
+     */
+    HistogramSnapshot getEnumerationSize();
+
+    /**
+     * size in bytes of each credential blob written or read
+     */
+    HistogramSnapshot getBlobSize();
+
+    /**
+     * number of failed native calls keyed by {@code ExpectedErrorCode} name,
+     * other codes are counted under {@code OTHER}
+     */
+    Map<String, Long> getErrorCounts();
+
+    /**
+     * discards every recorded value
+     */
+    void reset();
+}
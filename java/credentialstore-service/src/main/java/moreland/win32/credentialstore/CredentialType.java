@@ -102,10 +102,12 @@ public enum CredentialType {
      * @return converted value or UNKONWN if no match found
      */
     public static CredentialType fromInteger(int value) {
-        return Arrays.stream(CredentialType.class.getEnumConstants())
-            .filter(e -> e.value == value)
-            .findFirst()
-            .orElse(CredentialType.UNKNOWN);
+        if (value >= 0 && value < BY_VALUE.length) {
+            return BY_VALUE[value];
+        }
+        return value == MAXIMUM_EX.value
+            ? MAXIMUM_EX
+            : UNKNOWN;
     }
 
     /**
@@ -114,13 +116,20 @@ public enum CredentialType {
      * @return Optional of converted value or empty if no match found
      */
     public static Optional<CredentialType> fromString(String value) {
-        final String upperValue = value.toUpperCase();
-        return Arrays.stream(CredentialType.class.getEnumConstants())
-            .filter(e -> e.toString().equals(upperValue))
-            .findFirst();
+        for (var type : VALUES) {
+            if (type.name().equalsIgnoreCase(value)) {
+                return type.optional;
+            }
+        }
+        return Optional.empty();
     }
 
+    private static final CredentialType[] VALUES = values();
 
+    // every value other than MAXIMUM_EX is dense from 0, indexed directly
+    private static final CredentialType[] BY_VALUE = Arrays.copyOf(VALUES, MAXIMUM.value + 1);
+
+    private final Optional<CredentialType> optional = Optional.of(this);
     private final int value;
     CredentialType(int value) {
         this.value = value;
@@ -0,0 +1,370 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Shared background scanner behind {@code CredentialManager.watch}.
+ * <p>
+ * A single daemon thread is started with the first subscription and
+ * stopped with the last. Each scan enumerates the credential metadata
+ * only, secrets are never read, and compares it by key and last written
+ * time with the snapshot last delivered to each subscription. Each
+ * subscription records its own baseline when it is registered, so a
+ * listener, including one joining a running watcher, is only told about
+ * changes made after it subscribed.
+ * <p>
+ * See {@code WatchOptions} for how the interval adapts and bursts are
+ * coalesced.
+ * <p>
+ * {@code subscribeShared} keeps one watcher per credential source for the
+ * whole process, so any number of managers over the same source share a
+ * single scanner thread and every scan is fanned out to all of their
+ * listeners. A shared watcher is released once its last subscription is
+ * closed.
+ */
+final class CredentialWatcher {
+
+    private static final AtomicInteger watcherNumber = new AtomicInteger();
+    private static final ReentrantLock sharedLock = new ReentrantLock();
+    private static final Map<Object, CredentialWatcher> shared = new IdentityHashMap<>(); // guarded by sharedLock
+
+    private final Supplier<List<CredentialDescriptor>> source;
+    private final Logger logger;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private ScheduledExecutorService executor; // guarded by lock
+    private final LongAdder scanCount = new LongAdder();
+    private Object sharedKey; // guarded by sharedLock
+
+    /**
+     * instantiates a new instance of the CredentialWatcher class
+     * @param source enumerates the current credential metadata, errors
+     *               other than there being no credentials must be thrown
+     * @param logger logger receiving scan and listener failures
+     * @exception IllegalArgumentException if either argument is null
+     */
+    CredentialWatcher(Supplier<List<CredentialDescriptor>> source, Logger logger) {
+        Guard.againstNull(source, "source");
+        Guard.againstNull(logger, "logger");
+
+        this.source = source;
+        this.logger = logger;
+    }
+
+    /**
+     * Registers {@code listener} with the process-wide watcher of
+     * {@code key}, creating the watcher from {@code source} when no
+     * subscription to {@code key} is active
+     * @param key identity of the credential source, such as the
+     *            {@code NativeInteropBridge} being enumerated
+     * @param source enumerates the current credential metadata, only used
+     *               when a new watcher is created
+     * @param logger logger receiving scan and listener failures, only used
+     *               when a new watcher is created
+     * @exception IllegalArgumentException if any argument is null
+     */
+    static WatchSubscription subscribeShared(Object key, Supplier<List<CredentialDescriptor>> source, Logger logger,
+            CredentialChangeListener listener, WatchOptions options) {
+        Guard.againstNull(key, "key");
+        Guard.againstNull(listener, "listener");
+        Guard.againstNull(options, "options");
+
+        sharedLock.lock();
+        try {
+            var watcher = shared.get(key);
+            if (watcher == null) {
+                watcher = new CredentialWatcher(source, logger);
+                watcher.sharedKey = key;
+                shared.put(key, watcher);
+            }
+            return watcher.subscribe(listener, options);
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * Registers {@code listener}, starting the scanner if it is not running;
+     * the current metadata is enumerated on the calling thread as the
+     * baseline of the subscription
+     * @exception IllegalArgumentException if either argument is null
+     */
+    WatchSubscription subscribe(CredentialChangeListener listener, WatchOptions options) {
+        Guard.againstNull(listener, "listener");
+        Guard.againstNull(options, "options");
+
+        var subscription = new Subscription(listener, options);
+        try {
+            subscription.baseline = snapshotOf(source.get());
+        } catch (RuntimeException e) {
+            // the next scan records the baseline instead
+            logger.error("Credential watch scan failed", e);
+        }
+        lock.lock();
+        try {
+            subscriptions.add(subscription);
+            if (executor == null) {
+                executor = newExecutor();
+                executor.execute(new Scanner(executor)::scan);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return subscription;
+    }
+
+    /**
+     * Returns true while at least one subscription is active
+     */
+    boolean isRunning() {
+        lock.lock();
+        try {
+            return executor != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * number of completed scans since the watcher was created
+     */
+    long getScanCount() {
+        return scanCount.sum();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        var stopped = false;
+        lock.lock();
+        try {
+            subscriptions.remove(subscription);
+            if (subscriptions.isEmpty() && executor != null) {
+                executor.shutdownNow();
+                executor = null;
+                stopped = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (stopped) {
+            releaseShared();
+        }
+    }
+
+    /**
+     * removes a stopped shared watcher from the registry, unless a new
+     * subscription restarted it meanwhile; {@code sharedLock} is always
+     * taken before {@code lock}
+     */
+    private void releaseShared() {
+        sharedLock.lock();
+        try {
+            if (sharedKey != null && shared.get(sharedKey) == this && !isRunning()) {
+                shared.remove(sharedKey);
+                sharedKey = null;
+            }
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    private static ScheduledExecutorService newExecutor() {
+        var name = "credentialstore-watch-" + watcherNumber.incrementAndGet();
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Map<CredentialKey, CredentialDescriptor> snapshotOf(List<CredentialDescriptor> descriptors) {
+        var snapshot = new LinkedHashMap<CredentialKey, CredentialDescriptor>(descriptors.size() * 2);
+        for (var descriptor : descriptors) {
+            snapshot.put(CredentialKey.of(descriptor.getId(), descriptor.getType()), descriptor);
+        }
+        return snapshot;
+    }
+
+    private static List<CredentialChangeEvent> difference(Map<CredentialKey, CredentialDescriptor> previous,
+            Map<CredentialKey, CredentialDescriptor> current) {
+        var events = new ArrayList<CredentialChangeEvent>();
+        for (var descriptor : current.entrySet()) {
+            var before = previous.get(descriptor.getKey());
+            if (before == null) {
+                events.add(new CredentialChangeEvent(CredentialChangeType.ADDED, descriptor.getValue()));
+            } else if (!before.equals(descriptor.getValue())) {
+                events.add(new CredentialChangeEvent(CredentialChangeType.UPDATED, descriptor.getValue()));
+            }
+        }
+        for (var descriptor : previous.entrySet()) {
+            if (!current.containsKey(descriptor.getKey())) {
+                events.add(new CredentialChangeEvent(CredentialChangeType.REMOVED, descriptor.getValue()));
+            }
+        }
+        return List.copyOf(events);
+    }
+
+    /**
+     * state of one run of the scanner, confined to its executor thread
+     */
+    private final class Scanner {
+        private final ScheduledExecutorService executor;
+        private Map<CredentialKey, CredentialDescriptor> delivered;
+        private Map<CredentialKey, CredentialDescriptor> lastSeen;
+        private long pendingSinceNanos;
+        private long intervalNanos;
+
+        Scanner(ScheduledExecutorService executor) {
+            this.executor = executor;
+        }
+
+        void scan() {
+            // the shortest settings requested by any active subscription
+            var minimumNanos = Long.MAX_VALUE;
+            var maximumNanos = Long.MAX_VALUE;
+            var quietNanos = Long.MAX_VALUE;
+            for (var subscription : subscriptions) {
+                minimumNanos = Math.min(minimumNanos, subscription.options.getMinimumInterval().toNanos());
+                maximumNanos = Math.min(maximumNanos, subscription.options.getMaximumInterval().toNanos());
+                quietNanos = Math.min(quietNanos, subscription.options.getQuietPeriod().toNanos());
+            }
+            if (minimumNanos == Long.MAX_VALUE) {
+                return;
+            }
+            maximumNanos = Math.max(maximumNanos, minimumNanos);
+
+            Map<CredentialKey, CredentialDescriptor> current;
+            try {
+                current = snapshotOf(source.get());
+            } catch (RuntimeException e) {
+                // keep the previous snapshot, a failed scan must not be reported as every credential removed
+                logger.error("Credential watch scan failed", e);
+                schedule(Math.max(intervalNanos, minimumNanos));
+                return;
+            }
+            scanCount.increment();
+            for (var subscription : subscriptions) {
+                if (subscription.baseline == null) {
+                    subscription.baseline = current;
+                }
+            }
+
+            if (delivered == null) {
+                // subscriptions recorded their baselines before this scan, report anything changed since
+                delivered = current;
+                intervalNanos = minimumNanos;
+                deliver(current);
+                schedule(intervalNanos);
+                return;
+            }
+
+            if (lastSeen == null) {
+                if (current.equals(delivered)) {
+                    intervalNanos = Math.min(Math.max(intervalNanos, minimumNanos) * 2, maximumNanos);
+                    schedule(intervalNanos);
+                    return;
+                }
+                pendingSinceNanos = System.nanoTime();
+            }
+
+            var settled = quietNanos == 0 ||
+                current.equals(lastSeen) ||
+                System.nanoTime() - pendingSinceNanos >= maximumNanos;
+            if (!settled) {
+                lastSeen = current;
+                schedule(quietNanos);
+                return;
+            }
+
+            delivered = current;
+            lastSeen = null;
+            intervalNanos = minimumNanos;
+            deliver(current);
+            schedule(intervalNanos);
+        }
+
+        /**
+         * tells each subscription what changed since its baseline;
+         * subscriptions share a baseline once they have been delivered to,
+         * so the difference is computed once per distinct baseline
+         */
+        private void deliver(Map<CredentialKey, CredentialDescriptor> current) {
+            var differences = new IdentityHashMap<Map<CredentialKey, CredentialDescriptor>, List<CredentialChangeEvent>>();
+            for (var subscription : subscriptions) {
+                var baseline = subscription.baseline;
+                if (!subscription.isActive() || baseline == null || baseline == current) {
+                    continue;
+                }
+                var events = differences.computeIfAbsent(baseline, previous -> difference(previous, current));
+                subscription.baseline = current;
+                if (events.isEmpty()) {
+                    continue;
+                }
+                try {
+                    subscription.listener.onChanges(events);
+                } catch (RuntimeException e) {
+                    logger.error("Credential change listener failed", e);
+                }
+            }
+        }
+
+        private void schedule(long delayNanos) {
+            try {
+                executor.schedule(this::scan, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the last subscription was closed while scanning
+            }
+        }
+    }
+
+    private final class Subscription implements WatchSubscription {
+        private final CredentialChangeListener listener;
+        private final WatchOptions options;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+        private volatile Map<CredentialKey, CredentialDescriptor> baseline; // written by the scanner
+
+        Subscription(CredentialChangeListener listener, WatchOptions options) {
+            this.listener = listener;
+            this.options = options;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active.get();
+        }
+
+        @Override
+        public void close() {
+            if (active.compareAndSet(true, false)) {
+                unsubscribe(this);
+            }
+        }
+    }
+}
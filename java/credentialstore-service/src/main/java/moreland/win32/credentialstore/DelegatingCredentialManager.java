@@ -0,0 +1,132 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Base class for {@code CredentialManager} decorators, every operation is
+ * forwarded to the wrapped manager unless overridden
+ */
+public abstract class DelegatingCredentialManager implements CredentialManager {
+
+    private final CredentialManager delegate;
+
+    /**
+     * Instantiates a new instance of the DelegatingCredentialManager class
+     * @param delegate manager receiving forwarded calls
+     * @exception IllegalArgumentException if {@code delegate} is null
+     */
+    protected DelegatingCredentialManager(CredentialManager delegate) {
+        Guard.againstNull(delegate, "delegate");
+        this.delegate = delegate;
+    }
+
+    /**
+     * the wrapped manager
+     */
+    protected final CredentialManager delegate() {
+        return delegate;
+    }
+
+    @Override
+    public List<Credential> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<CredentialDescriptor> getAllDescriptors() {
+        return delegate.getAllDescriptors();
+    }
+
+    @Override
+    public Flow.Publisher<Credential> publishAll() {
+        return delegate.publishAll();
+    }
+
+    @Override
+    public boolean add(Credential credential) {
+        return delegate.add(credential);
+    }
+
+    @Override
+    public boolean update(Credential credential) {
+        return delegate.update(credential);
+    }
+
+    @Override
+    public boolean delete(Credential credential) {
+        return delegate.delete(credential);
+    }
+
+    @Override
+    public boolean delete(String id, CredentialType type) {
+        return delegate.delete(id, type);
+    }
+
+    @Override
+    public Optional<Credential> find(String id, CredentialType type) {
+        return delegate.find(id, type);
+    }
+
+    @Override
+    public List<Credential> find(String filter, boolean searchAll) {
+        return delegate.find(filter, searchAll);
+    }
+
+    @Override
+    public List<Credential> findMatching(String pattern) {
+        return delegate.findMatching(pattern);
+    }
+
+    @Override
+    public List<Credential> findModifiedSince(Instant since) {
+        return delegate.findModifiedSince(since);
+    }
+
+    @Override
+    public List<Credential> findByAttribute(CredentialAttribute attribute) {
+        return delegate.findByAttribute(attribute);
+    }
+
+    @Override
+    public WatchSubscription watch(CredentialChangeListener listener, WatchOptions options) {
+        return delegate.watch(listener, options);
+    }
+
+    @Override
+    public BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        return delegate.addAll(credentials, executor);
+    }
+
+    @Override
+    public BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        return delegate.updateAll(credentials, executor);
+    }
+
+    @Override
+    public BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        return delegate.deleteAll(keys, executor);
+    }
+
+    @Override
+    public Map<CredentialKey, Credential> findAll(Collection<CredentialKey> keys, Executor executor) {
+        return delegate.findAll(keys, executor);
+    }
+}
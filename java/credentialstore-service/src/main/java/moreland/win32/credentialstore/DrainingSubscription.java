@@ -0,0 +1,172 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscription over an enumeration performed on the first request, shared
+ * by the publishers of this package. Subclasses open the enumeration,
+ * convert entries by index and release what the enumeration holds, this
+ * class tracks demand and serializes the signals.
+ * <p>
+ * Signals are delivered on the thread calling {@code request}; re-entrant
+ * requests from {@code onNext} only add demand, the outer call delivers it.
+ * The enumeration is released once the last entry is delivered, the
+ * subscription is cancelled or a subscriber throws.
+ * @param <T> type of the published items
+ */
+abstract class DrainingSubscription<T> implements EnumerationSubscription {
+
+    private final Flow.Subscriber<? super T> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger workInProgress = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private volatile Throwable invalidRequest;
+    private volatile int enumeratedCount = -1;
+    private boolean opened;
+    private int index;
+    private boolean done;
+
+    DrainingSubscription(Flow.Subscriber<? super T> subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * performs the enumeration
+     * @return number of enumerated entries
+     * @exception Exception if the enumeration fails, delivered to {@code onError}
+     */
+    abstract int open() throws Exception;
+
+    /**
+     * converts the entry at {@code index}
+     * @return the converted entry, or empty if it is skipped
+     */
+    abstract Optional<T> convert(int index);
+
+    /**
+     * releases the enumeration, called at most once and only after
+     * {@code open} succeeded
+     * @exception Exception if releasing fails, the enumeration is abandoned
+     */
+    abstract void closeEnumeration() throws Exception;
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+        } else {
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled.set(true);
+        drain();
+    }
+
+    @Override
+    public int getEnumeratedCount() {
+        return enumeratedCount;
+    }
+
+    /**
+     * only one thread drains at a time, signals arriving meanwhile
+     * increment {@code workInProgress} and are picked up by the loop
+     */
+    private void drain() {
+        if (workInProgress.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            try {
+                emit();
+            } catch (RuntimeException | Error e) {
+                cancelled.set(true);
+                release();
+                throw e;
+            }
+            missed = workInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit() {
+        while (!done) {
+            if (cancelled.get()) {
+                release();
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+            if (demand.get() == 0) {
+                return;
+            }
+            if (!opened && !tryOpen()) {
+                return;
+            }
+            if (index >= enumeratedCount) {
+                release();
+                subscriber.onComplete();
+                return;
+            }
+
+            Optional<T> next = convert(index++);
+            if (next.isPresent()) {
+                demand.decrementAndGet();
+                subscriber.onNext(next.get());
+            }
+        }
+    }
+
+    private boolean tryOpen() {
+        try {
+            enumeratedCount = open();
+            opened = true;
+            return true;
+        } catch (Exception e) {
+            fail(e);
+            return false;
+        }
+    }
+
+    private void fail(Throwable error) {
+        release();
+        subscriber.onError(error);
+    }
+
+    /**
+     * releases the enumeration and stops further signals
+     */
+    private void release() {
+        done = true;
+        if (!opened) {
+            return;
+        }
+        opened = false;
+        try {
+            closeEnumeration();
+        } catch (Exception e) {
+            // ... nothing more can be done for the subscriber, the enumeration is abandoned ...
+        }
+    }
+}
@@ -12,7 +12,6 @@
 //
 package moreland.win32.credentialstore;
 
-import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -33,11 +32,18 @@ public enum ExpectedErrorCode {
     }
 
     public static Optional<ExpectedErrorCode> fromInteger(int value) {
-        return Arrays.stream(ExpectedErrorCode.class.getEnumConstants())
-            .filter(e -> e.getValue() == value)
-            .findFirst();
+        // a handful of sparse values, a linear scan is cheaper than boxing a map key
+        for (var errorCode : VALUES) {
+            if (errorCode.value == value) {
+                return errorCode.optional;
+            }
+        }
+        return Optional.empty();
     }
 
+    private static final ExpectedErrorCode[] VALUES = values();
+    private final Optional<ExpectedErrorCode> optional = Optional.of(this);
+
     ExpectedErrorCode(int value) {
         this.value = value;
     }
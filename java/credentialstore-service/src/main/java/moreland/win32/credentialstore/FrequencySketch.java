@@ -0,0 +1,81 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+/**
+ * Approximate access counts using a count-min sketch of 4-bit-range
+ * counters. Counts are halved once the number of recorded accesses
+ * reaches ten times the cache capacity so that the sketch favours recent
+ * popularity. Not thread safe, callers are expected to hold a lock.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAXIMUM_COUNT = 15;
+    private static final int[] SEEDS = { 0x97CB3127, 0xB3A3E79B, 0x2C1B3C6D, 0x8CB92BA7 };
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        var width = Integer.highestOneBit(Math.max(16, capacity - 1) << 1);
+        table = new int[DEPTH][width];
+        mask = width - 1;
+        sampleSize = Math.max(10, capacity * 10);
+    }
+
+    /**
+     * estimated number of recent accesses of {@code hash}
+     */
+    int frequency(int hash) {
+        var frequency = MAXIMUM_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * records an access of {@code hash}
+     */
+    void increment(int hash) {
+        var added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            var index = indexOf(hash, i);
+            if (table[i][index] < MAXIMUM_COUNT) {
+                table[i][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (var row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        var h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
@@ -0,0 +1,97 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+/**
+ * Point in time summary of a histogram maintained by {@code CredentialStoreMetrics},
+ * percentiles are accurate to within 12.5%
+ */
+public final class HistogramSnapshot {
+
+    private final long count;
+    private final double mean;
+    private final long median;
+    private final long percentile90;
+    private final long percentile99;
+    private final long percentile999;
+    private final long maximum;
+
+    public HistogramSnapshot(long count, double mean, long median, long percentile90, long percentile99,
+            long percentile999, long maximum) {
+        this.count = count;
+        this.mean = mean;
+        this.median = median;
+        this.percentile90 = percentile90;
+        this.percentile99 = percentile99;
+        this.percentile999 = percentile999;
+        this.maximum = maximum;
+    }
+
+    /**
+     * number of values recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * mean of the recorded values
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * 50th percentile of the recorded values
+     */
+    public long getMedian() {
+        return median;
+    }
+
+    /**
+     * 90th percentile of the recorded values
+     */
+    public long getPercentile90() {
+        return percentile90;
+    }
+
+    /**
+     * 99th percentile of the recorded values
+     */
+    public long getPercentile99() {
+        return percentile99;
+    }
+
+    /**
+     * 99.9th percentile of the recorded values
+     */
+    public long getPercentile999() {
+        return percentile999;
+    }
+
+    /**
+     * largest value recorded
+     */
+    public long getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{Count=" + count + ", Mean=" + mean + ", P50=" + median + ", P90=" + percentile90
+            + ", P99=" + percentile99 + ", P99.9=" + percentile999 + ", Max=" + maximum + "}";
+    }
+}
@@ -0,0 +1,194 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import moreland.win32.credentialstore.internal.LockStripes;
+
+/**
+ * {@code CredentialManager} decorator maintaining a {@code CredentialIndex}
+ * over the credential set.
+ * <p>
+ * The index is built from {@code getAllDescriptors()} when constructed and
+ * kept current as writes and deletes succeed through this instance. After a
+ * successful write the entry is re-read from the delegate so it matches what
+ * {@code getAllDescriptors()} would report, and single writes hold a per-key
+ * lock across the write and the index update so concurrent add and delete
+ * of the same key cannot leave a stale entry. Changes made by other
+ * processes are picked up by {@code refresh()}.
+ */
+public final class IndexedCredentialManager extends DelegatingCredentialManager {
+
+    private final CredentialIndex index = new CredentialIndex();
+    private final LockStripes locks = new LockStripes(LockStripes.DEFAULT_STRIPE_COUNT);
+
+    /**
+     * Instantiates a new instance of the IndexedCredentialManager class
+     * and builds the index from the current credential set
+     * @param delegate manager performing the operations
+     * @exception IllegalArgumentException if {@code delegate} is null
+     */
+    public IndexedCredentialManager(CredentialManager delegate) {
+        super(delegate);
+        refresh();
+    }
+
+    /**
+     * Rebuilds the index from a new enumeration of the credential set
+     */
+    public void refresh() {
+        index.rebuild(delegate().getAllDescriptors());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean add(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return writeAndUpdateIndex(CredentialKey.of(credential), () -> super.add(credential), this::reindexLocked);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean update(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return writeAndUpdateIndex(CredentialKey.of(credential), () -> super.update(credential), this::reindexLocked);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return delete(credential.getId(), credential.getType());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(String id, CredentialType type) {
+        return writeAndUpdateIndex(CredentialKey.of(id, type), () -> super.delete(id, type), index::remove);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        var result = super.addAll(credentials, executor);
+        result.getSucceeded().forEach(credential -> reindex(CredentialKey.of(credential)));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        var result = super.updateAll(credentials, executor);
+        result.getSucceeded().forEach(credential -> reindex(CredentialKey.of(credential)));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        var result = super.deleteAll(keys, executor);
+        result.getSucceeded().forEach(this::reindex);
+        return result;
+    }
+
+    /**
+     * @see CredentialIndex#findByUsername(String)
+     */
+    public List<CredentialDescriptor> findByUsername(String username) {
+        return index.findByUsername(username);
+    }
+
+    /**
+     * @see CredentialIndex#findByType(CredentialType)
+     */
+    public List<CredentialDescriptor> findByType(CredentialType type) {
+        return index.findByType(type);
+    }
+
+    /**
+     * @see CredentialIndex#findByPersistence(CredentialPersistence)
+     */
+    public List<CredentialDescriptor> findByPersistence(CredentialPersistence persistenceType) {
+        return index.findByPersistence(persistenceType);
+    }
+
+    /**
+     * @see CredentialIndex#findByPrefix(String)
+     */
+    public List<CredentialDescriptor> findByPrefix(String prefix) {
+        return index.findByPrefix(prefix);
+    }
+
+    /**
+     * the index maintained by this manager
+     */
+    public CredentialIndex getIndex() {
+        return index;
+    }
+
+    private boolean writeAndUpdateIndex(CredentialKey key, BooleanSupplier write, Consumer<CredentialKey> updateIndex) {
+        var lock = locks.forKey(key.getId(), key.getType().getValue()).writeLock();
+        lock.lock();
+        try {
+            var written = write.getAsBoolean();
+            if (written) {
+                updateIndex.accept(key);
+            }
+            return written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reindex(CredentialKey key) {
+        var lock = locks.forKey(key.getId(), key.getType().getValue()).writeLock();
+        lock.lock();
+        try {
+            reindexLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reindexLocked(CredentialKey key) {
+        var stored = delegate().find(key.getId(), key.getType());
+        if (stored.isEmpty()) {
+            index.remove(key);
+            return;
+        }
+        try {
+            index.put(CredentialDescriptor.of(stored.get()));
+        } finally {
+            stored.get().getSecretBuffer().ifPresent(SecretBuffer::close);
+        }
+    }
+}
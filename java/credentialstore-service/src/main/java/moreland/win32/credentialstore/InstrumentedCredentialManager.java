@@ -0,0 +1,242 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Records the latency of each operation of another {@code CredentialManager}
+ * to a {@code CredentialStoreMetrics}, keyed by method name; the
+ * {@code find} overloads are recorded as {@code findById} and
+ * {@code findByFilter}, a single read and a full enumeration differ by
+ * orders of magnitude.
+ * <p>
+ * {@code publishAll} and {@code watch} return before any work is done and
+ * are forwarded without being measured.
+ */
+public final class InstrumentedCredentialManager extends DelegatingCredentialManager {
+
+    private final CredentialStoreMetrics metrics;
+
+    /**
+     * Instantiates a new instance of the InstrumentedCredentialManager class
+     * @param delegate manager whose operations are measured
+     * @param metrics receives the latency of each operation
+     * @exception IllegalArgumentException if {@code delegate} or {@code metrics} is null
+     */
+    public InstrumentedCredentialManager(CredentialManager delegate, CredentialStoreMetrics metrics) {
+        super(delegate);
+        Guard.againstNull(metrics, "metrics");
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Credential> getAll() {
+        var started = System.nanoTime();
+        try {
+            return super.getAll();
+        } finally {
+            metrics.recordOperation("getAll", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CredentialDescriptor> getAllDescriptors() {
+        var started = System.nanoTime();
+        try {
+            return super.getAllDescriptors();
+        } finally {
+            metrics.recordOperation("getAllDescriptors", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean add(Credential credential) {
+        var started = System.nanoTime();
+        try {
+            return super.add(credential);
+        } finally {
+            metrics.recordOperation("add", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean update(Credential credential) {
+        var started = System.nanoTime();
+        try {
+            return super.update(credential);
+        } finally {
+            metrics.recordOperation("update", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(Credential credential) {
+        var started = System.nanoTime();
+        try {
+            return super.delete(credential);
+        } finally {
+            metrics.recordOperation("delete", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean delete(String id, CredentialType type) {
+        var started = System.nanoTime();
+        try {
+            return super.delete(id, type);
+        } finally {
+            metrics.recordOperation("delete", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Credential> find(String id, CredentialType type) {
+        var started = System.nanoTime();
+        try {
+            return super.find(id, type);
+        } finally {
+            metrics.recordOperation("findById", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Credential> find(String filter, boolean searchAll) {
+        var started = System.nanoTime();
+        try {
+            return super.find(filter, searchAll);
+        } finally {
+            metrics.recordOperation("findByFilter", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Credential> findMatching(String pattern) {
+        var started = System.nanoTime();
+        try {
+            return super.findMatching(pattern);
+        } finally {
+            metrics.recordOperation("findMatching", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Credential> findModifiedSince(Instant since) {
+        var started = System.nanoTime();
+        try {
+            return super.findModifiedSince(since);
+        } finally {
+            metrics.recordOperation("findModifiedSince", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Credential> findByAttribute(CredentialAttribute attribute) {
+        var started = System.nanoTime();
+        try {
+            return super.findByAttribute(attribute);
+        } finally {
+            metrics.recordOperation("findByAttribute", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        var started = System.nanoTime();
+        try {
+            return super.addAll(credentials, executor);
+        } finally {
+            metrics.recordOperation("addAll", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        var started = System.nanoTime();
+        try {
+            return super.updateAll(credentials, executor);
+        } finally {
+            metrics.recordOperation("updateAll", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        var started = System.nanoTime();
+        try {
+            return super.deleteAll(keys, executor);
+        } finally {
+            metrics.recordOperation("deleteAll", System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<CredentialKey, Credential> findAll(Collection<CredentialKey> keys, Executor executor) {
+        var started = System.nanoTime();
+        try {
+            return super.findAll(keys, executor);
+        } finally {
+            metrics.recordOperation("findAll", System.nanoTime() - started);
+        }
+    }
+}
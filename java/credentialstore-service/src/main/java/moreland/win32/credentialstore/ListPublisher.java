@@ -0,0 +1,78 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Cold publisher of the items returned by a supplier, each subscription
+ * calls the supplier on first request and emits the resulting list.
+ * <p>
+ * Subscriptions are {@code EnumerationSubscription}s reporting the size of
+ * the supplied list, signalling as described by {@code DrainingSubscription}.
+ * @param <T> type of the published items
+ */
+final class ListPublisher<T> implements Flow.Publisher<T> {
+
+    private final Supplier<List<T>> source;
+
+    /**
+     * instantiates a new instance of the ListPublisher class
+     * @param source supplies the items of each subscription
+     * @exception IllegalArgumentException if {@code source} is null
+     */
+    ListPublisher(Supplier<List<T>> source) {
+        Guard.againstNull(source, "source");
+        this.source = source;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @exception NullPointerException if {@code subscriber} is null, as
+     *            required by the {@code Flow.Publisher} contract
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new ListSubscription(subscriber));
+    }
+
+    private final class ListSubscription extends DrainingSubscription<T> {
+
+        private List<T> items;
+
+        ListSubscription(Flow.Subscriber<? super T> subscriber) {
+            super(subscriber);
+        }
+
+        @Override
+        int open() {
+            items = List.copyOf(source.get());
+            return items.size();
+        }
+
+        @Override
+        Optional<T> convert(int index) {
+            return Optional.of(items.get(index));
+        }
+
+        @Override
+        void closeEnumeration() {
+            items = null;
+        }
+    }
+}
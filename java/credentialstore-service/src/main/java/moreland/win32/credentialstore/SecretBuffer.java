@@ -0,0 +1,360 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.IdentityHashMap;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+/**
+ * Secret held in native memory as UTF-16LE, the encoding of
+ * {@code CREDENTIAL.CredentialBlob}, so it can be copied to and from the
+ * native api without passing through a heap {@code byte[]} or
+ * {@code String}.
+ * <p>
+ * {@code close} zeroes the memory, which is freed once neither the buffer
+ * nor any of its views are reachable, so a view used after {@code close}
+ * reads zeroes rather than freed memory. Views returned by
+ * {@code asByteBuffer}, {@code asCharBuffer} and {@code getPointer} share
+ * the native memory and keep the buffer reachable while they are.
+ * Instances are not safe for use by multiple threads while being closed.
+ */
+public final class SecretBuffer implements AutoCloseable {
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final ViewOwners VIEW_OWNERS = new ViewOwners();
+
+    private final long peer;
+    private final int size;
+    private volatile boolean closed;
+
+    private SecretBuffer(int size) {
+        this.size = size;
+        this.peer = size > 0 ? Native.malloc(size) : 0L;
+        if (size > 0 && peer == 0L) {
+            throw new OutOfMemoryError("unable to allocate " + size + " bytes of native memory");
+        }
+        // an empty buffer holds no native memory, there is nothing to release
+        if (size > 0) {
+            CLEANER.register(this, new Release(peer, size));
+        }
+        wipe();
+    }
+
+    /**
+     * Returns a new zeroed buffer of {@code size} bytes
+     * @param size size in bytes
+     * @return new buffer
+     * @exception IllegalArgumentException if {@code size} is negative
+     */
+    public static SecretBuffer allocate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative");
+        }
+        return new SecretBuffer(size);
+    }
+
+    /**
+     * Returns a new empty buffer
+     * @return buffer of size 0
+     */
+    public static SecretBuffer empty() {
+        return new SecretBuffer(0);
+    }
+
+    /**
+     * Copies {@code size} bytes of native memory starting at {@code source}
+     * @param source native memory to copy, typically {@code CredentialBlob}
+     * @param size number of bytes to copy
+     * @return new buffer holding a copy of {@code source}
+     * @exception IllegalArgumentException if {@code size} is negative or
+     *            {@code source} is null and {@code size} is not 0
+     */
+    public static SecretBuffer copyOf(Pointer source, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size cannot be negative");
+        }
+        if (size > 0 && source == null) {
+            throw new IllegalArgumentException("source cannot be null");
+        }
+
+        var buffer = new SecretBuffer(size);
+        if (size > 0) {
+            buffer.asByteBuffer().put(source.getByteBuffer(0, size));
+        }
+        return buffer;
+    }
+
+    /**
+     * Encodes {@code secret} as UTF-16LE directly into a new buffer
+     * @param secret characters to copy, the caller remains responsible for
+     *               clearing the array
+     * @return new buffer holding the encoded secret
+     * @exception IllegalArgumentException if {@code secret} is null
+     */
+    public static SecretBuffer of(char[] secret) {
+        Guard.againstNull(secret, "secret");
+
+        var buffer = new SecretBuffer(Math.multiplyExact(secret.length, Character.BYTES));
+        buffer.asCharBuffer().put(secret);
+        return buffer;
+    }
+
+    /**
+     * Encodes {@code secret} as UTF-16LE directly into a new buffer
+     * @param secret characters to copy
+     * @return new buffer holding the encoded secret
+     * @exception IllegalArgumentException if {@code secret} is null
+     */
+    public static SecretBuffer of(CharSequence secret) {
+        Guard.againstNull(secret, "secret");
+
+        var buffer = new SecretBuffer(Math.multiplyExact(secret.length(), Character.BYTES));
+        var view = buffer.asCharBuffer();
+        for (int i = 0; i < secret.length(); i++) {
+            view.put(secret.charAt(i));
+        }
+        return buffer;
+    }
+
+    /**
+     * size in bytes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * number of UTF-16 characters
+     */
+    public int length() {
+        return size / Character.BYTES;
+    }
+
+    /**
+     * Returns true once {@code close} has been called
+     * @return true if the buffer has been closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns a little endian view of the secret
+     * @return byte view sharing the native memory
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public ByteBuffer asByteBuffer() {
+        try {
+            ensureOpen();
+            if (size == 0) {
+                return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            var view = new Pointer(peer).getByteBuffer(0, size).order(ByteOrder.LITTLE_ENDIAN);
+            VIEW_OWNERS.put(view, this);
+            return view;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Returns a view of the secret as UTF-16 characters
+     * @return character view sharing the native memory
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public CharBuffer asCharBuffer() {
+        try {
+            // the char view refers to the byte view, which keeps this buffer reachable
+            return asByteBuffer().asCharBuffer();
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Returns a copy of the secret, the caller is responsible for clearing
+     * the array once it is no longer needed
+     * @return secret characters
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public char[] toCharArray() {
+        try {
+            ensureOpen();
+            var chars = new char[length()];
+            if (size > 0) {
+                // a temporary view, the fence keeps the memory alive so it is not registered with VIEW_OWNERS
+                new Pointer(peer).getByteBuffer(0, size).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer().get(chars);
+            }
+            return chars;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Copies the secret to {@code destination}
+     * @param destination native memory of at least {@code size()} bytes
+     * @exception IllegalArgumentException if {@code destination} is null
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public void copyTo(Pointer destination) {
+        Guard.againstNull(destination, "destination");
+        try {
+            if (size > 0) {
+                destination.getByteBuffer(0, size).put(asByteBuffer());
+            } else {
+                ensureOpen();
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * Returns the address of the secret for passing to the native api, the
+     * pointer keeps the buffer reachable while it is
+     * @return pointer to the secret or {@code Pointer.NULL} when empty
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public Pointer getPointer() {
+        try {
+            ensureOpen();
+            return size > 0 ? new OwnedPointer(peer, this) : Pointer.NULL;
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * zeroes the secret without releasing the buffer
+     * @exception IllegalStateException if the buffer has been closed
+     */
+    public void wipe() {
+        try {
+            ensureOpen();
+            if (size > 0) {
+                new Pointer(peer).setMemory(0, size, (byte) 0);
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * zeroes the native memory and prevents further access, subsequent
+     * calls have no effect; the memory is freed by the cleaner once no view
+     * can still read it
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            closed = true;
+            if (size > 0) {
+                new Pointer(peer).setMemory(0, size, (byte) 0);
+            }
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The secret is never included.
+     */
+    @Override
+    public String toString() {
+        return String.format("SecretBuffer[size=%d]", size);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("secret buffer has been closed");
+        }
+    }
+
+    /**
+     * pointer to the secret which keeps its buffer reachable
+     */
+    private static final class OwnedPointer extends Pointer {
+
+        @SuppressWarnings({"unused", "java:S1068"})
+        private final SecretBuffer owner;
+
+        OwnedPointer(long peer, SecretBuffer owner) {
+            super(peer);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Maps each byte view to the buffer it shares memory with, the view is
+     * only weakly referenced so the buffer stays reachable exactly as long
+     * as one of its views does; views derived from a byte view, such as
+     * {@code asCharBuffer}, refer to it and so keep it reachable in turn.
+     * The same approach JNA takes for views of {@code Memory}.
+     */
+    private static final class ViewOwners {
+
+        private final ReferenceQueue<Buffer> queue = new ReferenceQueue<>();
+        private final IdentityHashMap<Reference<Buffer>, SecretBuffer> owners = new IdentityHashMap<>();
+
+        synchronized void put(Buffer view, SecretBuffer owner) {
+            expunge();
+            owners.put(new WeakReference<>(view, queue), owner);
+        }
+
+        private void expunge() {
+            Reference<? extends Buffer> cleared;
+            while ((cleared = queue.poll()) != null) {
+                owners.remove(cleared);
+            }
+        }
+    }
+
+    /**
+     * cleaning action, holds no reference to the buffer so it can become
+     * phantom reachable
+     */
+    private static final class Release implements Runnable {
+
+        private final long peer;
+        private final int size;
+
+        Release(long peer, int size) {
+            this.peer = peer;
+            this.size = size;
+        }
+
+        @Override
+        public void run() {
+            if (peer != 0L) {
+                new Pointer(peer).setMemory(0, size, (byte) 0);
+                Native.free(peer);
+            }
+        }
+    }
+}
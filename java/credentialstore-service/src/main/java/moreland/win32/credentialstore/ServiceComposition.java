@@ -0,0 +1,103 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import org.slf4j.LoggerFactory;
+
+import moreland.win32.credentialstore.converters.Win32CredentialConverter;
+import moreland.win32.credentialstore.internal.Advapi32Library;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.NativeCallGate;
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
+import moreland.win32.credentialstore.internal.Win32CriticalCredentialHandleFactory;
+import moreland.win32.credentialstore.internal.Win32ErrorToStringService;
+import moreland.win32.credentialstore.internal.Win32NativeInteropBridge;
+
+/**
+ * Hand-written equivalent of {@code ServiceConfiguration} for callers
+ * which cannot afford to start a Spring context, such as short lived
+ * command line invocations.
+ * <p>
+ * Builds the same object graph as the component scan, honouring the
+ * {@code ServiceConfiguration} properties, without reflection or classpath
+ * scanning. Unlike {@code ServiceConfiguration} metrics are off unless
+ * {@code JMX_ENABLED_PROPERTY} is explicitly true, a short lived process
+ * would otherwise pay for starting JMX on every invocation.
+ */
+public final class ServiceComposition {
+
+    private ServiceComposition() {
+    }
+
+    /**
+     * Returns a new {@code Win32CredentialManager} configured from the system properties
+     * @return new credential manager
+     */
+    public static CredentialManager createCredentialManager() {
+        return createCredentialManager(System.getProperties());
+    }
+
+    /**
+     * Returns a new {@code Win32CredentialManager} configured from {@code properties},
+     * wrapped in an {@code InstrumentedCredentialManager} whose
+     * {@code CredentialStoreMetrics} is registered with the platform MBean
+     * server when {@code JMX_ENABLED_PROPERTY} is true
+     * @param properties values of the {@code ServiceConfiguration} properties,
+     *                   missing values use their defaults
+     * @return new credential manager
+     * @exception IllegalArgumentException if {@code properties} is null or
+     *            {@code NATIVE_CALL_PERMITS_PROPERTY} is not an integer
+     */
+    public static CredentialManager createCredentialManager(Properties properties) {
+        Guard.againstNull(properties, "properties");
+
+        var advapi32 = advapi32Library(properties.getProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_NATIVE));
+        var gate = nativeCallGate(Integer.parseInt(properties.getProperty(ServiceConfiguration.NATIVE_CALL_PERMITS_PROPERTY, "0")));
+        var errorToStringService = new Win32ErrorToStringService();
+        var criticalCredentialHandleFactory = new Win32CriticalCredentialHandleFactory(advapi32, errorToStringService,
+            LoggerFactory.getLogger(Win32CriticalCredentialHandleFactory.class));
+        var nativeCallMetrics = new NativeCallMetrics();
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory, gate, nativeCallMetrics);
+
+        var credentialManager = new Win32CredentialManager(bridge, new Win32CredentialConverter(), errorToStringService,
+            LoggerFactory.getLogger(Win32CredentialManager.class));
+        if (!Boolean.parseBoolean(properties.getProperty(ServiceConfiguration.JMX_ENABLED_PROPERTY))) {
+            return credentialManager;
+        }
+
+        var metrics = new CredentialStoreMetrics(nativeCallMetrics);
+        metrics.register(ManagementFactory.getPlatformMBeanServer());
+        return new InstrumentedCredentialManager(credentialManager, metrics);
+    }
+
+    /**
+     * Returns the library selected by the value of {@code ADVAPI32_PROPERTY}
+     */
+    static Advapi32Library advapi32Library(String name) {
+        return ServiceConfiguration.ADVAPI32_EMULATED.equalsIgnoreCase(name)
+            ? new EmulatedAdvapi32Library()
+            : Advapi32Library.INSTANCE;
+    }
+
+    /**
+     * Returns the gate selected by the value of {@code NATIVE_CALL_PERMITS_PROPERTY}
+     */
+    static NativeCallGate nativeCallGate(int permits) {
+        return permits > 0
+            ? NativeCallGate.bounded(permits)
+            : NativeCallGate.unbounded();
+    }
+}
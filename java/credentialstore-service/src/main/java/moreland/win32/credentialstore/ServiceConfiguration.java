@@ -12,22 +12,83 @@
 //
 package moreland.win32.credentialstore;
 
+import java.lang.management.ManagementFactory;
+
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Scope;
+import org.springframework.core.env.Environment;
 
 import moreland.win32.credentialstore.internal.Advapi32Library;
+import moreland.win32.credentialstore.internal.NativeCallGate;
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
 
 @Configuration
 @ComponentScan({"moreland.win32.credentialstore"})
 public class ServiceConfiguration {
+
+    /**
+     * property selecting the {@code Advapi32Library} implementation, either
+     * {@code native} (default) or {@code emulated} for the in-memory store
+     */
+    public static final String ADVAPI32_PROPERTY = "moreland.win32.credentialstore.advapi32";
+    public static final String ADVAPI32_NATIVE = "native";
+    public static final String ADVAPI32_EMULATED = "emulated";
+
+    /**
+     * property limiting the number of concurrent native calls, 0 (default)
+     * admits every caller; a small bound keeps virtual threads from pinning
+     * every carrier thread while blocked in advapi32
+     */
+    public static final String NATIVE_CALL_PERMITS_PROPERTY = "moreland.win32.credentialstore.nativeCallPermits";
+
+    /**
+     * property controlling whether {@code CredentialStoreMetrics} is registered
+     * with the platform MBean server, true (default) or false
+     */
+    public static final String JMX_ENABLED_PROPERTY = "moreland.win32.credentialstore.jmx";
     
     @Bean(name="advapi32")
     @Scope(value=BeanDefinition.SCOPE_SINGLETON)
-    Advapi32Library getAdvapi32Library() {
-        return Advapi32Library.INSTANCE;
+    Advapi32Library getAdvapi32Library(Environment environment) {
+        return ServiceComposition.advapi32Library(environment.getProperty(ADVAPI32_PROPERTY, ADVAPI32_NATIVE));
     }
 
+    @Bean(name="nativeCallGate")
+    @Scope(value=BeanDefinition.SCOPE_SINGLETON)
+    NativeCallGate getNativeCallGate(Environment environment) {
+        int permits = environment.getProperty(NATIVE_CALL_PERMITS_PROPERTY, Integer.class, 0);
+        return ServiceComposition.nativeCallGate(permits);
+    }
+
+    @Bean(name="nativeCallMetrics")
+    @Scope(value=BeanDefinition.SCOPE_SINGLETON)
+    NativeCallMetrics getNativeCallMetrics() {
+        return new NativeCallMetrics();
+    }
+
+    @Bean(name="credentialStoreMetrics")
+    @Scope(value=BeanDefinition.SCOPE_SINGLETON)
+    CredentialStoreMetrics getCredentialStoreMetrics(NativeCallMetrics nativeCallMetrics, Environment environment) {
+        var metrics = new CredentialStoreMetrics(nativeCallMetrics);
+        if (environment.getProperty(JMX_ENABLED_PROPERTY, Boolean.class, true)) {
+            metrics.register(ManagementFactory.getPlatformMBeanServer());
+        }
+        return metrics;
+    }
+
+    /**
+     * the {@code CredentialManager} injected by type, records the latency of
+     * each operation of the scanned {@code Win32CredentialManager} so the
+     * operation histograms of {@code CredentialStoreMetrics} are populated
+     */
+    @Bean(name="instrumentedCredentialManager")
+    @Primary
+    @Scope(value=BeanDefinition.SCOPE_SINGLETON)
+    CredentialManager getInstrumentedCredentialManager(Win32CredentialManager credentialManager, CredentialStoreMetrics metrics) {
+        return new InstrumentedCredentialManager(credentialManager, metrics);
+    }
 }
@@ -0,0 +1,111 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Duration;
+
+/**
+ * Polling settings of a credential watch.
+ * <p>
+ * The scanner starts at {@code minimumInterval} and doubles the interval
+ * after every scan without changes up to {@code maximumInterval}, a change
+ * resets it to the minimum. Once a change is seen the scanner keeps
+ * rescanning every {@code quietPeriod} until the credential set stops
+ * changing, or {@code maximumInterval} has passed, and only then delivers
+ * the combined changes.
+ * <p>
+ * Listeners share one scanner, it runs with the shortest intervals and
+ * quiet period requested by any active subscription.
+ */
+public final class WatchOptions {
+
+    private static final WatchOptions DEFAULTS = new WatchOptions(
+        Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMillis(250));
+
+    private final Duration minimumInterval;
+    private final Duration maximumInterval;
+    private final Duration quietPeriod;
+
+    private WatchOptions(Duration minimumInterval, Duration maximumInterval, Duration quietPeriod) {
+        this.minimumInterval = minimumInterval;
+        this.maximumInterval = maximumInterval;
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * Returns options polling between 1 and 30 seconds with a quiet period of 250 milliseconds
+     * @return default options
+     */
+    public static WatchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns options with the provided settings
+     * @param minimumInterval shortest time between scans
+     * @param maximumInterval longest time between scans
+     * @param quietPeriod time the credential set must remain unchanged
+     *                    before changes are delivered, zero delivers each
+     *                    change on the scan which sees it
+     * @return options with the provided settings
+     * @exception IllegalArgumentException if any argument is null, either
+     *            interval is not positive, {@code maximumInterval} is less
+     *            than {@code minimumInterval} or {@code quietPeriod} is negative
+     */
+    public static WatchOptions of(Duration minimumInterval, Duration maximumInterval, Duration quietPeriod) {
+        Guard.againstNull(minimumInterval, "minimumInterval");
+        Guard.againstNull(maximumInterval, "maximumInterval");
+        Guard.againstNull(quietPeriod, "quietPeriod");
+        if (minimumInterval.isNegative() || minimumInterval.isZero()) {
+            throw new IllegalArgumentException("minimumInterval must be positive");
+        }
+        if (maximumInterval.compareTo(minimumInterval) < 0) {
+            throw new IllegalArgumentException("maximumInterval must not be less than minimumInterval");
+        }
+        if (quietPeriod.isNegative()) {
+            throw new IllegalArgumentException("quietPeriod must not be negative");
+        }
+        return new WatchOptions(minimumInterval, maximumInterval, quietPeriod);
+    }
+
+    /**
+     * shortest time between scans
+     */
+    public Duration getMinimumInterval() {
+        return minimumInterval;
+    }
+
+    /**
+     * longest time between scans, also bounds how long a burst of changes
+     * is held back
+     */
+    public Duration getMaximumInterval() {
+        return maximumInterval;
+    }
+
+    /**
+     * time the credential set must remain unchanged before changes are delivered
+     */
+    public Duration getQuietPeriod() {
+        return quietPeriod;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "WatchOptions{MinimumInterval=" + minimumInterval + ", MaximumInterval=" + maximumInterval
+            + ", QuietPeriod=" + quietPeriod + "}";
+    }
+}
@@ -0,0 +1,51 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.util.regex.Pattern;
+
+/**
+ * Credential id patterns where {@code '*'} matches any sequence of
+ * characters, matching ignores case as CredEnumerateW does
+ */
+final class WildcardPattern {
+
+    /**
+     * the only wildcard character understood by CredEnumerateW
+     */
+    static final char WILDCARD = '*';
+
+    private WildcardPattern() {
+    }
+
+    /**
+     * Compiles {@code pattern} into a regular expression matching whole ids
+     * @param pattern id pattern using {@code '*'} wildcards
+     * @return case insensitive pattern equivalent to {@code pattern}
+     */
+    static Pattern compile(String pattern) {
+        var regex = new StringBuilder();
+        var start = 0;
+        for (var wildcard = pattern.indexOf(WILDCARD); wildcard >= 0; wildcard = pattern.indexOf(WILDCARD, start)) {
+            if (wildcard > start) {
+                regex.append(Pattern.quote(pattern.substring(start, wildcard)));
+            }
+            regex.append(".*");
+            start = wildcard + 1;
+        }
+        if (start < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(start)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+}
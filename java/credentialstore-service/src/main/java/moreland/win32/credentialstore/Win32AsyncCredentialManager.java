@@ -0,0 +1,294 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.sun.jna.LastErrorException;
+
+import moreland.win32.credentialstore.internal.PreserveType;
+
+/**
+ * {@code AsyncCredentialManager} running the operations of a
+ * {@code Win32CredentialManager} on a bounded thread pool. When the queue
+ * is full the returned future fails with {@code RejectedExecutionException}
+ * rather than blocking the caller.
+ */
+public final class Win32AsyncCredentialManager implements AsyncCredentialManager, AutoCloseable {
+
+    /**
+     * default number of operations which may wait for a thread
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final Win32CredentialManager credentialManager;
+    private final ThreadPoolExecutor executor;
+    private final boolean ownsExecutor;
+
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalExecutionNanos = new LongAdder();
+    private final LongAccumulator maximumExecutionNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Instantiates a new instance of the Win32AsyncCredentialManager class
+     * with one thread per available processor and {@code DEFAULT_QUEUE_CAPACITY}
+     * @param credentialManager manager performing the native calls
+     * @exception IllegalArgumentException if {@code credentialManager} is null
+     */
+    public Win32AsyncCredentialManager(Win32CredentialManager credentialManager) {
+        this(credentialManager, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new instance of the Win32AsyncCredentialManager class
+     * owning a pool of {@code threads} daemon threads, the pool is shut down by {@code close()}
+     * @param credentialManager manager performing the native calls
+     * @param threads number of threads
+     * @param queueCapacity maximum number of operations waiting for a thread
+     * @exception IllegalArgumentException if {@code credentialManager} is null,
+     *            or {@code threads} or {@code queueCapacity} is less than 1
+     */
+    public Win32AsyncCredentialManager(Win32CredentialManager credentialManager, int threads, int queueCapacity) {
+        this(credentialManager, newExecutor(threads, queueCapacity), true);
+    }
+
+    /**
+     * Instantiates a new instance of the Win32AsyncCredentialManager class
+     * using {@code executor}, which should have a bounded queue and remains
+     * owned by the caller
+     * @param credentialManager manager performing the native calls
+     * @param executor executor running the native calls
+     * @exception IllegalArgumentException if either argument is null
+     */
+    public Win32AsyncCredentialManager(Win32CredentialManager credentialManager, ThreadPoolExecutor executor) {
+        this(credentialManager, executor, false);
+    }
+
+    private Win32AsyncCredentialManager(Win32CredentialManager credentialManager, ThreadPoolExecutor executor, boolean ownsExecutor) {
+        Guard.againstNull(credentialManager, "credentialManager");
+        Guard.againstNull(executor, "executor");
+
+        this.credentialManager = credentialManager;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    @Override
+    public CompletableFuture<List<Credential>> getAll() {
+        return submit(credentialManager::getAllOrThrow);
+    }
+
+    @Override
+    public CompletableFuture<List<CredentialDescriptor>> getAllDescriptors() {
+        return submit(credentialManager::getAllDescriptorsOrThrow);
+    }
+
+    @Override
+    public CompletableFuture<Void> add(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return submitWrite(() -> credentialManager.writeOrThrow(credential, PreserveType.NONE));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return submitWrite(() -> credentialManager.writeOrThrow(credential, PreserveType.PRESERVE_CREDENTIAL_BLOB));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Credential credential) {
+        Guard.againstNull(credential, "credential");
+        return delete(credential.getId(), credential.getType());
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String id, CredentialType type) {
+        Guard.againstNull(id, "id");
+        Guard.againstNull(type, "type");
+        return submitWrite(() -> credentialManager.deleteOrThrow(id, type));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Credential>> find(String id, CredentialType type) {
+        Guard.againstNull(id, "id");
+        Guard.againstNull(type, "type");
+        return submit(() -> {
+            try {
+                return credentialManager.findOrThrow(id, type);
+            } catch (LastErrorException e) {
+                if (e.getErrorCode() == ExpectedErrorCode.NOT_FOUND.getValue()) {
+                    return Optional.empty();
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Credential>> find(String filter, boolean searchAll) {
+        return submit(() -> credentialManager.findOrThrow(filter, searchAll));
+    }
+
+    @Override
+    public CompletableFuture<List<Credential>> findMatching(String pattern) {
+        Guard.againstNull(pattern, "pattern");
+        return submit(() -> credentialManager.findMatchingOrThrow(pattern));
+    }
+
+    @Override
+    public CompletableFuture<List<Credential>> findModifiedSince(Instant since) {
+        Guard.againstNull(since, "since");
+        return submit(() -> credentialManager.findModifiedSinceOrThrow(since));
+    }
+
+    @Override
+    public CompletableFuture<List<Credential>> findByAttribute(CredentialAttribute attribute) {
+        Guard.againstNull(attribute, "attribute");
+        return submit(() -> credentialManager.findByAttributeOrThrow(attribute));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult<Credential>> addAll(Collection<Credential> credentials) {
+        Guard.againstNull(credentials, "credentials");
+        return submit(() -> credentialManager.addAll(credentials));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult<Credential>> updateAll(Collection<Credential> credentials) {
+        Guard.againstNull(credentials, "credentials");
+        return submit(() -> credentialManager.updateAll(credentials));
+    }
+
+    @Override
+    public CompletableFuture<BulkResult<CredentialKey>> deleteAll(Collection<CredentialKey> keys) {
+        Guard.againstNull(keys, "keys");
+        return submit(() -> credentialManager.deleteAll(keys));
+    }
+
+    @Override
+    public CompletableFuture<Map<CredentialKey, Credential>> findAll(Collection<CredentialKey> keys) {
+        Guard.againstNull(keys, "keys");
+        return submit(() -> credentialManager.findAll(keys));
+    }
+
+    /**
+     * Returns a snapshot of the executor metrics
+     * @return current metrics
+     */
+    public AsyncExecutorMetrics getMetrics() {
+        return new AsyncExecutorMetrics(
+            executor.getQueue().size(),
+            executor.getActiveCount(),
+            completedCount.sum(),
+            failedCount.sum(),
+            rejectedCount.sum(),
+            totalQueueWaitNanos.sum(),
+            totalExecutionNanos.sum(),
+            maximumExecutionNanos.get());
+    }
+
+    /**
+     * Shuts down the executor if it was created by this instance, queued
+     * operations still run
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private CompletableFuture<Void> submitWrite(Supplier<Boolean> write) {
+        return submit(() -> {
+            if (!write.get()) {
+                throw new LastErrorException(BulkItemResult.UNKNOWN_ERROR_CODE);
+            }
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        var future = new CompletableFuture<T>();
+        var submitted = System.nanoTime();
+        try {
+            executor.execute(() -> run(operation, future, submitted));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void run(Supplier<T> operation, CompletableFuture<T> future, long submitted) {
+        var started = System.nanoTime();
+        totalQueueWaitNanos.add(started - submitted);
+
+        T result = null;
+        Throwable failure = null;
+        try {
+            result = operation.get();
+        } catch (LastErrorException e) {
+            failure = new Win32Exception(e.getErrorCode(), String.format("API Error(%d) occurred.", e.getErrorCode()), e);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+
+        var elapsed = System.nanoTime() - started;
+        totalExecutionNanos.add(elapsed);
+        maximumExecutionNanos.accumulate(elapsed);
+        if (failure == null) {
+            completedCount.increment();
+            future.complete(result);
+        } else {
+            failedCount.increment();
+            future.completeExceptionally(failure);
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than zero");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be greater than zero");
+        }
+        var poolNumber = POOL_NUMBER.incrementAndGet();
+        var threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            var thread = new Thread(runnable, "credentialstore-async-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -12,9 +12,21 @@
 //
 package moreland.win32.credentialstore;
 
+import java.lang.ref.Reference;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.sun.jna.LastErrorException;
 
@@ -23,7 +35,12 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import moreland.win32.credentialstore.converters.CredentialAttributes;
 import moreland.win32.credentialstore.converters.CredentialConverter;
+import moreland.win32.credentialstore.converters.FileTimes;
+import moreland.win32.credentialstore.internal.CredentialLayout;
+import moreland.win32.credentialstore.internal.CredentialList;
+import moreland.win32.credentialstore.internal.CriticalCredentialHandle;
 import moreland.win32.credentialstore.internal.EnumerateFlag;
 import moreland.win32.credentialstore.internal.NativeInteropBridge;
 import moreland.win32.credentialstore.internal.PreserveType;
@@ -32,13 +49,14 @@ import moreland.win32.credentialstore.internal.PreserveType;
 public final class Win32CredentialManager implements CredentialManager {
 
     private static final String UNKONWN_ERROR = "Unknown error occurred";
+    private static final int BATCH_SIZE = 128;
     private NativeInteropBridge nativeInteropBridge;
     private CredentialConverter credentialConverter;
     private ErrorToStringService errorToStringService;
     private Logger logger;
 
     @Autowired
-    Win32CredentialManager(NativeInteropBridge nativeInteropBridge, CredentialConverter credentialConverter,
+    public Win32CredentialManager(NativeInteropBridge nativeInteropBridge, CredentialConverter credentialConverter,
             ErrorToStringService errorToStringService, Logger logger) {
 
         Guard.againstNull(nativeInteropBridge, "nativeInteropBridge");
@@ -52,41 +70,117 @@ public final class Win32CredentialManager implements CredentialManager {
         this.logger = logger;
     }
 
-    private List<Credential> getAll(EnumerateFlag flag) {
-        try (var credentials = nativeInteropBridge.credEnumerate(Optional.empty(), flag)) {
-            return credentials
-                .stream()
-                .map(credentialConverter::fromInternalCredential)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+    private List<Credential> getAll(Optional<String> filter, EnumerateFlag flag, boolean propagateErrors) {
+        return enumerate(filter, flag, propagateErrors, credentials -> credentials
+            .stream()
+            .map(credentialConverter::fromInternalCredential)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * enumerates credentials and applies {@code projection}, when
+     * {@code propagateErrors} is true errors other than not found are
+     * thrown rather than logged
+     */
+    private <T> List<T> enumerate(Optional<String> filter, EnumerateFlag flag, boolean propagateErrors,
+            Function<CredentialList, List<T>> projection) {
+        try (var credentials = nativeInteropBridge.credEnumerate(filter, flag)) {
+            return projection.apply(credentials);
 
         } catch (LastErrorException e) {
-            logger.error(String.format("API Error(%d) occurred.", e.getErrorCode()), e);
+            // a filter matching nothing is reported as not found, an expected outcome rather than an error
+            var notFound = ExpectedErrorCode.fromInteger(e.getErrorCode()).filter(ExpectedErrorCode.NOT_FOUND::equals).isPresent();
+            if (propagateErrors) {
+                if (notFound) {
+                    return List.of();
+                }
+                throw e;
+            }
+            if (filter.isEmpty() || !notFound) {
+                logger.error(String.format("API Error(%d) occurred.", e.getErrorCode()), e);
+            }
+            return List.of();
+
+        } catch (RuntimeException e) {
+            if (propagateErrors) {
+                throw e;
+            }
             return List.of();
 
         } catch (Exception e) {
+            if (propagateErrors) {
+                throw new IllegalStateException(e);
+            }
             return List.of();
         }
     }
 
     @Override
     public List<Credential> getAll() {
-        return getAll(EnumerateFlag.ENUMERATE_ALL_CREDENTIALS);
+        return getAll(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, false);
     }
 
-    private boolean addOrUpdate(Credential credential, PreserveType preserveType) {
+    /**
+     * @see #getAll()
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than there being no credentials
+     */
+    List<Credential> getAllOrThrow() {
+        return getAll(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, true);
+    }
+
+    @Override
+    public List<CredentialDescriptor> getAllDescriptors() {
+        return getAllDescriptors(false);
+    }
+
+    /**
+     * @see #getAllDescriptors()
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than there being no credentials
+     */
+    List<CredentialDescriptor> getAllDescriptorsOrThrow() {
+        return getAllDescriptors(true);
+    }
+
+    @Override
+    public Flow.Publisher<Credential> publishAll() {
+        return new CredentialPublisher(nativeInteropBridge, credentialConverter);
+    }
+
+    private List<CredentialDescriptor> getAllDescriptors(boolean propagateErrors) {
+        return enumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, propagateErrors, credentials -> IntStream
+            .range(0, credentials.size())
+            .mapToObj(credentials::pointerAt)
+            .map(credentialConverter::descriptorFrom)
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * writes {@code credential} without handling errors
+     * @exception IllegalArgumentException if {@code credential} is null
+     * @exception LastErrorException if the write fails
+     */
+    boolean writeOrThrow(Credential credential, PreserveType preserveType) {
         if (credential == null) {
             throw new IllegalArgumentException("credential is null");
         }
 
-        var win32Credential = credentialConverter.toInternalCredentialReference(credential);
-        if (!win32Credential.isPresent()) {
-            return false;
+        try {
+            return nativeInteropBridge.credWrite(credential, preserveType);
+        } finally {
+            // the blob may point into the credential's SecretBuffer, which must outlive the native call
+            Reference.reachabilityFence(credential);
         }
+    }
 
+    private boolean addOrUpdate(Credential credential, PreserveType preserveType) {
         try {
-            return nativeInteropBridge.credWrite(win32Credential.get(), preserveType);
+            return writeOrThrow(credential, preserveType);
             
         } catch (LastErrorException e) {
             logger.error(errorToStringService.getMessageFor(e.getErrorCode()).orElse(UNKONWN_ERROR), e);
@@ -112,10 +206,18 @@ public final class Win32CredentialManager implements CredentialManager {
         return delete(credential.getId(), credential.getType());
     }
 
+    /**
+     * deletes the credential without handling errors
+     * @exception LastErrorException if the delete fails, including not found
+     */
+    boolean deleteOrThrow(String id, CredentialType type) {
+        return nativeInteropBridge.credDelete(id, type.getValue(), 0);
+    }
+
     @Override
     public boolean delete(String id, CredentialType type) {
         try {
-            return nativeInteropBridge.credDelete(id, type.getValue(), 0);
+            return deleteOrThrow(id, type);
 
         } catch (LastErrorException e) {
             var error = ExpectedErrorCode.fromInteger(e.getErrorCode()).orElse(ExpectedErrorCode.NOT_FOUND);
@@ -126,13 +228,28 @@ public final class Win32CredentialManager implements CredentialManager {
         }
     }
 
-    @Override
-    public Optional<Credential> find(String id, CredentialType type) {
+    /**
+     * reads the credential without handling errors
+     * @exception LastErrorException if the read fails, including not found
+     */
+    Optional<Credential> findOrThrow(String id, CredentialType type) {
         try (var win32Credential = nativeInteropBridge.credRead(id, type, 0)){
             return win32Credential
                 .value()
                 .flatMap(credentialConverter::fromInternalCredential);
 
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Optional<Credential> find(String id, CredentialType type) {
+        try {
+            return findOrThrow(id, type);
+
         } catch (LastErrorException e) {
             var error = ExpectedErrorCode.fromInteger(e.getErrorCode()).orElse(ExpectedErrorCode.NOT_FOUND);
             if (error != ExpectedErrorCode.NOT_FOUND) {
@@ -145,12 +262,310 @@ public final class Win32CredentialManager implements CredentialManager {
         } 
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When {@code searchAll} is false {@code filter} is passed to
+     * CredEnumerateW so only the matching credential is read and converted,
+     * CredEnumerateW rejects a filter combined with
+     * CRED_ENUMERATE_ALL_CREDENTIALS so searching all credentials still
+     * requires a full enumeration.
+     */
     @Override
     public List<Credential> find(String filter, boolean searchAll) {
-        return getAll(searchAll ? EnumerateFlag.ENUMERATE_ALL_CREDENTIALS : EnumerateFlag.NONE)
+        return find(filter, searchAll, false);
+    }
+
+    /**
+     * @see #find(String, boolean)
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than no credential matching
+     */
+    List<Credential> findOrThrow(String filter, boolean searchAll) {
+        return find(filter, searchAll, true);
+    }
+
+    private List<Credential> find(String filter, boolean searchAll, boolean propagateErrors) {
+        if (filter == null) {
+            return List.of();
+        }
+        var candidates = searchAll
+            ? getAll(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, propagateErrors)
+            : getAll(Optional.of(filter), EnumerateFlag.NONE, propagateErrors);
+
+        // native matching treats a trailing '*' as a wildcard, filter is an exact id here
+        return candidates
             .stream()
             .filter(c -> c.getId().equalsIgnoreCase(filter))
             .collect(Collectors.toList());
     }
-    
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Text preceding the first {@code '*'} is passed to CredEnumerateW as a
+     * prefix filter, any remaining wildcards are applied to the smaller
+     * result set.
+     */
+    @Override
+    public List<Credential> findMatching(String pattern) {
+        return findMatching(pattern, false);
+    }
+
+    /**
+     * @see #findMatching(String)
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than no credential matching
+     */
+    List<Credential> findMatchingOrThrow(String pattern) {
+        return findMatching(pattern, true);
+    }
+
+    private List<Credential> findMatching(String pattern, boolean propagateErrors) {
+        Guard.againstNull(pattern, "pattern");
+
+        var wildcard = pattern.indexOf(WildcardPattern.WILDCARD);
+        if (wildcard < 0) {
+            return find(pattern, false, propagateErrors);
+        }
+
+        var nativeFilter = wildcard == 0
+            ? Optional.<String>empty()
+            : Optional.of(pattern.substring(0, wildcard + 1));
+        var candidates = getAll(nativeFilter, EnumerateFlag.NONE, propagateErrors);
+        if (wildcard == pattern.length() - 1) {
+            return candidates;
+        }
+
+        var matcher = WildcardPattern.compile(pattern);
+        return candidates
+            .stream()
+            .filter(c -> matcher.matcher(c.getId()).matches())
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Credential> findModifiedSince(Instant since) {
+        return findModifiedSince(since, false);
+    }
+
+    /**
+     * @see #findModifiedSince(Instant)
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than there being no credentials
+     */
+    List<Credential> findModifiedSinceOrThrow(Instant since) {
+        return findModifiedSince(since, true);
+    }
+
+    private List<Credential> findModifiedSince(Instant since, boolean propagateErrors) {
+        Guard.againstNull(since, "since");
+
+        var sinceTicks = FileTimes.toTicks(since);
+        return enumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, propagateErrors, credentials -> {
+            var modified = new ArrayList<Credential>();
+            for (int i = 0; i < credentials.size(); i++) {
+                var pointer = credentials.pointerAt(i);
+                var lastWritten = FileTimes.toTicks(
+                    pointer.getInt(CredentialLayout.LAST_WRITTEN),
+                    pointer.getInt(CredentialLayout.LAST_WRITTEN + Integer.BYTES));
+                // FILETIME ticks are unsigned, values past the signed range are far beyond any real timestamp
+                if (Long.compareUnsigned(lastWritten, sinceTicks) >= 0) {
+                    credentialConverter
+                        .fromInternalCredential(new moreland.win32.credentialstore.structures.Credential(pointer))
+                        .ifPresent(modified::add);
+                }
+            }
+            return modified;
+        });
+    }
+
+    @Override
+    public List<Credential> findByAttribute(CredentialAttribute attribute) {
+        return findByAttribute(attribute, false);
+    }
+
+    /**
+     * @see #findByAttribute(CredentialAttribute)
+     * @exception LastErrorException if enumeration fails for a reason other
+     *            than there being no credentials
+     */
+    List<Credential> findByAttributeOrThrow(CredentialAttribute attribute) {
+        return findByAttribute(attribute, true);
+    }
+
+    private List<Credential> findByAttribute(CredentialAttribute attribute, boolean propagateErrors) {
+        Guard.againstNull(attribute, "attribute");
+
+        var keyword = attribute.getKeyword();
+        var value = attribute.getValue();
+        return enumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS, propagateErrors, credentials -> {
+            var matching = new ArrayList<Credential>();
+            for (int i = 0; i < credentials.size(); i++) {
+                var pointer = credentials.pointerAt(i);
+                if (CredentialAttributes.contains(
+                        pointer.getPointer(CredentialLayout.ATTRIBUTES),
+                        pointer.getInt(CredentialLayout.ATTRIBUTE_COUNT),
+                        keyword, value)) {
+                    credentialConverter
+                        .fromInternalCredential(new moreland.win32.credentialstore.structures.Credential(pointer))
+                        .ifPresent(matching::add);
+                }
+            }
+            return matching;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every watch on a manager over the same {@code NativeInteropBridge}
+     * shares a single process-wide scanner thread.
+     */
+    @Override
+    public WatchSubscription watch(CredentialChangeListener listener, WatchOptions options) {
+        return CredentialWatcher.subscribeShared(nativeInteropBridge, this::getAllDescriptorsOrThrow, logger, listener, options);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Credentials are written in batches, each batch holds the locks of its
+     * credentials for the duration of the batch and shares a single native
+     * allocation for its secrets. Failures are logged once per call.
+     */
+    @Override
+    public BulkResult<Credential> addAll(Collection<Credential> credentials, Executor executor) {
+        return writeAll(credentials, PreserveType.NONE, executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see #addAll(Collection, Executor)
+     */
+    @Override
+    public BulkResult<Credential> updateAll(Collection<Credential> credentials, Executor executor) {
+        return writeAll(credentials, PreserveType.PRESERVE_CREDENTIAL_BLOB, executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see #addAll(Collection, Executor)
+     */
+    @Override
+    public BulkResult<CredentialKey> deleteAll(Collection<CredentialKey> keys, Executor executor) {
+        var items = toBatchSource(keys, "keys", executor);
+        var results = inBatches(items, executor, batch -> toResults(batch, nativeInteropBridge.credDeleteAll(batch)));
+        logFailures("delete", results);
+        return new BulkResult<>(results);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see #addAll(Collection, Executor)
+     */
+    @Override
+    public Map<CredentialKey, Credential> findAll(Collection<CredentialKey> keys, Executor executor) {
+        var items = toBatchSource(keys, "keys", executor);
+        var found = inBatches(items, executor, this::findBatch);
+
+        logFailures("find", found.stream().map(pair -> pair.item1).collect(Collectors.toList()));
+        var credentials = new LinkedHashMap<CredentialKey, Credential>();
+        for (var pair : found) {
+            pair.item2.ifPresent(credential -> credentials.putIfAbsent(pair.item1.getItem(), credential));
+        }
+        return credentials;
+    }
+
+    private BulkResult<Credential> writeAll(Collection<Credential> credentials, PreserveType preserveType, Executor executor) {
+        var items = toBatchSource(credentials, "credentials", executor);
+        var results = inBatches(items, executor, batch ->
+            toResults(batch, nativeInteropBridge.credWriteAll(credentialConverter.toInternalCredentialReferences(batch), preserveType)));
+        logFailures("write", results);
+        return new BulkResult<>(results);
+    }
+
+    private List<Pair<BulkItemResult<CredentialKey>, Optional<Credential>>> findBatch(List<CredentialKey> batch) {
+        var errorCodes = new int[batch.size()];
+        List<CriticalCredentialHandle> handles;
+        try {
+            handles = nativeInteropBridge.credReadAll(batch, errorCodes);
+        } catch (BadInjectionException e) {
+            throw new IllegalStateException(e);
+        }
+
+        var found = new ArrayList<Pair<BulkItemResult<CredentialKey>, Optional<Credential>>>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try (var handle = handles.get(i)) {
+                found.add(Pair.of(
+                    BulkItemResult.of(batch.get(i), errorCodes[i]),
+                    handle.value().flatMap(credentialConverter::fromInternalCredential)));
+            } catch (Exception e) {
+                found.add(Pair.of(BulkItemResult.of(batch.get(i), BulkItemResult.UNKNOWN_ERROR_CODE), Optional.empty()));
+            }
+        }
+        return found;
+    }
+
+    private static <T> List<T> toBatchSource(Collection<T> items, String name, Executor executor) {
+        Guard.againstNull(items, name);
+        Guard.againstNull(executor, "executor");
+        var list = new ArrayList<T>(items.size());
+        for (var item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException(name + " contains null");
+            }
+            list.add(item);
+        }
+        return list;
+    }
+
+    private static <T> List<BulkItemResult<T>> toResults(List<T> batch, int[] errorCodes) {
+        var results = new ArrayList<BulkItemResult<T>>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(BulkItemResult.of(batch.get(i), errorCodes[i]));
+        }
+        return results;
+    }
+
+    /**
+     * splits {@code items} into batches of at most {@code BATCH_SIZE} and
+     * runs {@code operation} on each using {@code executor}, results are
+     * returned in the order of {@code items}
+     */
+    private static <T, R> List<R> inBatches(List<T> items, Executor executor, Function<List<T>, List<R>> operation) {
+        var batches = new ArrayList<CompletableFuture<List<R>>>();
+        for (int start = 0; start < items.size(); start += BATCH_SIZE) {
+            var batch = items.subList(start, Math.min(items.size(), start + BATCH_SIZE));
+            batches.add(CompletableFuture.supplyAsync(() -> operation.apply(batch), executor));
+        }
+
+        var results = new ArrayList<R>(items.size());
+        for (var batch : batches) {
+            try {
+                results.addAll(batch.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private <T> void logFailures(String operation, List<BulkItemResult<T>> results) {
+        var failures = results
+            .stream()
+            .filter(result -> result.getOutcome() == BulkOutcome.FAILED)
+            .collect(Collectors.toList());
+        if (failures.isEmpty()) {
+            return;
+        }
+
+        var first = failures.get(0);
+        logger.error(String.format("Bulk %s failed for %d of %d credentials, first error(%d): %s",
+            operation, failures.size(), results.size(), first.getErrorCode(),
+            errorToStringService.getMessageFor(first.getErrorCode()).orElse(UNKONWN_ERROR)));
+    }
 }
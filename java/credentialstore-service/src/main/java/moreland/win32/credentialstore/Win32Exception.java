@@ -1,5 +1,7 @@
 package moreland.win32.credentialstore;
 
+import java.util.Optional;
+
 /**
  * Win32 Exception Wrapper
  */
@@ -17,6 +19,18 @@ public class Win32Exception extends Exception {
         this.errorCode = errorCode;
     }
 
+    /**
+     * Instantiates a new instance of the Win32Exception class
+     * @param errorCode Win32 error code
+     * @param message detail message
+     * @param cause underlying exception, typically {@code LastErrorException}
+     */
+    public Win32Exception(int errorCode, String message, Throwable cause) {
+        super(message, cause);
+
+        this.errorCode = errorCode;
+    }
+
     /**
      * Win32 errorcode, the value represents an unsigned integer or DWORD value
      * @see <a href="https://docs.microsoft.com/en-us/windows/win32/debug/system-error-codes">System Error Codes</a>
@@ -25,5 +39,12 @@ public class Win32Exception extends Exception {
     public int getErrorCode() {
         return errorCode;
     }
-    
+
+    /**
+     * Returns the expected error matching {@code getErrorCode()} if known
+     * @return optional containing the matching error if known
+     */
+    public Optional<ExpectedErrorCode> getExpectedErrorCode() {
+        return ExpectedErrorCode.fromInteger(errorCode);
+    }
 }
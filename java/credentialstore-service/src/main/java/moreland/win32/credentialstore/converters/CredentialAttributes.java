@@ -0,0 +1,153 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.converters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+
+import moreland.win32.credentialstore.CredentialAttribute;
+import moreland.win32.credentialstore.internal.CredentialAttributeLayout;
+
+/**
+ * Reads and writes {@code CREDENTIAL_ATTRIBUTEW} arrays, each value is
+ * sized to its {@code ValueSize} rather than a fixed 256 byte buffer
+ */
+public final class CredentialAttributes {
+
+    private CredentialAttributes() {
+    }
+
+    /**
+     * Decodes the attribute array at {@code attributes}
+     * @param attributes address of the first {@code CREDENTIAL_ATTRIBUTEW}
+     * @param count number of elements
+     * @return decoded attributes, elements without a keyword or with an
+     *         oversized value are skipped
+     */
+    public static List<CredentialAttribute> read(Pointer attributes, int count) {
+        if (attributes == null || count <= 0) {
+            return List.of();
+        }
+
+        var decoded = new ArrayList<CredentialAttribute>(count);
+        for (int i = 0; i < count; i++) {
+            var offset = (long) i * CredentialAttributeLayout.SIZE;
+            var keyword = attributes.getPointer(offset + CredentialAttributeLayout.KEYWORD);
+            var valueSize = attributes.getInt(offset + CredentialAttributeLayout.VALUE_SIZE);
+            var value = attributes.getPointer(offset + CredentialAttributeLayout.VALUE);
+            if (keyword == null || valueSize < 0 || valueSize > CredentialAttribute.MAXIMUM_VALUE_SIZE
+                    || (valueSize > 0 && value == null)) {
+                continue;
+            }
+            try {
+                decoded.add(CredentialAttribute.of(keyword.getWideString(0),
+                    valueSize > 0 ? value.getByteArray(0, valueSize) : new byte[0]));
+            } catch (IllegalArgumentException e) {
+                // an empty or oversized keyword, not an attribute this library could have written
+            }
+        }
+        return List.copyOf(decoded);
+    }
+
+    /**
+     * Returns true if the attribute array at {@code attributes} holds an
+     * element with {@code keyword} and {@code value}, elements are compared
+     * in native memory so nothing is decoded
+     * @param attributes address of the first {@code CREDENTIAL_ATTRIBUTEW}
+     * @param count number of elements
+     * @param keyword keyword to find
+     * @param expected value the element must hold
+     * @return true if a matching element is found
+     */
+    public static boolean contains(Pointer attributes, int count, String keyword, byte[] expected) {
+        if (attributes == null) {
+            return false;
+        }
+
+        for (int i = 0; i < count; i++) {
+            var offset = (long) i * CredentialAttributeLayout.SIZE;
+            if (attributes.getInt(offset + CredentialAttributeLayout.VALUE_SIZE) == expected.length
+                    && wideStringEquals(attributes.getPointer(offset + CredentialAttributeLayout.KEYWORD), keyword)
+                    && bytesEqual(attributes.getPointer(offset + CredentialAttributeLayout.VALUE), expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Points {@code destination} at a newly built array of {@code attributes},
+     * the array is referenced by {@code destination} and stays reachable with it
+     * @param destination credential to update
+     * @param attributes attributes to write
+     */
+    public static void write(moreland.win32.credentialstore.structures.Credential destination, List<CredentialAttribute> attributes) {
+        if (attributes.isEmpty()) {
+            destination.attributeCount = 0;
+            destination.attributes = null;
+            return;
+        }
+
+        var first = new moreland.win32.credentialstore.structures.CredentialAttribute.ByReference();
+        var elements = first.toArray(attributes.size());
+        for (int i = 0; i < elements.length; i++) {
+            var element = (moreland.win32.credentialstore.structures.CredentialAttribute) elements[i];
+            var source = attributes.get(i);
+            element.keyword = new WString(source.getKeyword());
+            element.flags = 0;
+            element.valueSize = source.getValueSize();
+            if (source.getValueSize() > 0) {
+                var value = new Memory(source.getValueSize());
+                value.write(0, source.getValue(), 0, source.getValueSize());
+                element.value = value;
+            } else {
+                element.value = null;
+            }
+            element.write();
+        }
+        destination.attributeCount = elements.length;
+        destination.attributes = first;
+    }
+
+    private static boolean wideStringEquals(Pointer value, String expected) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (value.getChar((long) i * Native.WCHAR_SIZE) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return value.getChar((long) expected.length() * Native.WCHAR_SIZE) == '\0';
+    }
+
+    private static boolean bytesEqual(Pointer value, byte[] expected) {
+        if (expected.length == 0) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (value.getByte(i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -12,9 +12,13 @@
 //
 package moreland.win32.credentialstore.converters;
 
+import java.util.List;
 import java.util.Optional;
 
+import com.sun.jna.Pointer;
+
 import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
 
 public interface CredentialConverter {
     
@@ -23,4 +27,22 @@ public interface CredentialConverter {
     Optional<moreland.win32.credentialstore.structures.Credential> toInternalCredential(Credential source);
 
     Optional<moreland.win32.credentialstore.structures.Credential.ByReference> toInternalCredentialReference(Credential source);
+
+    /**
+     * Converts each of {@code sources} for a batch write, the secrets of
+     * every credential share a single native allocation
+     * @param sources credentials to convert, null username or secret are
+     *                treated as empty
+     * @return converted credentials in the order of {@code sources}
+     */
+    List<moreland.win32.credentialstore.structures.Credential.ByReference> toInternalCredentialReferences(List<Credential> sources);
+
+    /**
+     * Reads the metadata of the native CREDENTIAL at {@code source} without
+     * reading the credential blob
+     * @param source address of a native CREDENTIAL structure
+     * @return descriptor of the credential or empty if {@code source} is null
+     *         or not a valid credential
+     */
+    Optional<CredentialDescriptor> descriptorFrom(Pointer source);
 }
@@ -0,0 +1,77 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.converters;
+
+import java.time.Instant;
+
+/**
+ * Conversions between {@code FILETIME}, a count of 100 nanosecond intervals
+ * since 1601-01-01T00:00:00Z split into two 32-bit halves, and {@code Instant}
+ */
+public final class FileTimes {
+
+    private static final long TICKS_PER_SECOND = 10_000_000L;
+    private static final long NANOS_PER_TICK = 100L;
+    private static final long UNIX_EPOCH_SECONDS = 11_644_473_600L;
+
+    // latest FILETIME whose tick count fits a signed long
+    private static final long MAXIMUM_SECONDS = Long.MAX_VALUE / TICKS_PER_SECOND - UNIX_EPOCH_SECONDS;
+
+    private FileTimes() {
+    }
+
+    /**
+     * Combines the halves of a {@code FILETIME} into a single tick count
+     * @param lowDateTime low-order part of the file time
+     * @param highDateTime high-order part of the file time
+     * @return number of 100 nanosecond intervals since 1601-01-01T00:00:00Z
+     */
+    public static long toTicks(int lowDateTime, int highDateTime) {
+        return ((long) highDateTime << 32) | (lowDateTime & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Converts {@code instant} to a tick count, instants outside of the
+     * range of {@code FILETIME} are clamped to its earliest or latest value
+     * @param instant instant to convert
+     * @return number of 100 nanosecond intervals since 1601-01-01T00:00:00Z
+     * @exception IllegalArgumentException if {@code instant} is null
+     */
+    public static long toTicks(Instant instant) {
+        if (instant == null) {
+            throw new IllegalArgumentException("instant is null");
+        }
+
+        var seconds = instant.getEpochSecond();
+        if (seconds < -UNIX_EPOCH_SECONDS) {
+            return 0L;
+        }
+        if (seconds >= MAXIMUM_SECONDS) {
+            return Long.MAX_VALUE;
+        }
+        return (seconds + UNIX_EPOCH_SECONDS) * TICKS_PER_SECOND + instant.getNano() / NANOS_PER_TICK;
+    }
+
+    /**
+     * Converts the halves of a {@code FILETIME} to an {@code Instant}
+     * @param lowDateTime low-order part of the file time
+     * @param highDateTime high-order part of the file time
+     * @return instant represented by the file time
+     */
+    public static Instant toInstant(int lowDateTime, int highDateTime) {
+        var ticks = toTicks(lowDateTime, highDateTime);
+        return Instant.ofEpochSecond(
+            Math.floorDiv(ticks, TICKS_PER_SECOND) - UNIX_EPOCH_SECONDS,
+            Math.floorMod(ticks, TICKS_PER_SECOND) * NANOS_PER_TICK);
+    }
+}
@@ -12,26 +12,36 @@
 //
 package moreland.win32.credentialstore.converters;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
 import com.sun.jna.WString;
 
 import org.springframework.stereotype.Component;
 
 import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialDescriptor;
 import moreland.win32.credentialstore.CredentialFlag;
 import moreland.win32.credentialstore.CredentialPersistence;
 import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.SecretBuffer;
+import moreland.win32.credentialstore.internal.CredentialLayout;
+import moreland.win32.credentialstore.structures.FileTime;
 
 @Component("credentialConverter")
 public final class Win32CredentialConverter implements CredentialConverter {
 
     private static final String TARGET_NAME_PREFIX = "LegacyGeneric:target=";
+    private static final long TARGET_NAME_PREFIX_SIZE = (long) TARGET_NAME_PREFIX.length() * Native.WCHAR_SIZE;
+    private static final Set<CredentialType> TYPES_WITH_SECRET = EnumSet.of(CredentialType.DOMAIN_PASSWORD, CredentialType.GENERIC);
 
     public Win32CredentialConverter() {
         // ... provided for spring to find ...
@@ -41,25 +51,31 @@ public final class Win32CredentialConverter implements CredentialConverter {
     public Optional<Credential> fromInternalCredential(moreland.win32.credentialstore.structures.Credential source) {
         try {
 
-            final var id = fromNullOrWString(source.targetName).replace(TARGET_NAME_PREFIX, "");
+            final var id = withoutTargetNamePrefix(fromNullOrWString(source.targetName));
             final var type = CredentialType.fromInteger(source.type);
-            var typesWithSecret = List.of(CredentialType.DOMAIN_PASSWORD, CredentialType.GENERIC);
 
-            String secret = "";
-            if (typesWithSecret.contains(type) && source.credentialBlobSize > 0) {
-                final var byteArray = source.credentialBlob.getByteArray(0, source.credentialBlobSize);
-                secret = new String(byteArray, StandardCharsets.UTF_16LE);
+            var secret = TYPES_WITH_SECRET.contains(type) && source.credentialBlobSize > 0
+                ? SecretBuffer.copyOf(source.credentialBlob, source.credentialBlobSize)
+                : SecretBuffer.empty();
+
+            try {
+                var credential = new Credential(
+                    id,
+                    fromNullOrWString(source.userName),
+                    secret,
+                    CredentialFlag.fromInteger(source.flags),
+                    type,
+                    CredentialPersistence.fromInteger(source.persist),
+                    lastWrittenFrom(source.lastWritten));
+                return Optional.of(source.attributeCount > 0
+                    ? credential.withAttributes(CredentialAttributes.read(
+                        source.getPointer().getPointer(CredentialLayout.ATTRIBUTES), source.attributeCount))
+                    : credential);
+            } catch (IllegalArgumentException e) {
+                secret.close();
+                throw e;
             }
 
-            return Optional.of(new Credential(
-                id, //fromNullOrWString(source.targetName).replace(TARGET_NAME_PREFIX, ""),
-                fromNullOrWString(source.userName),
-                secret,
-                CredentialFlag.fromInteger(source.flags),
-                type,
-                CredentialPersistence.fromInteger(source.persist),
-                LocalDateTime.now()));
-
         } catch (IllegalArgumentException | NullPointerException e) {
             return Optional.empty();
         }
@@ -71,48 +87,146 @@ public final class Win32CredentialConverter implements CredentialConverter {
             return Optional.empty();
         }
 
-        try {
-            var credential = new moreland.win32.credentialstore.structures.Credential(); 
-
-            populateInternalCredential(credential, source);
-            return Optional.of(credential);
+        var credential = new moreland.win32.credentialstore.structures.Credential(); 
+        populateInternalCredential(credential, source);
+        return Optional.of(credential);
+    }
 
-        } catch (UnsupportedEncodingException e) {
+    public Optional<moreland.win32.credentialstore.structures.Credential.ByReference> toInternalCredentialReference(Credential source) {
+        if (source == null) {
             return Optional.empty();
         }
+
+        var credential = new moreland.win32.credentialstore.structures.Credential.ByReference(); 
+        populateInternalCredential(credential, source);
+        return Optional.of(credential);
     }
 
-    public Optional<moreland.win32.credentialstore.structures.Credential.ByReference> toInternalCredentialReference(Credential source) {
+    @Override
+    public List<moreland.win32.credentialstore.structures.Credential.ByReference> toInternalCredentialReferences(List<Credential> sources) {
+        // secrets already held off-heap are passed as is, the remaining ones share a single native allocation
+        var totalSize = 0L;
+        for (var source : sources) {
+            if (source.getSecretBuffer().isEmpty() && source.getSecret() != null) {
+                totalSize += (long) source.getSecret().length() * Character.BYTES;
+            }
+        }
+
+        var blobMemory = totalSize > 0 ? new Memory(totalSize) : null;
+        var credentials = new ArrayList<moreland.win32.credentialstore.structures.Credential.ByReference>(sources.size());
+        var offset = 0L;
+        for (var source : sources) {
+            var destination = new moreland.win32.credentialstore.structures.Credential.ByReference();
+            destination.targetName = new WString(source.getId());
+            destination.userName = new WString(source.getUsername() != null ? source.getUsername() : "");
+            destination.type = source.getType().getValue();
+            destination.persist = source.getPersistenceType().getValue();
+            CredentialAttributes.write(destination, source.getAttributes());
+
+            var secretBuffer = source.getSecretBuffer();
+            if (secretBuffer.isPresent()) {
+                setBlob(destination, secretBuffer.get());
+            } else if (source.getSecret() != null && !source.getSecret().isEmpty()) {
+                var size = source.getSecret().length() * Character.BYTES;
+                destination.credentialBlob = blobMemory.share(offset, size);
+                destination.credentialBlobSize = encode(source.getSecret(), destination.credentialBlob, size);
+                offset += size;
+            }
+            credentials.add(destination);
+        }
+        return credentials;
+    }
+
+    @Override
+    public Optional<CredentialDescriptor> descriptorFrom(Pointer source) {
         if (source == null) {
             return Optional.empty();
         }
 
         try {
-            var credential = new moreland.win32.credentialstore.structures.Credential.ByReference(); 
-
-            populateInternalCredential(credential, source);
-            return Optional.of(credential);
+            var targetName = source.getPointer(CredentialLayout.TARGET_NAME);
+            var userName = source.getPointer(CredentialLayout.USER_NAME);
+            if (targetName == null) {
+                return Optional.empty();
+            }
 
-        } catch (UnsupportedEncodingException e) {
+            return Optional.of(new CredentialDescriptor(
+                targetName.getWideString(hasTargetNamePrefix(targetName) ? TARGET_NAME_PREFIX_SIZE : 0),
+                userName != null ? userName.getWideString(0) : "",
+                CredentialType.fromInteger(source.getInt(CredentialLayout.TYPE)),
+                CredentialPersistence.fromInteger(source.getInt(CredentialLayout.PERSIST)),
+                FileTimes.toInstant(
+                    source.getInt(CredentialLayout.LAST_WRITTEN),
+                    source.getInt(CredentialLayout.LAST_WRITTEN + Integer.BYTES)),
+                CredentialAttributes.read(
+                    source.getPointer(CredentialLayout.ATTRIBUTES),
+                    source.getInt(CredentialLayout.ATTRIBUTE_COUNT))));
+
+        } catch (IllegalArgumentException e) {
             return Optional.empty();
         }
     }
 
-    private static void populateInternalCredential(moreland.win32.credentialstore.structures.Credential destination, Credential source) 
-        throws UnsupportedEncodingException {
+    /**
+     * compares the prefix in place so the target name is only decoded once,
+     * already sliced past the prefix
+     */
+    private static boolean hasTargetNamePrefix(Pointer targetName) {
+        for (int i = 0; i < TARGET_NAME_PREFIX.length(); i++) {
+            // a shorter name ends with the terminator, which never matches the prefix
+            if (targetName.getChar((long) i * Native.WCHAR_SIZE) != TARGET_NAME_PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String withoutTargetNamePrefix(String targetName) {
+        return targetName.startsWith(TARGET_NAME_PREFIX)
+            ? targetName.substring(TARGET_NAME_PREFIX.length())
+            : targetName;
+    }
+
+    private static void populateInternalCredential(moreland.win32.credentialstore.structures.Credential destination, Credential source) {
 
         destination.targetName = new WString(source.getId());
         destination.userName = new WString(source.getUsername());
         destination.type = source.getType().getValue();
         destination.persist = source.getPersistenceType().getValue();
+        CredentialAttributes.write(destination, source.getAttributes());
+
+        var secretBuffer = source.getSecretBuffer();
+        if (secretBuffer.isPresent()) {
+            setBlob(destination, secretBuffer.get());
+        } else if (!source.getSecret().isEmpty()) {
+            var size = source.getSecret().length() * Character.BYTES;
+            destination.credentialBlob = new Memory(size);
+            destination.credentialBlobSize = encode(source.getSecret(), destination.credentialBlob, size);
+        }
+    }
 
-        var credentialBlob = source.getSecret().getBytes("UTF-16LE");
-        var credentialBlobMemory = new Memory(credentialBlob.length);
-        credentialBlobMemory.write(0, credentialBlob, 0, credentialBlob.length);
+    /**
+     * points {@code destination} at the secret rather than copying it, the
+     * buffer must stay reachable until the native call using it returns
+     */
+    private static void setBlob(moreland.win32.credentialstore.structures.Credential destination, SecretBuffer secret) {
+        destination.credentialBlob = secret.size() > 0 ? secret.getPointer() : null;
+        destination.credentialBlobSize = secret.size();
+    }
 
-        destination.credentialBlob = credentialBlobMemory;
-        destination.credentialBlobSize = (int)credentialBlobMemory.size();
+    /**
+     * writes {@code secret} as UTF-16LE straight into native memory
+     * @return number of bytes written
+     */
+    private static int encode(String secret, Pointer destination, int size) {
+        destination.getByteBuffer(0, size).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer().put(secret);
+        return size;
+    }
 
+    private static Instant lastWrittenFrom(FileTime source) {
+        return source != null
+            ? FileTimes.toInstant(source.lowDateTime, source.highDateTime)
+            : null;
     }
 
     private static String fromNullOrWString(WString source) {
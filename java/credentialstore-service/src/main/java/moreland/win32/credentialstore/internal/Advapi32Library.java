@@ -80,5 +80,47 @@ public interface Advapi32Library extends StdCallLibrary {
     @SuppressWarnings("java:S100")
     boolean CredEnumerateW(WString filter, int flag, IntByReference count, PointerByReference credentialsPtr) throws LastErrorException;
 
-    
+    /**
+     * CredReadW taking arguments already in native memory, see {@code NativeArena}
+     * @param target        null terminated wide string identifying the credential to read
+     * @param type          integer value from {@code moreland.win32.credentialstore.CredentialType}
+     * @param reservedFlag  should always be 0
+     * @param credential    (output) pointer sized memory which on success stores
+     *                      the read credential, must be freed with CredFreeW
+     * @return true on success
+     */
+    @SuppressWarnings("java:S100")
+    boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException;
+
+    /**
+     * CredWriteW taking a {@code CREDENTIALW} already in native memory, see {@code NativeArena}
+     * @param userCredential pointer to credential structure to write
+     * @param flags typically 0 but may also be CRED_PRESERVE_CREDENTIAL_BLOB, which
+     *              preserves the existing credential blob
+     * @return true on success
+     */
+    @SuppressWarnings("java:S100")
+    boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException;
+
+    /**
+     * CredDeleteW taking arguments already in native memory, see {@code NativeArena}
+     * @param target null terminated wide string identifying the credential to delete
+     * @param type integer value from {@code moreland.win32.credentialstore.CredentialType}
+     * @param flags Reserved and must be 0
+     * @return true on success
+     */
+    @SuppressWarnings("java:S100")
+    boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException;
+
+    /**
+     * CredEnumerateW taking arguments already in native memory, see {@code NativeArena}
+     * @param filter null terminated wide string used to limit results, may be null
+     * @param flag typically 0x1 (CRED_ENUMERATE_ALL_CREDENTIALS)
+     * @param count (output) {@code DWORD} which on success stores the number of returned entries
+     * @param credentialsPtr (output) pointer sized memory which on success stores
+     *                       the array of credential pointers
+     * @return true on success
+     */
+    @SuppressWarnings("java:S100")
+    boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException;
 }
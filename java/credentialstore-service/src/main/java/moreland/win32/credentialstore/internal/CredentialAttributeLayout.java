@@ -0,0 +1,50 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import moreland.win32.credentialstore.structures.CredentialAttribute;
+
+/**
+ * Native layout of {@code CREDENTIAL_ATTRIBUTEW} as computed by JNA for the
+ * current platform, allows the attribute array of a credential to be read
+ * or written without a {@code CredentialAttribute} structure per element
+ */
+public final class CredentialAttributeLayout {
+
+    /**
+     * size in bytes of {@code CREDENTIAL_ATTRIBUTEW}, the stride of an attribute array
+     */
+    public static final int SIZE;
+    public static final int KEYWORD;
+    public static final int FLAGS;
+    public static final int VALUE_SIZE;
+    public static final int VALUE;
+
+    static {
+        var probe = new Probe();
+        SIZE = probe.size();
+        KEYWORD = probe.offsetOf("keyword");
+        FLAGS = probe.offsetOf("flags");
+        VALUE_SIZE = probe.offsetOf("valueSize");
+        VALUE = probe.offsetOf("value");
+    }
+
+    private CredentialAttributeLayout() {
+    }
+
+    private static final class Probe extends CredentialAttribute {
+        int offsetOf(String field) {
+            return fieldOffset(field);
+        }
+    }
+}
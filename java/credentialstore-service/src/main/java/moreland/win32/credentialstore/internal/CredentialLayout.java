@@ -0,0 +1,71 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import moreland.win32.credentialstore.structures.Credential;
+
+/**
+ * Native layout of {@code CREDENTIALW} as computed by JNA for the current
+ * platform, allows individual fields to be read or written without
+ * reflecting over the whole {@code Credential} structure
+ */
+public final class CredentialLayout {
+
+    /**
+     * size in bytes of {@code CREDENTIALW}
+     */
+    public static final int SIZE;
+    public static final int FLAGS;
+    public static final int TYPE;
+    public static final int TARGET_NAME;
+    public static final int COMMENT;
+    public static final int LAST_WRITTEN;
+    public static final int CREDENTIAL_BLOB_SIZE;
+    public static final int CREDENTIAL_BLOB;
+    public static final int PERSIST;
+    public static final int ATTRIBUTE_COUNT;
+    public static final int ATTRIBUTES;
+    public static final int TARGET_ALIAS;
+    public static final int USER_NAME;
+
+    /**
+     * maximum size in bytes of the credential blob, CRED_MAX_CREDENTIAL_BLOB_SIZE
+     */
+    public static final int MAXIMUM_CREDENTIAL_BLOB_SIZE = 5 * 512;
+
+    static {
+        var probe = new Probe();
+        SIZE = probe.size();
+        FLAGS = probe.offsetOf("flags");
+        TYPE = probe.offsetOf("type");
+        TARGET_NAME = probe.offsetOf("targetName");
+        COMMENT = probe.offsetOf("comment");
+        LAST_WRITTEN = probe.offsetOf("lastWritten");
+        CREDENTIAL_BLOB_SIZE = probe.offsetOf("credentialBlobSize");
+        CREDENTIAL_BLOB = probe.offsetOf("credentialBlob");
+        PERSIST = probe.offsetOf("persist");
+        ATTRIBUTE_COUNT = probe.offsetOf("attributeCount");
+        ATTRIBUTES = probe.offsetOf("attributes");
+        TARGET_ALIAS = probe.offsetOf("targetAlias");
+        USER_NAME = probe.offsetOf("userName");
+    }
+
+    private CredentialLayout() {
+    }
+
+    private static final class Probe extends Credential {
+        int offsetOf(String field) {
+            return fieldOffset(field);
+        }
+    }
+}
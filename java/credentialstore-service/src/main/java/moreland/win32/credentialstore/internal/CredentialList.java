@@ -12,39 +12,60 @@
 //
 package moreland.win32.credentialstore.internal;
 
-import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 
 import moreland.win32.credentialstore.Guard;
 import moreland.win32.credentialstore.structures.Credential;
 
+/**
+ * Credentials returned by CredEnumerateW, elements are decoded from the
+ * native array as they are consumed so a stream which stops early only
+ * pays for the elements it reads. Decoded elements refer to the native
+ * buffer and are only valid until the list is closed.
+ */
 public class CredentialList implements Iterable<Credential>, AutoCloseable {
 
+    private static final int CHARACTERISTICS = Spliterator.SIZED | Spliterator.SUBSIZED |
+        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
     private final Advapi32Library advapi32;
+    private final NativeCallGate gate;
     private final Pointer pointer;
-    private List<Credential> credentials = List.of();
+    private final int count;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     /**
      * instantiates a new instance of the CredentialList class
      * @exception IllegalArgumentException when advapi32 is null
      */
     public CredentialList(Pointer pointer, int count, Advapi32Library advapi32) {
+        this(pointer, count, advapi32, NativeCallGate.unbounded());
+    }
+
+    /**
+     * instantiates a new instance of the CredentialList class
+     * @param gate admission control used when freeing the native buffer
+     * @exception IllegalArgumentException when advapi32 or gate is null
+     */
+    public CredentialList(Pointer pointer, int count, Advapi32Library advapi32, NativeCallGate gate) {
         Guard.againstNull(advapi32, "advapi32");
+        Guard.againstNull(gate, "gate");
 
         this.advapi32 = advapi32;
+        this.gate = gate;
         this.pointer = pointer;
-
-        if (pointer == null || count <= 0)
-            return;
-
-        credentials = Arrays.stream(this.pointer.getPointerArray(0, count))
-            .map(Credential::new)
-            .collect(Collectors.toList());
+        this.count = pointer == null || count <= 0 ? 0 : count;
     }
 
     private static class EmptyHolder {
@@ -64,7 +85,7 @@ public class CredentialList implements Iterable<Credential>, AutoCloseable {
      * @return true if this list contains no elements
      */
     public boolean isEmpty() {
-        return credentials.isEmpty();
+        return count == 0;
     }
 
     /**
@@ -72,7 +93,28 @@ public class CredentialList implements Iterable<Credential>, AutoCloseable {
      * @return the number of elements in the list
      */
     public int size() {
-        return credentials.size();
+        return count;
+    }
+
+    /**
+     * Decodes the element at {@code index}
+     * @param index index of the element to decode
+     * @return newly decoded element
+     * @exception IndexOutOfBoundsException if {@code index} is outside of [0, size)
+     */
+    public Credential get(int index) {
+        return new Credential(pointerAt(index));
+    }
+
+    /**
+     * Returns the address of the native CREDENTIAL at {@code index} without decoding it
+     * @param index index of the element
+     * @return address of the element, valid until the list is closed
+     * @exception IndexOutOfBoundsException if {@code index} is outside of [0, size)
+     */
+    public Pointer pointerAt(int index) {
+        Objects.checkIndex(index, count);
+        return pointer.getPointer((long) index * Native.POINTER_SIZE);
     }
 
     /**
@@ -80,7 +122,15 @@ public class CredentialList implements Iterable<Credential>, AutoCloseable {
      * @return a sequential {@code Stream} over the elements in this collection
      */
     public Stream<Credential> stream() {
-        return credentials.stream();
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<Credential> spliterator() {
+        return new CredentialSpliterator(0, count);
     }
 
     /**
@@ -88,21 +138,86 @@ public class CredentialList implements Iterable<Credential>, AutoCloseable {
      */
     @Override
     public Iterator<Credential> iterator() {
-        return credentials.iterator();
+        return Spliterators.iterator(spliterator());
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The native buffer is freed on the first call only, the free is reported
+     * to JFR as a {@code moreland.credentialstore.NativeFree} event.
      * @throws Exception rethrowsLastErrorException 
      *                   when CredFree throws it
      */
     @Override
     public void close() throws Exception {
-        if (pointer != null) {
-            synchronized(advapi32) {
-                advapi32.CredFree(pointer);
+        if (pointer != null && closed.compareAndSet(false, true)) {
+            var event = new NativeFreeEvent();
+            event.begin();
+            var errorCode = 0;
+            try {
+                gate.call("CredFree", () -> advapi32.CredFree(pointer));
+            } catch (LastErrorException e) {
+                errorCode = e.getErrorCode();
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.owner = "CredentialList";
+                    event.elementCount = count;
+                    event.errorCode = errorCode;
+                    event.commit();
+                }
             }
         }
     }
 
+    private final class CredentialSpliterator implements Spliterator<Credential> {
+        private int index;
+        private final int fence;
+
+        CredentialSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Credential> action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Credential> action) {
+            Objects.requireNonNull(action);
+            while (index < fence) {
+                action.accept(get(index++));
+            }
+        }
+
+        @Override
+        public Spliterator<Credential> trySplit() {
+            var middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            var prefix = new CredentialSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
 }
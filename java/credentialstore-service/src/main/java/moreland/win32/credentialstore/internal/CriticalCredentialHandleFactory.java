@@ -38,6 +38,19 @@ public interface CriticalCredentialHandleFactory {
      */
     CriticalCredentialHandle fromPointer(Pointer handle) throws BadInjectionException;
 
+    /**
+     * {@code CriticalCredentialHandle} builder freeing {@code handle} through {@code gate}
+     * <p>
+     * The default implementation ignores {@code gate} and calls {@code fromPointer(handle)}.
+     * @param handle critical handle to wrap in {@code CriticalCredentialHandle}
+     * @param gate admission control used when freeing {@code handle}
+     * @return {@code CriticalCredentialHandle} which may contain a handle 
+     * if {@code handle} was valid 
+     */
+    default CriticalCredentialHandle fromPointer(Pointer handle, NativeCallGate gate) throws BadInjectionException {
+        return fromPointer(handle);
+    }
+
     /**
      * returns a new instance with an empty handle, used for error conditions
      * @return empty handle
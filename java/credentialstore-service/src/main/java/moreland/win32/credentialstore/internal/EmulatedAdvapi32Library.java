@@ -0,0 +1,490 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.ExpectedErrorCode;
+import moreland.win32.credentialstore.Pair;
+import moreland.win32.credentialstore.structures.Credential.ByReference;
+
+/**
+ * In-memory {@code Advapi32Library} intended for load testing and
+ * benchmarking on hosts without the Win32 credential manager.
+ * <p>
+ * Credentials are held in a concurrent map keyed on the case-insensitive
+ * target name and type. Reads and enumerations return real native
+ * {@code CREDENTIALW} memory which must be released with {@code CredFree},
+ * errors are reported by throwing {@code LastErrorException} with the same
+ * codes used by advapi32.
+ */
+public final class EmulatedAdvapi32Library implements Advapi32Library {
+
+    private static final String LEGACY_GENERIC_PREFIX = "LegacyGeneric:target=";
+    private static final int MAXIMUM_TARGET_NAME_LENGTH = 32767;
+    private static final long FILETIME_EPOCH_OFFSET_MILLIS = 11_644_473_600_000L;
+    private static final int POINTER_ALIGNMENT = Native.POINTER_SIZE;
+    private static final int MAXIMUM_ATTRIBUTES = 64;
+    private static final int MAXIMUM_KEYWORD_LENGTH = 256;
+    private static final int MAXIMUM_VALUE_SIZE = 256;
+
+    private final ConcurrentHashMap<Pair<String, Integer>, StoredCredential> credentials = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Memory> allocations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the number of credentials currently stored
+     * @return the number of credentials currently stored
+     */
+    public int size() {
+        return credentials.size();
+    }
+
+    /**
+     * Returns the number of buffers returned by read or enumerate which have
+     * not yet been released by {@code CredFree}
+     * @return the number of outstanding native buffers
+     */
+    public int outstandingAllocations() {
+        return allocations.size();
+    }
+
+    /**
+     * Removes all stored credentials, outstanding buffers remain valid
+     * until freed
+     */
+    public void clear() {
+        credentials.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredReadW(WString target, int type, int reservedFlag, PointerByReference credential)
+            throws LastErrorException {
+        credential.setValue(Pointer.NULL);
+        if (target == null || !isValidType(type)) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+        if (reservedFlag != 0) {
+            throw error(ExpectedErrorCode.INVALID_FLAGS);
+        }
+
+        var stored = credentials.get(keyOf(target.toString(), type));
+        if (stored == null) {
+            throw error(ExpectedErrorCode.NOT_FOUND);
+        }
+
+        var targetName = stored.targetName;
+        var memory = allocate(CredentialLayout.SIZE + stored.encodedSize(targetName));
+        stored.writeTo(memory, 0, CredentialLayout.SIZE, targetName);
+        credential.setValue(memory);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredWriteW(ByReference userCredential, int flags) throws LastErrorException {
+        if (userCredential == null || userCredential.targetName == null) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+        if ((flags & ~PreserveType.PRESERVE_CREDENTIAL_BLOB.getValue()) != 0) {
+            throw error(ExpectedErrorCode.INVALID_FLAGS);
+        }
+
+        var targetName = userCredential.targetName.toString();
+        var blobSize = userCredential.credentialBlobSize;
+        var preserve = flags == PreserveType.PRESERVE_CREDENTIAL_BLOB.getValue();
+        if (targetName.isEmpty() || targetName.length() > MAXIMUM_TARGET_NAME_LENGTH
+                || !isValidType(userCredential.type)
+                || userCredential.persist < 1 || userCredential.persist > 3
+                || blobSize < 0 || blobSize > CredentialLayout.MAXIMUM_CREDENTIAL_BLOB_SIZE
+                || (blobSize > 0 && userCredential.credentialBlob == null)
+                || (preserve && blobSize != 0)) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+
+        var blob = blobSize > 0
+            ? userCredential.credentialBlob.getByteArray(0, blobSize)
+            : new byte[0];
+        var attributes = readAttributes(
+            userCredential.attributes != null ? userCredential.attributes.getPointer() : null,
+            userCredential.attributeCount);
+        var lastWritten = currentFileTime();
+        var key = keyOf(targetName, userCredential.type);
+
+        credentials.compute(key, (k, existing) -> {
+            if (preserve && existing == null) {
+                throw error(ExpectedErrorCode.NOT_FOUND);
+            }
+            return new StoredCredential(userCredential.flags, userCredential.type, targetName,
+                toStringOrNull(userCredential.comment), lastWritten,
+                preserve ? existing.blob : blob,
+                userCredential.persist, toStringOrNull(userCredential.targetAlias),
+                toStringOrNull(userCredential.userName), attributes);
+        });
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredFree(Pointer cred) throws LastErrorException {
+        if (cred == null) {
+            return true;
+        }
+        var memory = allocations.remove(Pointer.nativeValue(cred));
+        if (memory == null) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+        memory.close();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredDeleteW(WString target, int type, int flags) throws LastErrorException {
+        if (target == null || !isValidType(type)) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+        if (flags != 0) {
+            throw error(ExpectedErrorCode.INVALID_FLAGS);
+        }
+        if (credentials.remove(keyOf(target.toString(), type)) == null) {
+            throw error(ExpectedErrorCode.NOT_FOUND);
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredEnumerateW(WString filter, int flag, IntByReference count, PointerByReference credentialsPtr)
+            throws LastErrorException {
+        count.setValue(0);
+        credentialsPtr.setValue(Pointer.NULL);
+
+        var enumerateAll = flag == EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue();
+        if ((flag & ~EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue()) != 0 || (enumerateAll && filter != null)) {
+            throw error(ExpectedErrorCode.INVALID_FLAGS);
+        }
+
+        var matches = new ArrayList<StoredCredential>();
+        var targetNames = new ArrayList<String>();
+        var filterValue = filter != null ? filter.toString() : null;
+        var totalSize = 0L;
+        for (var stored : candidatesFor(filterValue)) {
+            if (filterValue != null && !matches(filterValue, stored.targetName)) {
+                continue;
+            }
+            var targetName = enumerateAll && stored.type == CredentialType.GENERIC.getValue()
+                ? LEGACY_GENERIC_PREFIX + stored.targetName
+                : stored.targetName;
+            matches.add(stored);
+            targetNames.add(targetName);
+            totalSize += align(CredentialLayout.SIZE + stored.encodedSize(targetName));
+        }
+        if (matches.isEmpty()) {
+            throw error(ExpectedErrorCode.NOT_FOUND);
+        }
+
+        // a single allocation holds the pointer array followed by each credential, as with advapi32
+        var arraySize = align((long) matches.size() * Native.POINTER_SIZE);
+        var memory = allocate(arraySize + totalSize);
+        var offset = arraySize;
+        for (int i = 0; i < matches.size(); i++) {
+            var targetName = targetNames.get(i);
+            var stored = matches.get(i);
+            memory.setPointer((long) i * Native.POINTER_SIZE, memory.share(offset));
+            stored.writeTo(memory, offset, offset + CredentialLayout.SIZE, targetName);
+            offset += align(CredentialLayout.SIZE + stored.encodedSize(targetName));
+        }
+
+        count.setValue(matches.size());
+        credentialsPtr.setValue(memory);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException {
+        var result = new PointerByReference();
+        try {
+            return CredReadW(toWStringOrNull(target), type, reservedFlag, result);
+        } finally {
+            credential.setPointer(0, result.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException {
+        return CredWriteW(userCredential != null ? new ByReference(userCredential) : null, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException {
+        return CredDeleteW(toWStringOrNull(target), type, flags);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException {
+        var countResult = new IntByReference();
+        var credentialsResult = new PointerByReference();
+        try {
+            return CredEnumerateW(toWStringOrNull(filter), flag, countResult, credentialsResult);
+        } finally {
+            count.setInt(0, countResult.getValue());
+            credentialsPtr.setPointer(0, credentialsResult.getValue());
+        }
+    }
+
+    /**
+     * copies the attribute array of a credential being written, rejecting it
+     * as advapi32 does when a limit is exceeded
+     */
+    private static List<StoredAttribute> readAttributes(Pointer attributes, int count) {
+        if (count < 0 || count > MAXIMUM_ATTRIBUTES || (count > 0 && attributes == null)) {
+            throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+        }
+
+        var stored = new ArrayList<StoredAttribute>(count);
+        for (int i = 0; i < count; i++) {
+            var offset = (long) i * CredentialAttributeLayout.SIZE;
+            var keyword = attributes.getPointer(offset + CredentialAttributeLayout.KEYWORD);
+            var valueSize = attributes.getInt(offset + CredentialAttributeLayout.VALUE_SIZE);
+            var value = attributes.getPointer(offset + CredentialAttributeLayout.VALUE);
+            if (keyword == null || valueSize < 0 || valueSize > MAXIMUM_VALUE_SIZE || (valueSize > 0 && value == null)) {
+                throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+            }
+            var keywordValue = keyword.getWideString(0);
+            if (keywordValue.isEmpty() || keywordValue.length() > MAXIMUM_KEYWORD_LENGTH) {
+                throw error(ExpectedErrorCode.INVALID_ARGUMENT);
+            }
+            stored.add(new StoredAttribute(keywordValue,
+                attributes.getInt(offset + CredentialAttributeLayout.FLAGS),
+                valueSize > 0 ? value.getByteArray(0, valueSize) : new byte[0]));
+        }
+        return stored;
+    }
+
+    private Memory allocate(long size) {
+        var memory = new Memory(size);
+        allocations.put(Pointer.nativeValue(memory), memory);
+        return memory;
+    }
+
+    private Collection<StoredCredential> candidatesFor(String filter) {
+        if (filter == null || filter.endsWith("*")) {
+            return credentials.values();
+        }
+        // an exact filter can only match one credential of each type
+        var candidates = new ArrayList<StoredCredential>(1);
+        for (var type : CredentialType.values()) {
+            var stored = credentials.get(keyOf(filter, type.getValue()));
+            if (stored != null) {
+                candidates.add(stored);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean matches(String filter, String targetName) {
+        if (filter.endsWith("*")) {
+            var prefixLength = filter.length() - 1;
+            return targetName.regionMatches(true, 0, filter, 0, prefixLength);
+        }
+        return targetName.equalsIgnoreCase(filter);
+    }
+
+    private static Pair<String, Integer> keyOf(String targetName, int type) {
+        return Pair.of(targetName.toUpperCase(Locale.ROOT), type);
+    }
+
+    private static boolean isValidType(int type) {
+        return type > CredentialType.UNKNOWN.getValue() && type < CredentialType.MAXIMUM.getValue();
+    }
+
+    private static long align(long size) {
+        return (size + POINTER_ALIGNMENT - 1) & -POINTER_ALIGNMENT;
+    }
+
+    private static long currentFileTime() {
+        return (System.currentTimeMillis() + FILETIME_EPOCH_OFFSET_MILLIS) * 10_000L;
+    }
+
+    private static WString toWStringOrNull(Pointer value) {
+        return value != null ? new WString(value.getWideString(0)) : null;
+    }
+
+    private static String toStringOrNull(WString value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static LastErrorException error(ExpectedErrorCode errorCode) {
+        return new LastErrorException(errorCode.getValue());
+    }
+
+    /**
+     * immutable copy of a written credential
+     */
+    private static final class StoredCredential {
+        private final int flags;
+        private final int type;
+        private final String targetName;
+        private final String comment;
+        private final long lastWritten;
+        private final byte[] blob;
+        private final int persist;
+        private final String targetAlias;
+        private final String userName;
+        private final List<StoredAttribute> attributes;
+
+        StoredCredential(int flags, int type, String targetName, String comment, long lastWritten, byte[] blob,
+                int persist, String targetAlias, String userName, List<StoredAttribute> attributes) {
+            this.flags = flags;
+            this.type = type;
+            this.targetName = targetName;
+            this.comment = comment;
+            this.lastWritten = lastWritten;
+            this.blob = blob;
+            this.persist = persist;
+            this.targetAlias = targetAlias;
+            this.userName = userName;
+            this.attributes = attributes;
+        }
+
+        /**
+         * size of the variable length data which follows the structure
+         */
+        long encodedSize(String presentedTargetName) {
+            var size = wideStringSize(presentedTargetName) + wideStringSize(comment) + wideStringSize(targetAlias)
+                + wideStringSize(userName) + blob.length;
+            if (!attributes.isEmpty()) {
+                size += align((long) attributes.size() * CredentialAttributeLayout.SIZE);
+                for (var attribute : attributes) {
+                    size += wideStringSize(attribute.keyword) + attribute.value.length;
+                }
+            }
+            return size;
+        }
+
+        /**
+         * writes the structure at {@code offset} and its strings and blob from {@code dataOffset}
+         */
+        void writeTo(Pointer memory, long offset, long dataOffset, String presentedTargetName) {
+            memory.setInt(offset + CredentialLayout.FLAGS, flags);
+            memory.setInt(offset + CredentialLayout.TYPE, type);
+            memory.setInt(offset + CredentialLayout.LAST_WRITTEN, (int) lastWritten);
+            memory.setInt(offset + CredentialLayout.LAST_WRITTEN + 4, (int) (lastWritten >>> 32));
+            memory.setInt(offset + CredentialLayout.CREDENTIAL_BLOB_SIZE, blob.length);
+            memory.setInt(offset + CredentialLayout.PERSIST, persist);
+            memory.setInt(offset + CredentialLayout.ATTRIBUTE_COUNT, attributes.size());
+
+            // the attribute array comes first so it keeps the pointer alignment of dataOffset
+            var next = dataOffset;
+            if (attributes.isEmpty()) {
+                memory.setPointer(offset + CredentialLayout.ATTRIBUTES, Pointer.NULL);
+            } else {
+                var array = next;
+                memory.setPointer(offset + CredentialLayout.ATTRIBUTES, memory.share(array));
+                next += align((long) attributes.size() * CredentialAttributeLayout.SIZE);
+                for (int i = 0; i < attributes.size(); i++) {
+                    var attribute = attributes.get(i);
+                    var element = array + (long) i * CredentialAttributeLayout.SIZE;
+                    next = writeWideString(memory, element + CredentialAttributeLayout.KEYWORD, next, attribute.keyword);
+                    memory.setInt(element + CredentialAttributeLayout.FLAGS, attribute.flags);
+                    memory.setInt(element + CredentialAttributeLayout.VALUE_SIZE, attribute.value.length);
+                    if (attribute.value.length > 0) {
+                        memory.write(next, attribute.value, 0, attribute.value.length);
+                        memory.setPointer(element + CredentialAttributeLayout.VALUE, memory.share(next));
+                        next += attribute.value.length;
+                    } else {
+                        memory.setPointer(element + CredentialAttributeLayout.VALUE, Pointer.NULL);
+                    }
+                }
+            }
+            next = writeWideString(memory, offset + CredentialLayout.TARGET_NAME, next, presentedTargetName);
+            next = writeWideString(memory, offset + CredentialLayout.COMMENT, next, comment);
+            next = writeWideString(memory, offset + CredentialLayout.TARGET_ALIAS, next, targetAlias);
+            next = writeWideString(memory, offset + CredentialLayout.USER_NAME, next, userName);
+
+            if (blob.length > 0) {
+                memory.write(next, blob, 0, blob.length);
+                memory.setPointer(offset + CredentialLayout.CREDENTIAL_BLOB, memory.share(next));
+            } else {
+                memory.setPointer(offset + CredentialLayout.CREDENTIAL_BLOB, Pointer.NULL);
+            }
+        }
+
+        private static long writeWideString(Pointer memory, long fieldOffset, long dataOffset, String value) {
+            if (value == null) {
+                memory.setPointer(fieldOffset, Pointer.NULL);
+                return dataOffset;
+            }
+            memory.setWideString(dataOffset, value);
+            memory.setPointer(fieldOffset, memory.share(dataOffset));
+            return dataOffset + wideStringSize(value);
+        }
+
+        private static long wideStringSize(String value) {
+            return value != null
+                ? (long) (value.length() + 1) * Native.WCHAR_SIZE
+                : 0L;
+        }
+    }
+
+    /**
+     * immutable copy of a written attribute
+     */
+    private static final class StoredAttribute {
+        private final String keyword;
+        private final int flags;
+        private final byte[] value;
+
+        StoredAttribute(String keyword, int flags, byte[] value) {
+            this.keyword = keyword;
+            this.flags = flags;
+            this.value = value;
+        }
+    }
+}
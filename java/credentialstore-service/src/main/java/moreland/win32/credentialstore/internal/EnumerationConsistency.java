@@ -0,0 +1,34 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+/**
+ * Consistency guarantee provided by {@code NativeInteropBridge.credEnumerate}
+ * with respect to writes and deletes issued through the same bridge
+ */
+public enum EnumerationConsistency {
+
+    /**
+     * No bridge locks are taken, each returned credential is internally
+     * consistent but the returned set may or may not include writes and
+     * deletes which run concurrently with the enumeration
+     */
+    WEAK,
+
+    /**
+     * Every lock stripe is held for read while CredEnumerateW runs, the
+     * returned set reflects a point in time at which no write or delete
+     * issued through the bridge was in progress
+     */
+    SNAPSHOT;
+}
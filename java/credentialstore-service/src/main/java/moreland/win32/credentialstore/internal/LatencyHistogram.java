@@ -0,0 +1,136 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of non-negative values.
+ * <p>
+ * Each power of two is split into {@code 2^SUB_BUCKET_BITS} linear
+ * buckets, so a recorded value is reported within 12.5% of its true value
+ * over the full range of {@code long} using a fixed array of counters.
+ * Recording is a handful of atomic increments and never allocates; reads
+ * may observe a recording in progress and are therefore approximate while
+ * values are being recorded.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Records a single value, negative values are recorded as 0
+     * @param value value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        maximum.accumulate(value);
+    }
+
+    /**
+     * number of values recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * mean of the recorded values, 0 when nothing has been recorded
+     */
+    public double getMean() {
+        var recorded = count.sum();
+        return recorded == 0 ? 0.0 : (double) sum.sum() / recorded;
+    }
+
+    /**
+     * largest value recorded
+     */
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    /**
+     * Returns the value below which {@code percentile} percent of the
+     * recorded values fall, reported as the upper bound of its bucket
+     * @param percentile percentile between 0 and 100 inclusive
+     * @return value at {@code percentile}, 0 when nothing has been recorded
+     * @exception IllegalArgumentException if {@code percentile} is outside 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+
+        var total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        var seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMaximum());
+            }
+        }
+        return getMaximum();
+    }
+
+    /**
+     * discards every recorded value
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        maximum.reset();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        var shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        var subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = index / SUB_BUCKET_COUNT - 1;
+        var lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+}
@@ -0,0 +1,150 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed set of read/write locks selected by the normalized (target, type)
+ * pair of a credential, target names are compared ignoring case to match
+ * the Win32 credential manager
+ */
+public final class LockStripes {
+
+    /**
+     * default number of stripes used by {@code Win32NativeInteropBridge}
+     */
+    public static final int DEFAULT_STRIPE_COUNT = 64;
+
+    private final ReentrantReadWriteLock[] stripes;
+    private final int mask;
+
+    /**
+     * Instantiates a new instance of the LockStripes class
+     * @param stripeCount requested number of stripes, rounded up to the
+     *                    next power of two
+     * @exception IllegalArgumentException if {@code stripeCount} is less than 1
+     */
+    public LockStripes(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be greater than zero");
+        }
+        var size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        stripes = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the number of stripes
+     * @return the number of stripes
+     */
+    public int size() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the lock guarding {@code target} and {@code type}
+     * @param target target name of the credential, may be null
+     * @param type integer value of {@code CredentialType}
+     * @return lock guarding the normalized key
+     */
+    public ReadWriteLock forKey(String target, int type) {
+        return stripes[indexFor(target, type)];
+    }
+
+    /**
+     * Returns the index of the stripe guarding {@code target} and {@code type}
+     * @param target target name of the credential, may be null
+     * @param type integer value of {@code CredentialType}
+     * @return index of the stripe in the range [0, size)
+     */
+    public int indexFor(String target, int type) {
+        var hash = type;
+        if (target != null) {
+            for (int i = 0; i < target.length(); i++) {
+                hash = 31 * hash + Character.toUpperCase(target.charAt(i));
+            }
+        }
+        // spread the high bits down so small tables still use the whole hash
+        hash ^= (hash >>> 16);
+        return hash & mask;
+    }
+
+    /**
+     * Acquires the read lock of every stripe in index order
+     */
+    public void lockAllForRead() {
+        for (var stripe : stripes) {
+            stripe.readLock().lock();
+        }
+    }
+
+    /**
+     * Releases the read locks acquired by {@code lockAllForRead}
+     */
+    public void unlockAllForRead() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].readLock().unlock();
+        }
+    }
+
+    /**
+     * Acquires the read lock of each stripe in {@code indices} in index
+     * order, the fixed order allows several callers to lock overlapping
+     * sets without deadlock
+     * @param indices stripe indices as returned by {@code indexFor}
+     */
+    public void lockForRead(BitSet indices) {
+        for (var i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            stripes[i].readLock().lock();
+        }
+    }
+
+    /**
+     * Releases the read locks acquired by {@code lockForRead}
+     * @param indices stripe indices passed to {@code lockForRead}
+     */
+    public void unlockForRead(BitSet indices) {
+        for (var i = indices.previousSetBit(stripes.length - 1); i >= 0; i = indices.previousSetBit(i - 1)) {
+            stripes[i].readLock().unlock();
+        }
+    }
+
+    /**
+     * Acquires the write lock of each stripe in {@code indices} in index order
+     * @param indices stripe indices as returned by {@code indexFor}
+     */
+    public void lockForWrite(BitSet indices) {
+        for (var i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+            stripes[i].writeLock().lock();
+        }
+    }
+
+    /**
+     * Releases the write locks acquired by {@code lockForWrite}
+     * @param indices stripe indices passed to {@code lockForWrite}
+     */
+    public void unlockForWrite(BitSet indices) {
+        for (var i = indices.previousSetBit(stripes.length - 1); i >= 0; i = indices.previousSetBit(i - 1)) {
+            stripes[i].writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import moreland.win32.credentialstore.CredentialAttribute;
+import moreland.win32.credentialstore.SecretBuffer;
+
+/**
+ * Scratch native memory for the arguments and out-parameters of a single
+ * advapi32 call, borrowed from a bounded process-wide pool.
+ * <p>
+ * Arenas are borrowed with {@code acquire} and returned by {@code close}
+ * rather than held per thread, so a caller on a short-lived or virtual
+ * thread reuses an idle arena instead of allocating and later freeing its
+ * own. The pool holds at most {@code MAXIMUM_POOLED} idle arenas, roughly
+ * the number of native calls which can be in progress at once; arenas
+ * returned to a full pool, or whose regions grew beyond
+ * {@code MAXIMUM_RETAINED_SIZE}, are freed immediately. Each region is
+ * grown only when a larger value is written, so steady state calls
+ * allocate no heap or native memory for target names, user names, blobs,
+ * {@code CREDENTIALW} or out parameters.
+ * <p>
+ * Values written to the arena are valid until the next value is written
+ * to the same region or the arena is closed; an arena must only be used
+ * by the thread which acquired it and only for the duration of a native
+ * call. Secrets written by {@code blob} are wiped when the arena is closed.
+ */
+public final class NativeArena implements AutoCloseable {
+
+    /**
+     * maximum number of idle arenas held by the pool
+     */
+    static final int MAXIMUM_POOLED = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * size in bytes above which a grown region is freed rather than pooled
+     */
+    static final long MAXIMUM_RETAINED_SIZE = 64 * 1024;
+
+    // fixed slots rather than a queue so borrowing and returning allocate nothing
+    private static final AtomicReferenceArray<NativeArena> POOL = new AtomicReferenceArray<>(MAXIMUM_POOLED);
+    private static final LongAdder ALLOCATED = new LongAdder();
+    private static final int INITIAL_STRING_SIZE = 256 * Native.WCHAR_SIZE;
+    private static final int INITIAL_BLOB_SIZE = 512;
+    private static final int INITIAL_ATTRIBUTES_SIZE = 4 * CredentialAttributeLayout.SIZE + 512;
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final Memory credential = new Memory(CredentialLayout.SIZE);
+    private final Memory outPointer = new Memory(Native.POINTER_SIZE);
+    private final Memory outCount = new Memory(Integer.BYTES);
+    private Memory target = new Memory(INITIAL_STRING_SIZE);
+    private Memory userName = new Memory(INITIAL_STRING_SIZE);
+    private Memory blob = new Memory(INITIAL_BLOB_SIZE);
+    private Memory attributes = new Memory(INITIAL_ATTRIBUTES_SIZE);
+    private int blobUsed;
+    private short[] units = new short[INITIAL_BLOB_SIZE];
+    private boolean borrowed;
+
+    private NativeArena() {
+        ALLOCATED.increment();
+    }
+
+    /**
+     * Borrows an idle arena from the pool, allocating one when none is idle
+     * @return arena owned by the caller until it is closed
+     */
+    public static NativeArena acquire() {
+        var start = slotOf(Thread.currentThread());
+        for (int i = 0; i < MAXIMUM_POOLED; i++) {
+            var slot = (start + i) % MAXIMUM_POOLED;
+            if (POOL.get(slot) != null) {
+                var arena = POOL.getAndSet(slot, null);
+                if (arena != null) {
+                    arena.borrowed = true;
+                    return arena;
+                }
+            }
+        }
+        var arena = new NativeArena();
+        arena.borrowed = true;
+        return arena;
+    }
+
+    /**
+     * number of arenas allocated since the process started, a pool which
+     * is large enough stops growing this once every caller has run once
+     */
+    public static long getAllocatedCount() {
+        return ALLOCATED.sum();
+    }
+
+    /**
+     * wipes the secret written by {@code blob} and returns the arena to
+     * the pool, or frees it when the pool is full or the arena has grown
+     * too large to retain; closing an arena which is not borrowed has no
+     * effect
+     */
+    @Override
+    public void close() {
+        if (!borrowed) {
+            return;
+        }
+        borrowed = false;
+        wipeBlob();
+        if (retainedSize() <= MAXIMUM_RETAINED_SIZE) {
+            var start = slotOf(Thread.currentThread());
+            for (int i = 0; i < MAXIMUM_POOLED; i++) {
+                if (POOL.compareAndSet((start + i) % MAXIMUM_POOLED, null, this)) {
+                    return;
+                }
+            }
+        }
+        free();
+    }
+
+    /**
+     * Writes {@code value} as a null terminated wide string
+     * @param value target name to write
+     * @return pointer to the string or {@code null} if {@code value} is null
+     */
+    public Pointer target(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        target = ensureCapacity(target, wideStringSize(value));
+        writeWideString(target, 0, value);
+        return target;
+    }
+
+    /**
+     * Writes {@code value} as a null terminated wide string
+     * @param value user name to write
+     * @return pointer to the string or {@code null} if {@code value} is null
+     */
+    public Pointer userName(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        userName = ensureCapacity(userName, wideStringSize(value));
+        writeWideString(userName, 0, value);
+        return userName;
+    }
+
+    /**
+     * Writes {@code secret} as UTF-16LE, the encoding of {@code CredentialBlob}
+     * @param secret secret to write
+     * @return pointer to the encoded secret, valid for {@code blobSize(secret)} bytes
+     */
+    public Pointer blob(CharSequence secret) {
+        var size = blobSize(secret);
+        wipeBlob();
+        blob = ensureCapacity(blob, size);
+        blobUsed = size;
+        if (LITTLE_ENDIAN) {
+            writeChars(blob, 0, secret, secret.length());
+        } else {
+            for (int i = 0; i < secret.length(); i++) {
+                blob.setShort(i * 2L, Short.reverseBytes((short) secret.charAt(i)));
+            }
+        }
+        return blob;
+    }
+
+    /**
+     * zeroes the secret last written by {@code blob}
+     */
+    public void wipeBlob() {
+        if (blobUsed > 0) {
+            blob.setMemory(0, blobUsed, (byte) 0);
+            blobUsed = 0;
+        }
+    }
+
+    /**
+     * Returns the size in bytes of {@code secret} once encoded by {@code blob}
+     * @param secret secret to measure
+     * @return encoded size in bytes
+     */
+    public static int blobSize(CharSequence secret) {
+        return secret.length() * Character.BYTES;
+    }
+
+    /**
+     * Writes a {@code CREDENTIALW} with the given values, all other members are zeroed
+     * @return pointer to the structure
+     */
+    public Pointer credential(int flags, int type, Pointer targetName, Pointer userName, int persist,
+            Pointer credentialBlob, int credentialBlobSize) {
+        credential.clear();
+        credential.setInt(CredentialLayout.FLAGS, flags);
+        credential.setInt(CredentialLayout.TYPE, type);
+        credential.setPointer(CredentialLayout.TARGET_NAME, targetName);
+        credential.setPointer(CredentialLayout.USER_NAME, userName);
+        credential.setInt(CredentialLayout.PERSIST, persist);
+        credential.setPointer(CredentialLayout.CREDENTIAL_BLOB, credentialBlob);
+        credential.setInt(CredentialLayout.CREDENTIAL_BLOB_SIZE, credentialBlobSize);
+        return credential;
+    }
+
+    /**
+     * Writes a {@code CREDENTIALW} whose blob is {@code secret}, the buffer
+     * is referenced rather than copied
+     * @return pointer to the structure
+     */
+    public Pointer credential(int flags, int type, Pointer targetName, Pointer userName, int persist, SecretBuffer secret) {
+        return credential(flags, type, targetName, userName, persist,
+            secret.size() > 0 ? secret.getPointer() : null, secret.size());
+    }
+
+    /**
+     * Writes {@code values} as a {@code CREDENTIAL_ATTRIBUTEW} array followed
+     * by the keyword and value of each element, and points the
+     * {@code CREDENTIALW} last written by {@code credential} at it; must be
+     * called after {@code credential} which clears the attribute members
+     * @param values attributes to write, nothing is written when empty
+     */
+    public void attributes(List<CredentialAttribute> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        var arraySize = (long) values.size() * CredentialAttributeLayout.SIZE;
+        var size = arraySize;
+        for (var value : values) {
+            size += wideStringSize(value.getKeyword()) + value.getValueSize();
+        }
+        attributes = ensureCapacity(attributes, size);
+
+        var base = Pointer.nativeValue(attributes);
+        var next = arraySize;
+        for (int i = 0; i < values.size(); i++) {
+            var value = values.get(i);
+            var offset = (long) i * CredentialAttributeLayout.SIZE;
+
+            writeWideString(attributes, next, value.getKeyword());
+            setAddress(attributes, offset + CredentialAttributeLayout.KEYWORD, base + next);
+            next += wideStringSize(value.getKeyword());
+
+            attributes.setInt(offset + CredentialAttributeLayout.FLAGS, 0);
+            attributes.setInt(offset + CredentialAttributeLayout.VALUE_SIZE, value.getValueSize());
+            if (value.getValueSize() > 0) {
+                value.copyValueTo(attributes, next);
+                setAddress(attributes, offset + CredentialAttributeLayout.VALUE, base + next);
+                next += value.getValueSize();
+            } else {
+                setAddress(attributes, offset + CredentialAttributeLayout.VALUE, 0L);
+            }
+        }
+
+        credential.setInt(CredentialLayout.ATTRIBUTE_COUNT, values.size());
+        credential.setPointer(CredentialLayout.ATTRIBUTES, attributes);
+    }
+
+    /**
+     * Returns a zeroed pointer sized out-parameter
+     * @return pointer to the out-parameter
+     */
+    public Pointer outPointer() {
+        outPointer.setPointer(0, null);
+        return outPointer;
+    }
+
+    /**
+     * Returns the value written to {@code outPointer} by the last native call
+     * @return pointer written by the native call, null when none was written
+     */
+    public Pointer outPointerValue() {
+        return outPointer.getPointer(0);
+    }
+
+    /**
+     * Returns a zeroed {@code DWORD} out-parameter
+     * @return pointer to the out-parameter
+     */
+    public Pointer outCount() {
+        outCount.setInt(0, 0);
+        return outCount;
+    }
+
+    /**
+     * Returns the value written to {@code outCount} by the last native call
+     * @return count written by the native call
+     */
+    public int outCountValue() {
+        return outCount.getInt(0);
+    }
+
+    /**
+     * first slot searched by {@code thread}, spreading threads across the
+     * pool so that they rarely contend for the same slot
+     */
+    private static int slotOf(Thread thread) {
+        var hash = System.identityHashCode(thread);
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % MAXIMUM_POOLED;
+    }
+
+    private long retainedSize() {
+        return Math.max(Math.max(target.size(), userName.size()), Math.max(blob.size(), attributes.size()));
+    }
+
+    private void free() {
+        credential.close();
+        outPointer.close();
+        outCount.close();
+        target.close();
+        userName.close();
+        blob.close();
+        attributes.close();
+    }
+
+    private static long wideStringSize(CharSequence value) {
+        return (value.length() + 1L) * Native.WCHAR_SIZE;
+    }
+
+    private void writeWideString(Memory memory, long offset, CharSequence value) {
+        var length = value.length();
+        if (Native.WCHAR_SIZE == Character.BYTES) {
+            writeChars(memory, offset, value, length);
+            memory.setShort(offset + (long) length * Character.BYTES, (short) 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                memory.setInt(offset + (long) i * Native.WCHAR_SIZE, value.charAt(i));
+            }
+            memory.setInt(offset + (long) length * Native.WCHAR_SIZE, 0);
+        }
+    }
+
+    /**
+     * writes a pointer member without allocating a {@code Pointer} for it
+     */
+    private static void setAddress(Memory memory, long offset, long address) {
+        if (Native.POINTER_SIZE == Long.BYTES) {
+            memory.setLong(offset, address);
+        } else {
+            memory.setInt(offset, (int) address);
+        }
+    }
+
+    /**
+     * copies {@code value} as 16 bit units in native byte order with a
+     * single native call, the units pass through {@code units} which is
+     * cleared afterwards; {@code char[]} is not used as JNA writes it as
+     * {@code wchar_t}
+     */
+    private void writeChars(Memory memory, long offset, CharSequence value, int length) {
+        if (units.length < length) {
+            units = new short[Math.max(length, units.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            units[i] = (short) value.charAt(i);
+        }
+        memory.write(offset, units, 0, length);
+        Arrays.fill(units, 0, length, (short) 0);
+    }
+
+    private static Memory ensureCapacity(Memory memory, long size) {
+        if (memory.size() >= size) {
+            return memory;
+        }
+        var capacity = memory.size();
+        while (capacity < size) {
+            capacity *= 2;
+        }
+        memory.close();
+        return new Memory(capacity);
+    }
+}
@@ -0,0 +1,81 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * advapi32 call made by {@code Win32NativeInteropBridge}, the duration
+ * covers the native call only and the time spent acquiring its lock
+ * stripes is reported separately.
+ * <p>
+ * The target name is reported as a 64-bit FNV-1a hash so recordings can
+ * correlate calls for the same credential without disclosing its name.
+ */
+@Name("moreland.credentialstore.NativeCall")
+@Label("Native Credential Call")
+@Category({"Credential Store"})
+@Description("Call into advapi32 made by the credential store")
+@StackTrace(false)
+@Threshold("1 ms")
+final class NativeCallEvent extends jdk.jfr.Event {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Credential Type")
+    String credentialType;
+
+    @Label("Target Hash")
+    @Description("FNV-1a hash of the target name, 0 when the call has no target")
+    long targetHash;
+
+    @Label("Element Count")
+    @Description("number of credentials returned by an enumeration")
+    int elementCount;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Error Code")
+    @Description("Win32 error code, 0 on success")
+    int errorCode;
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the UTF-16 units of {@code target}
+     * @param target target name to hash
+     * @return hash of {@code target}, 0 when {@code target} is null
+     */
+    static long hash(CharSequence target) {
+        if (target == null) {
+            return 0L;
+        }
+        var hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < target.length(); i++) {
+            var unit = target.charAt(i);
+            hash = (hash ^ (unit & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (unit >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
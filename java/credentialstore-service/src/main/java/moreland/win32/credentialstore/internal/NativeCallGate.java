@@ -0,0 +1,223 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for native calls.
+ * <p>
+ * A thread blocked in a native call cannot release its carrier, so every
+ * virtual thread inside advapi32 pins one carrier thread for the duration
+ * of the call. A bounded gate limits how many callers are inside native
+ * code at once; callers beyond the limit wait on a {@code Semaphore},
+ * which parks virtual threads without pinning, leaving the remaining
+ * carriers free for other work. The unbounded gate admits every caller
+ * and only records metrics.
+ * <p>
+ * Waits and native calls made from virtual threads are reported to JFR as
+ * {@code moreland.credentialstore.NativeCallGateWait} and
+ * {@code moreland.credentialstore.NativeCallPinned} events.
+ */
+public final class NativeCallGate {
+
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    private final int permits;
+    private final Semaphore semaphore;
+
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maximumWaitNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder virtualThreadCallCount = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private NativeCallGate(int permits) {
+        this.permits = permits;
+        this.semaphore = permits > 0 ? new Semaphore(permits, true) : null;
+    }
+
+    /**
+     * Returns a new gate admitting every caller, its metrics only cover the
+     * calls made through it
+     * @return gate without a limit
+     */
+    public static NativeCallGate unbounded() {
+        return new NativeCallGate(0);
+    }
+
+    /**
+     * Returns a new gate admitting at most {@code permits} concurrent native calls
+     * @param permits maximum number of concurrent native calls
+     * @return bounded gate
+     * @exception IllegalArgumentException if {@code permits} is less than 1
+     */
+    public static NativeCallGate bounded(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be greater than zero");
+        }
+        return new NativeCallGate(permits);
+    }
+
+    /**
+     * Runs {@code nativeCall} once admitted by the gate
+     * @param operation name of the native function, used in JFR events
+     * @param nativeCall the native call
+     * @return result of {@code nativeCall}
+     */
+    public <T> T call(String operation, Supplier<T> nativeCall) {
+        acquire(operation);
+        var pinned = isVirtual(Thread.currentThread()) ? new NativeCallPinnedEvent() : null;
+        if (pinned != null) {
+            pinned.begin();
+        }
+        inFlight.incrementAndGet();
+        try {
+            return nativeCall.get();
+        } finally {
+            inFlight.decrementAndGet();
+            if (pinned != null) {
+                virtualThreadCallCount.increment();
+                pinned.end();
+                if (pinned.shouldCommit()) {
+                    pinned.operation = operation;
+                    pinned.commit();
+                }
+            }
+            if (semaphore != null) {
+                semaphore.release();
+            }
+        }
+    }
+
+    /**
+     * maximum number of concurrent native calls, 0 when unbounded
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * Returns true if the gate limits concurrent native calls
+     * @return true if the gate is bounded
+     */
+    public boolean isBounded() {
+        return semaphore != null;
+    }
+
+    /**
+     * number of native calls currently in progress
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * number of callers currently waiting to be admitted
+     */
+    public int getQueueLength() {
+        return semaphore != null ? semaphore.getQueueLength() : 0;
+    }
+
+    /**
+     * number of native calls admitted
+     */
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    /**
+     * number of native calls which had to wait to be admitted
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * total time callers spent waiting to be admitted
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * longest time a caller spent waiting to be admitted
+     */
+    public long getMaximumWaitNanos() {
+        return maximumWaitNanos.get();
+    }
+
+    /**
+     * number of native calls made from virtual threads, each of which
+     * pinned its carrier thread for the duration of the call
+     */
+    public long getVirtualThreadCallCount() {
+        return virtualThreadCallCount.sum();
+    }
+
+    private void acquire(String operation) {
+        callCount.increment();
+        if (semaphore == null || semaphore.tryAcquire()) {
+            return;
+        }
+
+        var event = new NativeCallGateWaitEvent();
+        event.begin();
+        var started = System.nanoTime();
+        semaphore.acquireUninterruptibly();
+        var waited = System.nanoTime() - started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.permits = permits;
+            event.commit();
+        }
+
+        waitCount.increment();
+        totalWaitNanos.add(waited);
+        maximumWaitNanos.accumulate(waited);
+    }
+
+    /**
+     * Returns true if {@code thread} is a virtual thread, always false
+     * before JDK 21
+     * @param thread thread to check
+     * @return true if {@code thread} is virtual
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
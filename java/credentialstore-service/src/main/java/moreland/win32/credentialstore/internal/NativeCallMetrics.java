@@ -0,0 +1,154 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import moreland.win32.credentialstore.ExpectedErrorCode;
+
+/**
+ * Always-on measurements of the native calls made by
+ * {@code Win32NativeInteropBridge}: the latency of each advapi32 function,
+ * the time spent waiting for lock stripes, the number of credentials
+ * returned by each enumeration, the size of each credential blob written
+ * or read, and the number of failed calls by error code.
+ * <p>
+ * Recording never blocks and, once each function has been seen, never
+ * allocates.
+ */
+public final class NativeCallMetrics {
+
+    /**
+     * key of the error count for codes which are not an {@code ExpectedErrorCode}
+     */
+    public static final String OTHER_ERROR = "OTHER";
+
+    private final ConcurrentHashMap<String, LatencyHistogram> latency = new ConcurrentHashMap<>();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LatencyHistogram enumerationSize = new LatencyHistogram();
+    private final LatencyHistogram blobSize = new LatencyHistogram();
+    private final EnumMap<ExpectedErrorCode, LongAdder> errors = new EnumMap<>(ExpectedErrorCode.class);
+    private final LongAdder otherErrors = new LongAdder();
+
+    public NativeCallMetrics() {
+        for (var errorCode : ExpectedErrorCode.values()) {
+            errors.put(errorCode, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the duration of a call to {@code function}
+     * @param function name of the advapi32 function
+     * @param nanos duration of the call in nanoseconds
+     */
+    public void recordCall(String function, long nanos) {
+        var histogram = latency.get(function);
+        if (histogram == null) {
+            histogram = latency.computeIfAbsent(function, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records the error code of a failed call
+     * @param errorCode Win32 error code reported by the call
+     */
+    public void recordError(int errorCode) {
+        var expected = ExpectedErrorCode.fromInteger(errorCode);
+        if (expected.isPresent()) {
+            errors.get(expected.get()).increment();
+        } else {
+            otherErrors.increment();
+        }
+    }
+
+    /**
+     * Records the time spent acquiring the lock stripes of a call
+     * @param nanos time spent waiting in nanoseconds
+     */
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    /**
+     * Records the number of credentials returned by an enumeration
+     * @param count number of credentials returned
+     */
+    public void recordEnumerationSize(int count) {
+        enumerationSize.record(count);
+    }
+
+    /**
+     * Records the size of a credential blob written or read
+     * @param size size of the blob in bytes
+     */
+    public void recordBlobSize(int size) {
+        blobSize.record(size);
+    }
+
+    /**
+     * latency in nanoseconds of each advapi32 function called at least once
+     */
+    public Map<String, LatencyHistogram> getLatency() {
+        return Collections.unmodifiableMap(latency);
+    }
+
+    /**
+     * time in nanoseconds spent acquiring lock stripes
+     */
+    public LatencyHistogram getLockWait() {
+        return lockWait;
+    }
+
+    /**
+     * number of credentials returned by each enumeration
+     */
+    public LatencyHistogram getEnumerationSize() {
+        return enumerationSize;
+    }
+
+    /**
+     * size in bytes of each credential blob written or read
+     */
+    public LatencyHistogram getBlobSize() {
+        return blobSize;
+    }
+
+    /**
+     * number of failed calls by {@code ExpectedErrorCode} name, codes which
+     * are not expected are counted under {@code OTHER_ERROR}
+     */
+    public Map<String, Long> getErrorCounts() {
+        var counts = new LinkedHashMap<String, Long>();
+        errors.forEach((errorCode, count) -> counts.put(errorCode.name(), count.sum()));
+        counts.put(OTHER_ERROR, otherErrors.sum());
+        return counts;
+    }
+
+    /**
+     * discards every recorded value
+     */
+    public void reset() {
+        latency.values().forEach(LatencyHistogram::reset);
+        lockWait.reset();
+        enumerationSize.reset();
+        blobSize.reset();
+        errors.values().forEach(LongAdder::reset);
+        otherErrors.reset();
+    }
+}
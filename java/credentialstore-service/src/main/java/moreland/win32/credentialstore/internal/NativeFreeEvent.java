@@ -0,0 +1,45 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * native buffer returned by advapi32 freed by {@code CredentialList} or
+ * {@code CriticalCredentialHandle}
+ */
+@Name("moreland.credentialstore.NativeFree")
+@Label("Native Credential Free")
+@Category({"Credential Store"})
+@Description("CredFree of a buffer returned by advapi32")
+@StackTrace(false)
+@Threshold("1 ms")
+final class NativeFreeEvent extends jdk.jfr.Event {
+
+    @Label("Owner")
+    @Description("type which owned the freed buffer")
+    String owner;
+
+    @Label("Element Count")
+    @Description("number of credentials held by the freed buffer")
+    int elementCount;
+
+    @Label("Error Code")
+    @Description("Win32 error code, 0 on success")
+    int errorCode;
+}
@@ -12,18 +12,20 @@
 //
 package moreland.win32.credentialstore.internal;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.sun.jna.LastErrorException;
 import com.sun.jna.Pointer;
 
 import moreland.win32.credentialstore.BadInjectionException;
+import moreland.win32.credentialstore.CredentialKey;
 import moreland.win32.credentialstore.CredentialType;
 
 import moreland.win32.credentialstore.structures.Credential;
 
 public interface NativeInteropBridge {
-    
+
     /**
      * Deletes a credential from the users credential set
      * @param target
@@ -79,4 +81,43 @@ public interface NativeInteropBridge {
      */
     boolean credWrite(Credential.ByReference credential, PreserveType flags) throws LastErrorException;
 
+    /**
+     * Creates or updates a credential without building a {@code Credential}
+     * structure, the target name, user name and secret are written to a
+     * pooled {@code NativeArena}; a secret held in a
+     * {@code SecretBuffer} is passed without copying
+     * @param credential credential to be written.
+     * @param flags Flags that control the function's operation.
+     * @exception LastErrorException if operation fails
+     */
+    boolean credWrite(moreland.win32.credentialstore.Credential credential, PreserveType flags) throws LastErrorException;
+
+    /**
+     * Deletes each credential in {@code keys}, the locks of every affected
+     * credential are acquired once for the whole batch
+     * @param keys credentials to delete
+     * @return error code of each delete in the order of {@code keys}, 0 on success
+     */
+    int[] credDeleteAll(List<CredentialKey> keys);
+
+    /**
+     * Reads each credential in {@code keys}, the locks of every affected
+     * credential are acquired once for the whole batch
+     * @param keys credentials to read
+     * @param errorCodes receives the error code of each read in the order
+     *                   of {@code keys}, 0 on success; must be at least as
+     *                   long as {@code keys}
+     * @return handle for each credential in the order of {@code keys}, empty
+     *         where the read failed. Every handle must be closed by the caller
+     */
+    List<CriticalCredentialHandle> credReadAll(List<CredentialKey> keys, int[] errorCodes) throws BadInjectionException;
+
+    /**
+     * Creates or updates each credential in {@code credentials}, the locks
+     * of every affected credential are acquired once for the whole batch
+     * @param credentials credential structures to be written
+     * @param flags Flags that control the function's operation.
+     * @return error code of each write in the order of {@code credentials}, 0 on success
+     */
+    int[] credWriteAll(List<Credential.ByReference> credentials, PreserveType flags);
 }
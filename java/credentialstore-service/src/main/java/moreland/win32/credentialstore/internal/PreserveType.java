@@ -12,7 +12,6 @@
 //
 package moreland.win32.credentialstore.internal;
 
-import java.util.Arrays;
 
 public enum PreserveType {
     /**
@@ -32,10 +31,9 @@ public enum PreserveType {
     }
 
     public static PreserveType fromInteger(int value) {
-        var match = Arrays.stream(PreserveType.class.getEnumConstants())
-            .filter(enumValue -> enumValue.getValue() == value)
-            .findFirst();
-        return match.orElse(PreserveType.NONE);
+        return value == PRESERVE_CREDENTIAL_BLOB.value
+            ? PRESERVE_CREDENTIAL_BLOB
+            : NONE;
     }
 
     private final int value;
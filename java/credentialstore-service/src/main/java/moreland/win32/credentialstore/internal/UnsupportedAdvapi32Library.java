@@ -89,4 +89,42 @@ class UnsupportedAdvapi32Library implements Advapi32Library {
         credentialsPtr.setValue(Pointer.NULL);
         throw new LastErrorException(ExpectedErrorCode.NOT_SUPPORTED.getValue());
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException {
+        logger.error(ERROR_MESSAGE);
+        credential.setPointer(0, Pointer.NULL);
+        throw new LastErrorException(ExpectedErrorCode.NOT_SUPPORTED.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException {
+        logger.error(ERROR_MESSAGE);
+        throw new LastErrorException(ExpectedErrorCode.NOT_SUPPORTED.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException {
+        logger.error(ERROR_MESSAGE);
+        throw new LastErrorException(ExpectedErrorCode.NOT_SUPPORTED.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException {
+        logger.error(ERROR_MESSAGE);
+        credentialsPtr.setPointer(0, Pointer.NULL);
+        throw new LastErrorException(ExpectedErrorCode.NOT_SUPPORTED.getValue());
+    }
 }
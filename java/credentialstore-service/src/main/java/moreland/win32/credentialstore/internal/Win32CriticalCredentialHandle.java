@@ -27,6 +27,7 @@ import moreland.win32.credentialstore.structures.Credential;
 public final class Win32CriticalCredentialHandle implements CriticalCredentialHandle {
 
     private final Advapi32Library advapi32;
+    private final NativeCallGate gate;
     private final Optional<Credential> credential;
     private final ErrorToStringService errorToStringService;
     private final Logger logger;
@@ -36,6 +37,7 @@ public final class Win32CriticalCredentialHandle implements CriticalCredentialHa
 
         Guard.againstNull(advapi32, "advapi32");
         this.advapi32 = advapi32;
+        this.gate = NativeCallGate.unbounded();
 
         Pointer ptr = credentialPtr != null
             ? credentialPtr.getValue()
@@ -61,8 +63,20 @@ public final class Win32CriticalCredentialHandle implements CriticalCredentialHa
 
     public Win32CriticalCredentialHandle(Advapi32Library advapi32, Pointer credentialPtr, 
             ErrorToStringService errorToStringService, Logger logger) throws Exception {
+        this(advapi32, credentialPtr, NativeCallGate.unbounded(), errorToStringService, logger);
+    }
+
+    /**
+     * Instantiates a new instance of the Win32CriticalCredentialHandle class
+     * freeing {@code credentialPtr} through {@code gate}
+     * @exception IllegalArgumentException if any argument other than {@code credentialPtr} is null
+     */
+    public Win32CriticalCredentialHandle(Advapi32Library advapi32, Pointer credentialPtr, NativeCallGate gate,
+            ErrorToStringService errorToStringService, Logger logger) throws Exception {
         Guard.againstNull(advapi32, "advapi32");
+        Guard.againstNull(gate, "gate");
         this.advapi32 = advapi32;
+        this.gate = gate;
         this.credential = credentialPtr != null
             ? Optional.of(new Credential(credentialPtr))
             : Optional.empty();
@@ -101,15 +115,29 @@ public final class Win32CriticalCredentialHandle implements CriticalCredentialHa
      */
     @Override
     public void close() throws Exception {
-        try {
-            if (credential.isPresent()) {
-                advapi32.CredFree(credential.get().getPointer());
-            }
+        if (credential.isEmpty()) {
+            return;
+        }
 
+        var event = new NativeFreeEvent();
+        event.begin();
+        var errorCode = 0;
+        try {
+            var pointer = credential.get().getPointer();
+            gate.call("CredFree", () -> advapi32.CredFree(pointer));
         } catch (LastErrorException e) {
+            errorCode = e.getErrorCode();
             if (logger != null && errorToStringService != null)  {
                 logger.error(errorToStringService.getMessageFor(e.getErrorCode()).orElse("Unknown error occurred."), e);
             }
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.owner = "CriticalCredentialHandle";
+                event.elementCount = 1;
+                event.errorCode = errorCode;
+                event.commit();
+            }
         }
     }
 
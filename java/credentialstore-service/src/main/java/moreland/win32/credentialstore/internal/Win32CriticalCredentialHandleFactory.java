@@ -64,6 +64,18 @@ public class Win32CriticalCredentialHandleFactory implements CriticalCredentialH
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CriticalCredentialHandle fromPointer(Pointer pointer, NativeCallGate gate) throws BadInjectionException {
+        try {
+            return new Win32CriticalCredentialHandle(advapi32, pointer, gate, errorToStringService, logger);
+        } catch (Exception e) {
+            throw new BadInjectionException(e);
+        }
+    }
+
     /**
      * returns a new instance with an empty handle, used for error conditions
      * @return empty handle
@@ -12,42 +12,102 @@
 //
 package moreland.win32.credentialstore.internal;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
 
 import com.sun.jna.LastErrorException;
 import com.sun.jna.Pointer;
-import com.sun.jna.ptr.IntByReference;
-import com.sun.jna.ptr.PointerByReference;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.sun.jna.WString;
-
 import moreland.win32.credentialstore.BadInjectionException;
+import moreland.win32.credentialstore.BulkItemResult;
+import moreland.win32.credentialstore.CredentialKey;
 import moreland.win32.credentialstore.CredentialType;
 import moreland.win32.credentialstore.Guard;
 import moreland.win32.credentialstore.structures.Credential;
 
+/**
+ * Thin wrapper around {@code Advapi32Library} serializing access per
+ * credential rather than per library; reads of the same credential share
+ * a lock stripe, writes and deletes of the same credential are exclusive
+ * <p>
+ * Every native call is admitted through a {@code NativeCallGate} and no
+ * monitor is held around it, so callers on virtual threads only ever park
+ * on {@code java.util.concurrent} locks which release their carrier.
+ * <p>
+ * The latency of each native call, the time spent acquiring lock stripes,
+ * enumeration and blob sizes and failed calls are recorded to a
+ * {@code NativeCallMetrics} and each native call is reported to JFR as a
+ * {@code moreland.credentialstore.NativeCall} event.
+ */
 @Component("nativeInteropBridge")
 public final class Win32NativeInteropBridge implements NativeInteropBridge {
 
-    private Advapi32Library advapi32;
-    private CriticalCredentialHandleFactory criticalCredentialHandleFactory;
+    private final Advapi32Library advapi32;
+    private final CriticalCredentialHandleFactory criticalCredentialHandleFactory;
+    private final LockStripes lockStripes;
+    private final EnumerationConsistency enumerationConsistency;
+    private final NativeCallGate gate;
+    private final NativeCallMetrics metrics;
 
     /**
-     * creates a new instance of the Win32NativeInteropBridge class
+     * creates a new instance of the Win32NativeInteropBridge class using
+     * {@code EnumerationConsistency.WEAK}, the default number of stripes,
+     * an unbounded {@code NativeCallGate} and its own {@code NativeCallMetrics}
      * 
-     * @param advapi Advapi32 library interface
-     * @exception IllegalArgumentException when advapi parameter is null
+     * @param advapi32 Advapi32 library interface
+     * @param criticalCredentialHandleFactory factory used to wrap read results
+     * @exception IllegalArgumentException when any parameter is null
+     * @see #builder(Advapi32Library, CriticalCredentialHandleFactory)
      */
     public Win32NativeInteropBridge(Advapi32Library advapi32, CriticalCredentialHandleFactory criticalCredentialHandleFactory) {
-        super();
+        this(builder(advapi32, criticalCredentialHandleFactory));
+    }
+
+    /**
+     * creates a new instance of the Win32NativeInteropBridge class using
+     * {@code EnumerationConsistency.WEAK} and the default number of stripes,
+     * the constructor used by the component scan
+     * 
+     * @param advapi32 Advapi32 library interface
+     * @param criticalCredentialHandleFactory factory used to wrap read results
+     * @param gate admission control for native calls
+     * @param metrics receives the measurements of each native call
+     * @exception IllegalArgumentException when any parameter is null
+     * @see #builder(Advapi32Library, CriticalCredentialHandleFactory)
+     */
+    @Autowired
+    public Win32NativeInteropBridge(Advapi32Library advapi32, CriticalCredentialHandleFactory criticalCredentialHandleFactory,
+            NativeCallGate gate, NativeCallMetrics metrics) {
+        this(builder(advapi32, criticalCredentialHandleFactory).gate(gate).metrics(metrics));
+    }
 
-        Guard.againstNull(advapi32, "advapi32");
-        Guard.againstNull(criticalCredentialHandleFactory, "criticalCredentialHandleFactory");
+    private Win32NativeInteropBridge(Builder builder) {
+        super();
+        this.advapi32 = builder.advapi32;
+        this.criticalCredentialHandleFactory = builder.criticalCredentialHandleFactory;
+        this.enumerationConsistency = builder.enumerationConsistency;
+        this.lockStripes = new LockStripes(builder.stripeCount);
+        this.gate = builder.gate;
+        this.metrics = builder.metrics != null ? builder.metrics : new NativeCallMetrics();
+    }
 
-        this.advapi32 = advapi32;
-        this.criticalCredentialHandleFactory = criticalCredentialHandleFactory;
+    /**
+     * Returns a builder for a bridge over {@code advapi32}, any setting not
+     * given uses the defaults of the two argument constructor
+     * @param advapi32 Advapi32 library interface
+     * @param criticalCredentialHandleFactory factory used to wrap read results
+     * @return new builder
+     * @exception IllegalArgumentException when any parameter is null
+     */
+    public static Builder builder(Advapi32Library advapi32, CriticalCredentialHandleFactory criticalCredentialHandleFactory) {
+        return new Builder(advapi32, criticalCredentialHandleFactory);
     }
 
     /**
@@ -55,8 +115,15 @@ public final class Win32NativeInteropBridge implements NativeInteropBridge {
      */
     @Override
     public boolean credDelete(String target, int type, int flags) throws LastErrorException {
-        synchronized(advapi32) {
-            return advapi32.CredDeleteW(new WString(target), type, flags);
+        try (var arena = NativeArena.acquire()) {
+            var targetName = arena.target(target);
+            var lock = lockStripes.forKey(target, type).writeLock();
+            var lockWait = lock(lock);
+            try {
+                return call("CredDeleteW", target, type, lockWait, null, () -> advapi32.CredDeleteW(targetName, type, flags));
+            } finally {
+                lock.unlock();
+            }
         }
     }
 
@@ -65,14 +132,30 @@ public final class Win32NativeInteropBridge implements NativeInteropBridge {
      */
     @Override
     public CredentialList credEnumerate(Optional<String> filter, EnumerateFlag flag) throws LastErrorException {
+        try (var arena = NativeArena.acquire()) {
+            var target = arena.target(filter.orElse(null));
+            var count = arena.outCount();
+            var credentialsPtr = arena.outPointer();
+            var snapshot = enumerationConsistency == EnumerationConsistency.SNAPSHOT;
 
-        var count = new IntByReference();
-        var credentialsPtr = new PointerByReference();
-
-        synchronized(advapi32) {
-            return advapi32.CredEnumerateW(filter.map(WString::new).orElse(null), flag.getValue(), count, credentialsPtr)
-                ? new CredentialList(credentialsPtr.getValue(), count.getValue(), advapi32)
-                : CredentialList.empty();
+            var lockWait = 0L;
+            if (snapshot) {
+                var started = System.nanoTime();
+                lockStripes.lockAllForRead();
+                lockWait = lockWaitSince(started);
+            }
+            try {
+                if (!call("CredEnumerateW", filter.orElse(null), 0, lockWait, count,
+                        () -> advapi32.CredEnumerateW(target, flag.getValue(), count, credentialsPtr))) {
+                    return CredentialList.empty();
+                }
+                metrics.recordEnumerationSize(arena.outCountValue());
+                return new CredentialList(arena.outPointerValue(), arena.outCountValue(), advapi32, gate);
+            } finally {
+                if (snapshot) {
+                    lockStripes.unlockAllForRead();
+                }
+            }
         }
     }
 
@@ -81,9 +164,8 @@ public final class Win32NativeInteropBridge implements NativeInteropBridge {
      */
     @Override
     public boolean credFree(Pointer handle) throws LastErrorException {
-        synchronized(advapi32) {
-            return advapi32.CredFree(handle);
-        }
+        // each buffer is owned by a single caller, there is nothing to serialize
+        return call("CredFree", null, 0, 0L, null, () -> advapi32.CredFree(handle));
     }
 
     /**
@@ -91,13 +173,25 @@ public final class Win32NativeInteropBridge implements NativeInteropBridge {
      */
     @Override
     public CriticalCredentialHandle credRead(String target, CredentialType type, int reservedFlag) throws LastErrorException, BadInjectionException {
-
-        var credentialPtr = new PointerByReference();
-        synchronized(advapi32) {
-            if (!advapi32.CredReadW(new WString(target), type.getValue(), reservedFlag, credentialPtr))
-                return criticalCredentialHandleFactory.empty();
+        try (var arena = NativeArena.acquire()) {
+            var targetName = arena.target(target);
+            var credentialPtr = arena.outPointer();
+            Pointer credential;
+            var lock = lockStripes.forKey(target, type.getValue()).readLock();
+            var lockWait = lock(lock);
+            try {
+                if (!call("CredReadW", target, type.getValue(), lockWait, null,
+                        () -> advapi32.CredReadW(targetName, type.getValue(), reservedFlag, credentialPtr)))
+                    return criticalCredentialHandleFactory.empty();
+                credential = arena.outPointerValue();
+                if (credential != null) {
+                    metrics.recordBlobSize(credential.getInt(CredentialLayout.CREDENTIAL_BLOB_SIZE));
+                }
+            } finally {
+                lock.unlock();
+            }
+            return criticalCredentialHandleFactory.fromPointer(credential, gate);
         }
-        return criticalCredentialHandleFactory.fromPointerByReference(credentialPtr);
     }
 
     /**
@@ -105,9 +199,320 @@ public final class Win32NativeInteropBridge implements NativeInteropBridge {
      */
     @Override
     public boolean credWrite(Credential.ByReference credential, PreserveType flags) throws LastErrorException {
-        synchronized(advapi32) {
-            return advapi32.CredWriteW(credential, flags.getValue());
+        metrics.recordBlobSize(credential.credentialBlobSize);
+        var target = targetOf(credential);
+        var lock = lockStripes.forKey(target, credential.type).writeLock();
+        var lockWait = lock(lock);
+        try {
+            return call("CredWriteW", target, credential.type, lockWait, null,
+                () -> advapi32.CredWriteW(credential, flags.getValue()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean credWrite(moreland.win32.credentialstore.Credential credential, PreserveType flags) throws LastErrorException {
+        try (var arena = NativeArena.acquire()) {
+            var target = arena.target(credential.getId());
+            var userName = arena.userName(credential.getUsername());
+            var type = credential.getType().getValue();
+            var persist = credential.getPersistenceType().getValue();
+            var secretBuffer = credential.getSecretBuffer();
+
+            Pointer nativeCredential;
+            if (secretBuffer.isPresent()) {
+                nativeCredential = arena.credential(0, type, target, userName, persist, secretBuffer.get());
+            } else if (credential.getSecret() != null && !credential.getSecret().isEmpty()) {
+                var secret = credential.getSecret();
+                nativeCredential = arena.credential(0, type, target, userName, persist, arena.blob(secret), NativeArena.blobSize(secret));
+            } else {
+                nativeCredential = arena.credential(0, type, target, userName, persist, null, 0);
+            }
+            arena.attributes(credential.getAttributes());
+            metrics.recordBlobSize(nativeCredential.getInt(CredentialLayout.CREDENTIAL_BLOB_SIZE));
+
+            var lock = lockStripes.forKey(credential.getId(), type).writeLock();
+            var lockWait = lock(lock);
+            try {
+                return call("CredWriteW", credential.getId(), type, lockWait, null,
+                    () -> advapi32.CredWriteW(nativeCredential, flags.getValue()));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] credDeleteAll(List<CredentialKey> keys) {
+        try (var arena = NativeArena.acquire()) {
+            var errorCodes = new int[keys.size()];
+            var stripes = new BitSet(lockStripes.size());
+            for (var key : keys) {
+                stripes.set(lockStripes.indexFor(key.getId(), key.getType().getValue()));
+            }
+
+            var started = System.nanoTime();
+            lockStripes.lockForWrite(stripes);
+            var lockWait = lockWaitSince(started);
+            try {
+                for (int i = 0; i < errorCodes.length; i++) {
+                    var key = keys.get(i);
+                    try {
+                        var target = arena.target(key.getId());
+                        if (!call("CredDeleteW", key.getId(), key.getType().getValue(), lockWait, null,
+                                () -> advapi32.CredDeleteW(target, key.getType().getValue(), 0))) {
+                            errorCodes[i] = BulkItemResult.UNKNOWN_ERROR_CODE;
+                        }
+                    } catch (LastErrorException e) {
+                        errorCodes[i] = e.getErrorCode();
+                    }
+                }
+            } finally {
+                lockStripes.unlockForWrite(stripes);
+            }
+            return errorCodes;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CriticalCredentialHandle> credReadAll(List<CredentialKey> keys, int[] errorCodes) throws BadInjectionException {
+        var stripes = new BitSet(lockStripes.size());
+        for (var key : keys) {
+            stripes.set(lockStripes.indexFor(key.getId(), key.getType().getValue()));
+        }
+
+        var credentials = new Pointer[keys.size()];
+        try (var arena = NativeArena.acquire()) {
+            var started = System.nanoTime();
+            lockStripes.lockForRead(stripes);
+            var lockWait = lockWaitSince(started);
+            try {
+                for (int i = 0; i < credentials.length; i++) {
+                    var key = keys.get(i);
+                    var targetName = arena.target(key.getId());
+                    var credentialPtr = arena.outPointer();
+                    try {
+                        if (call("CredReadW", key.getId(), key.getType().getValue(), lockWait, null,
+                                () -> advapi32.CredReadW(targetName, key.getType().getValue(), 0, credentialPtr))) {
+                            credentials[i] = arena.outPointerValue();
+                        } else {
+                            errorCodes[i] = BulkItemResult.UNKNOWN_ERROR_CODE;
+                        }
+                    } catch (LastErrorException e) {
+                        errorCodes[i] = e.getErrorCode();
+                    }
+                }
+            } finally {
+                lockStripes.unlockForRead(stripes);
+            }
+        }
+
+        var handles = new ArrayList<CriticalCredentialHandle>(credentials.length);
+        for (var credential : credentials) {
+            handles.add(credential != null
+                ? criticalCredentialHandleFactory.fromPointer(credential, gate)
+                : criticalCredentialHandleFactory.empty());
+        }
+        return handles;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] credWriteAll(List<Credential.ByReference> credentials, PreserveType flags) {
+        var errorCodes = new int[credentials.size()];
+        var stripes = new BitSet(lockStripes.size());
+        for (var credential : credentials) {
+            stripes.set(lockStripes.indexFor(targetOf(credential), credential.type));
+        }
+
+        var started = System.nanoTime();
+        lockStripes.lockForWrite(stripes);
+        var lockWait = lockWaitSince(started);
+        try {
+            for (int i = 0; i < errorCodes.length; i++) {
+                var credential = credentials.get(i);
+                metrics.recordBlobSize(credential.credentialBlobSize);
+                try {
+                    if (!call("CredWriteW", targetOf(credential), credential.type, lockWait, null,
+                            () -> advapi32.CredWriteW(credential, flags.getValue()))) {
+                        errorCodes[i] = BulkItemResult.UNKNOWN_ERROR_CODE;
+                    }
+                } catch (LastErrorException e) {
+                    errorCodes[i] = e.getErrorCode();
+                }
+            }
+        } finally {
+            lockStripes.unlockForWrite(stripes);
         }
+        return errorCodes;
+    }
+
+    /**
+     * Returns the consistency mode used by {@code credEnumerate}
+     * @return the consistency mode used by {@code credEnumerate}
+     */
+    public EnumerationConsistency getEnumerationConsistency() {
+        return enumerationConsistency;
     }
 
+    /**
+     * Returns the measurements recorded by this bridge
+     * @return the measurements recorded by this bridge
+     */
+    public NativeCallMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * makes {@code nativeCall} through the gate, recording its duration and
+     * the error code when it fails; the event fields are only computed when
+     * the event is committed
+     * @param target target name of the call, may be null
+     * @param type credential type of the call, 0 when it has none
+     * @param lockWait nanoseconds spent acquiring the locks held for the call
+     * @param count out-parameter receiving the number of enumerated credentials, may be null
+     */
+    private boolean call(String function, String target, int type, long lockWait, Pointer count, Supplier<Boolean> nativeCall) {
+        var event = new NativeCallEvent();
+        event.begin();
+        var started = System.nanoTime();
+        var errorCode = 0;
+        var succeeded = false;
+        try {
+            succeeded = gate.call(function, nativeCall);
+            if (!succeeded) {
+                errorCode = BulkItemResult.UNKNOWN_ERROR_CODE;
+                metrics.recordError(errorCode);
+            }
+            return succeeded;
+        } catch (LastErrorException e) {
+            errorCode = e.getErrorCode();
+            metrics.recordError(errorCode);
+            throw e;
+        } finally {
+            metrics.recordCall(function, System.nanoTime() - started);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = function;
+                event.credentialType = type > 0 ? CredentialType.fromInteger(type).name() : null;
+                event.targetHash = NativeCallEvent.hash(target);
+                event.elementCount = succeeded && count != null ? count.getInt(0) : 0;
+                event.lockWait = lockWait;
+                event.errorCode = errorCode;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * acquires {@code lock}
+     * @return nanoseconds spent waiting for it
+     */
+    private long lock(Lock lock) {
+        var started = System.nanoTime();
+        lock.lock();
+        return lockWaitSince(started);
+    }
+
+    private long lockWaitSince(long started) {
+        var waited = System.nanoTime() - started;
+        metrics.recordLockWait(waited);
+        return waited;
+    }
+
+    private static String targetOf(Credential credential) {
+        return credential.targetName != null
+            ? credential.targetName.toString()
+            : null;
+    }
+
+    /**
+     * Settings of a {@code Win32NativeInteropBridge}, see {@code builder}
+     */
+    public static final class Builder {
+
+        private final Advapi32Library advapi32;
+        private final CriticalCredentialHandleFactory criticalCredentialHandleFactory;
+        private EnumerationConsistency enumerationConsistency = EnumerationConsistency.WEAK;
+        private int stripeCount = LockStripes.DEFAULT_STRIPE_COUNT;
+        private NativeCallGate gate = NativeCallGate.unbounded();
+        private NativeCallMetrics metrics;
+
+        private Builder(Advapi32Library advapi32, CriticalCredentialHandleFactory criticalCredentialHandleFactory) {
+            Guard.againstNull(advapi32, "advapi32");
+            Guard.againstNull(criticalCredentialHandleFactory, "criticalCredentialHandleFactory");
+
+            this.advapi32 = advapi32;
+            this.criticalCredentialHandleFactory = criticalCredentialHandleFactory;
+        }
+
+        /**
+         * @param enumerationConsistency consistency mode used by {@code credEnumerate},
+         *                               {@code WEAK} when not set
+         * @return this builder
+         * @exception IllegalArgumentException when {@code enumerationConsistency} is null
+         */
+        public Builder enumerationConsistency(EnumerationConsistency enumerationConsistency) {
+            Guard.againstNull(enumerationConsistency, "enumerationConsistency");
+            this.enumerationConsistency = enumerationConsistency;
+            return this;
+        }
+
+        /**
+         * @param stripeCount number of lock stripes, rounded up to a power of
+         *                    two; {@code LockStripes.DEFAULT_STRIPE_COUNT} when not set
+         * @return this builder
+         * @exception IllegalArgumentException when {@code stripeCount} is less than 1
+         */
+        public Builder stripeCount(int stripeCount) {
+            if (stripeCount < 1) {
+                throw new IllegalArgumentException("stripeCount must be greater than zero");
+            }
+            this.stripeCount = stripeCount;
+            return this;
+        }
+
+        /**
+         * @param gate admission control for native calls, unbounded when not set
+         * @return this builder
+         * @exception IllegalArgumentException when {@code gate} is null
+         */
+        public Builder gate(NativeCallGate gate) {
+            Guard.againstNull(gate, "gate");
+            this.gate = gate;
+            return this;
+        }
+
+        /**
+         * @param metrics receives the measurements of each native call, a
+         *                new instance owned by the bridge when not set
+         * @return this builder
+         * @exception IllegalArgumentException when {@code metrics} is null
+         */
+        public Builder metrics(NativeCallMetrics metrics) {
+            Guard.againstNull(metrics, "metrics");
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Returns a new bridge with the settings of this builder
+         * @return new bridge
+         */
+        public Win32NativeInteropBridge build() {
+            return new Win32NativeInteropBridge(this);
+        }
+    }
 }
@@ -12,8 +12,10 @@
 //
 package moreland.win32.credentialstore.structures;
 
+import com.sun.jna.Pointer;
 import com.sun.jna.Structure;
 import com.sun.jna.Structure.FieldOrder;
+import com.sun.jna.WString;
 
 /**
  * The CREDENTIAL_ATTRIBUTE structure contains an application-defined 
@@ -30,7 +32,7 @@ public class CredentialAttribute extends Structure {
      * (256) characters.
      */
     @SuppressWarnings({"java:S1104"})
-    public String keyword = "";
+    public WString keyword;
 
     /**
      * Identifies characteristics of the credential attribute. This member is 
@@ -57,9 +59,24 @@ public class CredentialAttribute extends Structure {
      * alignment of the data in Value.
      */
     @SuppressWarnings({"java:S1104"})
-    public byte[] value = new byte[256];
+    public Pointer value;
 
     public static class ByReference extends CredentialAttribute implements Structure.ByReference {
+        public ByReference() {
+            super();
+        }
+        public ByReference(Pointer memory) {
+            super(memory);
+        }
+    }
+
+    public CredentialAttribute() {
+        super();
+    }
+
+    public CredentialAttribute(Pointer memory) {
+        super(memory);
+        read();
     }
 
 }
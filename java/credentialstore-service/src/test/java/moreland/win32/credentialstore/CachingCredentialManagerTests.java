@@ -0,0 +1,269 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCredentialManagerTests {
+
+    private static final String ID = "target";
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    @Mock
+    private CredentialManager delegate;
+
+    private final AtomicLong ticker = new AtomicLong();
+    private CachingCredentialManager cachingManager;
+    private Credential credential;
+
+    @BeforeEach
+    void beforeEach() {
+        cachingManager = new CachingCredentialManager(delegate, 4, TIME_TO_LIVE, ticker::get);
+        credential = credential(ID);
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenDelegateIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingCredentialManager(null, 4, TIME_TO_LIVE));
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenMaximumSizeIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingCredentialManager(delegate, 0, TIME_TO_LIVE));
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenTimeToLiveIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingCredentialManager(delegate, 4, Duration.ZERO));
+    }
+
+    @Test
+    void find_callsDelegateOnce_whenRepeated() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        var actual = cachingManager.find(ID.toUpperCase(), CredentialType.GENERIC);
+
+        assertEquals(Optional.of(credential), actual);
+        verify(delegate, times(1)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void find_cachesEmptyResult() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.empty());
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        var actual = cachingManager.find(ID, CredentialType.GENERIC);
+
+        assertTrue(actual.isEmpty());
+        verify(delegate, times(1)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void find_callsDelegate_whenEntryHasExpired() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        ticker.addAndGet(TIME_TO_LIVE.toNanos());
+        cachingManager.find(ID, CredentialType.GENERIC);
+
+        verify(delegate, times(2)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void add_invalidatesCachedEntry() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.empty());
+        when(delegate.add(credential)).thenReturn(true);
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        cachingManager.add(credential);
+        cachingManager.find(ID, CredentialType.GENERIC);
+
+        verify(delegate, times(2)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void update_invalidatesCachedEntry() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+        when(delegate.update(credential)).thenReturn(true);
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        cachingManager.update(credential);
+        cachingManager.find(ID, CredentialType.GENERIC);
+
+        verify(delegate, times(2)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void delete_invalidatesCachedEntry() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+        when(delegate.delete(ID, CredentialType.GENERIC)).thenReturn(true);
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        assertTrue(cachingManager.delete(ID, CredentialType.GENERIC));
+        cachingManager.find(ID, CredentialType.GENERIC);
+
+        verify(delegate, times(2)).find(ID, CredentialType.GENERIC);
+    }
+
+    @Test
+    void find_evictsLeastRecentlyUsed_whenFullAndCandidateIsMoreFrequent() {
+        for (int i = 0; i < 4; i++) {
+            stubAndFind("target-" + i);
+        }
+        when(delegate.find("popular", CredentialType.GENERIC)).thenReturn(Optional.empty());
+        cachingManager.find("popular", CredentialType.GENERIC);
+        cachingManager.find("popular", CredentialType.GENERIC);
+
+        var statistics = cachingManager.getStatistics();
+        assertEquals(4, statistics.getSize());
+        assertEquals(1, statistics.getEvictionCount());
+
+        cachingManager.find("popular", CredentialType.GENERIC);
+        verify(delegate, times(2)).find("popular", CredentialType.GENERIC);
+    }
+
+    @Test
+    void find_doesNotAdmitCandidate_whenLessFrequentThanVictim() {
+        for (int i = 0; i < 4; i++) {
+            stubAndFind("target-" + i);
+            cachingManager.find("target-" + i, CredentialType.GENERIC);
+        }
+        when(delegate.find("one-off", CredentialType.GENERIC)).thenReturn(Optional.empty());
+
+        cachingManager.find("one-off", CredentialType.GENERIC);
+
+        assertEquals(0, cachingManager.getStatistics().getEvictionCount());
+        cachingManager.find("target-0", CredentialType.GENERIC);
+        verify(delegate, times(1)).find("target-0", CredentialType.GENERIC);
+    }
+
+    @Test
+    void getStatistics_reportsHitsAndMisses() {
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(credential));
+
+        cachingManager.find(ID, CredentialType.GENERIC);
+        cachingManager.find(ID, CredentialType.GENERIC);
+        cachingManager.find(ID, CredentialType.GENERIC);
+
+        var statistics = cachingManager.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(2.0 / 3.0, statistics.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void find_doesNotCacheResult_whenDelegateThrows() {
+        when(delegate.find(ID, CredentialType.GENERIC))
+            .thenThrow(new IllegalStateException())
+            .thenReturn(Optional.of(credential));
+
+        assertThrows(IllegalStateException.class, () -> cachingManager.find(ID, CredentialType.GENERIC));
+        var actual = cachingManager.find(ID, CredentialType.GENERIC);
+
+        assertFalse(actual.isEmpty());
+    }
+
+    @Test
+    void find_loadsOnce_whenConcurrentMissesShareKey() throws Exception {
+        var loads = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        when(delegate.find(ID, CredentialType.GENERIC)).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(credential);
+        });
+
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var started = new CountDownLatch(threads);
+            var futures = new ArrayList<Future<Optional<Credential>>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return cachingManager.find(ID, CredentialType.GENERIC);
+                }));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            TimeUnit.MILLISECONDS.sleep(50);
+            release.countDown();
+
+            for (var future : futures) {
+                assertEquals(Optional.of(credential), future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void find_returnsCopyWithOwnSecretBuffer_whenCredentialHoldsSecretBuffer() {
+        var loaded = new Credential(ID, "user", SecretBuffer.of("secret"), CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+        when(delegate.find(ID, CredentialType.GENERIC)).thenReturn(Optional.of(loaded));
+
+        var first = cachingManager.find(ID, CredentialType.GENERIC).orElseThrow();
+        first.getSecretBuffer().orElseThrow().close();
+        var second = cachingManager.find(ID, CredentialType.GENERIC).orElseThrow();
+        var third = cachingManager.find(ID, CredentialType.GENERIC).orElseThrow();
+
+        assertEquals("secret", second.getSecret());
+        assertNotSame(second.getSecretBuffer().orElseThrow(), third.getSecretBuffer().orElseThrow());
+        second.getSecretBuffer().orElseThrow().close();
+        assertEquals("secret", third.getSecret());
+    }
+
+    @Test
+    void find_holdsMaximumSizeAcrossSegments() {
+        var manager = new CachingCredentialManager(delegate, CachingCredentialManager.MINIMUM_SEGMENT_SIZE * 4, TIME_TO_LIVE, ticker::get);
+        for (int i = 0; i < CachingCredentialManager.MINIMUM_SEGMENT_SIZE * 8; i++) {
+            when(delegate.find("target-" + i, CredentialType.GENERIC)).thenReturn(Optional.empty());
+            manager.find("target-" + i, CredentialType.GENERIC);
+        }
+
+        assertTrue(manager.size() <= CachingCredentialManager.MINIMUM_SEGMENT_SIZE * 4);
+    }
+
+    private void stubAndFind(String id) {
+        when(delegate.find(id, CredentialType.GENERIC)).thenReturn(Optional.empty());
+        cachingManager.find(id, CredentialType.GENERIC);
+    }
+}
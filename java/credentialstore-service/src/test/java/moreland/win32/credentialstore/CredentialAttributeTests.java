@@ -0,0 +1,77 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class CredentialAttributeTests {
+
+    @Test
+    void of_encodesStringValueAsUtf16le() {
+        var actual = CredentialAttribute.of("Contoso_Owner", "sécurity");
+
+        assertArrayEquals("sécurity".getBytes(StandardCharsets.UTF_16LE), actual.getValue());
+        assertEquals("sécurity", actual.getValueAsString());
+    }
+
+    @Test
+    void of_copiesValue() {
+        var value = new byte[] { 1, 2, 3 };
+        var actual = CredentialAttribute.of("Contoso_Rotation", value);
+
+        value[0] = 42;
+        actual.getValue()[1] = 42;
+
+        assertArrayEquals(new byte[] { 1, 2, 3 }, actual.getValue());
+    }
+
+    @Test
+    void of_acceptsMaximumValueSize() {
+        var actual = CredentialAttribute.of("Contoso_Large", new byte[CredentialAttribute.MAXIMUM_VALUE_SIZE]);
+
+        assertEquals(CredentialAttribute.MAXIMUM_VALUE_SIZE, actual.getValueSize());
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenValueIsTooLarge() {
+        var value = new byte[CredentialAttribute.MAXIMUM_VALUE_SIZE + 1];
+
+        assertThrows(IllegalArgumentException.class, () -> CredentialAttribute.of("Contoso_Large", value));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenKeywordIsEmptyOrTooLong() {
+        var tooLong = "k".repeat(CredentialAttribute.MAXIMUM_KEYWORD_LENGTH + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> CredentialAttribute.of("", "value"));
+        assertThrows(IllegalArgumentException.class, () -> CredentialAttribute.of(tooLong, "value"));
+        assertThrows(IllegalArgumentException.class, () -> CredentialAttribute.of(null, "value"));
+    }
+
+    @Test
+    void withAttributes_throwsIllegalArgumentException_whenTooManyAttributes() {
+        var credential = new Credential("target", "user", "secret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+        var attributes = Collections.nCopies(CredentialAttribute.MAXIMUM_COUNT + 1, CredentialAttribute.of("Contoso_Key", "value"));
+
+        assertThrows(IllegalArgumentException.class, () -> credential.withAttributes(attributes));
+    }
+}
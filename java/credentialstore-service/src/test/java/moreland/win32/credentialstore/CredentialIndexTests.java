@@ -0,0 +1,96 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CredentialIndexTests {
+
+    private CredentialIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new CredentialIndex();
+        index.rebuild(List.of(
+            descriptor("app/alpha", "alice", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE),
+            descriptor("app/beta", "bob", CredentialType.GENERIC, CredentialPersistence.SESSION),
+            descriptor("app/alpha", "alice", CredentialType.DOMAIN_PASSWORD, CredentialPersistence.ENTERPRISE),
+            descriptor("other/gamma", "ALICE", CredentialType.DOMAIN_PASSWORD, CredentialPersistence.LOCAL_MACHINE)));
+    }
+
+    @Test
+    void findByUsername_returnsMatches_ignoringCase() {
+        assertEquals(3, index.findByUsername("Alice").size());
+    }
+
+    @Test
+    void findByType_returnsMatches() {
+        assertEquals(List.of("app/alpha", "other/gamma"), ids(index.findByType(CredentialType.DOMAIN_PASSWORD)));
+    }
+
+    @Test
+    void findByPersistence_returnsMatches() {
+        assertEquals(List.of("app/beta"), ids(index.findByPersistence(CredentialPersistence.SESSION)));
+    }
+
+    @Test
+    void findByPrefix_returnsMatchesOrderedById_ignoringCase() {
+        assertEquals(List.of("app/alpha", "app/alpha", "app/beta"), ids(index.findByPrefix("APP/")));
+    }
+
+    @Test
+    void findByPrefix_returnsEmpty_whenNothingMatches() {
+        assertTrue(index.findByPrefix("zzz").isEmpty());
+    }
+
+    @Test
+    void put_replacesSecondaryEntries_whenKeyExists() {
+        index.put(descriptor("APP/BETA", "carol", CredentialType.GENERIC, CredentialPersistence.SESSION));
+
+        assertTrue(index.findByUsername("bob").isEmpty());
+        assertEquals(List.of("APP/BETA"), ids(index.findByUsername("carol")));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_removesFromEveryIndex() {
+        assertTrue(index.remove(CredentialKey.of("app/beta", CredentialType.GENERIC)));
+
+        assertTrue(index.findByUsername("bob").isEmpty());
+        assertTrue(index.findByPersistence(CredentialPersistence.SESSION).isEmpty());
+        assertEquals(List.of("app/alpha", "app/alpha"), ids(index.findByPrefix("app/")));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_returnsFalse_whenKeyIsNotIndexed() {
+        assertFalse(index.remove(CredentialKey.of("missing", CredentialType.GENERIC)));
+    }
+
+    private static List<String> ids(List<CredentialDescriptor> descriptors) {
+        return descriptors.stream().map(CredentialDescriptor::getId).collect(Collectors.toList());
+    }
+
+    private static CredentialDescriptor descriptor(String id, String username, CredentialType type, CredentialPersistence persistence) {
+        return new CredentialDescriptor(id, username, type, persistence, Instant.EPOCH);
+    }
+}
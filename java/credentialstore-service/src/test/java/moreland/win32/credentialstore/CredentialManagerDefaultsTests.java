@@ -0,0 +1,216 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * default methods of {@code CredentialManager} against an implementation
+ * providing only the basic CRUD operations
+ */
+class CredentialManagerDefaultsTests {
+
+    private static final Instant WRITTEN = Instant.parse("2024-01-01T00:00:00Z");
+
+    private MapCredentialManager credentialManager;
+
+    @BeforeEach
+    void beforeEach() {
+        credentialManager = new MapCredentialManager();
+        credentialManager.add(credential("alpha-one", WRITTEN));
+        credentialManager.add(credential("alpha-two", WRITTEN.plusSeconds(60))
+            .withAttributes(List.of(CredentialAttribute.of("owner", "build"))));
+        credentialManager.add(credential("beta", WRITTEN.plusSeconds(120)));
+    }
+
+    @Test
+    void getAllDescriptors_describesEveryCredential() {
+        var actual = credentialManager.getAllDescriptors();
+
+        assertEquals(List.of("alpha-one", "alpha-two", "beta"), actual.stream().map(CredentialDescriptor::getId).collect(Collectors.toList()));
+        assertEquals(WRITTEN, actual.get(0).getLastWritten());
+        assertEquals(1, actual.get(1).getAttributes().size());
+    }
+
+    @Test
+    void findMatching_returnsCredentialsMatchingWildcardIgnoringCase() {
+        assertEquals(List.of("alpha-two"), ids(credentialManager.findMatching("ALPHA-*o")));
+    }
+
+    @Test
+    void findModifiedSince_returnsCredentialsWrittenAtOrAfterInstant() {
+        assertEquals(List.of("alpha-two", "beta"), ids(credentialManager.findModifiedSince(WRITTEN.plusSeconds(60))));
+    }
+
+    @Test
+    void findByAttribute_returnsCredentialsHoldingAttribute() {
+        assertEquals(List.of("alpha-two"), ids(credentialManager.findByAttribute(CredentialAttribute.of("owner", "build"))));
+    }
+
+    @Test
+    void publishAll_publishesEveryCredential() throws InterruptedException {
+        var received = new ArrayList<String>();
+        var completed = new CountDownLatch(1);
+        credentialManager.publishAll().subscribe(new Flow.Subscriber<Credential>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Credential item) {
+                received.add(item.getId());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                // ... not expected, the latch times out ...
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("alpha-one", "alpha-two", "beta"), received);
+    }
+
+    @Test
+    void addAll_reportsFailure_whenAddReturnsFalse() {
+        credentialManager.rejected = "gamma";
+
+        var result = credentialManager.addAll(List.of(credential("delta", WRITTEN), credential("gamma", WRITTEN)));
+
+        assertTrue(result.getItems().get(0).isSucceeded());
+        assertEquals(BulkOutcome.FAILED, result.getItems().get(1).getOutcome());
+        assertEquals(BulkItemResult.UNKNOWN_ERROR_CODE, result.getItems().get(1).getErrorCode());
+    }
+
+    @Test
+    void addAll_throwsIllegalArgumentException_whenCredentialsContainsNull() {
+        var credentials = Arrays.asList(credential("delta", WRITTEN), null);
+
+        assertThrows(IllegalArgumentException.class, () -> credentialManager.addAll(credentials));
+        assertTrue(credentialManager.find("delta", CredentialType.GENERIC).isEmpty());
+    }
+
+    @Test
+    void deleteAll_deletesEachKey() {
+        var result = credentialManager.deleteAll(List.of(
+            CredentialKey.of("beta", CredentialType.GENERIC),
+            CredentialKey.of("beta", CredentialType.GENERIC)));
+
+        assertTrue(result.getItems().get(0).isSucceeded());
+        assertEquals(BulkOutcome.NOT_FOUND, result.getItems().get(1).getOutcome());
+        assertEquals(ExpectedErrorCode.NOT_FOUND.getValue(), result.getItems().get(1).getErrorCode());
+        assertTrue(credentialManager.find("beta", CredentialType.GENERIC).isEmpty());
+    }
+
+    @Test
+    void findAll_returnsFoundCredentialsInKeyOrder() {
+        var actual = credentialManager.findAll(List.of(
+            CredentialKey.of("beta", CredentialType.GENERIC),
+            CredentialKey.of("missing", CredentialType.GENERIC),
+            CredentialKey.of("alpha-one", CredentialType.GENERIC)));
+
+        assertEquals(List.of("beta", "alpha-one"), actual.keySet().stream().map(CredentialKey::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void watch_reportsAddedCredential() throws InterruptedException {
+        var changed = new CountDownLatch(1);
+        var options = WatchOptions.of(Duration.ofMillis(10), Duration.ofMillis(20), Duration.ZERO);
+        try (var subscription = credentialManager.watch(events -> changed.countDown(), options)) {
+            TimeUnit.MILLISECONDS.sleep(50);
+            credentialManager.add(credential("gamma", WRITTEN));
+
+            assertTrue(changed.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static List<String> ids(List<Credential> credentials) {
+        return credentials.stream().map(Credential::getId).collect(Collectors.toList());
+    }
+
+    private static Credential credential(String id, Instant lastWritten) {
+        return new Credential(id, "user", "secret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, lastWritten);
+    }
+
+    /**
+     * implements only the abstract operations of {@code CredentialManager}
+     */
+    private static final class MapCredentialManager implements CredentialManager {
+        private final Map<CredentialKey, Credential> credentials = new LinkedHashMap<>();
+        private volatile String rejected;
+
+        @Override
+        public synchronized List<Credential> getAll() {
+            return new ArrayList<>(credentials.values());
+        }
+
+        @Override
+        public synchronized boolean add(Credential credential) {
+            if (credential.getId().equals(rejected)) {
+                return false;
+            }
+            credentials.put(CredentialKey.of(credential), credential);
+            return true;
+        }
+
+        @Override
+        public boolean update(Credential credential) {
+            return add(credential);
+        }
+
+        @Override
+        public boolean delete(Credential credential) {
+            return delete(credential.getId(), credential.getType());
+        }
+
+        @Override
+        public synchronized boolean delete(String id, CredentialType type) {
+            return credentials.remove(CredentialKey.of(id, type)) != null;
+        }
+
+        @Override
+        public synchronized Optional<Credential> find(String id, CredentialType type) {
+            return Optional.ofNullable(credentials.get(CredentialKey.of(id, type)));
+        }
+
+        @Override
+        public List<Credential> find(String filter, boolean searchAll) {
+            return findMatching(filter);
+        }
+    }
+}
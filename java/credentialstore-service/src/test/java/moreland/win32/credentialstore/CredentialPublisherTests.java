@@ -0,0 +1,234 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+
+/**
+ * {@code Win32CredentialManager.publishAll} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class CredentialPublisherTests {
+
+    private static final int COUNT = 50;
+
+    @Mock
+    private Logger logger;
+
+    private EmulatedAdvapi32Library advapi32;
+    private Win32CredentialManager credentialManager;
+
+    @BeforeEach
+    void beforeEach() {
+        var store = new EmulatedCredentialStore(logger);
+        advapi32 = store.getAdvapi32();
+        credentialManager = store.getCredentialManager();
+    }
+
+    @Test
+    void subscribe_throwsNullPointerException_whenSubscriberIsNull() {
+        var publisher = credentialManager.publishAll();
+        assertThrows(NullPointerException.class, () -> publisher.subscribe(null));
+    }
+
+    @Test
+    void subscribe_doesNotEnumerate_untilRequested() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+
+        assertEquals(0, advapi32.outstandingAllocations());
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void request_deliversEveryCredential_andFreesBuffer_whenDemandIsUnbounded() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(COUNT, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void request_deliversOnlyRequestedCredentials_andHoldsBufferUntilCancelled() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        assertEquals(2, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertEquals(1, advapi32.outstandingAllocations());
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+
+        assertEquals(2, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void getEnumeratedCount_returnsSizeOfEnumeration_onceRequested() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+        var subscription = (EnumerationSubscription) subscriber.subscription;
+        assertEquals(-1, subscription.getEnumeratedCount());
+        subscription.request(1);
+
+        assertEquals(COUNT, subscription.getEnumeratedCount());
+        subscription.cancel();
+    }
+
+    @Test
+    void request_deliversEveryCredential_whenRequestingOneAtATimeFromOnNext() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber((s, item) -> s.request(1));
+
+        credentialManager.publishAll().subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertEquals(COUNT, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void request_completes_whenStoreIsEmpty() {
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertTrue(subscriber.items.isEmpty());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void request_signalsIllegalArgumentException_andFreesBuffer_whenRequestIsNotPositive() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber();
+
+        credentialManager.publishAll().subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(0);
+
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void request_freesBuffer_whenOnNextThrows() {
+        populate(COUNT);
+        var subscriber = new RecordingSubscriber((s, item) -> { throw new IllegalStateException(); });
+
+        credentialManager.publishAll().subscribe(subscriber);
+
+        assertThrows(IllegalStateException.class, () -> subscriber.subscription.request(1));
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void subscribe_enumeratesAgain_forEachSubscriber() {
+        populate(COUNT);
+        var publisher = credentialManager.publishAll();
+        var first = new RecordingSubscriber();
+        var second = new RecordingSubscriber();
+
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        first.subscription.request(Long.MAX_VALUE);
+        credentialManager.add(credential(COUNT));
+        second.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(COUNT, first.items.size());
+        assertEquals(COUNT + 1, second.items.size());
+    }
+
+    private void populate(int count) {
+        for (int i = 0; i < count; i++) {
+            credentialManager.add(credential(i));
+        }
+    }
+
+    private static Credential credential(int index) {
+        return EmulatedCredentialStore.credential("target-" + index, "user-" + index, "secret-" + index);
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<Credential> {
+
+        private final BiConsumer<Flow.Subscription, Credential> onItem;
+        private final List<Credential> items = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+        private Throwable error;
+
+        RecordingSubscriber() {
+            this((s, item) -> { });
+        }
+
+        RecordingSubscriber(BiConsumer<Flow.Subscription, Credential> onItem) {
+            this.onItem = onItem;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Credential item) {
+            items.add(item);
+            onItem.accept(subscription, item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
+
+/**
+ * {@code CredentialStoreMetrics} fed by {@code Win32NativeInteropBridge} and
+ * {@code InstrumentedCredentialManager} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class CredentialStoreMetricsTests {
+
+    @Mock
+    private Logger logger;
+
+    private CredentialStoreMetrics metrics;
+    private CredentialManager credentialManager;
+
+    @BeforeEach
+    void beforeEach() {
+        var store = new EmulatedCredentialStore(logger);
+        metrics = new CredentialStoreMetrics(store.getNativeCallMetrics());
+        credentialManager = new InstrumentedCredentialManager(store.getCredentialManager(), metrics);
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenNativeCallMetricsIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialStoreMetrics(null));
+    }
+
+    @Test
+    void operations_recordNativeAndOperationLatency() {
+        credentialManager.add(credential("first"));
+        credentialManager.find("first", CredentialType.GENERIC);
+        credentialManager.find("missing", CredentialType.GENERIC);
+        credentialManager.find("first", true);
+        credentialManager.getAll();
+
+        assertEquals(1, metrics.getNativeCallLatency().get("CredWriteW").getCount());
+        assertEquals(2, metrics.getNativeCallLatency().get("CredReadW").getCount());
+        assertEquals(2, metrics.getOperationLatency().get("findById").getCount());
+        assertEquals(1, metrics.getOperationLatency().get("findByFilter").getCount());
+        assertEquals(1, metrics.getOperationLatency().get("getAll").getCount());
+        assertEquals(1L, metrics.getErrorCounts().get(ExpectedErrorCode.NOT_FOUND.name()));
+        assertEquals(1, metrics.getEnumerationSize().getMaximum());
+        assertEquals("secret".length() * Character.BYTES, metrics.getBlobSize().getMaximum());
+        assertTrue(metrics.getLockWait().getCount() >= 3);
+    }
+
+    @Test
+    void reset_discardsRecordedValues() {
+        credentialManager.add(credential("first"));
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getNativeCallLatency().get("CredWriteW").getCount());
+        assertEquals(0, metrics.getOperationLatency().get("add").getCount());
+        assertEquals(0, metrics.getBlobSize().getCount());
+    }
+
+    @Test
+    void register_exposesOpenTypes_throughMBeanServer() throws Exception {
+        var server = MBeanServerFactory.newMBeanServer();
+        credentialManager.add(credential("first"));
+
+        var name = metrics.register(server);
+        var latency = (TabularData) server.getAttribute(name, "NativeCallLatency");
+        var lockWait = (CompositeData) server.getAttribute(name, "LockWait");
+        var errors = (TabularData) server.getAttribute(name, "ErrorCounts");
+
+        assertEquals(new ObjectName(CredentialStoreMetrics.OBJECT_NAME), name);
+        assertFalse(latency.isEmpty());
+        assertNotNull(lockWait.get("percentile99"));
+        assertFalse(errors.isEmpty());
+
+        metrics.unregister(server);
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void register_replacesPreviousRegistration() {
+        var server = MBeanServerFactory.newMBeanServer();
+        metrics.register(server);
+
+        var name = new CredentialStoreMetrics(new NativeCallMetrics()).register(server);
+
+        assertTrue(server.isRegistered(name));
+    }
+}
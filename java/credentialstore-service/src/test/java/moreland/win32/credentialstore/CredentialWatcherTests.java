@@ -0,0 +1,270 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+@ExtendWith(MockitoExtension.class)
+class CredentialWatcherTests {
+
+    private static final WatchOptions FAST = WatchOptions.of(Duration.ofMillis(5), Duration.ofMillis(20), Duration.ZERO);
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Mock
+    private Logger logger;
+
+    private final AtomicReference<List<CredentialDescriptor>> credentials = new AtomicReference<>(List.of());
+    private final AtomicBoolean failScan = new AtomicBoolean();
+    private final Set<String> scanThreads = ConcurrentHashMap.newKeySet();
+    private final List<WatchSubscription> subscriptions = new ArrayList<>();
+    private CredentialWatcher watcher;
+
+    @BeforeEach
+    void beforeEach() {
+        watcher = new CredentialWatcher(() -> {
+            // baselines are enumerated on the subscribing thread, only scanner threads are counted
+            if (Thread.currentThread().getName().startsWith("credentialstore-watch-")) {
+                scanThreads.add(Thread.currentThread().getName());
+            }
+            if (failScan.get()) {
+                throw new IllegalStateException("scan failed");
+            }
+            return credentials.get();
+        }, logger);
+    }
+
+    @AfterEach
+    void afterEach() {
+        subscriptions.forEach(WatchSubscription::close);
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenSourceIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new CredentialWatcher(null, logger));
+    }
+
+    @Test
+    void subscribe_throwsIllegalArgumentException_whenListenerIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> watcher.subscribe(null, FAST));
+    }
+
+    @Test
+    void subscribe_doesNotReportExistingCredentials() throws InterruptedException {
+        credentials.set(List.of(descriptor("a", 1)));
+        var events = subscribe(FAST);
+
+        awaitScans(3);
+
+        assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_reportsAddedUpdatedAndRemoved() throws InterruptedException {
+        credentials.set(List.of(descriptor("a", 1), descriptor("b", 1)));
+        var events = subscribe(FAST);
+        awaitScans(1);
+
+        credentials.set(List.of(descriptor("b", 2), descriptor("c", 1)));
+
+        var actual = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(List.of(
+            new CredentialChangeEvent(CredentialChangeType.UPDATED, descriptor("b", 2)),
+            new CredentialChangeEvent(CredentialChangeType.ADDED, descriptor("c", 1)),
+            new CredentialChangeEvent(CredentialChangeType.REMOVED, descriptor("a", 1))), actual);
+    }
+
+    @Test
+    void subscribe_coalescesBurstIntoSingleDelivery() throws InterruptedException {
+        credentials.set(List.of(descriptor("a", 1)));
+        var events = subscribe(WatchOptions.of(Duration.ofMillis(5), Duration.ofSeconds(10), Duration.ofMillis(200)));
+        awaitScans(1);
+
+        for (int second = 2; second <= 6; second++) {
+            credentials.set(List.of(descriptor("a", second)));
+            Thread.sleep(20);
+        }
+
+        var actual = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(List.of(new CredentialChangeEvent(CredentialChangeType.UPDATED, descriptor("a", 6))), actual);
+        assertNull(events.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_sharesOneScannerBetweenListeners() throws InterruptedException {
+        var first = subscribe(FAST);
+        var second = subscribe(WatchOptions.defaults());
+        awaitScans(1);
+
+        credentials.set(List.of(descriptor("a", 1)));
+
+        var expected = List.of(new CredentialChangeEvent(CredentialChangeType.ADDED, descriptor("a", 1)));
+        assertEquals(expected, first.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(expected, second.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, scanThreads.size());
+    }
+
+    @Test
+    void subscribe_doesNotReportEarlierChanges_whenJoiningRunningWatcher() throws InterruptedException {
+        var options = WatchOptions.of(Duration.ofMillis(5), Duration.ofSeconds(10), Duration.ofMillis(200));
+        var first = subscribe(options);
+        awaitScans(1);
+
+        credentials.set(List.of(descriptor("a", 1)));
+        Thread.sleep(50);
+        var second = subscribe(options);
+
+        assertEquals(List.of(new CredentialChangeEvent(CredentialChangeType.ADDED, descriptor("a", 1))),
+            first.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNull(second.poll(300, TimeUnit.MILLISECONDS));
+
+        credentials.set(List.of(descriptor("a", 2)));
+
+        var expected = List.of(new CredentialChangeEvent(CredentialChangeType.UPDATED, descriptor("a", 2)));
+        assertEquals(expected, first.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(expected, second.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscribe_keepsSnapshot_whenScanFails() throws InterruptedException {
+        credentials.set(List.of(descriptor("a", 1)));
+        var events = subscribe(FAST);
+        awaitScans(1);
+
+        failScan.set(true);
+        verify(logger, timeout(TIMEOUT_SECONDS * 1000).atLeastOnce()).error(eq("Credential watch scan failed"), any(IllegalStateException.class));
+        failScan.set(false);
+        var scans = watcher.getScanCount();
+        awaitScans(scans + 2);
+
+        assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_deliversToOtherListeners_whenListenerThrows() throws InterruptedException {
+        subscriptions.add(watcher.subscribe(events -> {
+            throw new IllegalStateException("listener failed");
+        }, FAST));
+        var events = subscribe(FAST);
+        awaitScans(1);
+
+        credentials.set(List.of(descriptor("a", 1)));
+
+        assertEquals(1, events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS).size());
+        verify(logger).error(eq("Credential change listener failed"), any(IllegalStateException.class));
+    }
+
+    @Test
+    void close_stopsScanner_whenLastSubscriptionIsClosed() {
+        var first = watcher.subscribe(events -> { }, FAST);
+        var second = watcher.subscribe(events -> { }, FAST);
+
+        first.close();
+        assertTrue(watcher.isRunning());
+        second.close();
+
+        assertFalse(watcher.isRunning());
+        assertFalse(second.isActive());
+    }
+
+    @Test
+    void subscribeShared_scansFirstSourceOnly_whenKeyIsShared() throws InterruptedException {
+        var key = new Object();
+        var secondSourceCalled = new AtomicBoolean();
+        var first = new LinkedBlockingQueue<List<CredentialChangeEvent>>();
+        var second = new LinkedBlockingQueue<List<CredentialChangeEvent>>();
+        var baseline = new CountDownLatch(1);
+        subscriptions.add(CredentialWatcher.subscribeShared(key, () -> {
+            var current = credentials.get();
+            baseline.countDown();
+            return current;
+        }, logger, first::add, FAST));
+        subscriptions.add(CredentialWatcher.subscribeShared(key, () -> {
+            secondSourceCalled.set(true);
+            return List.of();
+        }, logger, second::add, FAST));
+        assertTrue(baseline.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        credentials.set(List.of(descriptor("a", 1)));
+
+        var expected = List.of(new CredentialChangeEvent(CredentialChangeType.ADDED, descriptor("a", 1)));
+        assertEquals(expected, first.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(expected, second.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(secondSourceCalled.get());
+    }
+
+    @Test
+    void subscribeShared_createsNewWatcher_afterLastSubscriptionIsClosed() throws InterruptedException {
+        var key = new Object();
+        CredentialWatcher.subscribeShared(key, () -> List.of(), logger, events -> { }, FAST).close();
+        var replacementScans = new AtomicBoolean();
+
+        subscriptions.add(CredentialWatcher.subscribeShared(key, () -> {
+            replacementScans.set(true);
+            return List.of();
+        }, logger, events -> { }, FAST));
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!replacementScans.get()) {
+            assertTrue(System.nanoTime() < deadline, "replacement watcher did not scan");
+            Thread.sleep(1);
+        }
+    }
+
+    private BlockingQueue<List<CredentialChangeEvent>> subscribe(WatchOptions options) {
+        var events = new LinkedBlockingQueue<List<CredentialChangeEvent>>();
+        subscriptions.add(watcher.subscribe(events::add, options));
+        return events;
+    }
+
+    private void awaitScans(long count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (watcher.getScanCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "scanner did not run");
+            Thread.sleep(1);
+        }
+    }
+
+    private static CredentialDescriptor descriptor(String id, long lastWrittenSeconds) {
+        return new CredentialDescriptor(id, "user", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE,
+            Instant.ofEpochSecond(lastWrittenSeconds));
+    }
+}
@@ -0,0 +1,94 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.converters.Win32CredentialConverter;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.NativeCallGate;
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
+import moreland.win32.credentialstore.internal.Win32CriticalCredentialHandleFactory;
+import moreland.win32.credentialstore.internal.Win32ErrorToStringService;
+import moreland.win32.credentialstore.internal.Win32NativeInteropBridge;
+
+/**
+ * Test fixture wiring a {@code Win32CredentialManager} over a new
+ * {@code EmulatedAdvapi32Library} the way {@code ServiceComposition} does,
+ * exposing the library, bridge and metrics for tests which inspect them
+ */
+public final class EmulatedCredentialStore {
+
+    private final EmulatedAdvapi32Library advapi32 = new EmulatedAdvapi32Library();
+    private final NativeCallMetrics nativeCallMetrics = new NativeCallMetrics();
+    private final Win32NativeInteropBridge bridge;
+    private final Win32CredentialManager credentialManager;
+
+    /**
+     * Instantiates a new instance of the EmulatedCredentialStore class
+     * @param logger logger of the handle factory and credential manager
+     */
+    public EmulatedCredentialStore(Logger logger) {
+        var errorToStringService = new Win32ErrorToStringService();
+        bridge = new Win32NativeInteropBridge(advapi32,
+            new Win32CriticalCredentialHandleFactory(advapi32, errorToStringService, logger),
+            NativeCallGate.unbounded(), nativeCallMetrics);
+        credentialManager = new Win32CredentialManager(bridge, new Win32CredentialConverter(), errorToStringService, logger);
+    }
+
+    /**
+     * the emulated library backing the store
+     */
+    public EmulatedAdvapi32Library getAdvapi32() {
+        return advapi32;
+    }
+
+    /**
+     * metrics recorded by the bridge
+     */
+    public NativeCallMetrics getNativeCallMetrics() {
+        return nativeCallMetrics;
+    }
+
+    /**
+     * bridge over the emulated library
+     */
+    public Win32NativeInteropBridge getBridge() {
+        return bridge;
+    }
+
+    /**
+     * credential manager over the bridge
+     */
+    public Win32CredentialManager getCredentialManager() {
+        return credentialManager;
+    }
+
+    /**
+     * Returns a generic, local machine credential for {@code id} with
+     * username "user" and secret "secret"
+     */
+    public static Credential credential(String id) {
+        return credential(id, "user", "secret");
+    }
+
+    /**
+     * Returns a generic, local machine credential
+     */
+    public static Credential credential(String id, String username, String secret) {
+        return new Credential(id, username, secret, CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,137 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedCredentialManagerTests {
+
+    @Mock
+    private CredentialManager delegate;
+
+    private IndexedCredentialManager indexedManager;
+
+    @BeforeEach
+    void beforeEach() {
+        when(delegate.getAllDescriptors()).thenReturn(List.of(
+            new CredentialDescriptor("existing", "alice", CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, Instant.EPOCH)));
+        indexedManager = new IndexedCredentialManager(delegate);
+    }
+
+    @Test
+    void ctor_buildsIndexFromDescriptors() {
+        assertEquals(1, indexedManager.findByUsername("alice").size());
+    }
+
+    @Test
+    void add_indexesCredential_whenDelegateSucceeds() {
+        var credential = credential("added", "bob", "secret");
+        when(delegate.add(credential)).thenReturn(true);
+        when(delegate.find("added", CredentialType.GENERIC)).thenReturn(Optional.of(credential("added", "bob", "secret")));
+
+        indexedManager.add(credential);
+
+        assertEquals(1, indexedManager.findByUsername("bob").size());
+    }
+
+    @Test
+    void add_indexesDescriptorReadFromDelegate_whenDelegateSucceeds() {
+        var lastWritten = Instant.parse("2020-05-01T12:00:00Z");
+        var credential = credential("added", "bob", "secret");
+        when(delegate.add(credential)).thenReturn(true);
+        when(delegate.find("added", CredentialType.GENERIC)).thenReturn(Optional.of(new Credential("added", "bob", "secret",
+            CredentialFlag.NONE, CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, lastWritten)));
+
+        indexedManager.add(credential);
+
+        assertEquals(lastWritten, indexedManager.findByUsername("bob").get(0).getLastWritten());
+    }
+
+    @Test
+    void add_doesNotIndexCredential_whenDeletedBeforeReindex() {
+        var credential = credential("added", "bob", "secret");
+        when(delegate.add(credential)).thenReturn(true);
+        when(delegate.find("added", CredentialType.GENERIC)).thenReturn(Optional.empty());
+
+        indexedManager.add(credential);
+
+        assertTrue(indexedManager.findByUsername("bob").isEmpty());
+    }
+
+    @Test
+    void add_doesNotIndexCredential_whenDelegateFails() {
+        var credential = credential("added", "bob", "secret");
+        when(delegate.add(credential)).thenReturn(false);
+
+        indexedManager.add(credential);
+
+        assertTrue(indexedManager.findByUsername("bob").isEmpty());
+    }
+
+    @Test
+    void update_reindexesCredential_whenDelegateSucceeds() {
+        var credential = credential("existing", "carol", "secret");
+        when(delegate.update(credential)).thenReturn(true);
+        when(delegate.find("existing", CredentialType.GENERIC)).thenReturn(Optional.of(credential("existing", "carol", "secret")));
+
+        indexedManager.update(credential);
+
+        assertTrue(indexedManager.findByUsername("alice").isEmpty());
+        assertEquals(1, indexedManager.findByUsername("carol").size());
+    }
+
+    @Test
+    void delete_removesCredential_whenDelegateSucceeds() {
+        when(delegate.delete("EXISTING", CredentialType.GENERIC)).thenReturn(true);
+
+        indexedManager.delete("EXISTING", CredentialType.GENERIC);
+
+        assertTrue(indexedManager.findByPrefix("exist").isEmpty());
+    }
+
+    @Test
+    void deleteAll_reindexesDeletedKeysFromDelegate() {
+        var key = CredentialKey.of("existing", CredentialType.GENERIC);
+        Executor executor = Runnable::run;
+        when(delegate.deleteAll(List.of(key), executor)).thenReturn(new BulkResult<>(List.of(BulkItemResult.succeeded(key))));
+        when(delegate.find("existing", CredentialType.GENERIC)).thenReturn(Optional.empty());
+
+        indexedManager.deleteAll(List.of(key), executor);
+
+        assertTrue(indexedManager.findByUsername("alice").isEmpty());
+    }
+
+    @Test
+    void refresh_rebuildsIndexFromDelegate() {
+        indexedManager.refresh();
+
+        verify(delegate, times(2)).getAllDescriptors();
+    }
+}
@@ -0,0 +1,208 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+class SecretBufferTests {
+
+    @Test
+    void allocate_throwsIllegalArgumentException_whenSizeIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> SecretBuffer.allocate(-1));
+    }
+
+    @Test
+    void allocate_returnsZeroedBuffer() {
+        try (var buffer = SecretBuffer.allocate(16)) {
+            assertEquals(16, buffer.size());
+            assertEquals(8, buffer.length());
+            assertArrayEquals(new byte[16], buffer.getPointer().getByteArray(0, 16));
+        }
+    }
+
+    @Test
+    void of_encodesUtf16le() {
+        try (var buffer = SecretBuffer.of("päss")) {
+            assertArrayEquals("päss".getBytes(StandardCharsets.UTF_16LE), buffer.getPointer().getByteArray(0, buffer.size()));
+            assertArrayEquals("päss".toCharArray(), buffer.toCharArray());
+            assertEquals("päss", buffer.asCharBuffer().toString());
+        }
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenSecretIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> SecretBuffer.of((char[]) null));
+        assertThrows(IllegalArgumentException.class, () -> SecretBuffer.of((CharSequence) null));
+    }
+
+    @Test
+    void copyOf_copiesNativeMemory() {
+        var source = new Memory(6);
+        source.write(0, "abc".getBytes(StandardCharsets.UTF_16LE), 0, 6);
+
+        try (var buffer = SecretBuffer.copyOf(source, 6)) {
+            source.clear();
+            assertEquals("abc", buffer.asCharBuffer().toString());
+        }
+    }
+
+    @Test
+    void copyOf_throwsIllegalArgumentException_whenSourceIsNullAndSizeIsNotZero() {
+        assertThrows(IllegalArgumentException.class, () -> SecretBuffer.copyOf(null, 2));
+    }
+
+    @Test
+    void copyTo_writesSecretToDestination() {
+        var destination = new Memory(6);
+        try (var buffer = SecretBuffer.of("xyz")) {
+            buffer.copyTo(destination);
+        }
+        assertArrayEquals("xyz".getBytes(StandardCharsets.UTF_16LE), destination.getByteArray(0, 6));
+    }
+
+    @Test
+    void wipe_zeroesSecret() {
+        try (var buffer = SecretBuffer.of("secret")) {
+            buffer.wipe();
+            assertArrayEquals(new char[6], buffer.toCharArray());
+        }
+    }
+
+    @Test
+    void close_preventsFurtherAccess_andIsIdempotent() {
+        var buffer = SecretBuffer.of("secret");
+
+        buffer.close();
+
+        assertTrue(buffer.isClosed());
+        assertThrows(IllegalStateException.class, buffer::asByteBuffer);
+        assertThrows(IllegalStateException.class, buffer::getPointer);
+        assertDoesNotThrow(buffer::close);
+    }
+
+    @Test
+    void close_wipesMemoryStillReadByViews() {
+        var buffer = SecretBuffer.of("secret");
+        var view = buffer.asCharBuffer();
+
+        buffer.close();
+
+        assertEquals("\0\0\0\0\0\0", view.toString());
+    }
+
+    @Test
+    void toCharArray_throwsIllegalStateException_whenBufferIsClosed() {
+        var buffer = SecretBuffer.of("secret");
+
+        buffer.close();
+
+        assertThrows(IllegalStateException.class, buffer::toCharArray);
+    }
+
+    @Test
+    void empty_hasNoNativeMemory() {
+        try (var buffer = SecretBuffer.empty()) {
+            assertEquals(0, buffer.size());
+            assertEquals("", buffer.asCharBuffer().toString());
+            assertFalse(buffer.asByteBuffer().hasRemaining());
+        }
+    }
+
+    @Test
+    void asCharBuffer_keepsBufferReachable_whileViewIsInUse() {
+        var owner = new ArrayList<WeakReference<SecretBuffer>>();
+        var view = viewOfUnreferencedBuffer("secret", owner);
+
+        collectGarbage();
+
+        assertFalse(owner.get(0).refersTo(null));
+        assertEquals("secret", view.toString());
+    }
+
+    @Test
+    void getPointer_keepsBufferReachable_whilePointerIsInUse() {
+        var owner = new ArrayList<WeakReference<SecretBuffer>>();
+        var pointer = pointerToUnreferencedBuffer("abc", owner);
+
+        collectGarbage();
+
+        assertFalse(owner.get(0).refersTo(null));
+        assertEquals("abc", new String(pointer.getByteArray(0, 6), StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    void toString_doesNotRevealSecret() {
+        try (var buffer = SecretBuffer.of("secret")) {
+            assertFalse(buffer.toString().contains("secret"));
+        }
+    }
+
+    @Test
+    void credentialGetSecret_throwsIllegalStateException_whenBufferIsClosed() {
+        var buffer = SecretBuffer.of("secret");
+        var credential = new Credential("id", "user", buffer, CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+        assertEquals("secret", credential.getSecret());
+
+        buffer.close();
+
+        assertThrows(IllegalStateException.class, credential::getSecret);
+    }
+
+    @Test
+    void credentialCtor_throwsIllegalArgumentException_whenSecretBufferIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> new Credential("id", "user", (SecretBuffer) null, CredentialFlag.NONE,
+            CredentialType.GENERIC, CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()));
+    }
+
+    private static CharBuffer viewOfUnreferencedBuffer(String secret, List<WeakReference<SecretBuffer>> owner) {
+        var buffer = SecretBuffer.of(secret);
+        owner.add(new WeakReference<>(buffer));
+        return buffer.asCharBuffer();
+    }
+
+    private static Pointer pointerToUnreferencedBuffer(String secret, List<WeakReference<SecretBuffer>> owner) {
+        var buffer = SecretBuffer.of(secret);
+        owner.add(new WeakReference<>(buffer));
+        return buffer.getPointer();
+    }
+
+    private static void collectGarbage() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
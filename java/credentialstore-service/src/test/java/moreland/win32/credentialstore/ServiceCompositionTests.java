@@ -0,0 +1,81 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.Test;
+
+class ServiceCompositionTests {
+
+    @Test
+    void createCredentialManager_throwsIllegalArgumentException_whenPropertiesIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> ServiceComposition.createCredentialManager(null));
+    }
+
+    @Test
+    void createCredentialManager_throwsIllegalArgumentException_whenPermitsIsNotANumber() {
+        var properties = emulated();
+        properties.setProperty(ServiceConfiguration.NATIVE_CALL_PERMITS_PROPERTY, "many");
+
+        assertThrows(IllegalArgumentException.class, () -> ServiceComposition.createCredentialManager(properties));
+    }
+
+    @Test
+    void createCredentialManager_returnsWorkingManager_whenAdvapi32IsEmulated() {
+        var properties = emulated();
+        properties.setProperty(ServiceConfiguration.NATIVE_CALL_PERMITS_PROPERTY, "2");
+
+        var credentialManager = ServiceComposition.createCredentialManager(properties);
+        credentialManager.add(new Credential("first", "user", "secret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()));
+
+        assertInstanceOf(Win32CredentialManager.class, credentialManager);
+        assertTrue(credentialManager.find("first", CredentialType.GENERIC).isPresent());
+    }
+
+    @Test
+    void createCredentialManager_returnsInstrumentedManager_whenJmxIsEnabled() throws Exception {
+        var properties = emulated();
+        properties.setProperty(ServiceConfiguration.JMX_ENABLED_PROPERTY, "true");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            var credentialManager = ServiceComposition.createCredentialManager(properties);
+            credentialManager.find("first", CredentialType.GENERIC);
+
+            assertInstanceOf(InstrumentedCredentialManager.class, credentialManager);
+            var operationLatency = (CompositeData) ((TabularData) server.getAttribute(
+                new ObjectName(CredentialStoreMetrics.OBJECT_NAME), "OperationLatency")).get(new Object[] { "findById" });
+            assertEquals(1L, ((CompositeData) operationLatency.get("value")).get("count"));
+        } finally {
+            server.unregisterMBean(new ObjectName(CredentialStoreMetrics.OBJECT_NAME));
+        }
+    }
+
+    private static Properties emulated() {
+        var properties = new Properties();
+        properties.setProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_EMULATED);
+        return properties;
+    }
+}
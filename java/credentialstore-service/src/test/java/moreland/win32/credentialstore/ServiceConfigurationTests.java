@@ -0,0 +1,69 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+
+import moreland.win32.credentialstore.internal.Advapi32Library;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.NativeCallMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceConfigurationTests {
+
+    @Mock
+    private Environment environment;
+
+    @Test
+    void getAdvapi32Library_returnsInstance_whenPropertyIsNative() {
+        when(environment.getProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_NATIVE))
+            .thenReturn(ServiceConfiguration.ADVAPI32_NATIVE);
+
+        assertSame(Advapi32Library.INSTANCE, new ServiceConfiguration().getAdvapi32Library(environment));
+    }
+
+    @Test
+    void getAdvapi32Library_returnsEmulatedLibrary_whenPropertyIsEmulated() {
+        when(environment.getProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_NATIVE))
+            .thenReturn("Emulated");
+
+        assertInstanceOf(EmulatedAdvapi32Library.class, new ServiceConfiguration().getAdvapi32Library(environment));
+    }
+
+    @Test
+    void getInstrumentedCredentialManager_recordsOperationLatency() {
+        var metrics = new CredentialStoreMetrics(new NativeCallMetrics());
+        var credentialManager = (Win32CredentialManager) ServiceComposition.createCredentialManager(emulated());
+
+        new ServiceConfiguration().getInstrumentedCredentialManager(credentialManager, metrics).find("target", CredentialType.GENERIC);
+
+        assertEquals(1, metrics.getOperationLatency().get("findById").getCount());
+    }
+
+    private static Properties emulated() {
+        var properties = new Properties();
+        properties.setProperty(ServiceConfiguration.ADVAPI32_PROPERTY, ServiceConfiguration.ADVAPI32_EMULATED);
+        return properties;
+    }
+}
@@ -0,0 +1,52 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class WatchOptionsTests {
+
+    @Test
+    void of_returnsProvidedSettings() {
+        var actual = WatchOptions.of(Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ZERO);
+
+        assertEquals(Duration.ofSeconds(1), actual.getMinimumInterval());
+        assertEquals(Duration.ofSeconds(2), actual.getMaximumInterval());
+        assertEquals(Duration.ZERO, actual.getQuietPeriod());
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenMinimumIntervalIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> WatchOptions.of(Duration.ZERO, Duration.ofSeconds(1), Duration.ZERO));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenMaximumIsLessThanMinimum() {
+        assertThrows(IllegalArgumentException.class, () -> WatchOptions.of(Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ZERO));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenQuietPeriodIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> WatchOptions.of(Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofMillis(-1)));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenArgumentIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> WatchOptions.of(null, Duration.ofSeconds(1), Duration.ZERO));
+    }
+}
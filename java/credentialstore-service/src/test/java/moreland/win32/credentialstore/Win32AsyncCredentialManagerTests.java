@@ -0,0 +1,142 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.NOPLogger;
+
+class Win32AsyncCredentialManagerTests {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private Win32CredentialManager credentialManager;
+    private Win32AsyncCredentialManager asyncManager;
+
+    @BeforeEach
+    void beforeEach() {
+        credentialManager = new EmulatedCredentialStore(NOPLogger.NOP_LOGGER).getCredentialManager();
+        asyncManager = new Win32AsyncCredentialManager(credentialManager, 2, 16);
+    }
+
+    @AfterEach
+    void afterEach() {
+        asyncManager.close();
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenQueueCapacityIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> new Win32AsyncCredentialManager(credentialManager, 1, 0));
+    }
+
+    @Test
+    void find_completesWithCredential_afterAdd() throws Exception {
+        asyncManager.add(credential("target")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        var actual = asyncManager.find("target", CredentialType.GENERIC).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals("secret", actual.orElseThrow().getSecret());
+    }
+
+    @Test
+    void find_completesEmpty_whenNotFound() throws Exception {
+        var actual = asyncManager.find("missing", CredentialType.GENERIC).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    void delete_failsWithNotFound_whenCredentialIsMissing() {
+        var future = asyncManager.delete("missing", CredentialType.GENERIC);
+
+        var actual = assertWin32Exception(future::get);
+        assertEquals(ExpectedErrorCode.NOT_FOUND, actual.getExpectedErrorCode().orElseThrow());
+    }
+
+    @Test
+    void add_failsWithInvalidArgument_whenTargetIsTooLong() {
+        var future = asyncManager.add(credential("x".repeat(40_000)));
+
+        var actual = assertWin32Exception(future::get);
+        assertEquals(ExpectedErrorCode.INVALID_ARGUMENT.getValue(), actual.getErrorCode());
+    }
+
+    @Test
+    void getAll_completesEmpty_whenStoreIsEmpty() throws Exception {
+        assertTrue(asyncManager.getAll().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    void getMetrics_countsCompletedAndFailedOperations() throws Exception {
+        asyncManager.add(credential("target")).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> asyncManager.delete("missing", CredentialType.GENERIC).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        var metrics = asyncManager.getMetrics();
+
+        assertEquals(1, metrics.getCompletedCount());
+        assertEquals(1, metrics.getFailedCount());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    @Test
+    void submit_failsWithRejectedExecutionException_whenQueueIsFull() throws Exception {
+        var executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        var release = new CountDownLatch(1);
+        try (var boundedManager = new Win32AsyncCredentialManager(credentialManager, executor)) {
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> awaitQuietly(release));
+
+            var future = boundedManager.getAll();
+
+            var actual = assertThrows(ExecutionException.class, future::get);
+            assertInstanceOf(RejectedExecutionException.class, actual.getCause());
+            assertEquals(1, boundedManager.getMetrics().getRejectedCount());
+            assertEquals(1, boundedManager.getMetrics().getQueueDepth());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static Win32Exception assertWin32Exception(FutureGet future) {
+        var actual = assertThrows(ExecutionException.class, () -> future.get());
+        return assertInstanceOf(Win32Exception.class, actual.getCause());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FutureGet {
+        Object get() throws Exception;
+    }
+}
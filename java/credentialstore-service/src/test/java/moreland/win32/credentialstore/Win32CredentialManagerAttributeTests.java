@@ -0,0 +1,94 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+/**
+ * credential attributes through {@code Win32CredentialManager} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class Win32CredentialManagerAttributeTests {
+
+    private static final CredentialAttribute PRODUCTION = CredentialAttribute.of("Contoso_Environment", "production");
+    private static final CredentialAttribute STAGING = CredentialAttribute.of("Contoso_Environment", "staging");
+
+    @Mock
+    private Logger logger;
+
+    private Win32CredentialManager credentialManager;
+
+    @BeforeEach
+    void beforeEach() {
+        credentialManager = new EmulatedCredentialStore(logger).getCredentialManager();
+    }
+
+    @Test
+    void add_writesAttributes_readBackByFind() {
+        var attributes = List.of(PRODUCTION, CredentialAttribute.of("Contoso_Owner", "payments"));
+        credentialManager.add(credential("target").withAttributes(attributes));
+
+        var actual = credentialManager.find("target", CredentialType.GENERIC).orElseThrow();
+
+        assertEquals(attributes, actual.getAttributes());
+        assertEquals("secret", actual.getSecret());
+    }
+
+    @Test
+    void getAllDescriptors_includesAttributes() {
+        credentialManager.add(credential("target").withAttributes(List.of(PRODUCTION)));
+
+        var actual = credentialManager.getAllDescriptors();
+
+        assertEquals(List.of(PRODUCTION), actual.get(0).getAttributes());
+    }
+
+    @Test
+    void findByAttribute_returnsOnlyCredentialsWithMatchingKeywordAndValue() {
+        credentialManager.add(credential("first").withAttributes(List.of(PRODUCTION)));
+        credentialManager.add(credential("second").withAttributes(List.of(STAGING)));
+        credentialManager.add(credential("third").withAttributes(List.of(CredentialAttribute.of("Contoso_Owner", "payments"), PRODUCTION)));
+        credentialManager.add(credential("fourth").withAttributes(List.of()));
+
+        var actual = credentialManager.findByAttribute(PRODUCTION)
+            .stream()
+            .map(Credential::getId)
+            .sorted()
+            .collect(Collectors.toList());
+
+        assertEquals(List.of("first", "third"), actual);
+    }
+
+    @Test
+    void findByAttribute_returnsEmpty_whenNoCredentials() {
+        assertTrue(credentialManager.findByAttribute(PRODUCTION).isEmpty());
+    }
+
+    @Test
+    void findByAttribute_throwsIllegalArgumentException_whenAttributeIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> credentialManager.findByAttribute(null));
+    }
+}
@@ -0,0 +1,135 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+
+/**
+ * bulk operations of {@code Win32CredentialManager} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class Win32CredentialManagerBulkTests {
+
+    private static final int COUNT = 300;
+
+    @Mock
+    private Logger logger;
+
+    private EmulatedAdvapi32Library advapi32;
+    private Win32CredentialManager credentialManager;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void beforeEach() {
+        var store = new EmulatedCredentialStore(logger);
+        advapi32 = store.getAdvapi32();
+        credentialManager = store.getCredentialManager();
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void addAll_addsEveryCredential_whenRunOnExecutor() {
+        var result = credentialManager.addAll(credentials(COUNT), executor);
+
+        assertTrue(result.isAllSucceeded());
+        assertEquals(COUNT, result.size());
+        assertEquals(COUNT, advapi32.size());
+        assertEquals("secret-42", credentialManager.find("target-42", CredentialType.GENERIC).orElseThrow().getSecret());
+    }
+
+    @Test
+    void addAll_reportsFailurePerItem_andLogsOnce() {
+        var credentials = new ArrayList<>(credentials(3));
+        credentials.add(1, credential("x".repeat(40_000)));
+
+        var result = credentialManager.addAll(credentials);
+
+        assertEquals(List.of(BulkOutcome.SUCCEEDED, BulkOutcome.FAILED, BulkOutcome.SUCCEEDED, BulkOutcome.SUCCEEDED),
+            result.getItems().stream().map(BulkItemResult::getOutcome).collect(Collectors.toList()));
+        assertEquals(ExpectedErrorCode.INVALID_ARGUMENT, result.getFailures().get(0).getExpectedErrorCode().orElseThrow());
+        verify(logger, times(1)).error(anyString());
+    }
+
+    @Test
+    void addAll_throwsIllegalArgumentException_whenCredentialsContainsNull() {
+        var credentials = Arrays.asList(credential("target-0"), null);
+
+        assertThrows(IllegalArgumentException.class, () -> credentialManager.addAll(credentials));
+    }
+
+    @Test
+    void deleteAll_reportsNotFound_withoutLogging() {
+        credentialManager.addAll(credentials(2));
+
+        var result = credentialManager.deleteAll(List.of(
+            CredentialKey.of("TARGET-0", CredentialType.GENERIC),
+            CredentialKey.of("missing", CredentialType.GENERIC),
+            CredentialKey.of("target-1", CredentialType.GENERIC)), executor);
+
+        assertEquals(List.of(BulkOutcome.SUCCEEDED, BulkOutcome.NOT_FOUND, BulkOutcome.SUCCEEDED),
+            result.getItems().stream().map(BulkItemResult::getOutcome).collect(Collectors.toList()));
+        assertEquals(0, advapi32.size());
+        verify(logger, never()).error(anyString());
+    }
+
+    @Test
+    void findAll_returnsFoundCredentialsInKeyOrder() {
+        credentialManager.addAll(credentials(COUNT));
+        var keys = List.of(
+            CredentialKey.of("target-250", CredentialType.GENERIC),
+            CredentialKey.of("missing", CredentialType.GENERIC),
+            CredentialKey.of("target-3", CredentialType.GENERIC));
+
+        var found = credentialManager.findAll(keys, executor);
+
+        assertEquals(List.of(keys.get(0), keys.get(2)), new ArrayList<>(found.keySet()));
+        assertEquals("secret-3", found.get(keys.get(2)).getSecret());
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    private static List<Credential> credentials(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> credential("target-" + i, "user", "secret-" + i))
+            .collect(Collectors.toList());
+    }
+}
@@ -18,14 +18,19 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
 
 import org.slf4j.Logger;
 
@@ -38,11 +43,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import moreland.win32.credentialstore.converters.CredentialConverter;
+import moreland.win32.credentialstore.converters.FileTimes;
+import moreland.win32.credentialstore.internal.CredentialLayout;
 import moreland.win32.credentialstore.internal.CredentialList;
 import moreland.win32.credentialstore.internal.CriticalCredentialHandle;
+import moreland.win32.credentialstore.internal.EnumerateFlag;
 import moreland.win32.credentialstore.internal.NativeInteropBridge;
 import moreland.win32.credentialstore.internal.PreserveType;
-import moreland.win32.credentialstore.structures.Credential.ByReference;
 
 @ExtendWith(MockitoExtension.class)
 class Win32CredentialManagerTests {
@@ -113,8 +120,9 @@ class Win32CredentialManagerTests {
     }
 
     @Test
-    void add_returnsFalse_whenCredentialConverterReturnsEmpty() {
-        assertFalse(arrangeAndActUsingCredentialConverterReturnsEmpty(credentialManager::add));
+    void add_doesNotUseCredentialConverter() {
+        arrangeAndActUsingCredWriteReturnsTrue(credentialManager::add);
+        verifyNoInteractions(credentialConverter);
     }
 
     @Test
@@ -147,8 +155,9 @@ class Win32CredentialManagerTests {
     }
 
     @Test
-    void update_returnsFalse_whenCredentialConverterReturnsEmpty() {
-        assertFalse(arrangeAndActUsingCredentialConverterReturnsEmpty(credentialManager::update));
+    void update_doesNotUseCredentialConverter() {
+        arrangeAndActUsingCredWriteReturnsTrue(credentialManager::update);
+        verifyNoInteractions(credentialConverter);
     }
 
     @Test
@@ -276,6 +285,120 @@ class Win32CredentialManagerTests {
         verify(logger, times(1)).error(msg, e);
     }
 
+    @Test
+    void getAllDescriptors_returnsDescriptorsFromConverter() {
+        var descriptor = new CredentialDescriptor("test-id", "user", CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, Instant.EPOCH);
+        when(nativeInteropBridge.credEnumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS))
+            .thenReturn(credentialsList);
+        when(credentialsList.size()).thenReturn(1);
+        when(credentialsList.pointerAt(0)).thenReturn(Pointer.NULL);
+        when(credentialConverter.descriptorFrom(Pointer.NULL)).thenReturn(Optional.of(descriptor));
+
+        var actualValue = credentialManager.getAllDescriptors();
+
+        assertEquals(List.of(descriptor), actualValue);
+        verify(credentialsList, never()).stream();
+        verify(credentialConverter, never()).fromInternalCredential(any());
+    }
+
+    @Test
+    void findModifiedSince_convertsOnlyCredentialsWrittenSince() {
+        var since = Instant.parse("2024-01-01T00:00:00Z");
+        when(nativeInteropBridge.credEnumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS))
+            .thenReturn(credentialsList);
+        when(credentialsList.size()).thenReturn(3);
+        when(credentialsList.pointerAt(0)).thenReturn(nativeCredentialWrittenAt(since.minusMillis(1)));
+        when(credentialsList.pointerAt(1)).thenReturn(nativeCredentialWrittenAt(since));
+        when(credentialsList.pointerAt(2)).thenReturn(nativeCredentialWrittenAt(Instant.EPOCH));
+        when(credentialConverter.fromInternalCredential(any())).thenReturn(Optional.of(credential));
+
+        var actualValue = credentialManager.findModifiedSince(since);
+
+        assertEquals(List.of(credential), actualValue);
+        verify(credentialConverter, times(1)).fromInternalCredential(any());
+        verify(credentialsList, never()).stream();
+    }
+
+    @Test
+    void findModifiedSince_throwsIllegalArgumentException_whenSinceIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> credentialManager.findModifiedSince(null));
+        verifyNoInteractions(nativeInteropBridge);
+    }
+
+    @Test
+    void getAllDescriptors_returnsEmpty_whenCredEnumerateThrows() {
+        when(nativeInteropBridge.credEnumerate(any(), any()))
+            .thenThrow(new LastErrorException(ExpectedErrorCode.NOT_FOUND.getValue()));
+
+        assertTrue(credentialManager.getAllDescriptors().isEmpty());
+    }
+
+    @Test
+    void find_passesFilterToCredEnumerate_whenSearchAllIsFalse() {
+        arrangeFilteredCredEnumerateReturns();
+        when(credential.getId()).thenReturn("test-id");
+
+        credentialManager.find("test-id", false);
+
+        verify(nativeInteropBridge, times(1)).credEnumerate(Optional.of("test-id"), EnumerateFlag.NONE);
+    }
+
+    @Test
+    void find_doesNotLogError_whenFilteredCredEnumerateThrowsNotFound() {
+        arrangeFilteredCredEnumerateReturns(new LastErrorException(ExpectedErrorCode.NOT_FOUND.getValue()));
+
+        credentialManager.find("test-id", false);
+
+        verifyNoInteractions(logger);
+    }
+
+    @Test
+    void findMatching_throwsIllegalArgumentException_whenPatternIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> credentialManager.findMatching(null));
+    }
+
+    @Test
+    void findMatching_passesPrefixToCredEnumerate_whenPatternEndsWithWildcard() {
+        arrangeFilteredCredEnumerateReturns();
+
+        var actualValue = credentialManager.findMatching("test-*");
+
+        verify(nativeInteropBridge, times(1)).credEnumerate(Optional.of("test-*"), EnumerateFlag.NONE);
+        assertEquals(List.of(credential), actualValue);
+    }
+
+    @Test
+    void findMatching_passesNoFilterToCredEnumerate_whenPatternStartsWithWildcard() {
+        arrangeFilteredCredEnumerateReturns();
+        when(credential.getId()).thenReturn("prefix-test-id");
+
+        credentialManager.findMatching("*test-id");
+
+        verify(nativeInteropBridge, times(1)).credEnumerate(Optional.empty(), EnumerateFlag.NONE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"test-*-id", "TEST-*-ID*", "*-ab?c-*"})
+    void findMatching_returnsMatch_whenInnerWildcardsMatch(String pattern) {
+        arrangeFilteredCredEnumerateReturns();
+        when(credential.getId()).thenReturn("test-ab?c-id");
+
+        var actualValue = credentialManager.findMatching(pattern);
+
+        assertEquals(List.of(credential), actualValue);
+    }
+
+    @Test
+    void findMatching_returnsEmpty_whenInnerWildcardsDoNotMatch() {
+        arrangeFilteredCredEnumerateReturns();
+        when(credential.getId()).thenReturn("test-id-other");
+
+        var actualValue = credentialManager.findMatching("test-*-id");
+
+        assertTrue(actualValue.isEmpty());
+    }
+
     @Test
     void delete_byCredential_returnsTrue_whenCredDeleteReturnsTrue() {
         arrangeCredDelelte(true, "test-id", CredentialType.GENERIC, true, null);
@@ -375,27 +498,17 @@ class Win32CredentialManagerTests {
         verify(logger, times(0)).error(errorMessage, e);
     }
 
-    private boolean arrangeAndActUsingCredentialConverterReturnsEmpty(ConsumerPredicate consumerPredicate) {
-        when(credentialConverter.toInternalCredentialReference(any(Credential.class))).thenReturn(Optional.empty());
-        return consumerPredicate.process(credential);
-    }
     private boolean arrangeAndActUsingCredWriteReturnsFalse(ConsumerPredicate consumerPredicate) {
-        when(credentialConverter.toInternalCredentialReference(any(Credential.class)))
-            .thenReturn(Optional.of(new moreland.win32.credentialstore.structures.Credential.ByReference()));
-        when(nativeInteropBridge.credWrite(any(ByReference.class), any(PreserveType.class))).thenReturn(false);
+        when(nativeInteropBridge.credWrite(any(Credential.class), any(PreserveType.class))).thenReturn(false);
         return consumerPredicate.process(credential);
     }
     private boolean arrangeAndActUsingCredWriteThrowsLastErrorException(ConsumerPredicate consumerPredicate) {
-        when(credentialConverter.toInternalCredentialReference(any(Credential.class)))
-            .thenReturn(Optional.of(new moreland.win32.credentialstore.structures.Credential.ByReference()));
-        when(nativeInteropBridge.credWrite(any(ByReference.class), any(PreserveType.class)))
+        when(nativeInteropBridge.credWrite(any(Credential.class), any(PreserveType.class)))
             .thenThrow(new LastErrorException(42));
         return consumerPredicate.process(credential);
     }
     private boolean arrangeAndActUsingCredWriteReturnsTrue(ConsumerPredicate consumerPredicate) {
-        when(credentialConverter.toInternalCredentialReference(any(Credential.class)))
-            .thenReturn(Optional.of(new moreland.win32.credentialstore.structures.Credential.ByReference()));
-        when(nativeInteropBridge.credWrite(any(ByReference.class), any(PreserveType.class))).thenReturn(true);
+        when(nativeInteropBridge.credWrite(any(Credential.class), any(PreserveType.class))).thenReturn(true);
         return consumerPredicate.process(credential);
     }
 
@@ -477,4 +590,13 @@ class Win32CredentialManagerTests {
     }
 
 
+
+    private static Pointer nativeCredentialWrittenAt(Instant lastWritten) {
+        var ticks = FileTimes.toTicks(lastWritten);
+        var memory = new Memory(CredentialLayout.SIZE);
+        memory.clear();
+        memory.setInt(CredentialLayout.LAST_WRITTEN, (int) ticks);
+        memory.setInt(CredentialLayout.LAST_WRITTEN + Integer.BYTES, (int) (ticks >>> 32));
+        return memory;
+    }
 }
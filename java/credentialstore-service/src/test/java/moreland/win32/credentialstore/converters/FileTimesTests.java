@@ -0,0 +1,56 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.converters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class FileTimesTests {
+
+    // 2020-01-01T00:00:00.1234567Z as reported by Win32
+    private static final long TICKS = 132_223_104_001_234_567L;
+
+    @Test
+    void toInstant_keeps100NanosecondPrecision() {
+        var actual = FileTimes.toInstant((int) TICKS, (int) (TICKS >>> 32));
+
+        assertEquals(Instant.parse("2020-01-01T00:00:00.123456700Z"), actual);
+    }
+
+    @Test
+    void toTicks_isInverseOfToInstant() {
+        var actual = FileTimes.toTicks(FileTimes.toInstant((int) TICKS, (int) (TICKS >>> 32)));
+
+        assertEquals(TICKS, actual);
+    }
+
+    @Test
+    void toTicks_treatsLowDateTimeAsUnsigned() {
+        assertEquals(0xFFFF_FFFFL, FileTimes.toTicks(-1, 0));
+    }
+
+    @Test
+    void toTicks_clampsInstantsOutsideOfFileTimeRange() {
+        assertEquals(0L, FileTimes.toTicks(Instant.MIN));
+        assertEquals(Long.MAX_VALUE, FileTimes.toTicks(Instant.MAX));
+    }
+
+    @Test
+    void toTicks_throwsIllegalArgumentException_whenInstantIsNull() {
+        assertThrows(IllegalArgumentException.class, () -> FileTimes.toTicks(null));
+    }
+}
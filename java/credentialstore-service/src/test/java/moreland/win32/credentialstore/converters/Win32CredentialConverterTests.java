@@ -0,0 +1,268 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.converters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.Structure;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+import com.sun.management.ThreadMXBean;
+
+import moreland.win32.credentialstore.Credential;
+import moreland.win32.credentialstore.CredentialAttribute;
+import moreland.win32.credentialstore.CredentialDescriptor;
+import moreland.win32.credentialstore.CredentialFlag;
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.ExpectedErrorCode;
+import moreland.win32.credentialstore.SecretBuffer;
+import moreland.win32.credentialstore.internal.EmulatedAdvapi32Library;
+import moreland.win32.credentialstore.internal.EnumerateFlag;
+
+class Win32CredentialConverterTests {
+
+    private static final int WARM_UP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    // descriptor, Instant, Optional and the two decoded strings with their backing arrays
+    private static final long DESCRIPTOR_BYTES_PER_CALL = 256;
+
+    // credential, SecretBuffer with its Memory and Cleaner registration, LocalDateTime, Optional and the two decoded strings
+    private static final long CREDENTIAL_BYTES_PER_CALL = 640;
+
+    private EmulatedAdvapi32Library advapi32;
+    private Win32CredentialConverter converter;
+
+    @BeforeEach
+    void beforeEach() {
+        advapi32 = new EmulatedAdvapi32Library();
+        converter = new Win32CredentialConverter();
+    }
+
+    @Test
+    void descriptorFrom_returnsEmpty_whenSourceIsNull() {
+        assertTrue(converter.descriptorFrom(null).isEmpty());
+    }
+
+    @Test
+    void descriptorFrom_returnsMetadata_whenSourceIsValid() {
+        var before = Instant.now().minus(Duration.ofSeconds(1));
+        write(CredentialType.GENERIC);
+
+        var handle = new PointerByReference();
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, handle);
+        var actual = converter.descriptorFrom(handle.getValue()).orElseThrow();
+        advapi32.CredFree(handle.getValue());
+
+        assertEquals("target", actual.getId());
+        assertEquals("user", actual.getUsername());
+        assertEquals(CredentialType.GENERIC, actual.getType());
+        assertEquals(CredentialPersistence.LOCAL_MACHINE, actual.getPersistenceType());
+        assertTrue(!actual.getLastWritten().isBefore(before), actual.getLastWritten().toString());
+    }
+
+    @Test
+    void descriptorFrom_removesLegacyGenericPrefix_whenEnumeratingAll() {
+        write(CredentialType.GENERIC);
+
+        var count = new IntByReference();
+        var credentials = new PointerByReference();
+        advapi32.CredEnumerateW(null, EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue(), count, credentials);
+        var actual = converter.descriptorFrom(credentials.getValue().getPointer(0)).map(CredentialDescriptor::getId);
+        advapi32.CredFree(credentials.getValue());
+
+        assertEquals("target", actual.orElseThrow());
+    }
+
+    @Test
+    void fromInternalCredential_copiesBlobIntoSecretBuffer() {
+        write(CredentialType.GENERIC);
+
+        var handle = new PointerByReference();
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, handle);
+        var actual = converter.fromInternalCredential(Structure.newInstance(
+            moreland.win32.credentialstore.structures.Credential.class, handle.getValue()));
+        advapi32.CredFree(handle.getValue());
+
+        var secret = actual.orElseThrow().getSecretBuffer().orElseThrow();
+        assertEquals(12, secret.size());
+        assertEquals("secret", secret.asCharBuffer().toString());
+        assertEquals("secret", actual.orElseThrow().getSecret());
+    }
+
+    @Test
+    void fromInternalCredential_readsLastWrittenFromFileTime() {
+        var before = Instant.now().minus(Duration.ofSeconds(1));
+        write(CredentialType.GENERIC);
+        var after = Instant.now().plus(Duration.ofSeconds(1));
+
+        var handle = new PointerByReference();
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, handle);
+        var actual = converter.fromInternalCredential(Structure.newInstance(
+            moreland.win32.credentialstore.structures.Credential.class, handle.getValue()));
+        advapi32.CredFree(handle.getValue());
+
+        var lastWritten = actual.orElseThrow().getLastWritten();
+        assertTrue(!lastWritten.isBefore(before) && !lastWritten.isAfter(after), lastWritten.toString());
+    }
+
+    @Test
+    void fromInternalCredential_readsAttributesWrittenByReference() {
+        var attributes = List.of(
+            CredentialAttribute.of("Contoso_Environment", "production"),
+            CredentialAttribute.of("Contoso_Rotation", new byte[] { 1, 2, 3 }));
+        var credential = new Credential("target", "user", "secret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now()).withAttributes(attributes);
+        advapi32.CredWriteW(converter.toInternalCredentialReference(credential).orElseThrow(), 0);
+
+        var handle = new PointerByReference();
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, handle);
+        var actual = converter.fromInternalCredential(Structure.newInstance(
+            moreland.win32.credentialstore.structures.Credential.class, handle.getValue()));
+        var descriptor = converter.descriptorFrom(handle.getValue());
+        advapi32.CredFree(handle.getValue());
+
+        assertEquals(attributes, actual.orElseThrow().getAttributes());
+        assertEquals(attributes, descriptor.orElseThrow().getAttributes());
+    }
+
+    @Test
+    void toInternalCredentialReference_pointsBlobAtSecretBuffer_whenSecretIsOffHeap() {
+        try (var secret = SecretBuffer.of("secret")) {
+            var credential = new Credential("target", "user", secret, CredentialFlag.NONE, CredentialType.GENERIC,
+                CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+
+            var actual = converter.toInternalCredentialReference(credential).orElseThrow();
+
+            assertEquals(secret.getPointer(), actual.credentialBlob);
+            assertEquals(12, actual.credentialBlobSize);
+        }
+    }
+
+    @Test
+    void toInternalCredentialReference_encodesUtf16le_whenSecretIsString() {
+        var credential = new Credential("target", "user", "s\u00e9cret", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+
+        var actual = converter.toInternalCredentialReference(credential).orElseThrow();
+
+        assertEquals(12, actual.credentialBlobSize);
+        assertArrayEquals("s\u00e9cret".getBytes(StandardCharsets.UTF_16LE), actual.credentialBlob.getByteArray(0, 12));
+    }
+
+    @Test
+    void toInternalCredentialReference_leavesBlobEmpty_whenSecretIsEmpty() {
+        var credential = new Credential("target", "user", "", CredentialFlag.NONE, CredentialType.GENERIC,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+
+        var actual = converter.toInternalCredentialReference(credential).orElseThrow();
+
+        assertNull(actual.credentialBlob);
+        assertEquals(0, actual.credentialBlobSize);
+    }
+
+    @Test
+    void descriptorFrom_staysWithinAllocationBudget() {
+        write(CredentialType.GENERIC);
+        var count = new IntByReference();
+        var credentials = new PointerByReference();
+        advapi32.CredEnumerateW(null, EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue(), count, credentials);
+        var source = credentials.getValue().getPointer(0);
+
+        try {
+            var actual = allocatedBytesPerCall(() -> converter.descriptorFrom(source));
+
+            assertTrue(actual <= DESCRIPTOR_BYTES_PER_CALL,
+                String.format("descriptorFrom allocated %d bytes per call, budget is %d", actual, DESCRIPTOR_BYTES_PER_CALL));
+        } finally {
+            advapi32.CredFree(credentials.getValue());
+        }
+    }
+
+    @Test
+    void fromInternalCredential_staysWithinAllocationBudget() {
+        write(CredentialType.GENERIC);
+        var handle = new PointerByReference();
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, handle);
+        var source = Structure.newInstance(moreland.win32.credentialstore.structures.Credential.class, handle.getValue());
+
+        try {
+            // the secret is closed each call so its native memory is released, only heap allocations are counted
+            var actual = allocatedBytesPerCall(() -> converter.fromInternalCredential(source)
+                .flatMap(Credential::getSecretBuffer)
+                .ifPresent(SecretBuffer::close));
+
+            assertTrue(actual <= CREDENTIAL_BYTES_PER_CALL,
+                String.format("fromInternalCredential allocated %d bytes per call, budget is %d", actual, CREDENTIAL_BYTES_PER_CALL));
+        } finally {
+            advapi32.CredFree(handle.getValue());
+        }
+    }
+
+    @Test
+    void enumLookups_doNotAllocate() {
+        var actual = allocatedBytesPerCall(() -> {
+            CredentialType.fromInteger(CredentialType.MAXIMUM_EX.getValue());
+            CredentialType.fromInteger(42);
+            CredentialPersistence.fromInteger(CredentialPersistence.ENTERPRISE.getValue());
+            CredentialFlag.fromInteger(CredentialFlag.USERNAME_TARGET.getValue());
+            CredentialFlag.fromInteger(1);
+            ExpectedErrorCode.fromInteger(ExpectedErrorCode.NOT_FOUND.getValue());
+            ExpectedErrorCode.fromInteger(42);
+        });
+
+        assertEquals(0, actual);
+    }
+
+    /**
+     * average number of bytes allocated by {@code action} on the calling
+     * thread, measured after a warm up so the JIT has settled
+     */
+    private static long allocatedBytesPerCall(Runnable action) {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof ThreadMXBean, "thread allocation counters are not available");
+        var allocatedBytes = (ThreadMXBean) threadBean;
+        assumeTrue(allocatedBytes.isThreadAllocatedMemoryEnabled(), "thread allocation counters are disabled");
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            action.run();
+        }
+        var before = allocatedBytes.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            action.run();
+        }
+        return (allocatedBytes.getCurrentThreadAllocatedBytes() - before) / MEASURED_ITERATIONS;
+    }
+
+    private void write(CredentialType type) {
+        var credential = new Credential("target", "user", "secret", CredentialFlag.NONE, type,
+            CredentialPersistence.LOCAL_MACHINE, LocalDateTime.now());
+        advapi32.CredWriteW(converter.toInternalCredentialReference(credential).orElseThrow(), 0);
+    }
+}
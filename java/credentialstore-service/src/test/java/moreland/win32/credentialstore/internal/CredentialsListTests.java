@@ -13,17 +13,24 @@
 package moreland.win32.credentialstore.internal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Spliterator;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.sun.jna.Native;
 import com.sun.jna.Pointer;
 
 @ExtendWith(MockitoExtension.class)
@@ -64,7 +71,6 @@ class CredentialsListTests {
 
     @Test
     void isEmpty_returnsFalse_whenCountGreaterThanZero() {
-        when(pointer.getPointerArray(0, 1)).thenReturn(new Pointer[] { null });
         try (var list = new CredentialList(pointer, 1, advapi32)) {
             assertEquals(1, list.size());;
         } catch (Exception e) {
@@ -82,4 +88,68 @@ class CredentialsListTests {
 
         verify(advapi32, times(1)).CredFree(pointer);
     }
+
+    @Test
+    void close_callsCredFreeOnce_whenCalledTwice() throws Exception {
+        var list = new CredentialList(pointer, 0, advapi32);
+
+        list.close();
+        list.close();
+
+        verify(advapi32, times(1)).CredFree(pointer);
+    }
+
+    @Test
+    void ctor_doesNotReadNativeArray() throws Exception {
+        try (var list = new CredentialList(pointer, 10, advapi32)) {
+            assertEquals(10, list.size());
+        }
+
+        verifyNoInteractions(pointer);
+    }
+
+    @Test
+    void stream_decodesOnlyConsumedElements_whenShortCircuited() throws Exception {
+        when(pointer.getPointer(anyLong())).thenReturn(null);
+
+        try (var list = new CredentialList(pointer, 10, advapi32)) {
+            assertTrue(list.stream().findFirst().isPresent());
+        }
+
+        verify(pointer, times(1)).getPointer(0L);
+        verify(pointer, never()).getPointer(Native.POINTER_SIZE);
+    }
+
+    @Test
+    void iterator_returnsEveryElement() throws Exception {
+        when(pointer.getPointer(anyLong())).thenReturn(null);
+
+        var visited = 0;
+        try (var list = new CredentialList(pointer, 3, advapi32)) {
+            for (var credential : list) {
+                assertNotNull(credential);
+                visited++;
+            }
+        }
+
+        assertEquals(3, visited);
+        verify(pointer, times(1)).getPointer(2L * Native.POINTER_SIZE);
+    }
+
+    @Test
+    void spliterator_isSizedAndOrdered() throws Exception {
+        try (var list = new CredentialList(pointer, 5, advapi32)) {
+            var spliterator = list.spliterator();
+
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED));
+            assertEquals(5, spliterator.getExactSizeIfKnown());
+        }
+    }
+
+    @Test
+    void get_throwsIndexOutOfBoundsException_whenIndexIsOutOfRange() throws Exception {
+        try (var list = new CredentialList(pointer, 2, advapi32)) {
+            assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        }
+    }
 }
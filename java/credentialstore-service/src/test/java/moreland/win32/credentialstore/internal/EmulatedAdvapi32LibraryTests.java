@@ -0,0 +1,225 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.CredentialPersistence;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.ExpectedErrorCode;
+import moreland.win32.credentialstore.structures.Credential;
+
+class EmulatedAdvapi32LibraryTests {
+
+    private EmulatedAdvapi32Library advapi32;
+
+    @BeforeEach
+    void beforeEach() {
+        advapi32 = new EmulatedAdvapi32Library();
+    }
+
+    @Test
+    void credReadW_returnsWrittenCredential_whenTargetMatchesIgnoringCase() {
+        write("Test-Target", CredentialType.GENERIC, "user", "secret");
+        var credentialPtr = new PointerByReference();
+
+        assertTrue(advapi32.CredReadW(new WString("TEST-target"), CredentialType.GENERIC.getValue(), 0, credentialPtr));
+
+        var credential = new Credential(credentialPtr.getValue());
+        assertEquals("Test-Target", credential.targetName.toString());
+        assertEquals("user", credential.userName.toString());
+        assertEquals(CredentialPersistence.LOCAL_MACHINE.getValue(), credential.persist);
+        assertArrayEquals("secret".getBytes(StandardCharsets.UTF_16LE),
+            credential.credentialBlob.getByteArray(0, credential.credentialBlobSize));
+        assertTrue(credential.lastWritten.highDateTime != 0);
+        assertTrue(advapi32.CredFree(credentialPtr.getValue()));
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void credReadW_returnsWrittenCredential_whenDefaultLocaleIsTurkish() {
+        var defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            write("title", CredentialType.GENERIC, "user", "secret");
+            var credentialPtr = new PointerByReference();
+
+            assertTrue(advapi32.CredReadW(new WString("TITLE"), CredentialType.GENERIC.getValue(), 0, credentialPtr));
+            assertTrue(advapi32.CredFree(credentialPtr.getValue()));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void credReadW_throwsNotFound_whenTypeDiffers() {
+        write("target", CredentialType.GENERIC, "user", "secret");
+
+        assertErrorCode(ExpectedErrorCode.NOT_FOUND,
+            () -> advapi32.CredReadW(new WString("target"), CredentialType.DOMAIN_PASSWORD.getValue(), 0, new PointerByReference()));
+    }
+
+    @Test
+    void credReadW_throwsInvalidFlags_whenReservedFlagIsNotZero() {
+        assertErrorCode(ExpectedErrorCode.INVALID_FLAGS,
+            () -> advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 1, new PointerByReference()));
+    }
+
+    @Test
+    void credWriteW_throwsInvalidArgument_whenBlobExceedsMaximumSize() {
+        var credential = newCredential("target", CredentialType.GENERIC, "user", new byte[CredentialLayout.MAXIMUM_CREDENTIAL_BLOB_SIZE + 2]);
+
+        assertErrorCode(ExpectedErrorCode.INVALID_ARGUMENT, () -> advapi32.CredWriteW(credential, 0));
+    }
+
+    @Test
+    void credWriteW_succeeds_whenBlobIsMaximumSize() {
+        var credential = newCredential("target", CredentialType.GENERIC, "user", new byte[CredentialLayout.MAXIMUM_CREDENTIAL_BLOB_SIZE]);
+
+        assertTrue(advapi32.CredWriteW(credential, 0));
+    }
+
+    @Test
+    void credWriteW_throwsNotFound_whenPreservingBlobOfMissingCredential() {
+        var credential = newCredential("target", CredentialType.GENERIC, "user", new byte[0]);
+
+        assertErrorCode(ExpectedErrorCode.NOT_FOUND,
+            () -> advapi32.CredWriteW(credential, PreserveType.PRESERVE_CREDENTIAL_BLOB.getValue()));
+    }
+
+    @Test
+    void credWriteW_keepsExistingBlob_whenPreservingBlob() {
+        write("target", CredentialType.GENERIC, "user", "secret");
+        advapi32.CredWriteW(newCredential("target", CredentialType.GENERIC, "other-user", new byte[0]),
+            PreserveType.PRESERVE_CREDENTIAL_BLOB.getValue());
+        var credentialPtr = new PointerByReference();
+
+        advapi32.CredReadW(new WString("target"), CredentialType.GENERIC.getValue(), 0, credentialPtr);
+
+        var credential = new Credential(credentialPtr.getValue());
+        assertEquals("other-user", credential.userName.toString());
+        assertEquals("secret".length() * 2, credential.credentialBlobSize);
+        advapi32.CredFree(credentialPtr.getValue());
+    }
+
+    @Test
+    void credDeleteW_throwsNotFound_whenCredentialDoesNotExist() {
+        assertErrorCode(ExpectedErrorCode.NOT_FOUND,
+            () -> advapi32.CredDeleteW(new WString("target"), CredentialType.GENERIC.getValue(), 0));
+    }
+
+    @Test
+    void credDeleteW_removesCredential_whenCredentialExists() {
+        write("target", CredentialType.GENERIC, "user", "secret");
+
+        assertTrue(advapi32.CredDeleteW(new WString("TARGET"), CredentialType.GENERIC.getValue(), 0));
+        assertEquals(0, advapi32.size());
+    }
+
+    @Test
+    void credEnumerateW_returnsPrefixMatches_whenFilterEndsWithWildcard() {
+        write("alpha-1", CredentialType.GENERIC, "user", "secret");
+        write("alpha-2", CredentialType.DOMAIN_PASSWORD, "user", "secret");
+        write("bravo-1", CredentialType.GENERIC, "user", "secret");
+        var count = new IntByReference();
+        var credentialsPtr = new PointerByReference();
+
+        advapi32.CredEnumerateW(new WString("ALPHA*"), EnumerateFlag.NONE.getValue(), count, credentialsPtr);
+
+        assertEquals(2, count.getValue());
+        var pointers = credentialsPtr.getValue().getPointerArray(0, count.getValue());
+        for (var pointer : pointers) {
+            assertTrue(new Credential(pointer).targetName.toString().startsWith("alpha-"));
+        }
+        advapi32.CredFree(credentialsPtr.getValue());
+        assertEquals(0, advapi32.outstandingAllocations());
+    }
+
+    @Test
+    void credEnumerateW_prefixesGenericTargets_whenEnumeratingAll() {
+        write("alpha", CredentialType.GENERIC, "user", "secret");
+        var count = new IntByReference();
+        var credentialsPtr = new PointerByReference();
+
+        advapi32.CredEnumerateW(null, EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue(), count, credentialsPtr);
+
+        var credential = new Credential(credentialsPtr.getValue().getPointer(0));
+        assertEquals("LegacyGeneric:target=alpha", credential.targetName.toString());
+        advapi32.CredFree(credentialsPtr.getValue());
+    }
+
+    @Test
+    void credEnumerateW_throwsInvalidFlags_whenFilterUsedWithEnumerateAll() {
+        assertErrorCode(ExpectedErrorCode.INVALID_FLAGS,
+            () -> advapi32.CredEnumerateW(new WString("alpha*"), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS.getValue(),
+                new IntByReference(), new PointerByReference()));
+    }
+
+    @Test
+    void credEnumerateW_throwsNotFound_whenNothingMatches() {
+        write("alpha", CredentialType.GENERIC, "user", "secret");
+        var credentialsPtr = new PointerByReference();
+
+        assertErrorCode(ExpectedErrorCode.NOT_FOUND,
+            () -> advapi32.CredEnumerateW(new WString("bravo*"), EnumerateFlag.NONE.getValue(), new IntByReference(), credentialsPtr));
+        assertNull(credentialsPtr.getValue());
+    }
+
+    @Test
+    void credFree_throwsInvalidArgument_whenPointerWasNotAllocatedByLibrary() {
+        var memory = new Memory(Native.POINTER_SIZE);
+
+        assertErrorCode(ExpectedErrorCode.INVALID_ARGUMENT, () -> advapi32.CredFree(memory));
+    }
+
+    private void write(String target, CredentialType type, String username, String secret) {
+        advapi32.CredWriteW(newCredential(target, type, username, secret.getBytes(StandardCharsets.UTF_16LE)), 0);
+    }
+
+    private static Credential.ByReference newCredential(String target, CredentialType type, String username, byte[] blob) {
+        var credential = new Credential.ByReference();
+        credential.targetName = new WString(target);
+        credential.userName = new WString(username);
+        credential.type = type.getValue();
+        credential.persist = CredentialPersistence.LOCAL_MACHINE.getValue();
+        if (blob.length > 0) {
+            var memory = new Memory(blob.length);
+            memory.write(0, blob, 0, blob.length);
+            credential.credentialBlob = memory;
+        }
+        credential.credentialBlobSize = blob.length;
+        return credential;
+    }
+
+    private static void assertErrorCode(ExpectedErrorCode expected, Runnable action) {
+        var ex = assertThrows(LastErrorException.class, action::run);
+        assertEquals(expected.getValue(), ex.getErrorCode());
+    }
+}
@@ -0,0 +1,108 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTests {
+
+    @Test
+    void indexOf_isWithinBucket_forValuesAcrossRange() {
+        for (long value : new long[] { 0, 1, 7, 8, 15, 16, 1_000, 123_456_789, Long.MAX_VALUE }) {
+            var index = LatencyHistogram.indexOf(value);
+            assertTrue(value <= LatencyHistogram.highestValueOf(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValueOf(index - 1));
+        }
+    }
+
+    @Test
+    void getValueAtPercentile_isWithinRelativeError() {
+        var histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        assertWithin(5_000, histogram.getValueAtPercentile(50.0));
+        assertWithin(9_900, histogram.getValueAtPercentile(99.0));
+        assertEquals(10_000, histogram.getValueAtPercentile(100.0));
+        assertEquals(10_000, histogram.getMaximum());
+        assertEquals(5_000.5, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    void getValueAtPercentile_returnsZero_whenEmpty() {
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99.0));
+    }
+
+    @Test
+    void getValueAtPercentile_throwsIllegalArgumentException_whenOutOfRange() {
+        var histogram = new LatencyHistogram();
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(100.5));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(Double.NaN));
+    }
+
+    @Test
+    void record_countsNegativeValuesAsZero() {
+        var histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    void record_countsEveryValue_whenCalledConcurrently() throws Exception {
+        var histogram = new LatencyHistogram();
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMaximum());
+    }
+
+    @Test
+    void reset_discardsRecordedValues() {
+        var histogram = new LatencyHistogram();
+        histogram.record(42);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaximum());
+        assertEquals(0, histogram.getValueAtPercentile(50.0));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 8, () -> "expected " + expected + " but was " + actual);
+    }
+}
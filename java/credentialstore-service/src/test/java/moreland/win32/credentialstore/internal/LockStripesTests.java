@@ -0,0 +1,118 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import moreland.win32.credentialstore.CredentialType;
+
+class LockStripesTests {
+
+    @ParameterizedTest(name = "{index} => {0} stripes requested, {1} expected")
+    @CsvSource({"1, 1", "3, 4", "16, 16", "17, 32"})
+    void size_isRoundedUpToPowerOfTwo(int requested, int expected) {
+        assertEquals(expected, new LockStripes(requested).size());
+    }
+
+    @Test
+    void ctor_throwsIllegalArgumentException_whenStripeCountIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> new LockStripes(0));
+    }
+
+    @Test
+    void forKey_returnsSameLock_whenTargetsDifferOnlyByCase() {
+        var stripes = new LockStripes(LockStripes.DEFAULT_STRIPE_COUNT);
+        var type = CredentialType.GENERIC.getValue();
+
+        assertSame(stripes.forKey("Target-Name", type), stripes.forKey("TARGET-name", type));
+    }
+
+    @Test
+    void indexFor_doesNotThrow_whenTargetIsNull() {
+        var stripes = new LockStripes(8);
+
+        assertEquals(stripes.indexFor(null, 1), stripes.indexFor(null, 1));
+    }
+
+    @Test
+    void lockForWrite_locksEveryRequestedStripe_untilUnlocked() {
+        var stripes = new LockStripes(8);
+        var indices = new BitSet();
+        indices.set(1);
+        indices.set(6);
+
+        stripes.lockForWrite(indices);
+        var locked = IntStream.range(0, 8)
+            .filter(i -> ((ReentrantReadWriteLock) stripeAt(stripes, i)).isWriteLockedByCurrentThread())
+            .boxed()
+            .collect(Collectors.toList());
+        stripes.unlockForWrite(indices);
+
+        assertEquals(List.of(1, 6), locked);
+        assertFalse(((ReentrantReadWriteLock) stripeAt(stripes, 6)).isWriteLocked());
+    }
+
+    @Test
+    void lockForRead_allowsOtherReaders() throws Exception {
+        var stripes = new LockStripes(4);
+        var indices = new BitSet();
+        indices.set(0, 4);
+
+        stripes.lockForRead(indices);
+        try {
+            var executor = Executors.newSingleThreadExecutor();
+            try {
+                var acquired = executor.submit(() -> {
+                    var lock = stripeAt(stripes, 2).readLock();
+                    var locked = lock.tryLock();
+                    if (locked) {
+                        lock.unlock();
+                    }
+                    return locked;
+                }).get(5, TimeUnit.SECONDS);
+                assertTrue(acquired);
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            stripes.unlockForRead(indices);
+        }
+    }
+
+    private static ReadWriteLock stripeAt(LockStripes stripes, int index) {
+        for (int i = 0; i < 10_000; i++) {
+            var target = "target-" + i;
+            if (stripes.indexFor(target, 1) == index) {
+                return stripes.forKey(target, 1);
+            }
+        }
+        throw new IllegalStateException("no target found for stripe " + index);
+    }
+}
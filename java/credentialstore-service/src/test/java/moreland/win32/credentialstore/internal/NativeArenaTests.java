@@ -0,0 +1,166 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import moreland.win32.credentialstore.CredentialAttribute;
+import moreland.win32.credentialstore.SecretBuffer;
+import moreland.win32.credentialstore.converters.CredentialAttributes;
+
+class NativeArenaTests {
+
+    @Test
+    void acquire_returnsDifferentArena_whileBorrowed() {
+        try (var first = NativeArena.acquire(); var second = NativeArena.acquire()) {
+            assertNotSame(first, second);
+        }
+    }
+
+    @Test
+    void acquire_reusesPooledArenas_acrossThreads() throws Exception {
+        var allocated = NativeArena.getAllocatedCount();
+        for (int i = 0; i < 100; i++) {
+            var thread = new Thread(() -> {
+                try (var arena = NativeArena.acquire()) {
+                    arena.target("target");
+                }
+            });
+            thread.start();
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertTrue(NativeArena.getAllocatedCount() - allocated <= NativeArena.MAXIMUM_POOLED);
+    }
+
+    @Test
+    void target_writesNullTerminatedWideString() {
+        try (var arena = NativeArena.acquire()) {
+            arena.target("a-longer-target");
+            var pointer = arena.target("target");
+
+            assertEquals("target", pointer.getWideString(0));
+        }
+    }
+
+    @Test
+    void target_returnsNull_whenValueIsNull() {
+        try (var arena = NativeArena.acquire()) {
+            assertNull(arena.target(null));
+            assertNull(arena.userName(null));
+        }
+    }
+
+    @Test
+    void target_growsRegion_whenValueExceedsCapacity() {
+        var value = "t".repeat(10_000);
+
+        try (var arena = NativeArena.acquire()) {
+            assertEquals(value, arena.target(value).getWideString(0));
+        }
+    }
+
+    @Test
+    void blob_writesUtf16le() {
+        try (var arena = NativeArena.acquire()) {
+            var pointer = arena.blob("sécret");
+
+            assertArrayEquals("sécret".getBytes(StandardCharsets.UTF_16LE), pointer.getByteArray(0, 12));
+            assertEquals(12, NativeArena.blobSize("sécret"));
+        }
+    }
+
+    @Test
+    void attributes_pointsCredentialAtVariableSizeValues() {
+        try (var arena = NativeArena.acquire()) {
+            var expected = List.of(
+                CredentialAttribute.of("Contoso_Environment", "production"),
+                CredentialAttribute.of("Contoso_Empty", new byte[0]),
+                CredentialAttribute.of("Contoso_Owner", "x".repeat(128)));
+            var credential = arena.credential(0, 1, arena.target("target"), null, 2, null, 0);
+
+            arena.attributes(expected);
+
+            var count = credential.getInt(CredentialLayout.ATTRIBUTE_COUNT);
+            assertEquals(3, count);
+            assertEquals(expected, CredentialAttributes.read(credential.getPointer(CredentialLayout.ATTRIBUTES), count));
+        }
+    }
+
+    @Test
+    void credential_clearsAttributes_writtenForPreviousCall() {
+        try (var arena = NativeArena.acquire()) {
+            arena.credential(0, 1, arena.target("target"), null, 2, null, 0);
+            arena.attributes(List.of(CredentialAttribute.of("Contoso_Environment", "production")));
+
+            var credential = arena.credential(0, 1, arena.target("target"), null, 2, null, 0);
+
+            assertEquals(0, credential.getInt(CredentialLayout.ATTRIBUTE_COUNT));
+            assertNull(credential.getPointer(CredentialLayout.ATTRIBUTES));
+        }
+    }
+
+    @Test
+    void wipeBlob_zeroesSecret() {
+        try (var arena = NativeArena.acquire()) {
+            var pointer = arena.blob("secret");
+
+            arena.wipeBlob();
+
+            assertArrayEquals(new byte[12], pointer.getByteArray(0, 12));
+        }
+    }
+
+    @Test
+    void credential_writesFieldsAtLayoutOffsets() {
+        try (var arena = NativeArena.acquire()) {
+            var target = arena.target("target");
+            var userName = arena.userName("user");
+            try (var secret = SecretBuffer.of("secret")) {
+                var pointer = arena.credential(0, 1, target, userName, 2, secret);
+
+                assertEquals(1, pointer.getInt(CredentialLayout.TYPE));
+                assertEquals(2, pointer.getInt(CredentialLayout.PERSIST));
+                assertEquals(12, pointer.getInt(CredentialLayout.CREDENTIAL_BLOB_SIZE));
+                assertEquals(secret.getPointer(), pointer.getPointer(CredentialLayout.CREDENTIAL_BLOB));
+                assertEquals("target", pointer.getPointer(CredentialLayout.TARGET_NAME).getWideString(0));
+                assertEquals("user", pointer.getPointer(CredentialLayout.USER_NAME).getWideString(0));
+                assertNull(pointer.getPointer(CredentialLayout.COMMENT));
+            }
+        }
+    }
+
+    @Test
+    void outParameters_areZeroed_beforeUse() {
+        try (var arena = NativeArena.acquire()) {
+            arena.outPointer().setPointer(0, arena.target("target"));
+            arena.outCount().setInt(0, 42);
+
+            arena.outPointer();
+            arena.outCount();
+
+            assertNull(arena.outPointerValue());
+            assertEquals(0, arena.outCountValue());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static moreland.win32.credentialstore.EmulatedCredentialStore.credential;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import com.sun.jna.LastErrorException;
+
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.EmulatedCredentialStore;
+import moreland.win32.credentialstore.ExpectedErrorCode;
+
+/**
+ * JFR events of {@code Win32NativeInteropBridge}, {@code CredentialList} and
+ * {@code Win32CriticalCredentialHandle} against {@code EmulatedAdvapi32Library}
+ */
+@ExtendWith(MockitoExtension.class)
+class NativeCallEventTests {
+
+    private static final String CALL_EVENT = "moreland.credentialstore.NativeCall";
+    private static final String FREE_EVENT = "moreland.credentialstore.NativeFree";
+
+    @Mock
+    private Logger logger;
+
+    private Win32NativeInteropBridge bridge;
+
+    @BeforeEach
+    void beforeEach() {
+        bridge = new EmulatedCredentialStore(logger).getBridge();
+    }
+
+    @Test
+    void hash_isStableAndDistinguishesTargets() {
+        assertEquals(NativeCallEvent.hash("first"), NativeCallEvent.hash(new StringBuilder("first")));
+        assertNotEquals(NativeCallEvent.hash("first"), NativeCallEvent.hash("second"));
+        assertEquals(0L, NativeCallEvent.hash(null));
+    }
+
+    @Test
+    void eventTypes_haveDefaultThreshold() {
+        assertEquals("1 ms", defaultThresholdOf(NativeCallEvent.class));
+        assertEquals("1 ms", defaultThresholdOf(NativeFreeEvent.class));
+    }
+
+    @Test
+    void nativeCalls_areRecorded_withOperationTypeTargetAndError() throws Exception {
+        var events = record(() -> {
+            bridge.credWrite(credential("first"), PreserveType.NONE);
+            assertThrows(LastErrorException.class, () -> bridge.credDelete("missing", CredentialType.GENERIC.getValue(), 0));
+        });
+
+        var write = single(events, CALL_EVENT, "CredWriteW");
+        assertEquals(CredentialType.GENERIC.name(), write.getString("credentialType"));
+        assertEquals(NativeCallEvent.hash("first"), write.getLong("targetHash"));
+        assertEquals(0, write.getInt("errorCode"));
+
+        var delete = single(events, CALL_EVENT, "CredDeleteW");
+        assertEquals(NativeCallEvent.hash("missing"), delete.getLong("targetHash"));
+        assertEquals(ExpectedErrorCode.NOT_FOUND.getValue(), delete.getInt("errorCode"));
+    }
+
+    @Test
+    void credEnumerate_isRecorded_withElementCount_andFreeOfList() throws Exception {
+        bridge.credWrite(credential("first"), PreserveType.NONE);
+        bridge.credWrite(credential("second"), PreserveType.NONE);
+
+        var events = record(() -> {
+            try (var list = bridge.credEnumerate(Optional.empty(), EnumerateFlag.ENUMERATE_ALL_CREDENTIALS)) {
+                assertEquals(2, list.size());
+            }
+        });
+
+        var enumerate = single(events, CALL_EVENT, "CredEnumerateW");
+        assertEquals(2, enumerate.getInt("elementCount"));
+        assertNull(enumerate.getString("credentialType"));
+        var free = events.stream().filter(e -> e.getEventType().getName().equals(FREE_EVENT)).findFirst().orElseThrow();
+        assertEquals("CredentialList", free.getString("owner"));
+        assertEquals(2, free.getInt("elementCount"));
+    }
+
+    @Test
+    void credRead_recordsFreeOfHandle_whenClosed() throws Exception {
+        bridge.credWrite(credential("first"), PreserveType.NONE);
+
+        var events = record(() -> {
+            try (var handle = bridge.credRead("first", CredentialType.GENERIC, 0)) {
+                assertTrue(handle.value().isPresent());
+            }
+        });
+
+        single(events, CALL_EVENT, "CredReadW");
+        var free = events.stream().filter(e -> e.getEventType().getName().equals(FREE_EVENT)).findFirst().orElseThrow();
+        assertEquals("CriticalCredentialHandle", free.getString("owner"));
+        assertEquals(0, free.getInt("errorCode"));
+    }
+
+    private static List<RecordedEvent> record(ThrowingRunnable action) throws Exception {
+        var file = Files.createTempFile("native-call-event", ".jfr");
+        try {
+            try (var recording = new Recording()) {
+                recording.enable(CALL_EVENT).withThreshold(Duration.ZERO);
+                recording.enable(FREE_EVENT).withThreshold(Duration.ZERO);
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name, String operation) {
+        var matching = events.stream()
+            .filter(e -> e.getEventType().getName().equals(name))
+            .filter(e -> operation.equals(e.getString("operation")))
+            .toList();
+        assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+
+    private static String defaultThresholdOf(Class<? extends jdk.jfr.Event> eventClass) {
+        return EventType.getEventType(eventClass).getSettingDescriptors().stream()
+            .filter(setting -> setting.getName().equals("threshold"))
+            .findFirst()
+            .orElseThrow()
+            .getDefaultValue();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
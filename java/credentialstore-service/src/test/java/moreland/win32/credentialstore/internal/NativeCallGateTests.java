@@ -0,0 +1,167 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.LastErrorException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import moreland.win32.credentialstore.CredentialType;
+
+class NativeCallGateTests {
+
+    private static final String WAIT_EVENT = "moreland.credentialstore.NativeCallGateWait";
+
+    @Test
+    void bounded_throwsIllegalArgumentException_whenPermitsIsZero() {
+        assertThrows(IllegalArgumentException.class, () -> NativeCallGate.bounded(0));
+    }
+
+    @Test
+    void unbounded_returnsNewInstance() {
+        assertNotSame(NativeCallGate.unbounded(), NativeCallGate.unbounded());
+        assertFalse(NativeCallGate.unbounded().isBounded());
+    }
+
+    @Test
+    void call_returnsResultOfNativeCall() {
+        var gate = NativeCallGate.bounded(1);
+
+        assertEquals("result", gate.call("CredReadW", () -> "result"));
+        assertEquals(1, gate.getCallCount());
+        assertEquals(0, gate.getWaitCount());
+        assertEquals(0, gate.getInFlight());
+    }
+
+    @Test
+    void call_releasesPermit_whenNativeCallThrows() {
+        var gate = NativeCallGate.bounded(1);
+
+        assertThrows(IllegalStateException.class, () -> gate.call("CredReadW", () -> { throw new IllegalStateException(); }));
+        assertEquals("result", gate.call("CredReadW", () -> "result"));
+        assertEquals(0, gate.getInFlight());
+    }
+
+    @Test
+    void call_neverExceedsPermits_whenCalledConcurrently() throws Exception {
+        var gate = NativeCallGate.bounded(2);
+        var active = new AtomicInteger();
+        var maximum = new AtomicInteger();
+
+        runConcurrently(8, 64, () -> gate.call("CredWriteW", () -> {
+            maximum.accumulateAndGet(active.incrementAndGet(), Math::max);
+            sleep(1);
+            active.decrementAndGet();
+            return true;
+        }));
+
+        assertEquals(2, maximum.get());
+        assertTrue(gate.getWaitCount() > 0);
+        assertTrue(gate.getMaximumWaitNanos() > 0);
+        assertTrue(gate.getTotalWaitNanos() >= gate.getMaximumWaitNanos());
+    }
+
+    @Test
+    void call_recordsWaitEvent_whenCallerIsQueued() throws Exception {
+        var gate = NativeCallGate.bounded(1);
+        var file = Files.createTempFile("native-call-gate", ".jfr");
+        try {
+            try (var recording = new Recording()) {
+                recording.enable(WAIT_EVENT).withThreshold(Duration.ZERO);
+                recording.start();
+                runConcurrently(4, 16, () -> gate.call("CredDeleteW", () -> {
+                    sleep(1);
+                    return true;
+                }));
+                recording.stop();
+                recording.dump(file);
+            }
+
+            var events = RecordingFile.readAllEvents(file)
+                .stream()
+                .filter(e -> e.getEventType().getName().equals(WAIT_EVENT))
+                .toList();
+            assertFalse(events.isEmpty());
+            assertEquals("CredDeleteW", events.get(0).getString("operation"));
+            assertEquals(1, events.get(0).getInt("permits"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void isVirtual_returnsFalse_forPlatformThread() {
+        assertFalse(NativeCallGate.isVirtual(Thread.currentThread()));
+    }
+
+    @Test
+    void credDelete_isAdmittedThroughGate() {
+        var gate = NativeCallGate.bounded(1);
+        var advapi32 = new EmulatedAdvapi32Library();
+        var bridge = Win32NativeInteropBridge.builder(advapi32, mock(CriticalCredentialHandleFactory.class)).gate(gate).build();
+
+        assertThrows(LastErrorException.class, () -> bridge.credDelete("missing", CredentialType.GENERIC.getValue(), 0));
+        assertEquals(1, gate.getCallCount());
+        assertEquals(0, gate.getInFlight());
+    }
+
+    private static void runConcurrently(int threads, int operations, Runnable operation) throws Exception {
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            var next = new AtomicInteger();
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (next.getAndIncrement() < operations) {
+                        operation.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
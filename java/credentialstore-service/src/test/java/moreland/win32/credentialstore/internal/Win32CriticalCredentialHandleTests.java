@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import moreland.win32.credentialstore.ErrorToStringService;
 import moreland.win32.credentialstore.structures.Credential;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
@@ -98,6 +99,23 @@ class Win32CriticalCredentialHandleTests {
         verify(advapi32, times(1)).CredFree(ptr);
     }
 
+    @Test
+    void close_callsFreeThroughGate_whenConstructedWithGate() {
+        var credential = new Credential();
+        var ptr = credential.getPointer();
+        var gate = NativeCallGate.bounded(1);
+
+        try (var handle = new Win32CriticalCredentialHandle(advapi32, ptr, gate, errorToStringService, logger)) {
+            // ... nothing to do here ...
+
+        } catch (Exception e) {
+            assertFalse(true, e.getMessage());
+        } 
+
+        verify(advapi32, times(1)).CredFree(ptr);
+        assertEquals(1, gate.getCallCount());
+    }
+
     @Test
     void value_returnsOptionalWithValue_whenIsPresent() {
         final var credential = new Credential();
@@ -0,0 +1,362 @@
+//
+// Copyright © 2020 Terry Moreland
+// Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), 
+// to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+// and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, 
+// WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package moreland.win32.credentialstore.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.structures.Credential;
+import moreland.win32.credentialstore.structures.Credential.ByReference;
+
+class Win32NativeInteropBridgeConcurrencyTests {
+
+    private static final long NATIVE_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int STRIPES = 16;
+    private static final int OPERATIONS = 240;
+
+    @Test
+    void credRead_runsConcurrently_whenTargetsDiffer() throws Exception {
+        var advapi32 = new LatencyAdvapi32Library();
+        var bridge = new Win32NativeInteropBridge(advapi32, new EmptyHandleFactory());
+        var bothInFlight = new CyclicBarrier(2);
+        advapi32.nativeCall = () -> await(bothInFlight);
+
+        runConcurrently(2, 2, i -> read(bridge, "target-" + i));
+
+        assertEquals(2, advapi32.maximumConcurrentCalls.get());
+    }
+
+    @Test
+    void credWrite_runsConcurrently_whenTargetsAreInDifferentStripes() throws Exception {
+        var advapi32 = new LatencyAdvapi32Library();
+        var bridge = Win32NativeInteropBridge.builder(advapi32, new EmptyHandleFactory()).stripeCount(STRIPES).build();
+        var targets = targetsInStripes(false);
+        var bothInFlight = new CyclicBarrier(2);
+        advapi32.nativeCall = () -> await(bothInFlight);
+
+        runConcurrently(2, 2, i -> write(bridge, targets[i]));
+
+        assertEquals(2, advapi32.maximumConcurrentCalls.get());
+    }
+
+    @Test
+    void credWrite_isSerialized_whenTargetsShareStripe() throws Exception {
+        var advapi32 = new LatencyAdvapi32Library();
+        var bridge = Win32NativeInteropBridge.builder(advapi32, new EmptyHandleFactory()).stripeCount(STRIPES).build();
+        var targets = targetsInStripes(true);
+        var firstInFlight = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        advapi32.nativeCall = () -> {
+            firstInFlight.countDown();
+            await(release);
+        };
+
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(() -> write(bridge, targets[0]));
+            assertTrue(firstInFlight.await(10, TimeUnit.SECONDS));
+            var second = executor.submit(() -> write(bridge, targets[1]));
+            // the second write can only be observed not starting, give it time to get past the lock if it could
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(1, advapi32.concurrentCalls.get());
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, advapi32.maximumConcurrentCalls.get());
+    }
+
+    @Test
+    void credWrite_isSerialized_whenTargetsDifferOnlyByCase() throws Exception {
+        var advapi32 = new LatencyAdvapi32Library();
+        var bridge = new Win32NativeInteropBridge(advapi32, new EmptyHandleFactory());
+
+        runConcurrently(4, OPERATIONS, i -> {
+            if (i % 2 == 0) {
+                write(bridge, i % 4 == 0 ? "shared-target" : "SHARED-TARGET");
+            } else {
+                bridge.credDelete("Shared-Target", CredentialType.GENERIC.getValue(), 0);
+            }
+        });
+
+        assertEquals(1, advapi32.maximumConcurrentMutations.get());
+    }
+
+    @Test
+    void credEnumerate_neverOverlapsWrites_whenConsistencyIsSnapshot() throws Exception {
+        var advapi32 = new LatencyAdvapi32Library();
+        var bridge = Win32NativeInteropBridge.builder(advapi32, new EmptyHandleFactory())
+            .enumerationConsistency(EnumerationConsistency.SNAPSHOT)
+            .stripeCount(16)
+            .build();
+
+        runConcurrently(8, OPERATIONS, i -> {
+            if (i % 4 == 0) {
+                enumerate(bridge);
+            } else {
+                write(bridge, "target-" + i);
+            }
+        });
+
+        assertEquals(0, advapi32.mutationsObservedByEnumerate.get());
+    }
+
+    private static void runConcurrently(int threads, int operations, IntConsumer operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            var next = new AtomicInteger();
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = next.getAndIncrement(); i < operations; i = next.getAndIncrement()) {
+                        operation.accept(i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * two distinct targets whose writes map to the same lock stripe or to different ones
+     */
+    private static String[] targetsInStripes(boolean same) {
+        var stripes = new LockStripes(STRIPES);
+        var first = "target-0";
+        var firstIndex = stripes.indexFor(first, CredentialType.GENERIC.getValue());
+        for (int i = 1; ; i++) {
+            var candidate = "target-" + i;
+            if ((stripes.indexFor(candidate, CredentialType.GENERIC.getValue()) == firstIndex) == same) {
+                return new String[] { first, candidate };
+            }
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("calls expected to overlap did not", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void read(Win32NativeInteropBridge bridge, String target) {
+        try (var handle = bridge.credRead(target, CredentialType.GENERIC, 0)) {
+            // ... nothing to do, only the call is of interest ...
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(Win32NativeInteropBridge bridge, String target) {
+        var credential = new Credential.ByReference();
+        credential.targetName = new WString(target);
+        credential.type = CredentialType.GENERIC.getValue();
+        bridge.credWrite(credential, PreserveType.NONE);
+    }
+
+    private static void enumerate(Win32NativeInteropBridge bridge) {
+        try (var list = bridge.credEnumerate(Optional.empty(), EnumerateFlag.NONE)) {
+            // ... nothing to do, only the call is of interest ...
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Stand-in which simulates the latency of the native api, or runs
+     * {@code nativeCall} in its place, and records how many reads, writes
+     * and deletes run at once, in total and for each normalized key
+     */
+    private static final class LatencyAdvapi32Library implements Advapi32Library {
+
+        private final ConcurrentHashMap<String, AtomicInteger> activeMutationsByKey = new ConcurrentHashMap<>();
+        private final AtomicInteger activeMutations = new AtomicInteger();
+        private final AtomicInteger maximumConcurrentMutations = new AtomicInteger();
+        private final AtomicInteger mutationsObservedByEnumerate = new AtomicInteger();
+        private final AtomicInteger concurrentCalls = new AtomicInteger();
+        private final AtomicInteger maximumConcurrentCalls = new AtomicInteger();
+        private volatile Runnable nativeCall = LatencyAdvapi32Library::simulateLatency;
+
+        @Override
+        public boolean CredReadW(WString target, int type, int reservedFlag, PointerByReference credential) throws LastErrorException {
+            inFlight(nativeCall);
+            credential.setValue(Pointer.NULL);
+            return true;
+        }
+
+        @Override
+        public boolean CredWriteW(ByReference userCredential, int flags) throws LastErrorException {
+            mutate(userCredential.targetName.toString(), userCredential.type);
+            return true;
+        }
+
+        @Override
+        public boolean CredFree(Pointer cred) throws LastErrorException {
+            return true;
+        }
+
+        @Override
+        public boolean CredDeleteW(WString target, int type, int flags) throws LastErrorException {
+            mutate(target.toString(), type);
+            return true;
+        }
+
+        @Override
+        public boolean CredEnumerateW(WString filter, int flag, IntByReference count, PointerByReference credentialsPtr) throws LastErrorException {
+            mutationsObservedByEnumerate.addAndGet(activeMutations.get());
+            simulateLatency();
+            mutationsObservedByEnumerate.addAndGet(activeMutations.get());
+            count.setValue(0);
+            credentialsPtr.setValue(Pointer.NULL);
+            return true;
+        }
+
+        @Override
+        public boolean CredReadW(Pointer target, int type, int reservedFlag, Pointer credential) throws LastErrorException {
+            inFlight(nativeCall);
+            credential.setPointer(0, Pointer.NULL);
+            return true;
+        }
+
+        @Override
+        public boolean CredWriteW(Pointer userCredential, int flags) throws LastErrorException {
+            mutate(userCredential.getPointer(CredentialLayout.TARGET_NAME).getWideString(0), userCredential.getInt(CredentialLayout.TYPE));
+            return true;
+        }
+
+        @Override
+        public boolean CredDeleteW(Pointer target, int type, int flags) throws LastErrorException {
+            mutate(target.getWideString(0), type);
+            return true;
+        }
+
+        @Override
+        public boolean CredEnumerateW(Pointer filter, int flag, Pointer count, Pointer credentialsPtr) throws LastErrorException {
+            mutationsObservedByEnumerate.addAndGet(activeMutations.get());
+            simulateLatency();
+            mutationsObservedByEnumerate.addAndGet(activeMutations.get());
+            count.setInt(0, 0);
+            credentialsPtr.setPointer(0, Pointer.NULL);
+            return true;
+        }
+
+        private void mutate(String target, int type) {
+            var active = activeMutationsByKey.computeIfAbsent(target.toUpperCase() + ":" + type, key -> new AtomicInteger());
+            activeMutations.incrementAndGet();
+            maximumConcurrentMutations.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                inFlight(nativeCall);
+            } finally {
+                active.decrementAndGet();
+                activeMutations.decrementAndGet();
+            }
+        }
+
+        private void inFlight(Runnable call) {
+            maximumConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+            try {
+                call.run();
+            } finally {
+                concurrentCalls.decrementAndGet();
+            }
+        }
+
+        private static void simulateLatency() {
+            var deadline = System.nanoTime() + NATIVE_LATENCY_NANOS;
+            while (System.nanoTime() < deadline) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(1, deadline - System.nanoTime()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class EmptyHandleFactory implements CriticalCredentialHandleFactory {
+
+        private static final CriticalCredentialHandle EMPTY = new CriticalCredentialHandle() {
+            @Override
+            public boolean isPresent() {
+                return false;
+            }
+
+            @Override
+            public Optional<Credential> value() {
+                return Optional.empty();
+            }
+
+            @Override
+            public void close() {
+                // ... nothing to free ...
+            }
+        };
+
+        @Override
+        public CriticalCredentialHandle fromPointerByReference(PointerByReference handle) {
+            return EMPTY;
+        }
+
+        @Override
+        public CriticalCredentialHandle fromPointer(Pointer handle) {
+            return EMPTY;
+        }
+
+        @Override
+        public CriticalCredentialHandle empty() {
+            return EMPTY;
+        }
+    }
+}
@@ -12,14 +12,31 @@
 //
 package moreland.win32.credentialstore.internal;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Pointer;
+import com.sun.jna.WString;
+
+import moreland.win32.credentialstore.BulkItemResult;
+import moreland.win32.credentialstore.CredentialKey;
+import moreland.win32.credentialstore.CredentialType;
+import moreland.win32.credentialstore.ExpectedErrorCode;
+import moreland.win32.credentialstore.structures.Credential;
+
 @ExtendWith(MockitoExtension.class)
 class Win32NativeInteropBridgeTests {
 
@@ -43,4 +60,106 @@ class Win32NativeInteropBridgeTests {
         assertTrue(ex.getMessage().contains("criticalCredentialHandleFactory"));
 
     }
+
+    @Test
+    void builder_throwsIllegalArgumentException_whenEnumerationConsistencyIsNull() {
+        var ex = assertThrows(IllegalArgumentException.class, 
+            () -> Win32NativeInteropBridge.builder(advapi32, criticalCredentialHandleFactory).enumerationConsistency(null));
+        assertTrue(ex.getMessage().contains("enumerationConsistency"));
+    }
+
+    @Test
+    void builder_throwsIllegalArgumentException_whenStripeCountIsNotPositive() {
+        assertThrows(IllegalArgumentException.class,
+            () -> Win32NativeInteropBridge.builder(advapi32, criticalCredentialHandleFactory).stripeCount(0));
+    }
+
+    @Test
+    void credDeleteAll_returnsErrorCodePerKey() {
+        when(advapi32.CredDeleteW(any(Pointer.class), eq(CredentialType.GENERIC.getValue()), eq(0)))
+            .thenReturn(true)
+            .thenThrow(new LastErrorException(ExpectedErrorCode.NOT_FOUND.getValue()))
+            .thenReturn(false);
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory);
+
+        var errorCodes = bridge.credDeleteAll(List.of(
+            CredentialKey.of("first", CredentialType.GENERIC),
+            CredentialKey.of("second", CredentialType.GENERIC),
+            CredentialKey.of("third", CredentialType.GENERIC)));
+
+        assertArrayEquals(new int[] { 0, ExpectedErrorCode.NOT_FOUND.getValue(), BulkItemResult.UNKNOWN_ERROR_CODE }, errorCodes);
+    }
+
+    @Test
+    void credWriteAll_returnsErrorCodePerCredential() {
+        var first = credential("first");
+        var second = credential("second");
+        when(advapi32.CredWriteW(first, PreserveType.NONE.getValue())).thenReturn(true);
+        when(advapi32.CredWriteW(second, PreserveType.NONE.getValue()))
+            .thenThrow(new LastErrorException(ExpectedErrorCode.INVALID_ARGUMENT.getValue()));
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory);
+
+        var errorCodes = bridge.credWriteAll(List.of(first, second), PreserveType.NONE);
+
+        assertArrayEquals(new int[] { 0, ExpectedErrorCode.INVALID_ARGUMENT.getValue() }, errorCodes);
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenMetricsIsNull() {
+        var ex = assertThrows(IllegalArgumentException.class, 
+            () -> new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory, NativeCallGate.unbounded(), null));
+        assertTrue(ex.getMessage().contains("metrics"));
+    }
+
+    @Test
+    void credDelete_recordsUnknownError_whenCallReturnsFalse() {
+        when(advapi32.CredDeleteW(any(Pointer.class), eq(CredentialType.GENERIC.getValue()), eq(0))).thenReturn(false);
+        var metrics = new NativeCallMetrics();
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory, NativeCallGate.unbounded(), metrics);
+
+        bridge.credDelete("first", CredentialType.GENERIC.getValue(), 0);
+
+        assertEquals(1L, metrics.getErrorCounts().get(NativeCallMetrics.OTHER_ERROR));
+    }
+
+    @Test
+    void credDeleteAll_recordsLatencyErrorsAndLockWait() {
+        when(advapi32.CredDeleteW(any(Pointer.class), eq(CredentialType.GENERIC.getValue()), eq(0)))
+            .thenReturn(true)
+            .thenThrow(new LastErrorException(ExpectedErrorCode.NOT_FOUND.getValue()))
+            .thenThrow(new LastErrorException(5));
+        var metrics = new NativeCallMetrics();
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory, NativeCallGate.unbounded(), metrics);
+
+        bridge.credDeleteAll(List.of(
+            CredentialKey.of("first", CredentialType.GENERIC),
+            CredentialKey.of("second", CredentialType.GENERIC),
+            CredentialKey.of("third", CredentialType.GENERIC)));
+
+        assertEquals(3, metrics.getLatency().get("CredDeleteW").getCount());
+        assertEquals(1, metrics.getLockWait().getCount());
+        assertEquals(1L, metrics.getErrorCounts().get(ExpectedErrorCode.NOT_FOUND.name()));
+        assertEquals(1L, metrics.getErrorCounts().get(NativeCallMetrics.OTHER_ERROR));
+    }
+
+    @Test
+    void credWriteAll_recordsBlobSize() {
+        var first = credential("first");
+        first.credentialBlobSize = 12;
+        when(advapi32.CredWriteW(first, PreserveType.NONE.getValue())).thenReturn(true);
+        var metrics = new NativeCallMetrics();
+        var bridge = new Win32NativeInteropBridge(advapi32, criticalCredentialHandleFactory, NativeCallGate.unbounded(), metrics);
+
+        bridge.credWriteAll(List.of(first), PreserveType.NONE);
+
+        assertEquals(1, metrics.getBlobSize().getCount());
+        assertEquals(12, metrics.getBlobSize().getMaximum());
+    }
+
+    private static Credential.ByReference credential(String target) {
+        var credential = new Credential.ByReference();
+        credential.targetName = new WString(target);
+        credential.type = CredentialType.GENERIC.getValue();
+        return credential;
+    }
 }